@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2013, 2015-2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2013, 2015-2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,8 @@ import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
 import org.eclipse.emf.cdo.common.revision.CDORevisionData;
 import org.eclipse.emf.cdo.internal.common.bundle.OM;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDExternalImpl;
+import org.eclipse.emf.cdo.internal.common.id.CDOIDLongMapImpl;
+import org.eclipse.emf.cdo.internal.common.id.CDOIDLongSetImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectLongImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectLongWithClassifierImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectStringImpl;
@@ -44,8 +46,10 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Various static methods that may help with CDO {@link CDOID IDs}.
@@ -62,11 +66,16 @@ public final class CDOIDUtil
   }
 
   /**
+   * Creates and returns a new map with {@link CDOID} keys.
+   * <p>
+   * As long as all keys are long {@link CDOID.ObjectType#LONG object IDs} they're stored as primitive <code>long</code>
+   * values, which needs much less memory than a {@link HashMap} and avoids the indirection through map entries.
+   *
    * @since 4.2
    */
   public static <V> Map<CDOID, V> createMap()
   {
-    return new HashMap<>();
+    return new CDOIDLongMapImpl<>();
   }
 
   /**
@@ -74,7 +83,28 @@ public final class CDOIDUtil
    */
   public static <V> Map<CDOID, V> createMap(Map<? extends CDOID, ? extends V> map)
   {
-    return new HashMap<>(map);
+    return new CDOIDLongMapImpl<>(map);
+  }
+
+  /**
+   * Creates and returns a new set of {@link CDOID IDs}.
+   * <p>
+   * As long as all elements are long {@link CDOID.ObjectType#LONG object IDs} they're stored as primitive
+   * <code>long</code> values.
+   *
+   * @since 4.23
+   */
+  public static Set<CDOID> createSet()
+  {
+    return new CDOIDLongSetImpl();
+  }
+
+  /**
+   * @since 4.23
+   */
+  public static Set<CDOID> createSet(Collection<? extends CDOID> ids)
+  {
+    return new CDOIDLongSetImpl(ids);
   }
 
   /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2012, 2015, 2016, 2019, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011, 2012, 2015, 2016, 2019, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -78,6 +78,23 @@ public final class CDOBlob extends CDOLob<InputStream>
     return getStore().getBinary(this);
   }
 
+  /**
+   * Returns a stream of at most <code>length</code> bytes of this blob, starting at the given <code>offset</code>.
+   * <p>
+   * If this blob is not yet cached locally only the requested range is loaded from the repository.
+   *
+   * @since 4.23
+   */
+  public InputStream getContents(long offset, long length) throws IOException
+  {
+    if (offset < 0L || length < 0L)
+    {
+      throw new IllegalArgumentException("Invalid range: offset=" + offset + ", length=" + length);
+    }
+
+    return getStore().getBinary(this, offset, length);
+  }
+
   /**
    * @since 4.13
    */
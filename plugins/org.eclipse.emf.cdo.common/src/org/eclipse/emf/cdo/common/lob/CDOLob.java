@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2012, 2015, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011, 2012, 2015, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,6 +65,9 @@ public abstract class CDOLob<IO> extends CDOLobInfo
   }
 
   /**
+   * Returns the file of this large object in its {@link #getStore() store}, or <code>null</code> if the store does not
+   * keep the contents of this large object in a single file.
+   *
    * @since 4.19
    */
   public abstract File getStoreFile();
@@ -82,7 +85,13 @@ public abstract class CDOLob<IO> extends CDOLobInfo
   public final long getByteCount()
   {
     File file = getStoreFile();
-    if (file == null || !file.isFile())
+    if (file == null)
+    {
+      // The store keeps the binary contents in chunks.
+      return getSize();
+    }
+
+    if (!file.isFile())
     {
       throw new IllegalStateException("Lob file does not exist: " + file);
     }
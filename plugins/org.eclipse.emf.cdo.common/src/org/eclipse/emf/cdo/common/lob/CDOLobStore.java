@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2012, 2015, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011, 2012, 2015, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,13 @@
  */
 package org.eclipse.emf.cdo.common.lob;
 
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.io.LimitedInputStream;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 
 /**
@@ -23,12 +27,58 @@ import java.io.Reader;
  */
 public interface CDOLobStore
 {
+  /**
+   * Returns the file of the binary large object with the given ID, or <code>null</code> if this store does not keep the
+   * contents of the large object in a single file, e.g., because it has stored them in chunks.
+   */
   public File getBinaryFile(byte[] id);
 
   public InputStream getBinary(CDOLobInfo info) throws IOException;
 
   public CDOLobInfo putBinary(InputStream contents) throws IOException;
 
+  /**
+   * Returns a stream of the given number of bytes of the binary large object, starting at the given offset.
+   * The returned stream ends early if the large object ends before <code>offset + length</code>.
+   * <p>
+   * The default implementation skips the first bytes of {@link #getBinary(CDOLobInfo) the whole content}.
+   *
+   * @since 4.23
+   */
+  public default InputStream getBinary(CDOLobInfo info, long offset, long length) throws IOException
+  {
+    InputStream in = getBinary(info);
+
+    try
+    {
+      IOUtil.skipFully(in, offset);
+    }
+    catch (IOException ex)
+    {
+      in.close();
+      throw ex;
+    }
+
+    return new LimitedInputStream(in, Math.max(0L, Math.min(length, info.getSize() - offset)));
+  }
+
+  /**
+   * Writes the whole content of the binary large object to the given stream.
+   * <p>
+   * The default implementation copies the {@link #getBinary(CDOLobInfo) content stream}. Stores that keep the content
+   * in files can {@link IOUtil#transferFile(File, long, long, OutputStream) transfer} the files instead, which avoids
+   * copying the content through the Java heap if the stream is a socket stream that supports zero-copy.
+   *
+   * @since 4.23
+   */
+  public default void writeBinary(CDOLobInfo info, OutputStream out) throws IOException
+  {
+    try (InputStream in = getBinary(info))
+    {
+      IOUtil.copyBinary(in, out, info.getSize());
+    }
+  }
+
   public File getCharacterFile(byte[] id);
 
   public Reader getCharacter(CDOLobInfo info) throws IOException;
@@ -60,6 +110,24 @@ public interface CDOLobStore
       return getDelegate().putBinary(contents);
     }
 
+    /**
+     * @since 4.23
+     */
+    @Override
+    public InputStream getBinary(CDOLobInfo info, long offset, long length) throws IOException
+    {
+      return getDelegate().getBinary(info, offset, length);
+    }
+
+    /**
+     * @since 4.23
+     */
+    @Override
+    public void writeBinary(CDOLobInfo info, OutputStream out) throws IOException
+    {
+      getDelegate().writeBinary(info, out);
+    }
+
     @Override
     public File getCharacterFile(byte[] id)
     {
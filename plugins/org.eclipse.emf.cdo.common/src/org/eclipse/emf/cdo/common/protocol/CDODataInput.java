@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2017, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2017, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -103,6 +103,11 @@ public interface CDODataInput extends ExtendedDataInput
 
   public CDOCommitInfo readCDOCommitInfo() throws IOException;
 
+  /**
+   * @since 4.23
+   */
+  public CDOCommitInfo readCDOCommitInfoBlock() throws IOException;
+
   // /////////////////////////////////////////////////////////////////////////////////////////////////
 
   public CDOID readCDOID() throws IOException;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2016, 2017, 2020-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2016, 2017, 2020-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -125,6 +125,19 @@ public interface CDODataOutput extends ExtendedDataOutput
 
   public void writeCDOCommitInfo(CDOCommitInfo commitInfo) throws IOException;
 
+  /**
+   * Returns the serialized form of the given commit info. The result does not depend on the state of this output, so it
+   * can be {@link #writeCDOCommitInfoBlock(byte[]) written} to all outputs with the same context.
+   *
+   * @since 4.23
+   */
+  public byte[] createCDOCommitInfoBlock(CDOCommitInfo commitInfo) throws IOException;
+
+  /**
+   * @since 4.23
+   */
+  public void writeCDOCommitInfoBlock(byte[] block) throws IOException;
+
   // /////////////////////////////////////////////////////////////////////////////////////////////////
 
   public void writeCDOID(CDOID id) throws IOException;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009, 2011-2014, 2016, 2017, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009, 2011-2014, 2016, 2017, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -74,6 +74,10 @@ public interface CDOProtocol extends CDOProtocolConstants
 
     private CDOLockChangeInfo lockChangeInfo;
 
+    private byte[] commitInfoBlock;
+
+    private Map<Object, byte[]> sharedCommitInfoBlocks;
+
     public CommitNotificationInfo()
     {
     }
@@ -81,7 +85,7 @@ public interface CDOProtocol extends CDOProtocolConstants
     public CommitNotificationInfo(CDODataInput in) throws IOException
     {
       senderID = in.readXInt();
-      commitInfo = in.readCDOCommitInfo();
+      commitInfo = in.readCDOCommitInfoBlock();
       clearResourcePathCache = in.readBoolean();
       modifiedByServer = in.readBoolean();
       securityImpact = in.readByte();
@@ -109,7 +113,7 @@ public interface CDOProtocol extends CDOProtocolConstants
     public void write(CDODataOutput out) throws IOException
     {
       out.writeXInt(senderID);
-      out.writeCDOCommitInfo(commitInfo);
+      out.writeCDOCommitInfoBlock(commitInfoBlock != null ? commitInfoBlock : out.createCDOCommitInfoBlock(commitInfo));
       out.writeBoolean(clearResourcePathCache);
       out.writeBoolean(modifiedByServer);
       out.writeByte(securityImpact); // Must come after writeCDOCommitInfo()
@@ -252,6 +256,45 @@ public interface CDOProtocol extends CDOProtocolConstants
     {
       this.lockChangeInfo = lockChangeInfo;
     }
+
+    /**
+     * Returns the serialized form of the {@link #getCommitInfo() commit info} if it has been created before, or
+     * <code>null</code> if the commit info is serialized when this notification is written.
+     *
+     * @since 4.23
+     */
+    public byte[] getCommitInfoBlock()
+    {
+      return commitInfoBlock;
+    }
+
+    /**
+     * @since 4.23
+     * @see CDODataOutput#createCDOCommitInfoBlock(CDOCommitInfo)
+     */
+    public void setCommitInfoBlock(byte[] commitInfoBlock)
+    {
+      this.commitInfoBlock = commitInfoBlock;
+    }
+
+    /**
+     * Returns a thread-safe map in which the notifications of the same commit to several sessions share the serialized
+     * forms of their commit infos, or <code>null</code> if nothing is shared.
+     *
+     * @since 4.23
+     */
+    public Map<Object, byte[]> getSharedCommitInfoBlocks()
+    {
+      return sharedCommitInfoBlocks;
+    }
+
+    /**
+     * @since 4.23
+     */
+    public void setSharedCommitInfoBlocks(Map<Object, byte[]> sharedCommitInfoBlocks)
+    {
+      this.sharedCommitInfoBlocks = sharedCommitInfoBlocks;
+    }
   }
 
   /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2018, 2020-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2018, 2020-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -348,6 +348,16 @@ public interface CDOProtocolConstants
    */
   public static final short SIGNAL_LOCK_OWNER_REMAPPED_NOTIFICATION = 70;
 
+  /**
+   * @since 4.23
+   */
+  public static final short SIGNAL_LOAD_LOB_RANGE = 71;
+
+  /**
+   * @since 4.23
+   */
+  public static final short SIGNAL_QUERY_CREDIT = 72;
+
   /**
    * @since 4.20
    */
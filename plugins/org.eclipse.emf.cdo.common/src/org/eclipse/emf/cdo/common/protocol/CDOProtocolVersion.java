@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2021-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,7 +19,13 @@ class CDOProtocolVersion
 
   static
   {
-    VALUE = 51; // Support login peeking
+    VALUE = 54; // SIGNAL_QUERY_CREDIT
+
+    // VALUE = 53; // SIGNAL_LOAD_LOB_RANGE
+
+    // VALUE = 52; // Serialize commit infos of commit notifications once for all sessions
+
+    // VALUE = 51; // Support login peeking
 
     // VALUE = 50; // Support optional lock state prefetching while opening a CDOUnit #20
     // VALUE = 49; // Add security support to CDO-LM #5
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2016, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2016, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -77,6 +77,18 @@ public interface CDOQueryInfo
    */
   public int getMaxResults();
 
+  /**
+   * Returns the maximum number of results that the repository sends ahead of their consumption by the client, or
+   * {@link #UNLIMITED_RESULTS} if the repository sends the results as fast as the query handler produces them.
+   * <p>
+   * A paged query result is sent under the control of credits that the client grants while it consumes the results.
+   * On the server at most one page of not yet sent results is buffered; the query handler is blocked until the client
+   * requests more results.
+   *
+   * @since 4.23
+   */
+  public int getPageSize();
+
   /**
    * Returns <code>true</code> if the view of this query had legacy mode enabled at the time this query was created,
    * <code>false</code> otherwise.
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015-2017, 2019, 2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015-2017, 2019, 2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,8 @@ public class CDOQueryInfoImpl implements CDOQueryInfo
 
   protected int maxResults = UNLIMITED_RESULTS;
 
+  protected int pageSize = UNLIMITED_RESULTS;
+
   protected CDOChangeSetData changeSetData;
 
   public CDOQueryInfoImpl(String queryLanguage, String queryString, Object context)
@@ -66,6 +68,7 @@ public class CDOQueryInfoImpl implements CDOQueryInfo
     }
 
     maxResults = in.readXInt();
+    pageSize = in.readXInt();
 
     if (in.readBoolean())
     {
@@ -99,6 +102,7 @@ public class CDOQueryInfoImpl implements CDOQueryInfo
     out.writeString(queryString);
     out.writeCDORevisionOrPrimitiveOrClassifier(context);
     out.writeXInt(maxResults);
+    out.writeXInt(pageSize);
 
     if (changeSetData != null)
     {
@@ -173,6 +177,18 @@ public class CDOQueryInfoImpl implements CDOQueryInfo
     return this;
   }
 
+  @Override
+  public int getPageSize()
+  {
+    return pageSize;
+  }
+
+  public CDOQueryInfoImpl setPageSize(int pageSize)
+  {
+    this.pageSize = pageSize;
+    return this;
+  }
+
   @Override
   @Deprecated
   public boolean isLegacyModeEnabled()
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.id;
+
+/**
+ * Hashing helpers for the open-addressing tables of {@link CDOIDLongMapImpl} and {@link CDOIDLongSetImpl}.
+ *
+ * @author Eike Stepper
+ */
+final class CDOIDLongHashing
+{
+  /**
+   * The marker for free slots. Zero is not a valid value of a {@link CDOIDObjectLongImpl long ID}.
+   */
+  public static final long FREE = 0L;
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private CDOIDLongHashing()
+  {
+  }
+
+  public static int index(long key, int mask)
+  {
+    // The finalization step of MurmurHash3 spreads sequential IDs over the whole table.
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    return (int)h & mask;
+  }
+
+  /**
+   * Returns the power-of-two capacity that can hold the given number of entries without rehashing.
+   */
+  public static int capacityFor(int expectedSize)
+  {
+    long capacity = Math.max(4L, (long)Math.ceil(expectedSize / 0.75));
+    if (capacity >= MAX_CAPACITY)
+    {
+      return MAX_CAPACITY;
+    }
+
+    return Integer.highestOneBit((int)capacity - 1) << 1;
+  }
+
+  public static int threshold(int capacity)
+  {
+    if (capacity == MAX_CAPACITY)
+    {
+      return capacity - 1;
+    }
+
+    return capacity - (capacity >>> 2);
+  }
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.id;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link Map map} with {@link CDOID} keys that stores the values of {@link CDOIDObjectLongImpl long IDs} as primitive
+ * <code>long</code> keys in an open-addressing hash table.
+ * <p>
+ * As soon as a key that is not a long ID is put into the map, all entries are moved into a {@link HashMap} to which all
+ * further operations are delegated. This way the map can be used wherever the key types aren't known in advance.
+ * <p>
+ * The key instances are not stored in the map. They're recreated through {@link CDOIDObjectLongImpl#create(long)}
+ * when the keys are iterated, which yields the identical instances as long as they're referenced elsewhere.
+ *
+ * @author Eike Stepper
+ */
+public final class CDOIDLongMapImpl<V> extends AbstractMap<CDOID, V>
+{
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] keys;
+
+  private Object[] values;
+
+  private int size;
+
+  private int threshold;
+
+  private Map<CDOID, V> fallback;
+
+  private int modCount;
+
+  private Set<Map.Entry<CDOID, V>> entrySet;
+
+  public CDOIDLongMapImpl()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public CDOIDLongMapImpl(int expectedSize)
+  {
+    allocate(CDOIDLongHashing.capacityFor(expectedSize));
+  }
+
+  public CDOIDLongMapImpl(Map<? extends CDOID, ? extends V> map)
+  {
+    this(map.size());
+    putAll(map);
+  }
+
+  /**
+   * Returns <code>true</code> if all keys of this map are long IDs and stored as primitive values, <code>false</code>
+   * otherwise.
+   */
+  public boolean isPrimitive()
+  {
+    return fallback == null;
+  }
+
+  @Override
+  public int size()
+  {
+    if (fallback != null)
+    {
+      return fallback.size();
+    }
+
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key)
+  {
+    if (fallback != null)
+    {
+      return fallback.containsKey(key);
+    }
+
+    if (key instanceof CDOIDObjectLongImpl)
+    {
+      return indexOf(((CDOIDObjectLongImpl)key).getLongValue()) >= 0;
+    }
+
+    return false;
+  }
+
+  @Override
+  public boolean containsValue(Object value)
+  {
+    if (fallback != null)
+    {
+      return fallback.containsValue(value);
+    }
+
+    for (int i = 0; i < keys.length; i++)
+    {
+      if (keys[i] != CDOIDLongHashing.FREE)
+      {
+        Object v = values[i];
+        if (v == value || v != null && v.equals(value))
+        {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public V get(Object key)
+  {
+    if (fallback != null)
+    {
+      return fallback.get(key);
+    }
+
+    if (key instanceof CDOIDObjectLongImpl)
+    {
+      int index = indexOf(((CDOIDObjectLongImpl)key).getLongValue());
+      if (index >= 0)
+      {
+        return valueAt(index);
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public V put(CDOID key, V value)
+  {
+    if (fallback == null)
+    {
+      if (key instanceof CDOIDObjectLongImpl)
+      {
+        return putLong(((CDOIDObjectLongImpl)key).getLongValue(), value);
+      }
+
+      inflate();
+    }
+
+    return fallback.put(key, value);
+  }
+
+  @Override
+  public V remove(Object key)
+  {
+    if (fallback != null)
+    {
+      return fallback.remove(key);
+    }
+
+    if (key instanceof CDOIDObjectLongImpl)
+    {
+      int index = indexOf(((CDOIDObjectLongImpl)key).getLongValue());
+      if (index >= 0)
+      {
+        V oldValue = valueAt(index);
+        removeAt(index);
+        return oldValue;
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public void clear()
+  {
+    if (fallback != null)
+    {
+      fallback = null;
+      allocate(CDOIDLongHashing.capacityFor(DEFAULT_CAPACITY));
+    }
+    else if (size != 0)
+    {
+      for (int i = 0; i < keys.length; i++)
+      {
+        keys[i] = CDOIDLongHashing.FREE;
+        values[i] = null;
+      }
+
+      size = 0;
+    }
+
+    ++modCount;
+  }
+
+  @Override
+  public Set<Map.Entry<CDOID, V>> entrySet()
+  {
+    if (entrySet == null)
+    {
+      entrySet = new EntrySet();
+    }
+
+    return entrySet;
+  }
+
+  private V putLong(long key, V value)
+  {
+    int index = CDOIDLongHashing.index(key, keys.length - 1);
+    for (;;)
+    {
+      long k = keys[index];
+      if (k == CDOIDLongHashing.FREE)
+      {
+        break;
+      }
+
+      if (k == key)
+      {
+        V oldValue = valueAt(index);
+        values[index] = value;
+        return oldValue;
+      }
+
+      index = index + 1 & keys.length - 1;
+    }
+
+    keys[index] = key;
+    values[index] = value;
+    ++modCount;
+
+    if (++size > threshold)
+    {
+      rehash(keys.length << 1);
+    }
+
+    return null;
+  }
+
+  private int indexOf(long key)
+  {
+    int mask = keys.length - 1;
+    int index = CDOIDLongHashing.index(key, mask);
+
+    for (;;)
+    {
+      long k = keys[index];
+      if (k == key)
+      {
+        return index;
+      }
+
+      if (k == CDOIDLongHashing.FREE)
+      {
+        return -1;
+      }
+
+      index = index + 1 & mask;
+    }
+  }
+
+  /**
+   * Removes the entry at the given index and shifts the following entries of the probe sequence back, so that no
+   * tombstones are needed.
+   *
+   * @return the key of an entry that has been moved from the start of the table to its end,
+   *         or {@link CDOIDLongHashing#FREE}.
+   */
+  private long removeAt(int index)
+  {
+    int mask = keys.length - 1;
+    long wrappedKey = CDOIDLongHashing.FREE;
+
+    for (;;)
+    {
+      int last = index;
+      index = index + 1 & mask;
+
+      long k;
+      for (;;)
+      {
+        k = keys[index];
+        if (k == CDOIDLongHashing.FREE)
+        {
+          keys[last] = CDOIDLongHashing.FREE;
+          values[last] = null;
+          --size;
+          ++modCount;
+          return wrappedKey;
+        }
+
+        int home = CDOIDLongHashing.index(k, mask);
+        if (last <= index ? last >= home || home > index : last >= home && home > index)
+        {
+          break;
+        }
+
+        index = index + 1 & mask;
+      }
+
+      if (index < last)
+      {
+        // The entry wraps around from the start of the table to its end.
+        wrappedKey = k;
+      }
+
+      keys[last] = k;
+      values[last] = values[index];
+    }
+  }
+
+  private void rehash(int capacity)
+  {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++)
+    {
+      long k = oldKeys[i];
+      if (k != CDOIDLongHashing.FREE)
+      {
+        int index = CDOIDLongHashing.index(k, mask);
+        while (keys[index] != CDOIDLongHashing.FREE)
+        {
+          index = index + 1 & mask;
+        }
+
+        keys[index] = k;
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity)
+  {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    threshold = CDOIDLongHashing.threshold(capacity);
+  }
+
+  private void inflate()
+  {
+    Map<CDOID, V> map = new HashMap<>(Math.max(DEFAULT_CAPACITY, size * 2));
+    for (int i = 0; i < keys.length; i++)
+    {
+      long k = keys[i];
+      if (k != CDOIDLongHashing.FREE)
+      {
+        map.put(CDOIDObjectLongImpl.create(k), valueAt(i));
+      }
+    }
+
+    keys = null;
+    values = null;
+    size = 0;
+    fallback = map;
+    ++modCount;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int index)
+  {
+    return (V)values[index];
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class EntrySet extends AbstractSet<Map.Entry<CDOID, V>>
+  {
+    @Override
+    public int size()
+    {
+      return CDOIDLongMapImpl.this.size();
+    }
+
+    @Override
+    public void clear()
+    {
+      CDOIDLongMapImpl.this.clear();
+    }
+
+    @Override
+    public Iterator<Map.Entry<CDOID, V>> iterator()
+    {
+      if (fallback != null)
+      {
+        return fallback.entrySet().iterator();
+      }
+
+      return new EntryIterator();
+    }
+  }
+
+  /**
+   * Iterates the table from its end to its start, so that entries that are shifted back by {@link Iterator#remove()}
+   * have already been visited, unless they wrap around; those are remembered and visited at the end.
+   *
+   * @author Eike Stepper
+   */
+  private final class EntryIterator implements Iterator<Map.Entry<CDOID, V>>
+  {
+    private final long[] iteratedKeys = keys;
+
+    private int index = keys.length;
+
+    private int nextIndex = -1;
+
+    private List<Entry> wrapped;
+
+    private int wrappedIndex;
+
+    private Map.Entry<CDOID, V> lastEntry;
+
+    private int lastIndex = -1;
+
+    private int expectedModCount = modCount;
+
+    public EntryIterator()
+    {
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      checkModCount();
+
+      if (nextIndex >= 0)
+      {
+        return true;
+      }
+
+      while (--index >= 0)
+      {
+        if (iteratedKeys[index] != CDOIDLongHashing.FREE)
+        {
+          nextIndex = index;
+          return true;
+        }
+      }
+
+      index = 0;
+      return wrapped != null && wrappedIndex < wrapped.size();
+    }
+
+    @Override
+    public Map.Entry<CDOID, V> next()
+    {
+      if (!hasNext())
+      {
+        throw new NoSuchElementException();
+      }
+
+      if (nextIndex >= 0)
+      {
+        lastIndex = nextIndex;
+        nextIndex = -1;
+        lastEntry = new Entry(iteratedKeys[lastIndex], lastIndex);
+      }
+      else
+      {
+        lastIndex = -1;
+        lastEntry = wrapped.get(wrappedIndex++);
+      }
+
+      return lastEntry;
+    }
+
+    @Override
+    public void remove()
+    {
+      if (lastEntry == null)
+      {
+        throw new IllegalStateException();
+      }
+
+      checkModCount();
+
+      if (lastIndex >= 0)
+      {
+        long wrappedKey = removeAt(lastIndex);
+        if (wrappedKey != CDOIDLongHashing.FREE)
+        {
+          if (wrapped == null)
+          {
+            wrapped = new ArrayList<>(2);
+          }
+
+          wrapped.add(new Entry(wrappedKey, -1));
+        }
+      }
+      else
+      {
+        CDOIDLongMapImpl.this.remove(lastEntry.getKey());
+      }
+
+      lastEntry = null;
+      expectedModCount = modCount;
+    }
+
+    private void checkModCount()
+    {
+      if (modCount != expectedModCount || keys != iteratedKeys)
+      {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class Entry implements Map.Entry<CDOID, V>
+  {
+    private final long key;
+
+    private final int index;
+
+    public Entry(long key, int index)
+    {
+      this.key = key;
+      this.index = index;
+    }
+
+    @Override
+    public CDOID getKey()
+    {
+      return CDOIDObjectLongImpl.create(key);
+    }
+
+    @Override
+    public V getValue()
+    {
+      return isCurrent() ? valueAt(index) : CDOIDLongMapImpl.this.get(getKey());
+    }
+
+    @Override
+    public V setValue(V value)
+    {
+      if (isCurrent())
+      {
+        V oldValue = valueAt(index);
+        values[index] = value;
+        return oldValue;
+      }
+
+      return CDOIDLongMapImpl.this.put(getKey(), value);
+    }
+
+    private boolean isCurrent()
+    {
+      long[] keys = CDOIDLongMapImpl.this.keys;
+      return index >= 0 && keys != null && index < keys.length && keys[index] == key;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (obj instanceof Map.Entry)
+      {
+        Map.Entry<?, ?> that = (Map.Entry<?, ?>)obj;
+        Object value = getValue();
+        return getKey().equals(that.getKey()) && (value == null ? that.getValue() == null : value.equals(that.getValue()));
+      }
+
+      return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString()
+    {
+      return getKey() + "=" + getValue(); //$NON-NLS-1$
+    }
+  }
+}
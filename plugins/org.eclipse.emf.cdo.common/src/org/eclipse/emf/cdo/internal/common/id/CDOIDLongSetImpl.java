@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.id;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A {@link Set set} of {@link CDOID IDs} that is backed by a {@link CDOIDLongMapImpl}, the same way a
+ * {@link java.util.HashSet HashSet} is backed by a {@link java.util.HashMap HashMap}.
+ *
+ * @author Eike Stepper
+ */
+public final class CDOIDLongSetImpl extends AbstractSet<CDOID>
+{
+  private static final Object PRESENT = new Object();
+
+  private final CDOIDLongMapImpl<Object> map;
+
+  public CDOIDLongSetImpl()
+  {
+    map = new CDOIDLongMapImpl<>();
+  }
+
+  public CDOIDLongSetImpl(int expectedSize)
+  {
+    map = new CDOIDLongMapImpl<>(expectedSize);
+  }
+
+  public CDOIDLongSetImpl(Collection<? extends CDOID> ids)
+  {
+    this(ids.size());
+    addAll(ids);
+  }
+
+  /**
+   * Returns <code>true</code> if all elements of this set are long IDs and stored as primitive values, <code>false</code>
+   * otherwise.
+   */
+  public boolean isPrimitive()
+  {
+    return map.isPrimitive();
+  }
+
+  @Override
+  public int size()
+  {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o)
+  {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public boolean add(CDOID id)
+  {
+    return map.put(id, PRESENT) == null;
+  }
+
+  @Override
+  public boolean remove(Object o)
+  {
+    return map.remove(o) == PRESENT;
+  }
+
+  @Override
+  public void clear()
+  {
+    map.clear();
+  }
+
+  @Override
+  public Iterator<CDOID> iterator()
+  {
+    return map.keySet().iterator();
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011-2015, 2019-2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011-2015, 2019-2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,11 +30,10 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.lang.ref.Reference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -65,10 +64,9 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
     synchronized (revisionLists)
     {
       RevisionList list = revisionLists.get(id);
-      if (list != null && !list.isEmpty())
+      if (list != null)
       {
-        Reference<InternalCDORevision> ref = list.getFirst();
-        InternalCDORevision revision = ref.get();
+        InternalCDORevision revision = list.getLatestRevision();
         if (revision != null)
         {
           return revision.getEClass();
@@ -330,24 +328,67 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
   }
 
   /**
+   * The cached revisions of one object in one branch.
+   * <p>
+   * The references to the revisions are kept in an array that is sorted by version. Within a branch the versions of an
+   * object are created in time stamp order, so the same order is used to find revisions by time stamp. The time stamps
+   * and the versions are mirrored in primitive arrays, so that binary searches don't need to dereference the
+   * revisions.
+   *
    * @author Eike Stepper
    */
-  protected static final class RevisionList extends LinkedList<Reference<InternalCDORevision>>
+  protected static final class RevisionList
   {
-    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 2;
+
+    @SuppressWarnings("unchecked")
+    private Reference<InternalCDORevision>[] references = new Reference[INITIAL_CAPACITY];
+
+    private long[] timeStamps = new long[INITIAL_CAPACITY];
+
+    private int[] versions = new int[INITIAL_CAPACITY];
+
+    private int size;
 
     public RevisionList()
     {
     }
 
+    public int size()
+    {
+      return size;
+    }
+
+    public boolean isEmpty()
+    {
+      return size == 0;
+    }
+
+    /**
+     * Returns the latest revision that is still strongly or softly reachable, or <code>null</code>.
+     */
+    public InternalCDORevision getLatestRevision()
+    {
+      for (int i = size - 1; i >= 0; --i)
+      {
+        InternalCDORevision revision = references[i].get();
+        if (revision != null)
+        {
+          return revision;
+        }
+      }
+
+      return null;
+    }
+
     public InternalCDORevision getRevision(long timeStamp)
     {
       if (timeStamp == CDORevision.UNSPECIFIED_DATE)
       {
-        Reference<InternalCDORevision> ref = isEmpty() ? null : getFirst();
-        if (ref != null)
+        if (size != 0)
         {
-          InternalCDORevision revision = ref.get();
+          int index = size - 1;
+          InternalCDORevision revision = references[index].get();
           if (revision != null)
           {
             if (!revision.isHistorical())
@@ -357,34 +398,28 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
           }
           else
           {
-            removeFirst();
+            removeAt(index);
           }
         }
 
         return null;
       }
 
-      for (Iterator<Reference<InternalCDORevision>> it = iterator(); it.hasNext();)
+      int index = indexOfTimeStamp(timeStamp);
+      if (index >= 0)
       {
-        Reference<InternalCDORevision> ref = it.next();
-        InternalCDORevision revision = ref.get();
+        InternalCDORevision revision = references[index].get();
         if (revision != null)
         {
-          long created = revision.getTimeStamp();
-          if (created <= timeStamp)
+          long revised = revision.getRevised();
+          if (timeStamp <= revised || revised == CDORevision.UNSPECIFIED_DATE)
           {
-            long revised = revision.getRevised();
-            if (timeStamp <= revised || revised == CDORevision.UNSPECIFIED_DATE)
-            {
-              return revision;
-            }
-
-            break;
+            return revision;
           }
         }
         else
         {
-          it.remove();
+          removeAt(index);
         }
       }
 
@@ -393,26 +428,16 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
 
     public InternalCDORevision getRevisionByVersion(int version)
     {
-      for (Iterator<Reference<InternalCDORevision>> it = iterator(); it.hasNext();)
+      int index = Arrays.binarySearch(versions, 0, size, version);
+      if (index >= 0)
       {
-        Reference<InternalCDORevision> ref = it.next();
-        InternalCDORevision revision = ref.get();
+        InternalCDORevision revision = references[index].get();
         if (revision != null)
         {
-          int v = revision.getVersion();
-          if (v == version)
-          {
-            return revision;
-          }
-          else if (v < version)
-          {
-            break;
-          }
-        }
-        else
-        {
-          it.remove();
+          return revision;
         }
+
+        removeAt(index);
       }
 
       return null;
@@ -420,9 +445,9 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
 
     public void forEachRevision(Consumer<CDORevision> consumer)
     {
-      for (Reference<InternalCDORevision> ref : this)
+      for (int i = size - 1; i >= 0; --i)
       {
-        InternalCDORevision revision = ref.get();
+        InternalCDORevision revision = references[i].get();
         if (revision != null)
         {
           consumer.accept(revision);
@@ -432,57 +457,36 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
 
     public CDORevision addRevision(CDORevision revision, Supplier<Reference<InternalCDORevision>> referenceCreator)
     {
-      int version = revision.getVersion();
-      for (ListIterator<Reference<InternalCDORevision>> it = listIterator(); it.hasNext();)
+      int index = Arrays.binarySearch(versions, 0, size, revision.getVersion());
+      if (index >= 0)
       {
-        Reference<InternalCDORevision> ref = it.next();
-        InternalCDORevision foundRevision = ref.get();
+        InternalCDORevision foundRevision = references[index].get();
         if (foundRevision != null)
         {
-          CDORevisionKey key = (CDORevisionKey)ref;
-          int v = key.getVersion();
-          if (v == version)
-          {
-            return foundRevision;
-          }
-
-          if (v < version)
-          {
-            it.previous();
-            it.add(referenceCreator.get());
-            return revision;
-          }
-        }
-        else
-        {
-          it.remove();
+          return foundRevision;
         }
+
+        // The cached revision has been garbage collected.
+        references[index] = referenceCreator.get();
+        timeStamps[index] = revision.getTimeStamp();
+        return revision;
       }
 
-      addLast(referenceCreator.get());
+      insertAt(-index - 1, referenceCreator.get(), revision);
       return revision;
     }
 
     public void removeRevision(int version)
     {
-      for (Iterator<Reference<InternalCDORevision>> it = iterator(); it.hasNext();)
+      int index = Arrays.binarySearch(versions, 0, size, version);
+      if (index >= 0)
       {
-        Reference<InternalCDORevision> ref = it.next();
-        CDORevisionKey key = (CDORevisionKey)ref;
-        int v = key.getVersion();
-        if (v == version)
-        {
-          it.remove();
-          if (TRACER.isEnabled())
-          {
-            TRACER.format("Removed version {0} from cache list of {1}", version, key.getID()); //$NON-NLS-1$
-          }
+        CDORevisionKey key = (CDORevisionKey)references[index];
+        removeAt(index);
 
-          break;
-        }
-        else if (v < version)
+        if (TRACER.isEnabled())
         {
-          break;
+          TRACER.format("Removed version {0} from cache list of {1}", version, key.getID()); //$NON-NLS-1$
         }
       }
     }
@@ -490,59 +494,100 @@ public class CDORevisionCacheAuditing extends AbstractCDORevisionCache
     @Override
     public String toString()
     {
-      StringBuffer buffer = new StringBuffer();
-      for (Iterator<Reference<InternalCDORevision>> it = iterator(); it.hasNext();)
+      StringBuilder builder = new StringBuilder("{");
+      for (int i = size - 1; i >= 0; --i)
       {
-        Reference<InternalCDORevision> ref = it.next();
-        InternalCDORevision revision = ref.get();
-        if (buffer.length() == 0)
-        {
-          buffer.append("{");
-        }
-        else
+        if (i != size - 1)
         {
-          buffer.append(", ");
+          builder.append(", ");
         }
 
-        buffer.append(revision);
+        builder.append(references[i].get());
       }
 
-      buffer.append("}");
-      return buffer.toString();
+      builder.append("}");
+      return builder.toString();
     }
 
     public void getAllRevisions(Map<CDOBranch, List<CDORevision>> result)
     {
-      for (Iterator<Reference<InternalCDORevision>> it = iterator(); it.hasNext();)
-      {
-        Reference<InternalCDORevision> ref = it.next();
-        InternalCDORevision revision = ref.get();
-        if (revision != null)
+      forEachRevision(revision -> {
+        CDOBranch branch = revision.getBranch();
+        List<CDORevision> resultList = result.get(branch);
+        if (resultList == null)
         {
-          CDOBranch branch = revision.getBranch();
-          List<CDORevision> resultList = result.get(branch);
-          if (resultList == null)
-          {
-            resultList = new ArrayList<>(1);
-            result.put(branch, resultList);
-          }
-
-          resultList.add(revision);
+          resultList = new ArrayList<>(1);
+          result.put(branch, resultList);
         }
-      }
+
+        resultList.add(revision);
+      });
     }
 
     public void getAllRevisions(List<InternalCDORevision> result)
     {
-      for (Iterator<Reference<InternalCDORevision>> it = iterator(); it.hasNext();)
+      forEachRevision(revision -> result.add((InternalCDORevision)revision));
+    }
+
+    /**
+     * Returns the index of the last revision that was created at or before the given time stamp, or <code>-1</code>.
+     */
+    private int indexOfTimeStamp(long timeStamp)
+    {
+      int low = 0;
+      int high = size - 1;
+
+      while (low <= high)
       {
-        Reference<InternalCDORevision> ref = it.next();
-        InternalCDORevision revision = ref.get();
-        if (revision != null)
+        int mid = low + high >>> 1;
+        if (timeStamps[mid] <= timeStamp)
+        {
+          low = mid + 1;
+        }
+        else
         {
-          result.add(revision);
+          high = mid - 1;
         }
       }
+
+      return high;
+    }
+
+    private void insertAt(int index, Reference<InternalCDORevision> reference, CDORevision revision)
+    {
+      if (size == references.length)
+      {
+        int capacity = size + (size >> 1) + 1;
+        references = Arrays.copyOf(references, capacity);
+        timeStamps = Arrays.copyOf(timeStamps, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+      }
+
+      int moved = size - index;
+      if (moved != 0)
+      {
+        System.arraycopy(references, index, references, index + 1, moved);
+        System.arraycopy(timeStamps, index, timeStamps, index + 1, moved);
+        System.arraycopy(versions, index, versions, index + 1, moved);
+      }
+
+      references[index] = reference;
+      timeStamps[index] = revision.getTimeStamp();
+      versions[index] = revision.getVersion();
+      ++size;
+    }
+
+    private void removeAt(int index)
+    {
+      int moved = size - index - 1;
+      if (moved != 0)
+      {
+        System.arraycopy(references, index + 1, references, index, moved);
+        System.arraycopy(timeStamps, index + 1, timeStamps, index, moved);
+        System.arraycopy(versions, index + 1, versions, index, moved);
+      }
+
+      references[--size] = null;
     }
   }
 }
@@ -0,0 +1,1376 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.revision;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDProvider;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.model.CDOPackageRegistry;
+import org.eclipse.emf.cdo.common.protocol.CDODataInput;
+import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
+import org.eclipse.emf.cdo.common.revision.CDOListFactory;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionFactory;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.common.util.CDOCommonUtil;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
+
+import org.eclipse.net4j.util.CheckUtil;
+import org.eclipse.net4j.util.WrappedException;
+import org.eclipse.net4j.util.event.IEvent;
+import org.eclipse.net4j.util.event.IListener;
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+
+import org.eclipse.emf.ecore.EClass;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A size-bounded {@link InternalCDORevisionCache revision cache} that keeps the serialized form of its revisions in
+ * direct (off-heap) memory.
+ * <p>
+ * Only the keys, the time ranges and the {@link EClass classes} of the cached revisions stay on the Java heap. The
+ * revisions themselves are written through a {@link CDODataOutput} into fixed-size slots of direct {@link ByteBuffer
+ * byte buffers} and are deserialized lazily when they're requested. As long as a deserialized revision is strongly
+ * reachable from elsewhere the same instance is returned again, and changes to its revised time stamp are written
+ * through to the cache. The revision instances that are passed into {@link #internRevision(CDORevision)} are never
+ * handed out by this cache, so that all revisions that can be revised through the cache are write-through copies.
+ * <p>
+ * The total number of slot bytes never exceeds the configured {@link #setMaxBytes(long) budget}. Eviction follows the
+ * W-TinyLFU policy: new revisions enter a small LRU window; revisions that fall out of the window compete with the
+ * least recently used revisions of the main space, and the one that is estimated to be accessed less frequently is
+ * evicted. The main space is a segmented LRU with a probation and a protected segment.
+ * <p>
+ * {@link CacheAdditionEvent Addition} and {@link CacheEvictionEvent eviction} events are fired as usual; hits, misses,
+ * evictions, rejections and used bytes are available as counters.
+ *
+ * @author Eike Stepper
+ */
+public class CDORevisionCacheOffHeap extends AbstractCDORevisionCache
+{
+  public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+  public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+  /**
+   * The heap cost that is accounted for synthetic revisions, which are not serialized.
+   */
+  private static final int SYNTHETIC_BYTES = 64;
+
+  private static final int WINDOW_PERCENT = 1;
+
+  private static final int PROTECTED_PERCENT = 80;
+
+  private static final int AVERAGE_REVISION_BYTES = 512;
+
+  private final Map<CDOID, Entry[]> entries = CDOIDUtil.createMap();
+
+  private final EntryQueue window = new EntryQueue(EntryQueue.WINDOW);
+
+  private final EntryQueue probation = new EntryQueue(EntryQueue.PROBATION);
+
+  private final EntryQueue protectedQueue = new EntryQueue(EntryQueue.PROTECTED);
+
+  private final CDORevisionFactory revisionFactory = new CDORevisionFactory()
+  {
+    @Override
+    public InternalCDORevision createRevision(EClass eClass)
+    {
+      return new OffHeapRevision(eClass);
+    }
+  };
+
+  private CDOPackageRegistry packageRegistry;
+
+  private long maxBytes = DEFAULT_MAX_BYTES;
+
+  private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+  private long windowMaxBytes;
+
+  private long mainMaxBytes;
+
+  private long protectedMaxBytes;
+
+  private Arena arena;
+
+  private FrequencySketch sketch;
+
+  private long hitCount;
+
+  private long missCount;
+
+  private long evictionCount;
+
+  private long rejectionCount;
+
+  public CDORevisionCacheOffHeap()
+  {
+  }
+
+  public CDOPackageRegistry getPackageRegistry()
+  {
+    return packageRegistry;
+  }
+
+  public void setPackageRegistry(CDOPackageRegistry packageRegistry)
+  {
+    checkInactive();
+    this.packageRegistry = packageRegistry;
+  }
+
+  public long getMaxBytes()
+  {
+    return maxBytes;
+  }
+
+  public void setMaxBytes(long maxBytes)
+  {
+    checkInactive();
+    this.maxBytes = maxBytes;
+  }
+
+  public int getSegmentSize()
+  {
+    return segmentSize;
+  }
+
+  public void setSegmentSize(int segmentSize)
+  {
+    checkInactive();
+    this.segmentSize = segmentSize;
+  }
+
+  public long getHitCount()
+  {
+    synchronized (entries)
+    {
+      return hitCount;
+    }
+  }
+
+  public long getMissCount()
+  {
+    synchronized (entries)
+    {
+      return missCount;
+    }
+  }
+
+  public long getEvictionCount()
+  {
+    synchronized (entries)
+    {
+      return evictionCount;
+    }
+  }
+
+  /**
+   * Returns the number of revisions that could not be cached, either because their serialized form was larger than a
+   * segment or because the eviction policy preferred the revisions that were already cached.
+   */
+  public long getRejectionCount()
+  {
+    synchronized (entries)
+    {
+      return rejectionCount;
+    }
+  }
+
+  /**
+   * Returns the number of slot bytes that are currently occupied by cached revisions.
+   */
+  public long getBytes()
+  {
+    synchronized (entries)
+    {
+      return window.bytes + probation.bytes + protectedQueue.bytes;
+    }
+  }
+
+  /**
+   * Returns the number of direct memory bytes that are currently reserved for the cache.
+   */
+  public long getReservedBytes()
+  {
+    synchronized (entries)
+    {
+      return arena == null ? 0L : arena.getReservedBytes();
+    }
+  }
+
+  public int getRevisionCount()
+  {
+    synchronized (entries)
+    {
+      return window.size + probation.size + protectedQueue.size;
+    }
+  }
+
+  @Override
+  public InternalCDORevisionCache instantiate(CDORevision revision)
+  {
+    CDORevisionCacheOffHeap cache = new CDORevisionCacheOffHeap();
+    cache.setPackageRegistry(packageRegistry);
+    cache.setMaxBytes(maxBytes);
+    cache.setSegmentSize(segmentSize);
+    return cache;
+  }
+
+  @Override
+  public EClass getObjectType(CDOID id)
+  {
+    synchronized (entries)
+    {
+      Entry[] list = entries.get(id);
+      if (list != null)
+      {
+        return list[0].eClass;
+      }
+
+      return null;
+    }
+  }
+
+  @Override
+  public InternalCDORevision getRevision(CDOID id, CDOBranchPoint branchPoint)
+  {
+    checkBranch(branchPoint.getBranch());
+
+    Entry entry;
+    synchronized (entries)
+    {
+      entry = getValidEntry(id, branchPoint);
+      recordAccess(entry);
+    }
+
+    return materialize(entry);
+  }
+
+  @Override
+  public InternalCDORevision getRevisionByVersion(CDOID id, CDOBranchVersion branchVersion)
+  {
+    checkBranch(branchVersion.getBranch());
+
+    Entry entry;
+    synchronized (entries)
+    {
+      entry = getEntry(id, branchVersion.getBranch(), branchVersion.getVersion());
+      recordAccess(entry);
+    }
+
+    return materialize(entry);
+  }
+
+  @Override
+  public void forEachCurrentRevision(Consumer<CDORevision> consumer)
+  {
+    for (Entry entry : getEntries())
+    {
+      if (entry.getRevised() == CDOBranchPoint.UNSPECIFIED_DATE)
+      {
+        InternalCDORevision revision = materialize(entry);
+        if (revision != null)
+        {
+          consumer.accept(revision);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void forEachRevision(Consumer<CDORevision> consumer)
+  {
+    for (Entry entry : getEntries())
+    {
+      InternalCDORevision revision = materialize(entry);
+      if (revision != null)
+      {
+        consumer.accept(revision);
+      }
+    }
+  }
+
+  @Override
+  public Map<CDOBranch, List<CDORevision>> getAllRevisions()
+  {
+    Map<CDOBranch, List<CDORevision>> result = new HashMap<>();
+    forEachRevision(revision -> result.computeIfAbsent(revision.getBranch(), k -> new ArrayList<>()).add(revision));
+    return result;
+  }
+
+  @Override
+  public void getAllRevisions(List<InternalCDORevision> result)
+  {
+    forEachRevision(revision -> result.add((InternalCDORevision)revision));
+  }
+
+  @Override
+  public List<CDORevision> getRevisions(CDOBranchPoint branchPoint)
+  {
+    checkBranch(branchPoint.getBranch());
+    List<CDORevision> result = new ArrayList<>();
+
+    for (Entry entry : getEntries())
+    {
+      if (entry.isValid(branchPoint))
+      {
+        InternalCDORevision revision = materialize(entry);
+        if (revision != null)
+        {
+          result.add(revision);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public CDORevision internRevision(CDORevision revision)
+  {
+    CheckUtil.checkArg(revision, "revision"); //$NON-NLS-1$
+    checkBranch(revision.getBranch());
+
+    InternalCDORevision passedRevision = (InternalCDORevision)revision;
+    CDOID id = passedRevision.getID();
+    CDOBranch branch = passedRevision.getBranch();
+    int version = passedRevision.getVersion();
+
+    synchronized (entries)
+    {
+      Entry existing = getEntry(id, branch, version);
+      if (existing != null)
+      {
+        recordAccess(existing);
+        InternalCDORevision materialized = existing.getMaterialized();
+        return materialized != null ? materialized : revision;
+      }
+    }
+
+    // Serialize outside of the lock.
+    byte[] bytes = isSerializable(passedRevision) ? serialize(passedRevision) : null;
+
+    List<IEvent> events = new ArrayList<>();
+    IListener[] listeners = getListeners();
+
+    synchronized (entries)
+    {
+      if (getEntry(id, branch, version) != null)
+      {
+        // Another thread has been faster.
+        return revision;
+      }
+
+      Entry entry = new Entry(passedRevision);
+      if (bytes == null)
+      {
+        entry.synthetic = passedRevision;
+        entry.slotSize = SYNTHETIC_BYTES;
+      }
+      else
+      {
+        entry.slotSize = arena.getSlotSize(bytes.length);
+        if (entry.slotSize == -1)
+        {
+          ++rejectionCount;
+          return revision;
+        }
+      }
+
+      if (!passedRevision.isHistorical())
+      {
+        Entry previous = getEntry(id, branch, version - 1);
+        if (previous != null && previous.getRevised() == CDOBranchPoint.UNSPECIFIED_DATE)
+        {
+          previous.setRevised(passedRevision.getTimeStamp() - 1);
+        }
+      }
+
+      sketch.increment(entry.hash());
+
+      if (admit(entry, bytes, events))
+      {
+        if (listeners.length != 0)
+        {
+          events.add(0, new CacheAdditionEvent(this, passedRevision));
+        }
+      }
+      else
+      {
+        ++rejectionCount;
+      }
+    }
+
+    if (listeners.length != 0)
+    {
+      for (IEvent event : events)
+      {
+        fireEvent(event, listeners);
+      }
+    }
+
+    return revision;
+  }
+
+  @Override
+  public void removeRevisions(CDOBranch... branches)
+  {
+    Set<CDOBranch> set = new HashSet<>(Arrays.asList(branches));
+
+    synchronized (entries)
+    {
+      for (Entry entry : getEntriesUnsynced())
+      {
+        if (set.contains(entry.branch))
+        {
+          remove(entry);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected InternalCDORevision doRemoveRevision(CDOID id, CDOBranchVersion branchVersion)
+  {
+    checkBranch(branchVersion.getBranch());
+
+    InternalCDORevision revision;
+    byte[] bytes;
+    Entry entry;
+
+    synchronized (entries)
+    {
+      entry = getEntry(id, branchVersion.getBranch(), branchVersion.getVersion());
+      if (entry == null)
+      {
+        return null;
+      }
+
+      revision = entry.getMaterialized();
+      bytes = revision == null && entry.synthetic == null ? arena.read(entry.address, entry.length) : null;
+      remove(entry);
+    }
+
+    if (revision != null)
+    {
+      return revision;
+    }
+
+    if (entry.synthetic != null)
+    {
+      return entry.synthetic;
+    }
+
+    return deserialize(entry, bytes);
+  }
+
+  @Override
+  public void clear()
+  {
+    synchronized (entries)
+    {
+      entries.clear();
+      window.clear();
+      probation.clear();
+      protectedQueue.clear();
+
+      if (arena != null)
+      {
+        arena.clear();
+      }
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return MessageFormat.format("CDORevisionCacheOffHeap[{0}, bytes={1}, maxBytes={2}]", getName(), getBytes(), maxBytes);
+  }
+
+  @Override
+  protected void doBeforeActivate() throws Exception
+  {
+    super.doBeforeActivate();
+    checkState(packageRegistry, "packageRegistry"); //$NON-NLS-1$
+    checkState(getBranchManager(), "branchManager"); //$NON-NLS-1$
+    checkState(maxBytes > 0, "maxBytes must be positive"); //$NON-NLS-1$
+    checkState(segmentSize >= Arena.MIN_SLOT_SIZE && Integer.bitCount(segmentSize) == 1, "segmentSize must be a power of two"); //$NON-NLS-1$
+  }
+
+  @Override
+  protected void doActivate() throws Exception
+  {
+    super.doActivate();
+
+    windowMaxBytes = Math.max(1L, maxBytes * WINDOW_PERCENT / 100);
+    mainMaxBytes = maxBytes - windowMaxBytes;
+    protectedMaxBytes = mainMaxBytes * PROTECTED_PERCENT / 100;
+
+    arena = new Arena(segmentSize, maxBytes);
+    sketch = new FrequencySketch(maxBytes / AVERAGE_REVISION_BYTES);
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    clear();
+    arena = null;
+    sketch = null;
+    super.doDeactivate();
+  }
+
+  private boolean isSerializable(InternalCDORevision revision)
+  {
+    return revision instanceof CDORevisionImpl;
+  }
+
+  private byte[] serialize(InternalCDORevision revision)
+  {
+    try
+    {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream(AVERAGE_REVISION_BYTES);
+      CDODataOutput out = CDOCommonUtil.createCDODataOutput(new ExtendedDataOutputStream(stream), packageRegistry, CDOIDProvider.NOOP, null);
+      out.writeCDORevision(revision, CDORevision.UNCHUNKED);
+      return stream.toByteArray();
+    }
+    catch (IOException ex)
+    {
+      throw WrappedException.wrap(ex);
+    }
+  }
+
+  private InternalCDORevision deserialize(Entry entry, byte[] bytes)
+  {
+    try
+    {
+      ExtendedDataInputStream stream = new ExtendedDataInputStream(new ByteArrayInputStream(bytes));
+      CDODataInput in = CDOCommonUtil.createCDODataInput(stream, packageRegistry, getBranchManager(), null, revisionFactory, CDOListFactory.DEFAULT,
+          null);
+
+      OffHeapRevision revision = (OffHeapRevision)in.readCDORevision(false);
+      revision.setRevised(entry.getRevised());
+      revision.freeze();
+      revision.entry = entry;
+      return revision;
+    }
+    catch (IOException ex)
+    {
+      throw WrappedException.wrap(ex);
+    }
+  }
+
+  /**
+   * Returns the on-heap revision instance of the given entry, deserializing it if needed.
+   */
+  private InternalCDORevision materialize(Entry entry)
+  {
+    if (entry == null)
+    {
+      return null;
+    }
+
+    if (entry.synthetic != null)
+    {
+      return entry.synthetic;
+    }
+
+    byte[] bytes;
+    synchronized (entries)
+    {
+      InternalCDORevision materialized = entry.getMaterialized();
+      if (materialized != null)
+      {
+        return materialized;
+      }
+
+      if (entry.address == -1L)
+      {
+        // Removed in the meantime.
+        return null;
+      }
+
+      bytes = arena.read(entry.address, entry.length);
+    }
+
+    InternalCDORevision revision = deserialize(entry, bytes);
+
+    synchronized (entries)
+    {
+      InternalCDORevision materialized = entry.getMaterialized();
+      if (materialized != null)
+      {
+        // Another thread has been faster.
+        return materialized;
+      }
+
+      entry.materialized = new WeakReference<>(revision);
+    }
+
+    return revision;
+  }
+
+  private void recordAccess(Entry entry)
+  {
+    if (entry == null)
+    {
+      ++missCount;
+      return;
+    }
+
+    ++hitCount;
+    sketch.increment(entry.hash());
+
+    switch (entry.queue)
+    {
+    case EntryQueue.WINDOW:
+      window.moveToFront(entry);
+      break;
+
+    case EntryQueue.PROBATION:
+      probation.remove(entry);
+      protectedQueue.addFirst(entry);
+
+      while (protectedQueue.bytes > protectedMaxBytes && protectedQueue.last != entry)
+      {
+        Entry demoted = protectedQueue.last;
+        protectedQueue.remove(demoted);
+        probation.addFirst(demoted);
+      }
+
+      break;
+
+    case EntryQueue.PROTECTED:
+      protectedQueue.moveToFront(entry);
+      break;
+    }
+  }
+
+  private boolean admit(Entry entry, byte[] bytes, List<IEvent> events)
+  {
+    if (bytes != null)
+    {
+      long address;
+      while ((address = arena.allocate(entry.slotSize)) == -1L)
+      {
+        // The segments are fragmented across slot sizes; make room at the cold end.
+        if (!evictColdest(events))
+        {
+          return false;
+        }
+      }
+
+      arena.write(address, bytes);
+      entry.address = address;
+      entry.length = bytes.length;
+    }
+
+    addEntry(entry);
+    window.addFirst(entry);
+
+    while (window.bytes > windowMaxBytes && window.last != null)
+    {
+      Entry candidate = window.last;
+      window.remove(candidate);
+      probation.addFirst(candidate);
+
+      while (probation.bytes + protectedQueue.bytes > mainMaxBytes)
+      {
+        Entry victim = probation.last != candidate ? probation.last : protectedQueue.last;
+        if (victim == null || victim == candidate || sketch.frequency(candidate.hash()) <= sketch.frequency(victim.hash()))
+        {
+          evict(candidate, entry, events);
+          break;
+        }
+
+        evict(victim, entry, events);
+      }
+    }
+
+    // The new entry may have lost against the main space right away.
+    return entry.queue != EntryQueue.NONE;
+  }
+
+  private boolean evictColdest(List<IEvent> events)
+  {
+    Entry victim = probation.last;
+    if (victim == null)
+    {
+      victim = protectedQueue.last;
+      if (victim == null)
+      {
+        victim = window.last;
+        if (victim == null)
+        {
+          return false;
+        }
+      }
+    }
+
+    evict(victim, events);
+    return true;
+  }
+
+  /**
+   * Evicts the given entry, unless it's the newly admitted one. The new entry is only removed, because it has not been
+   * announced by an addition event, yet; the caller counts it as a rejection.
+   */
+  private void evict(Entry entry, Entry admitted, List<IEvent> events)
+  {
+    if (entry == admitted)
+    {
+      remove(entry);
+      return;
+    }
+
+    evict(entry, events);
+  }
+
+  private void evict(Entry entry, List<IEvent> events)
+  {
+    remove(entry);
+    ++evictionCount;
+
+    if (events != null && getListeners().length != 0)
+    {
+      events.add(new CacheEvictionEvent(this, entry));
+    }
+  }
+
+  private void remove(Entry entry)
+  {
+    switch (entry.queue)
+    {
+    case EntryQueue.WINDOW:
+      window.remove(entry);
+      break;
+
+    case EntryQueue.PROBATION:
+      probation.remove(entry);
+      break;
+
+    case EntryQueue.PROTECTED:
+      protectedQueue.remove(entry);
+      break;
+    }
+
+    removeEntry(entry);
+
+    if (entry.address != -1L)
+    {
+      arena.free(entry.address, entry.slotSize);
+      entry.address = -1L;
+    }
+  }
+
+  private void addEntry(Entry entry)
+  {
+    Entry[] list = entries.get(entry.id);
+    if (list == null)
+    {
+      entries.put(entry.id, new Entry[] { entry });
+      return;
+    }
+
+    Entry[] newList = Arrays.copyOf(list, list.length + 1);
+    newList[list.length] = entry;
+    entries.put(entry.id, newList);
+  }
+
+  private void removeEntry(Entry entry)
+  {
+    Entry[] list = entries.get(entry.id);
+    if (list == null)
+    {
+      return;
+    }
+
+    for (int i = 0; i < list.length; i++)
+    {
+      if (list[i] == entry)
+      {
+        if (list.length == 1)
+        {
+          entries.remove(entry.id);
+        }
+        else
+        {
+          Entry[] newList = new Entry[list.length - 1];
+          System.arraycopy(list, 0, newList, 0, i);
+          System.arraycopy(list, i + 1, newList, i, list.length - i - 1);
+          entries.put(entry.id, newList);
+        }
+
+        return;
+      }
+    }
+  }
+
+  private Entry getEntry(CDOID id, CDOBranch branch, int version)
+  {
+    Entry[] list = entries.get(id);
+    if (list != null)
+    {
+      for (Entry entry : list)
+      {
+        if (entry.version == version && entry.branch == branch)
+        {
+          return entry;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private Entry getValidEntry(CDOID id, CDOBranchPoint branchPoint)
+  {
+    Entry[] list = entries.get(id);
+    if (list != null)
+    {
+      for (Entry entry : list)
+      {
+        if (entry.isValid(branchPoint))
+        {
+          return entry;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private List<Entry> getEntries()
+  {
+    synchronized (entries)
+    {
+      return getEntriesUnsynced();
+    }
+  }
+
+  private List<Entry> getEntriesUnsynced()
+  {
+    List<Entry> result = new ArrayList<>();
+    for (Entry[] list : entries.values())
+    {
+      result.addAll(Arrays.asList(list));
+    }
+
+    return result;
+  }
+
+  /**
+   * The on-heap part of a cached revision.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Entry implements CDORevisionKey
+  {
+    private final CDOID id;
+
+    private final CDOBranch branch;
+
+    private final int version;
+
+    private final long timeStamp;
+
+    private final EClass eClass;
+
+    private volatile long revised;
+
+    private InternalCDORevision synthetic;
+
+    private Reference<InternalCDORevision> materialized;
+
+    private long address = -1L;
+
+    private int length;
+
+    private int slotSize;
+
+    private byte queue;
+
+    private Entry previous;
+
+    private Entry next;
+
+    public Entry(InternalCDORevision revision)
+    {
+      id = revision.getID();
+      branch = revision.getBranch();
+      version = revision.getVersion();
+      timeStamp = revision.getTimeStamp();
+      eClass = revision.getEClass();
+      revised = revision.getRevised();
+    }
+
+    @Override
+    public CDOID getID()
+    {
+      return id;
+    }
+
+    @Override
+    public CDOBranch getBranch()
+    {
+      return branch;
+    }
+
+    @Override
+    public int getVersion()
+    {
+      return version;
+    }
+
+    public boolean isValid(CDOBranchPoint branchPoint)
+    {
+      return branch == branchPoint.getBranch() && CDOCommonUtil.isValidTimeStamp(branchPoint.getTimeStamp(), timeStamp, getRevised());
+    }
+
+    public long getRevised()
+    {
+      // Synthetic revisions are kept on the heap and may have been revised directly.
+      return synthetic != null ? synthetic.getRevised() : revised;
+    }
+
+    public InternalCDORevision getMaterialized()
+    {
+      return materialized == null ? null : materialized.get();
+    }
+
+    public void setRevised(long revised)
+    {
+      this.revised = revised;
+
+      InternalCDORevision revision = synthetic != null ? synthetic : getMaterialized();
+      if (revision != null && revision.getRevised() != revised)
+      {
+        revision.setRevised(revised);
+      }
+    }
+
+    public int hash()
+    {
+      return (id.hashCode() * 31 + branch.getID()) * 31 + version;
+    }
+
+    @Override
+    public String toString()
+    {
+      return MessageFormat.format("{0}:{1}v{2}", id, branch.getID(), version);
+    }
+  }
+
+  /**
+   * A revision that writes changes of its revised time stamp through to the cache entry it was deserialized from.
+   *
+   * @author Eike Stepper
+   */
+  private static final class OffHeapRevision extends CDORevisionImpl
+  {
+    private Entry entry;
+
+    public OffHeapRevision(EClass eClass)
+    {
+      super(eClass);
+    }
+
+    @Override
+    public void setRevised(long revised)
+    {
+      super.setRevised(revised);
+
+      Entry entry = this.entry;
+      if (entry != null)
+      {
+        entry.revised = revised;
+      }
+    }
+  }
+
+  /**
+   * An intrusive doubly linked LRU list of entries, most recently used first.
+   *
+   * @author Eike Stepper
+   */
+  private static final class EntryQueue
+  {
+    public static final byte NONE = 0;
+
+    public static final byte WINDOW = 1;
+
+    public static final byte PROBATION = 2;
+
+    public static final byte PROTECTED = 3;
+
+    private final byte id;
+
+    private Entry first;
+
+    private Entry last;
+
+    private int size;
+
+    private long bytes;
+
+    public EntryQueue(byte id)
+    {
+      this.id = id;
+    }
+
+    public void addFirst(Entry entry)
+    {
+      entry.queue = id;
+      entry.previous = null;
+      entry.next = first;
+
+      if (first == null)
+      {
+        last = entry;
+      }
+      else
+      {
+        first.previous = entry;
+      }
+
+      first = entry;
+      ++size;
+      bytes += entry.slotSize;
+    }
+
+    public void remove(Entry entry)
+    {
+      if (entry.previous == null)
+      {
+        first = entry.next;
+      }
+      else
+      {
+        entry.previous.next = entry.next;
+      }
+
+      if (entry.next == null)
+      {
+        last = entry.previous;
+      }
+      else
+      {
+        entry.next.previous = entry.previous;
+      }
+
+      entry.queue = NONE;
+      entry.previous = null;
+      entry.next = null;
+      --size;
+      bytes -= entry.slotSize;
+    }
+
+    public void moveToFront(Entry entry)
+    {
+      if (first != entry)
+      {
+        remove(entry);
+        addFirst(entry);
+      }
+    }
+
+    public void clear()
+    {
+      first = null;
+      last = null;
+      size = 0;
+      bytes = 0L;
+    }
+  }
+
+  /**
+   * A 4-row count-min sketch with small saturating counters that are periodically halved, so that the estimated
+   * frequencies reflect recent popularity.
+   *
+   * @author Eike Stepper
+   */
+  private static final class FrequencySketch
+  {
+    private static final int DEPTH = 4;
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int[] SEEDS = { 0x97cb3127, 0xb4b82e6d, 0x8f5a0c4b, 0xc2b2ae35 };
+
+    private final byte[][] table;
+
+    private final int mask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    public FrequencySketch(long expectedEntries)
+    {
+      int width = Integer.highestOneBit((int)Math.max(1024L, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+      table = new byte[DEPTH][width];
+      mask = width - 1;
+      sampleSize = 10 * width;
+    }
+
+    public int frequency(int hash)
+    {
+      int frequency = MAX_COUNT;
+      for (int row = 0; row < DEPTH; row++)
+      {
+        frequency = Math.min(frequency, table[row][index(hash, row)]);
+      }
+
+      return frequency;
+    }
+
+    public void increment(int hash)
+    {
+      int frequency = frequency(hash);
+      if (frequency == MAX_COUNT)
+      {
+        return;
+      }
+
+      // Conservative update: only increment the counters that hold the minimum.
+      for (int row = 0; row < DEPTH; row++)
+      {
+        int index = index(hash, row);
+        if (table[row][index] == frequency)
+        {
+          ++table[row][index];
+        }
+      }
+
+      if (++additions == sampleSize)
+      {
+        reset();
+      }
+    }
+
+    private void reset()
+    {
+      for (byte[] row : table)
+      {
+        for (int i = 0; i < row.length; i++)
+        {
+          row[i] >>>= 1;
+        }
+      }
+
+      additions >>>= 1;
+    }
+
+    private int index(int hash, int row)
+    {
+      int h = hash * SEEDS[row];
+      h ^= h >>> 16;
+      return h & mask;
+    }
+  }
+
+  /**
+   * A slab allocator for direct memory.
+   * <p>
+   * Memory is reserved in segments of equal size. Each segment is dedicated to one power-of-two slot size at a time and
+   * is given back to the pool of free segments when its last slot is freed. At most one segment per slot size more
+   * than the byte budget is reserved, so that all slot sizes can be served without exceeding the budget by much.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Arena
+  {
+    public static final int MIN_SLOT_SIZE = 64;
+
+    private static final int MIN_SLOT_SHIFT = Integer.numberOfTrailingZeros(MIN_SLOT_SIZE);
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final ArrayDeque<Segment> freeSegments = new ArrayDeque<>();
+
+    /**
+     * Per slot size class, the segments that have free slots.
+     */
+    private final List<ArrayDeque<Segment>> availableSegments = new ArrayList<>();
+
+    public Arena(int segmentSize, long maxBytes)
+    {
+      this.segmentSize = segmentSize;
+
+      int classes = Integer.numberOfTrailingZeros(segmentSize) - MIN_SLOT_SHIFT + 1;
+      for (int i = 0; i < classes; i++)
+      {
+        availableSegments.add(new ArrayDeque<>());
+      }
+
+      maxSegments = (int)Math.min(Integer.MAX_VALUE, (maxBytes + segmentSize - 1) / segmentSize + classes);
+    }
+
+    public long getReservedBytes()
+    {
+      return (long)segments.size() * segmentSize;
+    }
+
+    public int getSlotSize(int length)
+    {
+      if (length > segmentSize)
+      {
+        return -1;
+      }
+
+      return Math.max(MIN_SLOT_SIZE, Integer.highestOneBit(length - 1) << 1);
+    }
+
+    public long allocate(int slotSize)
+    {
+      ArrayDeque<Segment> available = availableSegments.get(getSizeClass(slotSize));
+      Segment segment = available.peekFirst();
+      if (segment == null)
+      {
+        segment = freeSegments.pollFirst();
+        if (segment == null)
+        {
+          if (segments.size() == maxSegments)
+          {
+            return -1L;
+          }
+
+          segment = new Segment(segments.size(), ByteBuffer.allocateDirect(segmentSize));
+          segments.add(segment);
+        }
+
+        segment.format(slotSize);
+        available.addFirst(segment);
+      }
+
+      int offset = segment.freeOffsets[--segment.freeCount];
+      ++segment.live;
+
+      if (segment.freeCount == 0)
+      {
+        available.removeFirst();
+      }
+
+      return (long)segment.index << 32 | offset;
+    }
+
+    public void free(long address, int slotSize)
+    {
+      Segment segment = segments.get((int)(address >>> 32));
+      ArrayDeque<Segment> available = availableSegments.get(getSizeClass(slotSize));
+
+      if (segment.freeCount == 0)
+      {
+        available.addLast(segment);
+      }
+
+      segment.freeOffsets[segment.freeCount++] = (int)address;
+
+      if (--segment.live == 0)
+      {
+        available.remove(segment);
+        freeSegments.addLast(segment);
+      }
+    }
+
+    public void write(long address, byte[] bytes)
+    {
+      ByteBuffer buffer = segments.get((int)(address >>> 32)).buffer.duplicate();
+      buffer.position((int)address);
+      buffer.put(bytes);
+    }
+
+    public byte[] read(long address, int length)
+    {
+      byte[] bytes = new byte[length];
+      ByteBuffer buffer = segments.get((int)(address >>> 32)).buffer.duplicate();
+      buffer.position((int)address);
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    public void clear()
+    {
+      segments.clear();
+      freeSegments.clear();
+
+      for (ArrayDeque<Segment> available : availableSegments)
+      {
+        available.clear();
+      }
+    }
+
+    private int getSizeClass(int slotSize)
+    {
+      return Integer.numberOfTrailingZeros(slotSize) - MIN_SLOT_SHIFT;
+    }
+
+    /**
+     * @author Eike Stepper
+     */
+    private static final class Segment
+    {
+      private final int index;
+
+      private final ByteBuffer buffer;
+
+      private int[] freeOffsets;
+
+      private int freeCount;
+
+      private int live;
+
+      public Segment(int index, ByteBuffer buffer)
+      {
+        this.index = index;
+        this.buffer = buffer;
+      }
+
+      public void format(int slotSize)
+      {
+        int slots = buffer.capacity() / slotSize;
+        freeOffsets = new int[slots];
+        freeCount = slots;
+        live = 0;
+
+        for (int i = 0; i < slots; i++)
+        {
+          // Hand out the lowest offsets first.
+          freeOffsets[i] = (slots - 1 - i) * slotSize;
+        }
+      }
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2012, 2016, 2019, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011, 2012, 2016, 2019, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,20 +22,43 @@ import org.eclipse.net4j.util.io.IORuntimeException;
 import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.om.OMPlatform;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 /**
- * If the meaning of this type isn't clear, there really should be more of a description here...
+ * A {@link CDOLobStore large object store} that keeps the contents of large objects in files below a
+ * {@link #getFolder() folder}. The files are named after the {@link CDOLobInfo#getID() IDs} of the large objects, i.e.,
+ * after the digests of their contents, so that equal contents are stored only once.
+ * <p>
+ * If the store is {@link #setSharded(boolean) sharded} the files are distributed over two levels of sub folders that
+ * are named after the first four hex digits of the IDs. Files that have been written to the flat folder before are
+ * still found.
+ * <p>
+ * If the store is {@link #setChunked(boolean) chunked} the contents of binary large objects are split into chunks at
+ * positions that depend on the contents (content-defined chunking). Each chunk is stored once in the
+ * <code>chunks</code> sub folder, named after its own digest, and a small manifest file lists the chunks of each binary
+ * large object. Large objects that differ only in a few places therefore share most of their chunks, and storing a
+ * large object a second time writes nothing but, at most, a new manifest. The contents of character large objects are
+ * not chunked.
  *
  * @author Eike Stepper
  * @since 4.0
@@ -53,8 +76,50 @@ public class CDOLobStoreImpl implements CDOLobStore
 
   private static final byte[] ID_PREFIX_CHARACTER = "CHARACTER".getBytes(ID_PREFIX_CHARSET);
 
+  private static final boolean DEFAULT_SHARDED = OMPlatform.INSTANCE.isProperty("org.eclipse.emf.cdo.spi.common.CDOLobStoreImpl.SHARDED");
+
+  private static final boolean DEFAULT_CHUNKED = OMPlatform.INSTANCE.isProperty("org.eclipse.emf.cdo.spi.common.CDOLobStoreImpl.CHUNKED");
+
+  private static final String CHUNKS_FOLDER = "chunks";
+
+  private static final String EXTENSION_BLOB = ".blob";
+
+  private static final String EXTENSION_CLOB = ".clob";
+
+  private static final String EXTENSION_MANIFEST = ".chunks";
+
+  private static final String EXTENSION_CHUNK = ".chunk";
+
+  private static final int MIN_CHUNK_SIZE = 16 * 1024;
+
+  private static final int MAX_CHUNK_SIZE = 256 * 1024;
+
+  /**
+   * A chunk ends where the 16 high bits of the rolling hash are zero, i.e., on average every 64 KB after the minimum
+   * chunk size.
+   */
+  private static final long CHUNK_MASK = 0xFFFF000000000000L;
+
+  /**
+   * The random values of the gear hash. They must never change because they determine the chunk boundaries.
+   */
+  private static final long[] GEAR = new long[256];
+
+  static
+  {
+    Random random = new Random(0x43444F4C4F42L);
+    for (int i = 0; i < GEAR.length; i++)
+    {
+      GEAR[i] = random.nextLong();
+    }
+  }
+
   private long timeout = IOUtil.DEFAULT_TIMEOUT;
 
+  private boolean sharded = DEFAULT_SHARDED;
+
+  private boolean chunked = DEFAULT_CHUNKED;
+
   private File folder;
 
   private int tempID;
@@ -89,6 +154,42 @@ public class CDOLobStoreImpl implements CDOLobStore
     this.timeout = timeout;
   }
 
+  /**
+   * @since 4.23
+   */
+  public boolean isSharded()
+  {
+    return sharded;
+  }
+
+  /**
+   * Specifies whether new files are distributed over sub folders that are named after the first hex digits of their IDs.
+   *
+   * @since 4.23
+   */
+  public void setSharded(boolean sharded)
+  {
+    this.sharded = sharded;
+  }
+
+  /**
+   * @since 4.23
+   */
+  public boolean isChunked()
+  {
+    return chunked;
+  }
+
+  /**
+   * Specifies whether the contents of new binary large objects are stored in content-defined, shared chunks.
+   *
+   * @since 4.23
+   */
+  public void setChunked(boolean chunked)
+  {
+    this.chunked = chunked;
+  }
+
   public File getFolder()
   {
     if (!folder.exists())
@@ -100,25 +201,116 @@ public class CDOLobStoreImpl implements CDOLobStore
     return folder;
   }
 
+  /**
+   * Returns the file of the binary large object with the given ID, or <code>null</code> if the large object is stored
+   * in {@link #isChunked() chunks}. The file does not need to exist.
+   */
   @Override
   public File getBinaryFile(byte[] id)
   {
-    return new File(getFolder(), HexUtil.bytesToHex(id) + ".blob");
+    if (getManifestFile(id).isFile())
+    {
+      return null;
+    }
+
+    return getPlainBinaryFile(id);
+  }
+
+  /**
+   * Returns the file that lists the chunks of the binary large object with the given ID.
+   * The file only exists if the large object has been stored while the store was {@link #isChunked() chunked}.
+   *
+   * @since 4.23
+   */
+  public File getManifestFile(byte[] id)
+  {
+    return getFile(getFolder(), id, EXTENSION_MANIFEST);
+  }
+
+  /**
+   * @since 4.23
+   */
+  public File getChunkFile(byte[] chunkID)
+  {
+    return getFile(new File(getFolder(), CHUNKS_FOLDER), chunkID, EXTENSION_CHUNK);
   }
 
   @Override
   public InputStream getBinary(CDOLobInfo info) throws IOException
   {
-    File file = getBinaryFile(info.getID());
+    InputStream chunks = getChunks(info, 0L, info.getSize());
+    if (chunks != null)
+    {
+      return chunks;
+    }
+
+    File file = getPlainBinaryFile(info.getID());
     long expectedSize = info.getSize();
     ExpectedFileInputStream inputStream = new ExpectedFileInputStream(file, expectedSize);
     inputStream.setTimeout(timeout);
     return inputStream;
   }
 
+  /**
+   * @since 4.23
+   */
+  @Override
+  public InputStream getBinary(CDOLobInfo info, long offset, long length) throws IOException
+  {
+    InputStream chunks = getChunks(info, offset, Math.max(0L, Math.min(length, info.getSize() - offset)));
+    if (chunks != null)
+    {
+      return chunks;
+    }
+
+    return CDOLobStore.super.getBinary(info, offset, length);
+  }
+
+  /**
+   * Transfers the chunk files or the plain file of the binary large object to the given stream, so that the content is
+   * not copied through the Java heap if the stream supports zero-copy. Large objects whose files are missing or still
+   * being loaded are copied from {@link #getBinary(CDOLobInfo) the content stream}.
+   *
+   * @since 4.23
+   */
+  @Override
+  public void writeBinary(CDOLobInfo info, OutputStream out) throws IOException
+  {
+    File manifestFile = getManifestFile(info.getID());
+    if (manifestFile.isFile())
+    {
+      Manifest manifest = readManifest(manifestFile);
+      if (manifest.isComplete())
+      {
+        for (int i = 0; i < manifest.chunkFiles.length; i++)
+        {
+          IOUtil.transferFile(manifest.chunkFiles[i], 0L, manifest.chunkSizes[i], out);
+        }
+
+        return;
+      }
+    }
+    else
+    {
+      File file = getPlainBinaryFile(info.getID());
+      if (file.length() == info.getSize())
+      {
+        IOUtil.transferFile(file, 0L, info.getSize(), out);
+        return;
+      }
+    }
+
+    CDOLobStore.super.writeBinary(info, out);
+  }
+
   @Override
   public CDOLobInfo putBinary(InputStream contents) throws IOException
   {
+    if (chunked)
+    {
+      return putChunks(contents);
+    }
+
     File tempFile = getTempFile();
     MessageDigest digest = createDigest();
     digest.update(ID_PREFIX_BINARY);
@@ -138,14 +330,14 @@ public class CDOLobStoreImpl implements CDOLobStore
     }
 
     byte[] id = digest.digest();
-    makePermanent(tempFile, getBinaryFile(id));
+    makePermanent(tempFile, getPlainBinaryFile(id));
     return new CDOLobInfo(id, size);
   }
 
   @Override
   public File getCharacterFile(byte[] id)
   {
-    return new File(getFolder(), HexUtil.bytesToHex(id) + ".clob");
+    return getFile(getFolder(), id, EXTENSION_CLOB);
   }
 
   @Override
@@ -215,16 +407,192 @@ public class CDOLobStoreImpl implements CDOLobStore
     }
   }
 
-  private void makePermanent(File tempFile, File file)
+  private File getPlainBinaryFile(byte[] id)
   {
-    if (file.exists())
+    return getFile(getFolder(), id, EXTENSION_BLOB);
+  }
+
+  private File getFile(File root, byte[] id, String extension)
+  {
+    String name = HexUtil.bytesToHex(id);
+    File file = new File(root, name + extension);
+    if (!sharded || file.exists())
     {
-      tempFile.delete();
+      return file;
     }
-    else
+
+    File shard = new File(new File(root, name.substring(0, 2)), name.substring(2, 4));
+    return new File(shard, name + extension);
+  }
+
+  private CDOLobInfo putChunks(InputStream contents) throws IOException
+  {
+    MessageDigest digest = createDigest();
+    digest.update(ID_PREFIX_BINARY);
+
+    MessageDigest chunkDigest = createDigest();
+    List<byte[]> chunkIDs = new ArrayList<>();
+    List<Integer> chunkSizes = new ArrayList<>();
+
+    byte[] buffer = new byte[IOUtil.DEFAULT_BUFFER_SIZE];
+    byte[] chunk = new byte[MAX_CHUNK_SIZE];
+    int chunkSize = 0;
+    long hash = 0L;
+    long size = 0L;
+
+    int n;
+    while ((n = contents.read(buffer)) != IOUtil.EOF)
+    {
+      digest.update(buffer, 0, n);
+      size += n;
+
+      for (int i = 0; i < n; i++)
+      {
+        byte b = buffer[i];
+        chunk[chunkSize++] = b;
+        hash = (hash << 1) + GEAR[b & 0xFF];
+
+        if (chunkSize >= MIN_CHUNK_SIZE && (hash & CHUNK_MASK) == 0L || chunkSize == MAX_CHUNK_SIZE)
+        {
+          chunkIDs.add(putChunk(chunkDigest, chunk, chunkSize));
+          chunkSizes.add(chunkSize);
+          chunkSize = 0;
+          hash = 0L;
+        }
+      }
+    }
+
+    if (chunkSize != 0)
+    {
+      chunkIDs.add(putChunk(chunkDigest, chunk, chunkSize));
+      chunkSizes.add(chunkSize);
+    }
+
+    byte[] id = digest.digest();
+    File manifestFile = getManifestFile(id);
+    if (!manifestFile.exists())
+    {
+      File tempFile = getTempFile();
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+
+      try
+      {
+        out.writeLong(size);
+        out.writeInt(chunkIDs.size());
+
+        for (int i = 0; i < chunkIDs.size(); i++)
+        {
+          byte[] chunkID = chunkIDs.get(i);
+          out.writeByte(chunkID.length);
+          out.write(chunkID);
+          out.writeInt(chunkSizes.get(i));
+        }
+      }
+      finally
+      {
+        IOUtil.close(out);
+      }
+
+      makePermanent(tempFile, manifestFile);
+    }
+
+    return new CDOLobInfo(id, size);
+  }
+
+  private byte[] putChunk(MessageDigest chunkDigest, byte[] chunk, int chunkSize) throws IOException
+  {
+    chunkDigest.update(chunk, 0, chunkSize);
+    byte[] chunkID = chunkDigest.digest();
+
+    File chunkFile = getChunkFile(chunkID);
+    if (!chunkFile.exists())
+    {
+      File tempFile = getTempFile();
+      FileOutputStream out = new FileOutputStream(tempFile);
+
+      try
+      {
+        out.write(chunk, 0, chunkSize);
+      }
+      finally
+      {
+        IOUtil.close(out);
+      }
+
+      makePermanent(tempFile, chunkFile);
+    }
+
+    return chunkID;
+  }
+
+  /**
+   * Returns <code>null</code> if the binary large object with the given ID has not been stored in chunks.
+   */
+  private InputStream getChunks(CDOLobInfo info, long offset, long length) throws IOException
+  {
+    File manifestFile = getManifestFile(info.getID());
+    if (!manifestFile.isFile())
+    {
+      return null;
+    }
+
+    Manifest manifest = readManifest(manifestFile);
+
+    try
+    {
+      return new ChunkInputStream(manifest.chunkFiles, manifest.chunkSizes, offset, length);
+    }
+    catch (FileNotFoundException ex)
+    {
+      // A damaged manifest must not hide the plain file that a reloaded large object is written to.
+      manifestFile.delete();
+      throw ex;
+    }
+  }
+
+  private Manifest readManifest(File manifestFile) throws IOException
+  {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(manifestFile)));
+
+    try
+    {
+      in.readLong();
+      int count = in.readInt();
+      Manifest manifest = new Manifest(count);
+
+      for (int i = 0; i < count; i++)
+      {
+        byte[] chunkID = new byte[in.readUnsignedByte()];
+        in.readFully(chunkID);
+        manifest.chunkFiles[i] = getChunkFile(chunkID);
+        manifest.chunkSizes[i] = in.readInt();
+      }
+
+      return manifest;
+    }
+    finally
+    {
+      IOUtil.close(in);
+    }
+  }
+
+  private void makePermanent(File tempFile, File file)
+  {
+    if (!file.exists())
     {
-      tempFile.renameTo(file);
+      File parent = file.getParentFile();
+      if (parent != null)
+      {
+        parent.mkdirs();
+      }
+
+      if (tempFile.renameTo(file))
+      {
+        return;
+      }
     }
+
+    tempFile.delete();
   }
 
   private void checkDirectory()
@@ -240,4 +608,151 @@ public class CDOLobStoreImpl implements CDOLobStore
     String path = OMPlatform.INSTANCE.getProperty("java.io.tmpdir");
     return new File(new File(path), "cdo_lobs");
   }
+
+  /**
+   * The chunk files of a binary large object and their sizes, in the order of the content.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Manifest
+  {
+    public final File[] chunkFiles;
+
+    public final long[] chunkSizes;
+
+    public Manifest(int count)
+    {
+      chunkFiles = new File[count];
+      chunkSizes = new long[count];
+    }
+
+    public boolean isComplete()
+    {
+      for (int i = 0; i < chunkFiles.length; i++)
+      {
+        if (chunkFiles[i].length() != chunkSizes[i])
+        {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+  /**
+   * Reads a range of the concatenated contents of a sequence of chunk files, opening one chunk file at a time.
+   *
+   * @author Eike Stepper
+   */
+  private static final class ChunkInputStream extends InputStream
+  {
+    private final File[] chunkFiles;
+
+    private final long[] chunkSizes;
+
+    private int chunkIndex;
+
+    private InputStream chunk;
+
+    private long chunkRemaining;
+
+    private long remaining;
+
+    public ChunkInputStream(File[] chunkFiles, long[] chunkSizes, long offset, long length) throws IOException
+    {
+      this.chunkFiles = chunkFiles;
+      this.chunkSizes = chunkSizes;
+      remaining = length;
+
+      while (chunkIndex < chunkFiles.length && offset >= chunkSizes[chunkIndex])
+      {
+        offset -= chunkSizes[chunkIndex++];
+      }
+
+      if (remaining > 0L && chunkIndex < chunkFiles.length)
+      {
+        openChunk();
+        IOUtil.skipFully(chunk, offset);
+        chunkRemaining -= offset;
+      }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == IOUtil.EOF ? IOUtil.EOF : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+      if (len == 0)
+      {
+        return 0;
+      }
+
+      while (remaining > 0L)
+      {
+        if (chunk == null || chunkRemaining == 0L)
+        {
+          if (!nextChunk())
+          {
+            break;
+          }
+        }
+
+        int n = chunk.read(b, off, (int)Math.min(len, Math.min(chunkRemaining, remaining)));
+        if (n == IOUtil.EOF)
+        {
+          throw new IOException("Chunk is truncated: " + chunkFiles[chunkIndex]);
+        }
+
+        chunkRemaining -= n;
+        remaining -= n;
+        return n;
+      }
+
+      return IOUtil.EOF;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+      return chunk == null ? 0 : (int)Math.min(chunk.available(), Math.min(chunkRemaining, remaining));
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      remaining = 0L;
+      IOUtil.close(chunk);
+      chunk = null;
+    }
+
+    private boolean nextChunk() throws IOException
+    {
+      if (chunk != null)
+      {
+        IOUtil.close(chunk);
+        chunk = null;
+        ++chunkIndex;
+      }
+
+      if (chunkIndex >= chunkFiles.length)
+      {
+        return false;
+      }
+
+      openChunk();
+      return true;
+    }
+
+    private void openChunk() throws FileNotFoundException
+    {
+      chunk = new FileInputStream(chunkFiles[chunkIndex]);
+      chunkRemaining = chunkSizes[chunkIndex];
+    }
+  }
 }
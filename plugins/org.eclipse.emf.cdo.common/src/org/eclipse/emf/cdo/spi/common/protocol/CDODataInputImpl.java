@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012-2017, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012-2017, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -82,6 +82,7 @@ import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 
 import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
 import org.eclipse.net4j.util.io.ExtendedDataInput;
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
 import org.eclipse.net4j.util.io.StringIO;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 
@@ -92,6 +93,7 @@ import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -328,6 +330,77 @@ public abstract class CDODataInputImpl extends ExtendedDataInput.Delegating impl
     return new FailureCommitInfo(commitInfoManager, timeStamp, previousTimeStamp);
   }
 
+  /**
+   * @since 4.23
+   */
+  @SuppressWarnings("resource")
+  @Override
+  public CDOCommitInfo readCDOCommitInfoBlock() throws IOException
+  {
+    byte[] block = readByteArray();
+
+    CDODataInputImpl in = new CDODataInputImpl(new ExtendedDataInputStream(new ByteArrayInputStream(block)))
+    {
+      private final StringIO packageURICompressor = new CDODataOutputImpl.BlockStringIO();
+
+      @Override
+      public CDOCommonSession getSession()
+      {
+        return CDODataInputImpl.this.getSession();
+      }
+
+      @Override
+      public CDOPackageRegistry getPackageRegistry()
+      {
+        return CDODataInputImpl.this.getPackageRegistry();
+      }
+
+      @Override
+      protected boolean isXCompression()
+      {
+        return CDODataInputImpl.this.isXCompression();
+      }
+
+      @Override
+      protected StringIO getPackageURICompressor()
+      {
+        return packageURICompressor;
+      }
+
+      @Override
+      protected CDOBranchManager getBranchManager()
+      {
+        return CDODataInputImpl.this.getBranchManager();
+      }
+
+      @Override
+      protected CDOCommitInfoManager getCommitInfoManager()
+      {
+        return CDODataInputImpl.this.getCommitInfoManager();
+      }
+
+      @Override
+      protected CDORevisionFactory getRevisionFactory()
+      {
+        return CDODataInputImpl.this.getRevisionFactory();
+      }
+
+      @Override
+      protected CDOListFactory getListFactory()
+      {
+        return CDODataInputImpl.this.getListFactory();
+      }
+
+      @Override
+      protected CDOLobStore getLobStore()
+      {
+        return CDODataInputImpl.this.getLobStore();
+      }
+    };
+
+    return in.readCDOCommitInfo();
+  }
+
   @Override
   public CDOLockChangeInfo readCDOLockChangeInfo() throws IOException
   {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012-2017, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012-2017, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -57,7 +57,9 @@ import org.eclipse.emf.cdo.spi.common.revision.CDORevisionUnchunker;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 
 import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
+import org.eclipse.net4j.util.io.ExtendedDataInput;
 import org.eclipse.net4j.util.io.ExtendedDataOutput;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
 import org.eclipse.net4j.util.io.StringIO;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 
@@ -67,9 +69,13 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -286,6 +292,76 @@ public class CDODataOutputImpl extends ExtendedDataOutput.Delegating implements
     }
   }
 
+  /**
+   * @since 4.23
+   */
+  @SuppressWarnings("resource")
+  @Override
+  public byte[] createCDOCommitInfoBlock(CDOCommitInfo commitInfo) throws IOException
+  {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+    CDODataOutputImpl out = new CDODataOutputImpl(new ExtendedDataOutputStream(baos))
+    {
+      private final StringIO packageURICompressor = new BlockStringIO();
+
+      @Override
+      public CDOCommonSession getSession()
+      {
+        return CDODataOutputImpl.this.getSession();
+      }
+
+      @Override
+      public CDOPackageRegistry getPackageRegistry()
+      {
+        return CDODataOutputImpl.this.getPackageRegistry();
+      }
+
+      @Override
+      public CDOIDProvider getIDProvider()
+      {
+        return CDODataOutputImpl.this.getIDProvider();
+      }
+
+      @Override
+      public CDOPermissionProvider getPermissionProvider()
+      {
+        return CDODataOutputImpl.this.getPermissionProvider();
+      }
+
+      @Override
+      public CDORevisionUnchunker getRevisionUnchunker()
+      {
+        return CDODataOutputImpl.this.getRevisionUnchunker();
+      }
+
+      @Override
+      protected boolean isXCompression()
+      {
+        return CDODataOutputImpl.this.isXCompression();
+      }
+
+      @Override
+      protected StringIO getPackageURICompressor()
+      {
+        // The compressor of this output is stateful and must not leak into the block.
+        return packageURICompressor;
+      }
+    };
+
+    out.writeCDOCommitInfo(commitInfo);
+    return baos.toByteArray();
+  }
+
+  /**
+   * @since 4.23
+   */
+  @Override
+  public void writeCDOCommitInfoBlock(byte[] block) throws IOException
+  {
+    writeByteArray(block);
+  }
+
   @Override
   public void writeCDOLockChangeInfo(CDOLockChangeInfo lockChangeInfo) throws IOException
   {
@@ -710,4 +786,67 @@ public class CDODataOutputImpl extends ExtendedDataOutput.Delegating implements
   {
     return StringIO.DIRECT;
   }
+
+  /**
+   * Compresses the strings of a single self-contained block, such as a {@link #createCDOCommitInfoBlock(CDOCommitInfo)
+   * commit info block}. Each string is written once; its later occurrences in the same block are written as indexes.
+   *
+   * @author Eike Stepper
+   */
+  static final class BlockStringIO implements StringIO
+  {
+    private static final int NULL = 0;
+
+    private static final int STRING_FOLLOWS = 1;
+
+    private static final int FIRST_INDEX = 2;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private final List<String> strings = new ArrayList<>();
+
+    public BlockStringIO()
+    {
+    }
+
+    @Override
+    public void write(ExtendedDataOutput out, String string) throws IOException
+    {
+      if (string == null)
+      {
+        out.writeVarInt(NULL);
+        return;
+      }
+
+      Integer index = indexes.get(string);
+      if (index != null)
+      {
+        out.writeVarInt(FIRST_INDEX + index);
+        return;
+      }
+
+      indexes.put(string, indexes.size());
+      out.writeVarInt(STRING_FOLLOWS);
+      out.writeString(string);
+    }
+
+    @Override
+    public String read(ExtendedDataInput in) throws IOException
+    {
+      int code = in.readVarInt();
+      if (code == NULL)
+      {
+        return null;
+      }
+
+      if (code == STRING_FOLLOWS)
+      {
+        String string = in.readString();
+        strings.add(string);
+        return string;
+      }
+
+      return strings.get(code - FIRST_INDEX);
+    }
+  }
 }
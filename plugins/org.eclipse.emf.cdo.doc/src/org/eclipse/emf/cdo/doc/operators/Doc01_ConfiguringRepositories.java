@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2016, 2020, 2022, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2015, 2016, 2020, 2022-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -173,6 +173,72 @@ public class Doc01_ConfiguringRepositories
     {
     }
 
+    /**
+     * Property pipelineCommits
+     * <p>
+     * Specifies whether the repository will serialize only the write stage of commit operations (locking, timestamp allocation,
+     * conflict checks and the writes to the store) and let the store commit of a transaction overlap with the write stages of
+     * the following transactions. The store commits, and with them the last commit time stamp of the repository, still happen
+     * in commit order. A commit that is interrupted while it waits for earlier commits is rolled back.
+     * <p>
+     * If this property is <code>true</code> the serializeCommits property is ignored.
+     * <p>
+     * Valid values: <code>false</code> (default) or <code>true</code>.
+     */
+    public class Property_pipelineCommits
+    {
+    }
+
+    /**
+     * Property offHeapRevisionCacheSize
+     * <p>
+     * Specifies the maximum number of bytes of direct (off-heap) memory that the repository uses to cache revisions in serialized form.
+     * The revisions are evicted according to their access frequency and recency when the cache is full.
+     * If not set, the default memory sensitive revision cache is used.
+     * <p>
+     * Valid values: <code>0</code> (default) or a positive number of bytes.
+     */
+    public class Property_offHeapRevisionCacheSize
+    {
+    }
+
+    /**
+     * Property commitNotificationThreads
+     * <p>
+     * Specifies the number of threads that send the commit notifications to the sessions of the repository.
+     * If set, the committing thread does not wait for slow sessions; the notifications of each session are still sent in commit order.
+     * If not set, the committing thread sends the notifications itself.
+     * <p>
+     * Valid values: <code>0</code> (default) or a positive integer.
+     */
+    public class Property_commitNotificationThreads
+    {
+    }
+
+    /**
+     * Property commitNotificationCoalescingThreshold
+     * <p>
+     * Specifies how many commit notifications may wait for a slow session before consecutive notifications of the same branch
+     * are combined into a single one. Only used if {@link Property_commitNotificationThreads commitNotificationThreads} is set.
+     * <p>
+     * Valid values: <code>64</code> (default) or a positive integer.
+     */
+    public class Property_commitNotificationCoalescingThreshold
+    {
+    }
+
+    /**
+     * Property commitNotificationMaxQueueDepth
+     * <p>
+     * Specifies how many notifications may wait for a slow session before they're dropped and the session is closed.
+     * Only used if {@link Property_commitNotificationThreads commitNotificationThreads} is set.
+     * <p>
+     * Valid values: <code>10000</code> (default) or a positive integer.
+     */
+    public class Property_commitNotificationMaxQueueDepth
+    {
+    }
+
     /**
      * Property allowInterruptRunningQueries
      * <p>
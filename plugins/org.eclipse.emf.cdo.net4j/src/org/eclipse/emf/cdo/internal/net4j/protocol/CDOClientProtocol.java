@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2016, 2018-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2016, 2018-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -84,6 +84,7 @@ import org.eclipse.emf.spi.cdo.InternalCDOTransaction.InternalCDOCommitContext;
 import org.eclipse.emf.spi.cdo.InternalCDOXATransaction.InternalCDOXACommitContext;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -322,6 +323,12 @@ public class CDOClientProtocol extends AuthenticatingSignalProtocol<InternalCDOS
     }
   }
 
+  @Override
+  public void addQueryCredits(int queryID, int credits)
+  {
+    send(new QueryCreditRequest(this, queryID, credits));
+  }
+
   @Override
   public LockObjectsResult lockObjects2(List<CDORevisionKey> revisionKeys, int viewID, CDOBranch viewedBranch, LockType lockType, boolean recursive,
       long timeout) throws InterruptedException
@@ -451,6 +458,27 @@ public class CDOClientProtocol extends AuthenticatingSignalProtocol<InternalCDOS
     }
   }
 
+  @Override
+  public void loadLob(CDOLobInfo info, long offset, long length, OutputStream out) throws IOException
+  {
+    try
+    {
+      new LoadLobRangeRequest(this, info, offset, length, out).send();
+    }
+    catch (RuntimeException ex)
+    {
+      throw ex;
+    }
+    catch (IOException ex)
+    {
+      throw ex;
+    }
+    catch (Exception ex)
+    {
+      throw new TransportException(ex);
+    }
+  }
+
   @Override
   public void handleRevisions(EClass eClass, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
   {
@@ -60,7 +60,6 @@ import org.eclipse.emf.spi.cdo.InternalCDOTransaction.InternalCDOCommitContext;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.util.ArrayList;
@@ -275,9 +274,8 @@ public class CommitTransactionRequest extends CDOClientRequestWithMonitoring<Com
           CDOBlob blob = (CDOBlob)lob;
           out.writeBoolean(true); // Binary
 
-          InputStream contents = blob.getContents();
-          closeable = contents;
-          IOUtil.copyBinary(contents, out, size);
+          // Lob stores that keep the contents in files transfer them without copying them through the heap.
+          blob.getStore().writeBinary(blob, out);
         }
         else
         {
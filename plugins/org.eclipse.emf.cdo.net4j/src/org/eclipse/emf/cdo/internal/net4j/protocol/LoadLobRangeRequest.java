@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.net4j.protocol;
+
+import org.eclipse.emf.cdo.common.lob.CDOLobInfo;
+import org.eclipse.emf.cdo.common.protocol.CDODataInput;
+import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
+
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.IOUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @author Eike Stepper
+ */
+public class LoadLobRangeRequest extends CDOClientRequest<Boolean>
+{
+  private CDOLobInfo info;
+
+  private long offset;
+
+  private long length;
+
+  private OutputStream out;
+
+  public LoadLobRangeRequest(CDOClientProtocol protocol, CDOLobInfo info, long offset, long length, OutputStream out)
+  {
+    super(protocol, CDOProtocolConstants.SIGNAL_LOAD_LOB_RANGE);
+    this.info = info;
+    this.offset = offset;
+
+    // The server sends exactly the bytes of the range that lie within the large object.
+    this.length = Math.max(0L, Math.min(length, info.getSize() - offset));
+    this.out = out;
+  }
+
+  @Override
+  protected void requesting(CDODataOutput out) throws IOException
+  {
+    out.writeByteArray(info.getID());
+    out.writeXLong(offset);
+    out.writeXLong(length);
+  }
+
+  @Override
+  protected Boolean confirming(ExtendedDataInputStream in) throws Exception
+  {
+    try
+    {
+      IOUtil.copyBinary(in, out, length);
+    }
+    finally
+    {
+      out.close();
+    }
+
+    return true;
+  }
+
+  @Override
+  protected Boolean confirming(CDODataInput in) throws IOException
+  {
+    throw new UnsupportedOperationException();
+  }
+}
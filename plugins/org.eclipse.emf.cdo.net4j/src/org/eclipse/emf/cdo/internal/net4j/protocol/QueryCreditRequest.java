@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.net4j.protocol;
+
+import org.eclipse.emf.cdo.common.protocol.CDODataInput;
+import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
+
+import java.io.IOException;
+
+/**
+ * @author Eike Stepper
+ */
+public class QueryCreditRequest extends CDOClientRequest<Boolean>
+{
+  private int queryID;
+
+  private int credits;
+
+  public QueryCreditRequest(CDOClientProtocol protocol, int queryID, int credits)
+  {
+    super(protocol, CDOProtocolConstants.SIGNAL_QUERY_CREDIT);
+    this.queryID = queryID;
+    this.credits = credits;
+  }
+
+  @Override
+  protected void requesting(CDODataOutput out) throws IOException
+  {
+    out.writeXInt(queryID);
+    out.writeXInt(credits);
+  }
+
+  @Override
+  protected Boolean confirming(CDODataInput in) throws IOException
+  {
+    return in.readBoolean();
+  }
+}
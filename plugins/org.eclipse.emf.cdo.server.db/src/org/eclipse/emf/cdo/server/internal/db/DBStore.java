@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2015, 2016, 2019-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2013, 2015, 2016, 2019-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,6 +43,7 @@ import org.eclipse.emf.cdo.spi.server.InternalSession;
 import org.eclipse.emf.cdo.spi.server.LongIDStoreAccessor;
 import org.eclipse.emf.cdo.spi.server.Store;
 import org.eclipse.emf.cdo.spi.server.StoreAccessorPool;
+import org.eclipse.emf.cdo.spi.server.XRefIndexUtil;
 
 import org.eclipse.net4j.db.DBException;
 import org.eclipse.net4j.db.DBType;
@@ -148,6 +149,8 @@ public class DBStore extends Store implements IDBStore, CDOAllRevisionsProvider,
 
   private UnitMappingTable unitMappingTable;
 
+  private XRefTable xRefTable;
+
   private IMappingStrategy mappingStrategy;
 
   private IDBDatabase database;
@@ -339,6 +342,11 @@ public class DBStore extends Store implements IDBStore, CDOAllRevisionsProvider,
     return unitMappingTable;
   }
 
+  public XRefTable getXRefTable()
+  {
+    return xRefTable;
+  }
+
   public Timer getConnectionKeepAliveTimer()
   {
     return connectionKeepAliveTimer;
@@ -562,6 +570,12 @@ public class DBStore extends Store implements IDBStore, CDOAllRevisionsProvider,
   @Override
   public void doPostActivate(InternalSession session)
   {
+    if (xRefTable != null && !xRefTable.isComplete())
+    {
+      OM.LOG.info("Filling the XRef index of repository " + getRepository().getName() + "...");
+      xRefTable.fill((DBStoreAccessor)StoreThreadLocal.getAccessor());
+    }
+
     // if (OMPlatform.INSTANCE.isProperty("org.eclipse.emf.cdo.server.db.MIGRATE_WRONG_CONTAINERS"))
     // {
     // DBStoreAccessor reader = getReader(session);
@@ -714,12 +728,28 @@ public class DBStore extends Store implements IDBStore, CDOAllRevisionsProvider,
       unitMappingTable.activate();
     }
 
+    if (XRefIndexUtil.isXRefIndexed(repository))
+    {
+      xRefTable = new XRefTable(this);
+      xRefTable.activate();
+    }
+    else
+    {
+      XRefTable.invalidate(this);
+    }
+
     setRevisionTemporality(mappingStrategy.hasAuditSupport() ? RevisionTemporality.AUDITING : RevisionTemporality.NONE);
     setRevisionParallelism(mappingStrategy.hasBranchingSupport() ? RevisionParallelism.BRANCHING : RevisionParallelism.NONE);
 
     if (schemaVersion == FIRST_START)
     {
       firstStart();
+
+      if (xRefTable != null)
+      {
+        // The index of an empty repository is complete.
+        xRefTable.markComplete();
+      }
     }
     else
     {
@@ -732,6 +762,9 @@ public class DBStore extends Store implements IDBStore, CDOAllRevisionsProvider,
   @Override
   protected void doDeactivate() throws Exception
   {
+    LifecycleUtil.deactivate(xRefTable);
+    xRefTable = null;
+
     LifecycleUtil.deactivate(unitMappingTable);
     LifecycleUtil.deactivate(commitInfoTable);
     LifecycleUtil.deactivate(mappingStrategy);
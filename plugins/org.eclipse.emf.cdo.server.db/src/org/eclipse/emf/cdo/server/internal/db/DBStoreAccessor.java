@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2016, 2018-2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2016, 2018-2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,13 +31,16 @@ import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.CDORevisionCacheAdder;
 import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.common.revision.CDORevisionManager;
 import org.eclipse.emf.cdo.common.util.CDOQueryInfo;
 import org.eclipse.emf.cdo.eresource.EresourcePackage;
 import org.eclipse.emf.cdo.server.IQueryHandler;
 import org.eclipse.emf.cdo.server.IRepository;
 import org.eclipse.emf.cdo.server.ISession;
 import org.eclipse.emf.cdo.server.IStoreAccessor;
+import org.eclipse.emf.cdo.server.IStoreAccessor.BatchReadSupport;
 import org.eclipse.emf.cdo.server.IStoreAccessor.DurableLocking2;
+import org.eclipse.emf.cdo.server.IStoreAccessor.LobRangeSupport;
 import org.eclipse.emf.cdo.server.ITransaction;
 import org.eclipse.emf.cdo.server.IView;
 import org.eclipse.emf.cdo.server.StoreThreadLocal;
@@ -53,6 +56,7 @@ import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy2;
 import org.eclipse.emf.cdo.server.internal.db.DBStoreTables.BranchesTable;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.AbstractHorizontalClassMapping;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.AbstractHorizontalMappingStrategy;
 import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.UnitMappingTable;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranchManager.BranchLoader5;
 import org.eclipse.emf.cdo.spi.common.commit.CDOChangeSetSegment;
@@ -101,6 +105,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -111,7 +116,7 @@ import java.util.function.Consumer;
 /**
  * @author Eike Stepper
  */
-public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor, BranchLoader5, DurableLocking2
+public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor, BranchLoader5, DurableLocking2, BatchReadSupport, LobRangeSupport
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, DBStoreAccessor.class);
 
@@ -215,6 +220,84 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     return null;
   }
 
+  /**
+   * Returns the types of the objects with the given IDs. The types that are not known to the revision manager or to the
+   * current commit context are read from the database in one round trip, if the mapping strategy supports that.
+   */
+  public Map<CDOID, EClass> getObjectTypes(Collection<CDOID> ids)
+  {
+    Map<CDOID, EClass> result = CDOIDUtil.createMap();
+    List<CDOID> missingIDs = new ArrayList<>();
+
+    IRepository repository = getStore().getRepository();
+    CDOID rootResourceID = repository.getRootResourceID();
+    CDORevisionManager revisionManager = repository.getRevisionManager();
+    CommitContext commitContext = StoreThreadLocal.getCommitContext();
+
+    for (CDOID id : ids)
+    {
+      EClass eClass = null;
+      if (id.equals(rootResourceID))
+      {
+        eClass = EresourcePackage.Literals.CDO_RESOURCE;
+      }
+      else
+      {
+        eClass = revisionManager.getObjectType(id);
+        if (eClass == null && commitContext != null)
+        {
+          InternalCDORevision revision = commitContext.getNewRevisions().get(id);
+          if (revision != null)
+          {
+            eClass = revision.getEClass();
+          }
+        }
+      }
+
+      if (eClass != null)
+      {
+        result.put(id, eClass);
+      }
+      else
+      {
+        missingIDs.add(id);
+      }
+    }
+
+    if (!missingIDs.isEmpty())
+    {
+      CDOPackageRegistry packageRegistry = repository.getPackageRegistry();
+      IMappingStrategy mappingStrategy = getStore().getMappingStrategy();
+
+      if (mappingStrategy instanceof AbstractHorizontalMappingStrategy)
+      {
+        if (TRACER.isEnabled())
+        {
+          TRACER.format("Selecting object types: {0}", missingIDs); //$NON-NLS-1$
+        }
+
+        Map<CDOID, CDOClassifierRef> types = ((AbstractHorizontalMappingStrategy)mappingStrategy).readObjectTypes(this, missingIDs);
+        for (Map.Entry<CDOID, CDOClassifierRef> entry : types.entrySet())
+        {
+          result.put(entry.getKey(), (EClass)entry.getValue().resolve(packageRegistry));
+        }
+      }
+      else
+      {
+        for (CDOID id : missingIDs)
+        {
+          CDOClassifierRef type = readObjectType(id);
+          if (type != null)
+          {
+            result.put(id, (EClass)type.resolve(packageRegistry));
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
   @Override
   public InternalCDORevision readRevision(CDOID id, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache)
   {
@@ -248,6 +331,62 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     return null;
   }
 
+  @Override
+  public Map<CDOID, InternalCDORevision> readRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache)
+  {
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Selecting {0} revisions from {1}", ids.size(), branchPoint); //$NON-NLS-1$
+    }
+
+    DBStore store = getStore();
+    IMappingStrategy mappingStrategy = store.getMappingStrategy();
+    Map<EClass, List<InternalCDORevision>> revisionsByClass = new HashMap<>();
+
+    for (Map.Entry<CDOID, EClass> entry : getObjectTypes(ids).entrySet())
+    {
+      EClass eClass = entry.getValue();
+
+      InternalCDORevision revision = store.createRevision(eClass, entry.getKey());
+      revision.setBranchPoint(branchPoint); // This is part of the search criterion, being replaced later
+
+      revisionsByClass.computeIfAbsent(eClass, k -> new ArrayList<>()).add(revision);
+    }
+
+    Map<CDOID, InternalCDORevision> result = CDOIDUtil.createMap();
+
+    for (Map.Entry<EClass, List<InternalCDORevision>> entry : revisionsByClass.entrySet())
+    {
+      EClass eClass = entry.getKey();
+      List<InternalCDORevision> revisions = entry.getValue();
+
+      IClassMapping mapping = mappingStrategy.getClassMapping(eClass);
+      if (mapping instanceof AbstractHorizontalClassMapping)
+      {
+        revisions = ((AbstractHorizontalClassMapping)mapping).readRevisions(this, revisions, listChunk);
+      }
+      else
+      {
+        revisions.removeIf(revision -> !mapping.readRevision(this, revision, listChunk));
+      }
+
+      for (InternalCDORevision revision : revisions)
+      {
+        CDOID id = revision.getID();
+
+        int version = revision.getVersion();
+        if (version < CDOBranchVersion.UNSPECIFIED_VERSION)
+        {
+          revision = new DetachedCDORevision(eClass, id, revision.getBranch(), -version, revision.getTimeStamp(), revision.getRevised());
+        }
+
+        result.put(id, revision);
+      }
+    }
+
+    return result;
+  }
+
   @Override
   public InternalCDORevision readRevisionByVersion(CDOID id, CDOBranchVersion branchVersion, int listChunk, CDORevisionCacheAdder cache)
   {
@@ -317,6 +456,13 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
   @Override
   public void queryXRefs(QueryXRefsContext context)
   {
+    XRefTable xRefTable = getStore().getXRefTable();
+    if (xRefTable != null && xRefTable.isComplete())
+    {
+      xRefTable.queryXRefs(this, context);
+      return;
+    }
+
     IMappingStrategy mappingStrategy = getStore().getMappingStrategy();
     mappingStrategy.queryXRefs(this, context);
   }
@@ -345,6 +491,12 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     getStore().tables().lobs().loadLob(connection, id, out);
   }
 
+  @Override
+  public void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException
+  {
+    getStore().tables().lobs().loadLob(connection, id, offset, length, out);
+  }
+
   @Override
   public void handleLobs(long fromTime, long toTime, CDOLobHandler handler) throws IOException
   {
@@ -722,6 +874,12 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
       }
 
       super.doWrite(context, monitor);
+
+      XRefTable xRefTable = getStore().getXRefTable();
+      if (xRefTable != null)
+      {
+        xRefTable.writeXRefs(this, context);
+      }
     }
     finally
     {
@@ -942,6 +1100,13 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
         schemaTransaction.close();
       }
 
+      XRefTable xRefTable = store.getXRefTable();
+      if (xRefTable != null)
+      {
+        // The imported revisions have bypassed the XRef index.
+        xRefTable.invalidate();
+      }
+
       rawCommit(commitWork, monitor);
     }
     catch (RuntimeException ex)
@@ -1054,6 +1219,12 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
 
     writeRevision(revision, firstRevision, false, monitor);
     getStore().getIDHandler().adjustLastObjectID(id);
+
+    XRefTable xRefTable = getStore().getXRefTable();
+    if (xRefTable != null)
+    {
+      xRefTable.writeXRefs(this, revision);
+    }
   }
 
   @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1123,6 +1123,39 @@ public class DBStoreTables extends Lifecycle
       }
     }
 
+    public void loadLob(IDBConnection connection, byte[] id, long offset, long length, OutputStream out) throws IOException
+    {
+      IDBPreparedStatement stmt = connection.prepareStatement(sqlLoadLob, ReuseProbability.MEDIUM);
+      ResultSet resultSet = null;
+
+      try
+      {
+        stmt.setString(1, HexUtil.bytesToHex(id));
+        resultSet = stmt.executeQuery();
+        resultSet.next();
+
+        long size = resultSet.getLong(1);
+        InputStream inputStream = resultSet.getBinaryStream(2);
+        if (resultSet.wasNull())
+        {
+          throw new IOException("Not a blob: " + HexUtil.bytesToHex(id));
+        }
+
+        long start = Math.min(offset, size);
+        IOUtil.skipFully(inputStream, start);
+        IOUtil.copyBinary(inputStream, out, Math.min(length, size - start));
+      }
+      catch (SQLException ex)
+      {
+        throw new DBException(ex);
+      }
+      finally
+      {
+        DBUtil.close(resultSet);
+        DBUtil.close(stmt);
+      }
+    }
+
     public void handleLobs(IDBConnection connection, long fromTime, long toTime, CDOLobHandler handler) throws IOException
     {
       IDBPreparedStatement stmt = connection.prepareStatement(sqlHandleLobs, ReuseProbability.LOW);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011-2013, 2016 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011-2013, 2016, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,8 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -33,6 +35,11 @@ public interface IObjectTypeMapper
 {
   public CDOClassifierRef getObjectType(IDBStoreAccessor accessor, CDOID id);
 
+  /**
+   * Returns the types of the objects with the given IDs, omitting the IDs that are not known.
+   */
+  public Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids);
+
   public boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type);
 
   public boolean removeObjectType(IDBStoreAccessor accessor, CDOID id);
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.db;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
+import org.eclipse.emf.cdo.server.db.IDBStore;
+import org.eclipse.emf.cdo.server.db.IIDHandler;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
+import org.eclipse.emf.cdo.spi.common.revision.SyntheticCDORevision;
+import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
+import org.eclipse.emf.cdo.spi.server.XRefIndexUtil;
+
+import org.eclipse.net4j.db.BatchedStatement;
+import org.eclipse.net4j.db.DBException;
+import org.eclipse.net4j.db.DBType;
+import org.eclipse.net4j.db.DBUtil;
+import org.eclipse.net4j.db.IDBConnection;
+import org.eclipse.net4j.db.IDBPreparedStatement.ReuseProbability;
+import org.eclipse.net4j.db.ddl.IDBField;
+import org.eclipse.net4j.db.ddl.IDBIndex;
+import org.eclipse.net4j.db.ddl.IDBTable;
+import org.eclipse.net4j.util.StringUtil;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The reverse reference index of a {@link DBStore}, i.e., a table that maps the IDs of referenced objects to the IDs of
+ * the objects that reference them in a branch. With this index a {@link #queryXRefs(DBStoreAccessor, QueryXRefsContext)
+ * cross reference query} selects the candidate sources with one indexed lookup, instead of scanning the tables of all
+ * classes with references to the classes of the target objects.
+ * <p>
+ * The index is written in the same transaction as the revisions of a commit. It contains a superset of the actual
+ * references; the rows of removed references are not deleted. The candidate sources are therefore
+ * {@link XRefIndexUtil#addXRefs(QueryXRefsContext, InternalCDORevision) verified} against their revisions that are
+ * valid at the branch point of the query.
+ * <p>
+ * If the index is enabled for an existing repository, or if revisions have been imported in bulk, it is
+ * {@link #fill(DBStoreAccessor) filled} from all revisions when the repository is activated the next time. Until then
+ * cross reference queries fall back to the table scans of the mapping strategy.
+ *
+ * @author Eike Stepper
+ */
+public class XRefTable extends DBStoreTable
+{
+  private static final String PROP_COMPLETE = "org.eclipse.emf.cdo.server.db.xRefIndexComplete"; //$NON-NLS-1$
+
+  private static final int WRITE_BATCH_SIZE = 10000;
+
+  private static final int READ_CHUNK_SIZE = 1000;
+
+  private IDBField source;
+
+  private IDBField branch;
+
+  private IDBField target;
+
+  private String sqlInsert;
+
+  private boolean complete;
+
+  public XRefTable(IDBStore store)
+  {
+    super(store, NAMES.XREFS);
+  }
+
+  /**
+   * Returns <code>true</code> if this index contains the references of all revisions of the store.
+   */
+  public boolean isComplete()
+  {
+    return complete;
+  }
+
+  public void markComplete()
+  {
+    ((DBStore)store()).putPersistentProperty(PROP_COMPLETE, StringUtil.TRUE);
+    complete = true;
+  }
+
+  /**
+   * Marks this index as incomplete, so that cross reference queries fall back to the table scans of the mapping strategy
+   * until the index is filled again, the next time the store is activated.
+   */
+  public void invalidate()
+  {
+    invalidate((DBStore)store());
+    complete = false;
+  }
+
+  /**
+   * Adds the references of the new objects and the references that the dirty objects of the given commit context have
+   * gained.
+   */
+  public void writeXRefs(DBStoreAccessor accessor, InternalCommitContext context)
+  {
+    Map<CDOID, Set<CDOID>> xRefs = new HashMap<>();
+
+    for (InternalCDORevision revision : context.getNewObjects())
+    {
+      XRefIndexUtil.collectTargetIDs(revision, getTargetIDs(xRefs, revision.getID()));
+    }
+
+    InternalCDORevisionDelta[] dirtyObjectDeltas = context.getDirtyObjectDeltas();
+    InternalCDORevision[] dirtyObjects = context.getDirtyObjects();
+
+    for (int i = 0; i < dirtyObjects.length; i++)
+    {
+      InternalCDORevision revision = dirtyObjects[i];
+      Set<CDOID> targetIDs = getTargetIDs(xRefs, revision.getID());
+
+      if (revision.getVersion() == CDOBranchVersion.FIRST_VERSION)
+      {
+        // The first revision of an object in a sub branch.
+        XRefIndexUtil.collectTargetIDs(revision, targetIDs);
+      }
+      else
+      {
+        XRefIndexUtil.collectTargetIDs(dirtyObjectDeltas[i], targetIDs);
+      }
+    }
+
+    writeXRefs(accessor, context.getBranchPoint().getBranch(), xRefs);
+  }
+
+  /**
+   * Adds the references of the given revision, for example of a revision that is replicated from a master repository.
+   */
+  public void writeXRefs(DBStoreAccessor accessor, InternalCDORevision revision)
+  {
+    if (!(revision instanceof SyntheticCDORevision))
+    {
+      Set<CDOID> targetIDs = new HashSet<>();
+      XRefIndexUtil.collectTargetIDs(revision, targetIDs);
+      writeXRefs(accessor, revision.getBranch(), Collections.singletonMap(revision.getID(), targetIDs));
+    }
+  }
+
+  /**
+   * Replaces the content of this index with the references of all revisions of the store and commits the connection of
+   * the given accessor.
+   */
+  public void fill(DBStoreAccessor accessor)
+  {
+    IDBConnection connection = accessor.getDBConnection();
+    IIDHandler idHandler = store().getIDHandler();
+    BatchedStatement stmt = null;
+
+    try
+    {
+      DBUtil.clearTable(connection, table());
+
+      BatchedStatement batchedStatement = DBUtil.batched(connection.prepareStatement(sqlInsert, ReuseProbability.HIGH), WRITE_BATCH_SIZE);
+      stmt = batchedStatement;
+
+      accessor.handleRevisions(null, null, CDOBranchPoint.INVALID_DATE, false, rev -> {
+        if (!(rev instanceof SyntheticCDORevision))
+        {
+          InternalCDORevision revision = (InternalCDORevision)rev;
+          Set<CDOID> targetIDs = new HashSet<>();
+          XRefIndexUtil.collectTargetIDs(revision, targetIDs);
+
+          try
+          {
+            writeXRefs(batchedStatement, idHandler, revision.getID(), revision.getBranch().getID(), targetIDs);
+          }
+          catch (SQLException ex)
+          {
+            throw new DBException(ex);
+          }
+        }
+
+        return true;
+      });
+
+      stmt.close();
+      stmt = null;
+
+      connection.commit();
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(stmt);
+    }
+
+    markComplete();
+  }
+
+  /**
+   * Reports the references of the given context with the help of this index.
+   */
+  public void queryXRefs(DBStoreAccessor accessor, QueryXRefsContext context)
+  {
+    IIDHandler idHandler = store().getIDHandler();
+    CDOBranch contextBranch = context.getBranch();
+
+    StringBuilder builder = new StringBuilder();
+    builder.append("SELECT DISTINCT "); //$NON-NLS-1$
+    builder.append(source);
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(table());
+    builder.append(" WHERE "); //$NON-NLS-1$
+    builder.append(branch);
+    builder.append("="); //$NON-NLS-1$
+    builder.append(contextBranch.getID());
+    builder.append(" AND "); //$NON-NLS-1$
+    builder.append(target);
+    builder.append(" IN ("); //$NON-NLS-1$
+
+    boolean first = true;
+    for (CDOID targetID : context.getTargetObjects().keySet())
+    {
+      // NOTE: No support for external references, just like in the mapping strategies.
+      if (!targetID.isExternal())
+      {
+        if (first)
+        {
+          first = false;
+        }
+        else
+        {
+          builder.append(","); //$NON-NLS-1$
+        }
+
+        idHandler.appendCDOID(builder, targetID);
+      }
+    }
+
+    if (first)
+    {
+      return;
+    }
+
+    builder.append(")"); //$NON-NLS-1$
+
+    List<CDOID> sourceIDs = new ArrayList<>();
+    Statement stmt = null;
+    ResultSet resultSet = null;
+
+    try
+    {
+      stmt = accessor.getDBConnection().createStatement();
+
+      if (DBUtil.isTracerEnabled())
+      {
+        DBUtil.trace(builder.toString());
+      }
+
+      resultSet = stmt.executeQuery(builder.toString());
+      while (resultSet.next())
+      {
+        sourceIDs.add(idHandler.getCDOID(resultSet, 1));
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+
+    CDOBranchPoint branchPoint = contextBranch.getPoint(context.getTimeStamp());
+    for (int start = 0; start < sourceIDs.size(); start += READ_CHUNK_SIZE)
+    {
+      List<CDOID> chunk = sourceIDs.subList(start, Math.min(start + READ_CHUNK_SIZE, sourceIDs.size()));
+      Map<CDOID, InternalCDORevision> revisions = accessor.readRevisions(chunk, branchPoint, CDORevision.UNCHUNKED, null);
+
+      for (CDOID sourceID : chunk)
+      {
+        InternalCDORevision revision = revisions.get(sourceID);
+        if (revision != null && !(revision instanceof SyntheticCDORevision))
+        {
+          if (!XRefIndexUtil.addXRefs(context, revision))
+          {
+            // No more results allowed
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void firstActivate(IDBTable table)
+  {
+    DBType idType = store().getIDHandler().getDBType();
+    int idLength = store().getIDColumnLength();
+
+    source = table.addField(NAMES.SOURCE, idType, idLength, true);
+    branch = table.addField(NAMES.BRANCH, DBType.INTEGER, true);
+    target = table.addField(NAMES.TARGET, idType, idLength, true);
+
+    table.addIndex(IDBIndex.Type.NON_UNIQUE, target, branch);
+  }
+
+  @Override
+  protected void reActivate(IDBTable table)
+  {
+    source = table.getField(NAMES.SOURCE);
+    branch = table.getField(NAMES.BRANCH);
+    target = table.getField(NAMES.TARGET);
+  }
+
+  @Override
+  protected void initSQL(IDBTable table)
+  {
+    sqlInsert = "INSERT INTO " + table + " (" + source + ", " + branch + ", " + target + ") VALUES (?, ?, ?)"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+  }
+
+  @Override
+  protected void doActivate() throws Exception
+  {
+    super.doActivate();
+
+    Map<String, String> properties = store().getPersistentProperties(Collections.singleton(PROP_COMPLETE));
+    complete = Boolean.parseBoolean(properties.get(PROP_COMPLETE));
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    sqlInsert = null;
+    complete = false;
+    super.doDeactivate();
+  }
+
+  private void writeXRefs(DBStoreAccessor accessor, CDOBranch branch, Map<CDOID, ? extends Collection<CDOID>> xRefs)
+  {
+    IIDHandler idHandler = store().getIDHandler();
+    IDBConnection connection = accessor.getDBConnection();
+    BatchedStatement stmt = DBUtil.batched(connection.prepareStatement(sqlInsert, ReuseProbability.HIGH), WRITE_BATCH_SIZE);
+
+    try
+    {
+      int branchID = branch.getID();
+      for (Map.Entry<CDOID, ? extends Collection<CDOID>> entry : xRefs.entrySet())
+      {
+        writeXRefs(stmt, idHandler, entry.getKey(), branchID, entry.getValue());
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(stmt);
+    }
+  }
+
+  private void writeXRefs(BatchedStatement stmt, IIDHandler idHandler, CDOID sourceID, int branchID, Collection<CDOID> targetIDs) throws SQLException
+  {
+    for (CDOID targetID : targetIDs)
+    {
+      if (!targetID.isExternal())
+      {
+        idHandler.setCDOID(stmt, 1, sourceID);
+        stmt.setInt(2, branchID);
+        idHandler.setCDOID(stmt, 3, targetID);
+        stmt.executeUpdate();
+      }
+    }
+  }
+
+  private static Set<CDOID> getTargetIDs(Map<CDOID, Set<CDOID>> xRefs, CDOID sourceID)
+  {
+    return xRefs.computeIfAbsent(sourceID, key -> new HashSet<>());
+  }
+
+  /**
+   * Removes the marker of a complete index, so that the index is filled again when it is enabled the next time. Must be
+   * called when the store is activated without the index, because the commits of such a store don't maintain it.
+   */
+  public static void invalidate(DBStore store)
+  {
+    store.removePersistentProperties(Collections.singleton(PROP_COMPLETE));
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class NAMES
+  {
+    private static final String XREFS = name("cdo_xrefs"); //$NON-NLS-1$
+
+    private static final String SOURCE = name("cdo_source"); //$NON-NLS-1$
+
+    private static final String BRANCH = name("cdo_branch"); //$NON-NLS-1$
+
+    private static final String TARGET = name("cdo_target"); //$NON-NLS-1$
+
+    private static String name(String name)
+    {
+      return DBUtil.name(name, XRefTable.class);
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015, 2016, 2018-2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015, 2016, 2018-2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import org.eclipse.emf.cdo.common.branch.CDOBranchManager;
 import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.model.CDOFeatureType;
 import org.eclipse.emf.cdo.common.model.CDOModelUtil;
 import org.eclipse.emf.cdo.common.revision.CDOList;
@@ -95,6 +96,8 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
 {
   protected static final int UNSET_LIST = -1;
 
+  private static final int MAX_IN_LIST_SIZE = 1000;
+
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, AbstractHorizontalClassMapping.class);
 
   protected IDBTable table;
@@ -131,6 +134,8 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
 
   private String sqlSelectForChangeSet;
 
+  private String sqlSelectCurrentAttributesIn;
+
   public AbstractHorizontalClassMapping(AbstractHorizontalMappingStrategy mappingStrategy, EClass eClass)
   {
     this.mappingStrategy = mappingStrategy;
@@ -381,6 +386,60 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
     builder.append(table);
     builder.append(" WHERE "); //$NON-NLS-1$
     sqlSelectForChangeSet = builder.toString();
+
+    // ----------- Select current revisions (for readRevisions) ---
+    builder = new StringBuilder("SELECT "); //$NON-NLS-1$
+    builder.append(idField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(versionField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(createdField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(revisedField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(resourceField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(containerField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(featureField);
+    appendTypeMappingNames(builder, getValueMappings());
+    appendFieldNames(builder, getUnsettableFields());
+    appendFieldNames(builder, getListSizeFields());
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(table);
+    builder.append(" WHERE "); //$NON-NLS-1$
+    appendCurrentRevisionsCondition(builder);
+    builder.append(idField);
+    builder.append(" IN ("); //$NON-NLS-1$
+    sqlSelectCurrentAttributesIn = builder.toString();
+  }
+
+  /**
+   * Appends the condition that restricts the {@link #readRevisions(IDBStoreAccessor, List, int) batch reads} to the
+   * current revisions, followed by <code>" AND "</code>.
+   */
+  protected void appendCurrentRevisionsCondition(StringBuilder builder)
+  {
+    // Do nothing.
+  }
+
+  /**
+   * Sets the parameters of the condition that has been appended in {@link #appendCurrentRevisionsCondition(StringBuilder)}.
+   *
+   * @return the next column.
+   */
+  protected int setCurrentRevisionsParameters(PreparedStatement stmt, int column, CDOBranch branch) throws SQLException
+  {
+    return column;
+  }
+
+  /**
+   * Checks whether the given current revisions have been changed by a commit while their lists were read, and adds the
+   * IDs of the changed revisions to the given set.
+   */
+  protected void checkCurrentRevisions(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, Set<CDOID> changedIDs)
+  {
+    // Do nothing.
   }
 
   protected void appendSelectForHandleFields(StringBuilder builder)
@@ -463,77 +522,234 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
     {
       if (resultSet.next())
       {
-        long timeStamp = resultSet.getLong(MappingNames.ATTRIBUTES_CREATED);
-        CDOBranchPoint branchPoint = revision.getBranch().getPoint(timeStamp);
-
         if (forUnit)
         {
           revision.setID(idHandler.getCDOID(resultSet, MappingNames.ATTRIBUTES_ID));
         }
 
-        revision.setBranchPoint(branchPoint);
-        revision.setVersion(resultSet.getInt(MappingNames.ATTRIBUTES_VERSION));
-        revision.setRevised(resultSet.getLong(MappingNames.ATTRIBUTES_REVISED));
-        revision.setResourceID(idHandler.getCDOID(resultSet, MappingNames.ATTRIBUTES_RESOURCE));
-        revision.setContainerID(idHandler.getCDOID(resultSet, MappingNames.ATTRIBUTES_CONTAINER));
-        revision.setContainingFeatureID(resultSet.getInt(MappingNames.ATTRIBUTES_FEATURE));
+        readValuesFromRow(resultSet, idHandler, revision);
+        return true;
+      }
 
-        for (ITypeMapping mapping : valueMappings)
+      return false;
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+  }
+
+  private void readValuesFromRow(ResultSet resultSet, IIDHandler idHandler, InternalCDORevision revision) throws SQLException
+  {
+    long timeStamp = resultSet.getLong(MappingNames.ATTRIBUTES_CREATED);
+    CDOBranchPoint branchPoint = revision.getBranch().getPoint(timeStamp);
+
+    revision.setBranchPoint(branchPoint);
+    revision.setVersion(resultSet.getInt(MappingNames.ATTRIBUTES_VERSION));
+    revision.setRevised(resultSet.getLong(MappingNames.ATTRIBUTES_REVISED));
+    revision.setResourceID(idHandler.getCDOID(resultSet, MappingNames.ATTRIBUTES_RESOURCE));
+    revision.setContainerID(idHandler.getCDOID(resultSet, MappingNames.ATTRIBUTES_CONTAINER));
+    revision.setContainingFeatureID(resultSet.getInt(MappingNames.ATTRIBUTES_FEATURE));
+
+    for (ITypeMapping mapping : valueMappings)
+    {
+      EStructuralFeature feature = mapping.getFeature();
+      if (feature.isUnsettable())
+      {
+        IDBField field = unsettableFields.get(feature);
+        if (!resultSet.getBoolean(field.getName()))
         {
-          EStructuralFeature feature = mapping.getFeature();
-          if (feature.isUnsettable())
-          {
-            IDBField field = unsettableFields.get(feature);
-            if (!resultSet.getBoolean(field.getName()))
-            {
-              // isSet==false -- setValue: null
-              revision.setValue(feature, null);
-              continue;
-            }
-          }
+          // isSet==false -- setValue: null
+          revision.setValue(feature, null);
+          continue;
+        }
+      }
+
+      mapping.readValueToRevision(resultSet, revision);
+    }
+
+    if (listSizeFields != null)
+    {
+      for (Map.Entry<EStructuralFeature, IDBField> listSizeEntry : listSizeFields.entrySet())
+      {
+        EStructuralFeature feature = listSizeEntry.getKey();
+        IDBField field = listSizeEntry.getValue();
 
-          mapping.readValueToRevision(resultSet, revision);
+        int size = resultSet.getInt(field.getName());
+        if (size == UNSET_LIST)
+        {
+          // Leave the list slot in the revision null.
+          continue;
         }
 
-        if (listSizeFields != null)
+        // Ensure the list size.
+        CDOList list = revision.getOrCreateList(feature, size);
+        for (int i = 0; i < size; i++)
         {
-          for (Map.Entry<EStructuralFeature, IDBField> listSizeEntry : listSizeFields.entrySet())
-          {
-            EStructuralFeature feature = listSizeEntry.getKey();
-            IDBField field = listSizeEntry.getValue();
+          list.add(InternalCDOList.UNINITIALIZED);
+        }
+      }
+    }
+  }
 
-            int size = resultSet.getInt(field.getName());
-            if (size == UNSET_LIST)
-            {
-              // Leave the list slot in the revision null.
-              continue;
-            }
+  protected final void readLists(IDBStoreAccessor accessor, InternalCDORevision revision, int listChunk)
+  {
+    for (IListMapping listMapping : listMappings)
+    {
+      listMapping.readValues(accessor, revision, listChunk);
+    }
+  }
 
-            // Ensure the list size.
-            CDOList list = revision.getOrCreateList(feature, size);
-            for (int i = 0; i < size; i++)
-            {
-              list.add(InternalCDOList.UNINITIALIZED);
-            }
-          }
-        }
+  /**
+   * Reads several revisions of this class from the DB. The current revisions of each branch are read with one query per
+   * chunk of IDs, and their lists with one query per chunk and list feature. Historical revisions are read one by one.
+   *
+   * @return the revisions that have been read successfully.
+   */
+  public List<InternalCDORevision> readRevisions(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, int listChunk)
+  {
+    List<InternalCDORevision> result = new ArrayList<>(revisions.size());
+    Map<CDOBranch, List<InternalCDORevision>> currentRevisions = new HashMap<>();
 
-        return true;
+    for (InternalCDORevision revision : revisions)
+    {
+      if (revision.getTimeStamp() == CDOBranchPoint.UNSPECIFIED_DATE)
+      {
+        currentRevisions.computeIfAbsent(revision.getBranch(), k -> new ArrayList<>()).add(revision);
       }
+      else if (readRevision(accessor, revision, listChunk))
+      {
+        result.add(revision);
+      }
+    }
 
-      return false;
+    for (Map.Entry<CDOBranch, List<InternalCDORevision>> entry : currentRevisions.entrySet())
+    {
+      CDOBranch branch = entry.getKey();
+      List<InternalCDORevision> list = entry.getValue();
+
+      for (int start = 0, size = list.size(); start < size; start += MAX_IN_LIST_SIZE)
+      {
+        List<InternalCDORevision> chunk = list.subList(start, Math.min(start + MAX_IN_LIST_SIZE, size));
+        readCurrentRevisions(accessor, branch, chunk, listChunk, result);
+      }
+    }
+
+    return result;
+  }
+
+  private void readCurrentRevisions(IDBStoreAccessor accessor, CDOBranch branch, List<InternalCDORevision> revisions, int listChunk,
+      List<InternalCDORevision> result)
+  {
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    Map<CDOID, InternalCDORevision> revisionsByID = CDOIDUtil.createMap();
+
+    StringBuilder builder = new StringBuilder(sqlSelectCurrentAttributesIn);
+    for (InternalCDORevision revision : revisions)
+    {
+      builder.append(revisionsByID.isEmpty() ? "?" : ",?"); //$NON-NLS-1$ //$NON-NLS-2$
+      revisionsByID.put(revision.getID(), revision);
+    }
+
+    builder.append(")"); //$NON-NLS-1$
+
+    List<InternalCDORevision> readRevisions = new ArrayList<>(revisions.size());
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+    ResultSet resultSet = null;
+
+    try
+    {
+      int column = setCurrentRevisionsParameters(stmt, 1, branch);
+      for (InternalCDORevision revision : revisions)
+      {
+        idHandler.setCDOID(stmt, column++, revision.getID());
+      }
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Executing Query: {0}", stmt.toString()); //$NON-NLS-1$
+      }
+
+      resultSet = stmt.executeQuery();
+      while (resultSet.next())
+      {
+        CDOID id = idHandler.getCDOID(resultSet, MappingNames.ATTRIBUTES_ID);
+        InternalCDORevision revision = revisionsByID.remove(id);
+        if (revision != null)
+        {
+          readValuesFromRow(resultSet, idHandler, revision);
+          readRevisions.add(revision);
+        }
+      }
     }
     catch (SQLException ex)
     {
       throw new DBException(ex);
     }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+
+    Set<CDOID> changedIDs = CDOIDUtil.createSet();
+    if (!listMappings.isEmpty() && !readRevisions.isEmpty())
+    {
+      readLists(accessor, readRevisions, listChunk, changedIDs);
+      checkCurrentRevisions(accessor, readRevisions, changedIDs);
+    }
+
+    for (InternalCDORevision revision : readRevisions)
+    {
+      if (changedIDs.contains(revision.getID()))
+      {
+        // A commit has changed the revision while reading the lists. Start from scratch!
+        revision.clearValues(); // Make sure that lists are recreated
+        revision.setBranchPoint(branch.getHead());
+
+        if (!readRevision(accessor, revision, listChunk))
+        {
+          continue;
+        }
+      }
+
+      result.add(revision);
+    }
   }
 
-  protected final void readLists(IDBStoreAccessor accessor, InternalCDORevision revision, int listChunk)
+  private void readLists(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, int listChunk, Set<CDOID> changedIDs)
   {
+    List<InternalCDORevision> existingRevisions = new ArrayList<>(revisions.size());
+    for (InternalCDORevision revision : revisions)
+    {
+      // Detached revisions have no lists.
+      if (revision.getVersion() >= CDOBranchVersion.FIRST_VERSION)
+      {
+        existingRevisions.add(revision);
+      }
+    }
+
     for (IListMapping listMapping : listMappings)
     {
-      listMapping.readValues(accessor, revision, listChunk);
+      if (listMapping instanceof AbstractListTableMapping)
+      {
+        ((AbstractListTableMapping)listMapping).readValues(accessor, existingRevisions, listChunk, changedIDs);
+      }
+      else
+      {
+        for (InternalCDORevision revision : existingRevisions)
+        {
+          try
+          {
+            listMapping.readValues(accessor, revision, listChunk);
+          }
+          catch (IndexOutOfBoundsException ex)
+          {
+            // A commit has appended list rows after the list size has been read.
+            changedIDs.add(revision.getID());
+          }
+        }
+      }
     }
   }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015-2020, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015-2020, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,6 +51,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * * This abstract base class refines {@link AbstractMappingStrategy} by implementing aspects common to horizontal
@@ -102,6 +103,14 @@ public abstract class AbstractHorizontalMappingStrategy extends AbstractMappingS
     return objectTypeMapper.getObjectType(accessor, id);
   }
 
+  /**
+   * Reads the types of the objects with the given IDs, resolving the ones that are not cached in one round trip.
+   */
+  public Map<CDOID, CDOClassifierRef> readObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    return objectTypeMapper.getObjectTypes(accessor, ids);
+  }
+
   public boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type)
   {
     return objectTypeMapper.putObjectType(accessor, timeStamp, id, type);
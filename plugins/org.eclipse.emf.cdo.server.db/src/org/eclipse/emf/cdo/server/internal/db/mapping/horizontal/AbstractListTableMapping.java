@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015, 2016, 2018-2020, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015, 2016, 2018-2020, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.revision.CDOList;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
@@ -53,6 +54,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This abstract base class provides basic behavior needed for mapping many-valued attributes to tables.
@@ -64,6 +67,8 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, AbstractListTableMapping.class);
 
+  private static final int MAX_PARAMETERS = 1000;
+
   protected IDBTable table;
 
   protected IDBField sourceField;
@@ -84,6 +89,10 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 
   private String sqlOrderByIndex;
 
+  private String sqlSelectValuesPrefix;
+
+  private String sqlOrderBySourceAndIndex;
+
   private String sqlInsertEntry;
 
   public AbstractListTableMapping(IMappingStrategy mappingStrategy, EClass eClass, EStructuralFeature feature)
@@ -201,6 +210,19 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 
     sqlOrderByIndex = " ORDER BY " + indexField; //$NON-NLS-1$
 
+    // ---------------- SELECT to read the values of several revisions ----------------------------
+    builder = new StringBuilder();
+    builder.append("SELECT "); //$NON-NLS-1$
+    builder.append(sourceField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(valueField);
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(table);
+    builder.append(" WHERE "); //$NON-NLS-1$
+    sqlSelectValuesPrefix = builder.toString();
+
+    sqlOrderBySourceAndIndex = " ORDER BY " + sourceField + ", " + indexField; //$NON-NLS-1$ //$NON-NLS-2$
+
     // ----------------- INSERT - reference entry -----------------
     builder = new StringBuilder("INSERT INTO "); //$NON-NLS-1$
     builder.append(table);
@@ -252,7 +274,17 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 
   protected abstract void addKeyFields(List<FieldInfo> list);
 
-  protected abstract void setKeyFields(PreparedStatement stmt, CDORevision revision) throws SQLException;
+  protected void setKeyFields(PreparedStatement stmt, CDORevision revision) throws SQLException
+  {
+    setKeyFields(stmt, 1, revision);
+  }
+
+  /**
+   * Sets the values of the {@link #getKeyFields() key fields} of the given revision, starting at the given column.
+   *
+   * @return the next column.
+   */
+  protected abstract int setKeyFields(PreparedStatement stmt, int column, CDORevision revision) throws SQLException;
 
   @Override
   public Collection<IDBTable> getDBTables()
@@ -357,6 +389,185 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
     }
   }
 
+  /**
+   * Reads the values of this list for several revisions with one query per chunk of revisions. If a commit has appended
+   * rows to the list of a revision after the list size has been read, the ID of that revision is added to the given set.
+   */
+  public void readValues(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, int listChunk, Set<CDOID> changedIDs)
+  {
+    if (table == null)
+    {
+      // Nothing to read. Take shortcut.
+      return;
+    }
+
+    if (listChunk == 0)
+    {
+      // Nothing to read. Take shortcut.
+      return;
+    }
+
+    EStructuralFeature feature = getFeature();
+    List<InternalCDORevision> chunk = new ArrayList<>();
+    int chunkSize = Math.max(1, MAX_PARAMETERS / getKeyFields().length);
+
+    for (InternalCDORevision revision : revisions)
+    {
+      MoveableList<Object> list = revision.getListOrNull(feature);
+      if (list == null || list.size() == 0)
+      {
+        // Nothing to read.
+        continue;
+      }
+
+      chunk.add(revision);
+      if (chunk.size() == chunkSize)
+      {
+        readChunkValues(accessor, chunk, listChunk, changedIDs);
+        chunk.clear();
+      }
+    }
+
+    if (!chunk.isEmpty())
+    {
+      readChunkValues(accessor, chunk, listChunk, changedIDs);
+    }
+  }
+
+  private void readChunkValues(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, int listChunk, Set<CDOID> changedIDs)
+  {
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Reading list values for feature {0}.{1} of {2} revisions", getContainingClass().getName(), //$NON-NLS-1$
+          getFeature().getName(), revisions.size());
+    }
+
+    FieldInfo[] fields = getKeyFields();
+    StringBuilder builder = new StringBuilder(sqlSelectValuesPrefix);
+
+    if (fields.length == 1)
+    {
+      builder.append(sourceField);
+      builder.append(" IN ("); //$NON-NLS-1$
+
+      for (int i = 0; i < revisions.size(); i++)
+      {
+        builder.append(i == 0 ? "?" : ",?"); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+    }
+    else
+    {
+      builder.append("("); //$NON-NLS-1$
+
+      for (int i = 0; i < revisions.size(); i++)
+      {
+        if (i != 0)
+        {
+          builder.append(" OR "); //$NON-NLS-1$
+        }
+
+        builder.append("("); //$NON-NLS-1$
+
+        for (int j = 0; j < fields.length; j++)
+        {
+          if (j != 0)
+          {
+            builder.append(" AND "); //$NON-NLS-1$
+          }
+
+          builder.append(DBUtil.quoted(fields[j].getName()));
+          builder.append("=?"); //$NON-NLS-1$
+        }
+
+        builder.append(")"); //$NON-NLS-1$
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+    }
+
+    if (listChunk != CDORevision.UNCHUNKED)
+    {
+      // Optimization - don't read unneeded rows.
+      builder.append(" AND "); //$NON-NLS-1$
+      builder.append(indexField);
+      builder.append("<?"); //$NON-NLS-1$
+    }
+
+    builder.append(sqlOrderBySourceAndIndex);
+
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    Map<CDOID, InternalCDORevision> revisionsByID = CDOIDUtil.createMap();
+
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+    ResultSet resultSet = null;
+
+    try
+    {
+      int column = 1;
+      for (InternalCDORevision revision : revisions)
+      {
+        column = setKeyFields(stmt, column, revision);
+        revisionsByID.put(revision.getID(), revision);
+      }
+
+      if (listChunk != CDORevision.UNCHUNKED)
+      {
+        stmt.setInt(column, listChunk);
+      }
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.trace(stmt.toString());
+      }
+
+      resultSet = stmt.executeQuery();
+
+      CDOID currentID = null;
+      MoveableList<Object> list = null;
+      int currentIndex = 0;
+
+      while (resultSet.next())
+      {
+        CDOID id = idHandler.getCDOID(resultSet, 1);
+        if (!id.equals(currentID))
+        {
+          currentID = id;
+          currentIndex = 0;
+
+          InternalCDORevision revision = revisionsByID.get(id);
+          list = revision != null ? revision.getListOrNull(getFeature()) : null;
+        }
+
+        if (list == null)
+        {
+          continue;
+        }
+
+        if (currentIndex == list.size())
+        {
+          // A commit has appended list rows after the list size has been read.
+          changedIDs.add(id);
+          list = null;
+          continue;
+        }
+
+        Object value = typeMapping.readValue(resultSet);
+        list.set(currentIndex++, value);
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+  }
+
   @Override
   public final void readChunks(IDBStoreChunkReader chunkReader, List<Chunk> chunks, String where)
   {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2018, 2019, 2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2018, 2019, 2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -87,12 +87,13 @@ public class BranchingListTableMapping extends AbstractListTableMapping implemen
   }
 
   @Override
-  protected void setKeyFields(PreparedStatement stmt, CDORevision revision) throws SQLException
+  protected int setKeyFields(PreparedStatement stmt, int column, CDORevision revision) throws SQLException
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
-    idHandler.setCDOID(stmt, 1, revision.getID());
-    stmt.setInt(2, revision.getBranch().getID());
-    stmt.setInt(3, revision.getVersion());
+    idHandler.setCDOID(stmt, column++, revision.getID());
+    stmt.setInt(column++, revision.getBranch().getID());
+    stmt.setInt(column++, revision.getVersion());
+    return column;
   }
 
   @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2016, 2019, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2016, 2019, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,9 @@
  */
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
 import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
@@ -25,6 +27,10 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -61,6 +67,47 @@ public abstract class DelegatingObjectTypeMapper extends AbstractObjectTypeMappe
     return delegate.getObjectType(accessor, id);
   }
 
+  @Override
+  public Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    Map<CDOID, CDOClassifierRef> result = CDOIDUtil.createMap();
+    List<CDOID> missingIDs = null;
+
+    for (CDOID id : ids)
+    {
+      CDOID type = doGetObjectType(accessor, id);
+      if (type != null)
+      {
+        EClass eClass = (EClass)getMetaDataManager().getMetaInstance(type);
+        result.put(id, new CDOClassifierRef(eClass));
+      }
+      else
+      {
+        if (missingIDs == null)
+        {
+          missingIDs = new ArrayList<>();
+        }
+
+        missingIDs.add(id);
+      }
+    }
+
+    if (missingIDs != null)
+    {
+      Map<CDOID, CDOClassifierRef> loaded = delegate.getObjectTypes(accessor, missingIDs);
+      for (Map.Entry<CDOID, CDOClassifierRef> entry : loaded.entrySet())
+      {
+        CDOClassifierRef classifierRef = entry.getValue();
+        EClass eClass = (EClass)classifierRef.resolve(getMappingStrategy().getStore().getRepository().getPackageRegistry());
+        doPutObjectType(accessor, entry.getKey(), getMetaDataManager().getMetaID(eClass, CDOBranchPoint.UNSPECIFIED_DATE));
+      }
+
+      result.putAll(loaded);
+    }
+
+    return result;
+  }
+
   @Override
   public boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type)
   {
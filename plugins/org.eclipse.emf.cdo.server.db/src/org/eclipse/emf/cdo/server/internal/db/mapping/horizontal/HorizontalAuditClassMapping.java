@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2016, 2018, 2019, 2022, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2016, 2018, 2019, 2022, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -198,6 +198,13 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
     builder.append(revisedField);
   }
 
+  @Override
+  protected void appendCurrentRevisionsCondition(StringBuilder builder)
+  {
+    builder.append(revisedField);
+    builder.append("=0 AND "); //$NON-NLS-1$
+  }
+
   private String[] buildSQLSelects(boolean forUnits)
   {
     String[] strings = new String[3];
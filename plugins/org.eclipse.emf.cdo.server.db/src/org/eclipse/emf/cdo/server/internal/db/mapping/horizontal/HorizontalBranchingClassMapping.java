@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2016, 2018, 2019, 2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2016, 2018, 2019, 2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -62,6 +62,7 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
@@ -231,6 +232,22 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
     builder.append(revisedField);
   }
 
+  @Override
+  protected void appendCurrentRevisionsCondition(StringBuilder builder)
+  {
+    builder.append(branchField);
+    builder.append("=? AND "); //$NON-NLS-1$
+    builder.append(revisedField);
+    builder.append("=0 AND "); //$NON-NLS-1$
+  }
+
+  @Override
+  protected int setCurrentRevisionsParameters(PreparedStatement stmt, int column, CDOBranch branch) throws SQLException
+  {
+    stmt.setInt(column++, branch.getID());
+    return column;
+  }
+
   @Override
   public boolean readRevision(IDBStoreAccessor accessor, InternalCDORevision revision, int listChunk)
   {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015, 2016, 2018, 2019, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015, 2016, 2018, 2019, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.emf.cdo.common.branch.CDOBranch;
 import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.revision.CDOList;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.delta.CDOContainerFeatureDelta;
@@ -55,6 +56,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Eike Stepper
@@ -70,6 +72,8 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
 
   private String sqlSelectCurrentVersion;
 
+  private String sqlSelectCurrentVersionsIn;
+
   private String sqlInsertAttributes;
 
   private String sqlUpdateAffix;
@@ -129,6 +133,19 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
     builder.append("=?"); //$NON-NLS-1$
     sqlSelectCurrentVersion = builder.toString();
 
+    // ----------- Select Versions ---------------------------
+    builder = new StringBuilder();
+    builder.append("SELECT "); //$NON-NLS-1$
+    builder.append(idField);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(versionField);
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(getTable());
+    builder.append(" WHERE "); //$NON-NLS-1$
+    builder.append(idField);
+    builder.append(" IN ("); //$NON-NLS-1$
+    sqlSelectCurrentVersionsIn = builder.toString();
+
     // ----------- Insert Attributes -------------------------
     builder = new StringBuilder();
     builder.append("INSERT INTO "); //$NON-NLS-1$
@@ -419,6 +436,59 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
     }
   }
 
+  @Override
+  protected void checkCurrentRevisions(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, Set<CDOID> changedIDs)
+  {
+    // Reading all list rows of the objects is not atomic.
+    // After all row reads are done, check the revision versions again.
+    Map<CDOID, InternalCDORevision> revisionsByID = CDOIDUtil.createMap();
+
+    StringBuilder builder = new StringBuilder(sqlSelectCurrentVersionsIn);
+    for (InternalCDORevision revision : revisions)
+    {
+      builder.append(revisionsByID.isEmpty() ? "?" : ",?"); //$NON-NLS-1$ //$NON-NLS-2$
+      revisionsByID.put(revision.getID(), revision);
+    }
+
+    builder.append(")"); //$NON-NLS-1$
+
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+    ResultSet resultSet = null;
+
+    try
+    {
+      int column = 1;
+      for (InternalCDORevision revision : revisions)
+      {
+        idHandler.setCDOID(stmt, column++, revision.getID());
+      }
+
+      resultSet = stmt.executeQuery();
+      while (resultSet.next())
+      {
+        CDOID id = idHandler.getCDOID(resultSet, 1);
+        InternalCDORevision revision = revisionsByID.remove(id);
+        if (revision != null && revision.getVersion() != resultSet.getInt(2))
+        {
+          changedIDs.add(id);
+        }
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+
+    // The remaining objects have been detached in the meantime.
+    changedIDs.addAll(revisionsByID.keySet());
+  }
+
   private int readVersion(IDBPreparedStatement stmt)
   {
     ResultSet resultSet = null;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,11 +18,14 @@ import org.eclipse.emf.cdo.server.db.mapping.IBranchDeletionSupport;
 import org.eclipse.net4j.db.Batch;
 
 import java.sql.Connection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * A bounded cache of object types that is split into independently locked segments.
+ * <p>
+ * Lookups don't lock at all; they only mark the found entry as recently used. Each segment evicts its entries with the
+ * CLOCK algorithm, an approximation of LRU that doesn't need to reorder anything on reads.
+ *
  * @author Eike Stepper
  * @since 4.0
  */
@@ -30,10 +33,14 @@ public class ObjectTypeCache extends DelegatingObjectTypeMapper implements IBran
 {
   public static final int DEFAULT_CACHE_CAPACITY = 100000;
 
-  private Map<CDOID, CDOID> memoryCache;
+  private static final int MIN_SEGMENT_CAPACITY = 16;
 
   private int cacheSize;
 
+  private Segment[] segments;
+
+  private int segmentMask;
+
   public ObjectTypeCache(int cacheSize)
   {
     this.cacheSize = cacheSize;
@@ -42,25 +49,28 @@ public class ObjectTypeCache extends DelegatingObjectTypeMapper implements IBran
   @Override
   public void deleteBranches(IDBStoreAccessor accessor, Batch batch, String idList)
   {
-    memoryCache.clear();
+    for (Segment segment : segments)
+    {
+      segment.clear();
+    }
   }
 
   @Override
   protected CDOID doGetObjectType(IDBStoreAccessor accessor, CDOID id)
   {
-    return memoryCache.get(id);
+    return getSegment(id).get(id);
   }
 
   @Override
   protected boolean doPutObjectType(IDBStoreAccessor accessor, CDOID id, CDOID type)
   {
-    return memoryCache.put(id, type) == null;
+    return getSegment(id).put(id, type);
   }
 
   @Override
   protected boolean doRemoveObjectType(IDBStoreAccessor accessor, CDOID id)
   {
-    return memoryCache.remove(id) != null;
+    return getSegment(id).remove(id);
   }
 
   @Override
@@ -73,35 +83,150 @@ public class ObjectTypeCache extends DelegatingObjectTypeMapper implements IBran
   protected void doActivate() throws Exception
   {
     super.doActivate();
-    memoryCache = Collections.synchronizedMap(new MemoryCache(cacheSize));
+
+    int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, cacheSize / MIN_SEGMENT_CAPACITY)));
+    int segmentCapacity = Math.max(1, (cacheSize + segmentCount - 1) / segmentCount);
+
+    segments = new Segment[segmentCount];
+    segmentMask = segmentCount - 1;
+
+    for (int i = 0; i < segmentCount; i++)
+    {
+      segments[i] = new Segment(segmentCapacity);
+    }
   }
 
   @Override
   protected void doDeactivate() throws Exception
   {
-    memoryCache = null;
+    segments = null;
     super.doDeactivate();
   }
 
+  private Segment getSegment(CDOID id)
+  {
+    int hash = id.hashCode();
+    hash ^= hash >>> 16;
+    return segments[hash & segmentMask];
+  }
+
   /**
-   * @author Stefan Winkler
+   * @author Eike Stepper
    */
-  private static final class MemoryCache extends LinkedHashMap<CDOID, CDOID>
+  private static final class Node
   {
-    private static final long serialVersionUID = 1L;
+    private final CDOID type;
+
+    private final int slot;
+
+    private volatile boolean referenced;
+
+    public Node(CDOID type, int slot)
+    {
+      this.type = type;
+      this.slot = slot;
+    }
+  }
 
-    private int capacity;
+  /**
+   * A part of the cache with its own CLOCK.
+   * <p>
+   * The clock is an array of slots that hold the IDs of the cached entries. An entry is only valid as long as the map
+   * still points to a node with the same slot; removed entries leave stale slots behind that are reused by the clock.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Segment
+  {
+    private final ConcurrentHashMap<CDOID, Node> map;
+
+    private final CDOID[] clock;
+
+    private int used;
+
+    private int hand;
+
+    public Segment(int capacity)
+    {
+      map = new ConcurrentHashMap<>(capacity);
+      clock = new CDOID[capacity];
+    }
+
+    public CDOID get(CDOID id)
+    {
+      Node node = map.get(id);
+      if (node == null)
+      {
+        return null;
+      }
+
+      if (!node.referenced)
+      {
+        node.referenced = true;
+      }
+
+      return node.type;
+    }
+
+    public synchronized boolean put(CDOID id, CDOID type)
+    {
+      Node node = map.get(id);
+      if (node != null)
+      {
+        return false;
+      }
+
+      int slot = used < clock.length ? used++ : evict();
+      clock[slot] = id;
+      map.put(id, new Node(type, slot));
+      return true;
+    }
+
+    public synchronized boolean remove(CDOID id)
+    {
+      return map.remove(id) != null;
+    }
 
-    public MemoryCache(int capacity)
+    public synchronized void clear()
     {
-      super(capacity, 0.75f, true);
-      this.capacity = capacity;
+      map.clear();
+      used = 0;
+      hand = 0;
+
+      for (int i = 0; i < clock.length; i++)
+      {
+        clock[i] = null;
+      }
     }
 
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<CDOID, CDOID> eldest)
+    /**
+     * Advances the hand to the first slot that is stale or whose entry hasn't been referenced since the last pass, and
+     * frees that slot.
+     */
+    private int evict()
     {
-      return size() > capacity;
+      for (;;)
+      {
+        int slot = hand;
+        hand = (hand + 1) % clock.length;
+
+        CDOID id = clock[slot];
+        Node node = map.get(id);
+        if (node == null || node.slot != slot)
+        {
+          return slot;
+        }
+
+        if (node.referenced)
+        {
+          node.referenced = false;
+        }
+        else
+        {
+          map.remove(id);
+          return slot;
+        }
+      }
     }
   }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2014, 2016, 2019, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2014, 2016, 2019, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
 import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
@@ -41,6 +42,11 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -48,6 +54,11 @@ import java.sql.Statement;
  */
 public class ObjectTypeTable extends DBStoreTable implements IObjectTypeMapper
 {
+  /**
+   * The maximum number of IDs per <code>IN</code> list; some databases, e.g. Oracle, don't accept more.
+   */
+  private static final int MAX_IN_LIST_SIZE = 1000;
+
   private IDBField id;
 
   private IDBField clazz;
@@ -60,6 +71,8 @@ public class ObjectTypeTable extends DBStoreTable implements IObjectTypeMapper
 
   private String sqlSelect;
 
+  private String sqlSelectIn;
+
   public ObjectTypeTable(IDBStore store)
   {
     super(store, MappingNames.CDO_OBJECTS);
@@ -116,6 +129,77 @@ public class ObjectTypeTable extends DBStoreTable implements IObjectTypeMapper
     }
   }
 
+  @Override
+  public final Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    Map<CDOID, CDOClassifierRef> result = CDOIDUtil.createMap();
+    if (ids.isEmpty())
+    {
+      return result;
+    }
+
+    IIDHandler idHandler = store().getIDHandler();
+    List<CDOID> chunk = new ArrayList<>(Math.min(ids.size(), MAX_IN_LIST_SIZE));
+
+    for (Iterator<CDOID> it = ids.iterator(); it.hasNext();)
+    {
+      chunk.add(it.next());
+      if (chunk.size() == MAX_IN_LIST_SIZE || !it.hasNext())
+      {
+        readObjectTypes(accessor, idHandler, chunk, result);
+        chunk.clear();
+      }
+    }
+
+    return result;
+  }
+
+  private void readObjectTypes(IDBStoreAccessor accessor, IIDHandler idHandler, List<CDOID> ids, Map<CDOID, CDOClassifierRef> result)
+  {
+    StringBuilder builder = new StringBuilder(sqlSelectIn);
+    for (int i = 0; i < ids.size(); i++)
+    {
+      builder.append(i == 0 ? "?" : ",?"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    builder.append(")"); //$NON-NLS-1$
+
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+    ResultSet resultSet = null;
+
+    try
+    {
+      int column = 0;
+      for (CDOID id : ids)
+      {
+        idHandler.setCDOID(stmt, ++column, id);
+      }
+
+      if (DBUtil.isTracerEnabled())
+      {
+        DBUtil.trace(stmt.toString());
+      }
+
+      resultSet = stmt.executeQuery();
+      while (resultSet.next())
+      {
+        CDOID id = idHandler.getCDOID(resultSet, 1);
+        CDOID classID = idHandler.getCDOID(resultSet, 2);
+        EClass eClass = (EClass)store().getMetaDataManager().getMetaInstance(classID);
+        result.put(id, new CDOClassifierRef(eClass));
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+  }
+
   @Override
   public final boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type)
   {
@@ -258,6 +342,7 @@ public class ObjectTypeTable extends DBStoreTable implements IObjectTypeMapper
   protected void initSQL(IDBTable table)
   {
     sqlSelect = "SELECT " + clazz + " FROM " + table + " WHERE " + id + "=?";
+    sqlSelectIn = "SELECT " + id + "," + clazz + " FROM " + table + " WHERE " + id + " IN (";
     sqlInsert = "INSERT INTO " + table + "(" + id + "," + clazz + "," + created + ") VALUES (?, ?, ?)";
     sqlDelete = "DELETE FROM " + table + " WHERE " + id + "=?";
   }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.emf.cdo.server.internal.lissome;
 
 import org.eclipse.emf.cdo.server.CDOServerBrowser;
 import org.eclipse.emf.cdo.server.CDOServerBrowser.AbstractPage;
+import org.eclipse.emf.cdo.server.internal.lissome.optimizer.Optimizer;
 import org.eclipse.emf.cdo.server.lissome.ILissomeStore;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 
@@ -44,6 +45,7 @@ public class LissomeBrowserPage extends AbstractPage
 
     out.print("<td valign=\"top\">\r\n");
     // String table = showTables(browser, out, connection, repository.getName());
+    showOptimizer(out, ((LissomeStore)repository.getStore()).getOptimizer());
     out.print("</td>\r\n");
 
     // if (table != null)
@@ -57,6 +59,16 @@ public class LissomeBrowserPage extends AbstractPage
     out.print("</table>\r\n");
   }
 
+  protected void showOptimizer(PrintStream out, Optimizer optimizer)
+  {
+    out.print("<b>Optimizer</b><br>\r\n");
+    out.print("Workers: " + optimizer.getPartitions() + "<br>\r\n");
+    out.print("Queue depth: " + optimizer.getQueueDepth() + "<br>\r\n");
+    out.print("Lag: " + optimizer.getLag() + " millis<br>\r\n");
+    out.print("Applied tasks: " + optimizer.getAppliedTasks() + "<br>\r\n");
+    out.print("Apply rate: " + Math.round(optimizer.getApplyRate()) + " tasks/sec<br>\r\n");
+  }
+
   /**
    * @author Eike Stepper
    */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,11 @@ package org.eclipse.emf.cdo.server.internal.lissome;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 
 import org.eclipse.net4j.util.io.IORuntimeException;
+import org.eclipse.net4j.util.io.IOUtil;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 /**
  * @author Eike Stepper
@@ -26,10 +28,17 @@ public class LissomeFile extends File
 
   public static final String WRITE_MODE = "rws";
 
+  /**
+   * The mode of writers whose content is forced to disk explicitly, e.g., by a {@link LissomeFileSyncer syncer}.
+   */
+  public static final String DEFERRED_WRITE_MODE = "rw";
+
   private static final long serialVersionUID = 1L;
 
   protected final LissomeStore store;
 
+  private transient LissomeFileMapping mapping;
+
   public LissomeFile(LissomeStore store, String path) throws FileNotFoundException
   {
     super(store.getFolder(), path);
@@ -43,6 +52,11 @@ public class LissomeFile extends File
 
   public LissomeFileHandle openReader()
   {
+    if (store.isMappedReaders())
+    {
+      return openMappedHandle();
+    }
+
     return openHandle(READ_MODE);
   }
 
@@ -63,6 +77,37 @@ public class LissomeFile extends File
     }
   }
 
+  protected LissomeFileHandle openMappedHandle()
+  {
+    return new MappedLissomeFileHandle(this, getMapping());
+  }
+
+  public synchronized LissomeFileMapping getMapping()
+  {
+    if (mapping == null)
+    {
+      try
+      {
+        mapping = new LissomeFileMapping(this);
+      }
+      catch (IOException ex)
+      {
+        throw new IORuntimeException(ex);
+      }
+    }
+
+    return mapping;
+  }
+
+  public synchronized void closeMapping()
+  {
+    if (mapping != null)
+    {
+      IOUtil.close(mapping);
+      mapping = null;
+    }
+  }
+
   /**
    * @author Eike Stepper
    */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2013, 2015-2017, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2013, 2015-2017, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -91,6 +91,14 @@ public class LissomeFileHandle extends DataInputOutputFile implements CDODataInp
     this.file = file;
   }
 
+  /**
+   * Creates a handle that does not open the given file itself.
+   */
+  protected LissomeFileHandle(LissomeFile file)
+  {
+    this.file = file;
+  }
+
   public LissomeFile getFile()
   {
     return file;
@@ -404,6 +412,12 @@ public class LissomeFileHandle extends DataInputOutputFile implements CDODataInp
     return in().readCDOCommitInfo();
   }
 
+  @Override
+  public CDOCommitInfo readCDOCommitInfoBlock() throws IOException
+  {
+    return in().readCDOCommitInfoBlock();
+  }
+
   @Override
   public CDOID readCDOID() throws IOException
   {
@@ -727,6 +741,18 @@ public class LissomeFileHandle extends DataInputOutputFile implements CDODataInp
     out().writeCDOCommitInfo(commitInfo);
   }
 
+  @Override
+  public byte[] createCDOCommitInfoBlock(CDOCommitInfo commitInfo) throws IOException
+  {
+    return out().createCDOCommitInfoBlock(commitInfo);
+  }
+
+  @Override
+  public void writeCDOCommitInfoBlock(byte[] block) throws IOException
+  {
+    out().writeCDOCommitInfoBlock(block);
+  }
+
   @Override
   public void writeCDOID(CDOID id) throws IOException
   {
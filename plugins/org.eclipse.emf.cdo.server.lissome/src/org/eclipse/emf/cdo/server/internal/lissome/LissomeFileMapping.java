@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.lissome;
+
+import org.eclipse.net4j.util.io.IOUtil;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+/**
+ * Maps an append-only {@link LissomeFile} read-only into memory, so that {@link MappedLissomeFileHandle readers} can
+ * decode revisions straight from the mapped buffers.
+ * <p>
+ * A single {@link MappedByteBuffer} can't map more than 2 GB, so the file is mapped in segments of
+ * <code>1 &lt;&lt; segmentShift</code> bytes. The last segment is mapped up to the current end of the file and is
+ * {@link #remap(long) remapped} when a reader needs bytes that have been appended since. All other segments are
+ * mapped once and shared by all readers.
+ *
+ * @author Eike Stepper
+ */
+public class LissomeFileMapping implements Closeable
+{
+  public static final int DEFAULT_SEGMENT_SHIFT = 30;
+
+  private static final MappedByteBuffer[] NO_SEGMENTS = {};
+
+  private final File file;
+
+  private final int segmentShift;
+
+  private final long segmentSize;
+
+  private RandomAccessFile raf;
+
+  private FileChannel channel;
+
+  private volatile MappedByteBuffer[] segments = NO_SEGMENTS;
+
+  private volatile long mappedLength;
+
+  public LissomeFileMapping(File file, int segmentShift) throws IOException
+  {
+    if (segmentShift < 12 || segmentShift > 30)
+    {
+      throw new IllegalArgumentException("Illegal segment shift: " + segmentShift);
+    }
+
+    this.file = file;
+    this.segmentShift = segmentShift;
+    segmentSize = 1L << segmentShift;
+
+    raf = new RandomAccessFile(file, LissomeFile.READ_MODE);
+    channel = raf.getChannel();
+  }
+
+  public LissomeFileMapping(File file) throws IOException
+  {
+    this(file, DEFAULT_SEGMENT_SHIFT);
+  }
+
+  public File getFile()
+  {
+    return file;
+  }
+
+  public int getSegmentShift()
+  {
+    return segmentShift;
+  }
+
+  /**
+   * Returns the number of bytes of the file that are currently mapped.
+   */
+  public long getMappedLength()
+  {
+    return mappedLength;
+  }
+
+  /**
+   * Returns the currently mapped segments. The returned buffers must not be modified, not even their positions.
+   */
+  public MappedByteBuffer[] getSegments()
+  {
+    return segments;
+  }
+
+  public long getFileLength() throws IOException
+  {
+    return channel.size();
+  }
+
+  /**
+   * Extends the mapping up to the current end of the file, if the given position is not mapped, yet.
+   *
+   * @return <code>true</code> if the given position is mapped, <code>false</code> if it's beyond the end of the file.
+   */
+  public synchronized boolean remap(long position) throws IOException
+  {
+    if (position < mappedLength)
+    {
+      return true;
+    }
+
+    if (channel == null)
+    {
+      throw new IOException("Mapping is closed: " + file);
+    }
+
+    long fileLength = channel.size();
+    if (position >= fileLength)
+    {
+      return false;
+    }
+
+    MappedByteBuffer[] oldSegments = segments;
+    int count = (int)((fileLength - 1 >>> segmentShift) + 1);
+    MappedByteBuffer[] newSegments = Arrays.copyOf(oldSegments, count);
+
+    for (int i = Math.max(0, oldSegments.length - 1); i < count; i++)
+    {
+      long start = (long)i << segmentShift;
+      long size = Math.min(segmentSize, fileLength - start);
+
+      MappedByteBuffer segment = newSegments[i];
+      if (segment == null || segment.capacity() != size)
+      {
+        newSegments[i] = channel.map(MapMode.READ_ONLY, start, size);
+      }
+    }
+
+    // Readers read mappedLength before segments.
+    segments = newSegments;
+    mappedLength = fileLength;
+    return true;
+  }
+
+  @Override
+  public synchronized void close() throws IOException
+  {
+    segments = NO_SEGMENTS;
+    mappedLength = 0;
+    channel = null;
+
+    if (raf != null)
+    {
+      IOUtil.close(raf);
+      raf = null;
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "LissomeFileMapping[" + file.getName() + ", " + mappedLength + "]";
+  }
+}
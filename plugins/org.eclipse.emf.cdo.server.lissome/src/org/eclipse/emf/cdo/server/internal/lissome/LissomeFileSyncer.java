@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.lissome;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes the commits to an append-only {@link LissomeFile} durable in groups.
+ * <p>
+ * The file must be written through a {@link LissomeFileHandle handle} that is <b>not</b> opened in synchronous mode.
+ * After a commit has appended its data it calls {@link #sync(long, LissomeFileOperation) sync()} with the end position
+ * of that data and the operation that writes the file header for it. The first caller becomes the leader of a group:
+ * it waits for at most the configured window, or until the configured number of bytes has been appended, and then
+ * forces the data of all commits that have arrived so far, writes the header of the latest one and forces the file
+ * again. All commits of the group are released together. Commits that arrive while the leader is forcing the file form
+ * the next group.
+ * <p>
+ * Appends and header writes are synchronized on the writer handle.
+ *
+ * @author Eike Stepper
+ */
+public class LissomeFileSyncer
+{
+  private final LissomeFileHandle writer;
+
+  private final long windowNanos;
+
+  private final long maxBytes;
+
+  private final Lock lock = new ReentrantLock();
+
+  private final Condition groupFull = lock.newCondition();
+
+  private final Condition groupSynced = lock.newCondition();
+
+  private long requestedPosition;
+
+  private LissomeFileOperation requestedHeader;
+
+  private long syncedPosition;
+
+  private boolean syncing;
+
+  private long commits;
+
+  private long syncs;
+
+  public LissomeFileSyncer(LissomeFileHandle writer, long windowMillis, long maxBytes)
+  {
+    this.writer = writer;
+    windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.maxBytes = maxBytes;
+  }
+
+  public LissomeFileHandle getWriter()
+  {
+    return writer;
+  }
+
+  /**
+   * Returns the number of commits that have been made durable.
+   */
+  public long getCommits()
+  {
+    lock.lock();
+
+    try
+    {
+      return commits;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of groups that have been made durable, i.e., the number of header writes.
+   */
+  public long getSyncs()
+  {
+    lock.lock();
+
+    try
+    {
+      return syncs;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Blocks until all data up to the given position and a header that is at least as recent as the given one are
+   * durable.
+   */
+  public void sync(long position, LissomeFileOperation header) throws IOException
+  {
+    lock.lock();
+
+    try
+    {
+      if (position > requestedPosition)
+      {
+        requestedPosition = position;
+        requestedHeader = header;
+
+        if (requestedPosition - syncedPosition >= maxBytes)
+        {
+          groupFull.signal();
+        }
+      }
+
+      while (syncedPosition < position)
+      {
+        if (syncing)
+        {
+          groupSynced.awaitUninterruptibly();
+          continue;
+        }
+
+        syncing = true;
+        awaitGroup();
+
+        long targetPosition = requestedPosition;
+        LissomeFileOperation targetHeader = requestedHeader;
+        IOException exception = null;
+
+        lock.unlock();
+
+        try
+        {
+          force(targetHeader);
+        }
+        catch (IOException ex)
+        {
+          exception = ex;
+        }
+        finally
+        {
+          lock.lock();
+        }
+
+        syncing = false;
+        groupSynced.signalAll();
+
+        if (exception != null)
+        {
+          throw exception;
+        }
+
+        syncedPosition = targetPosition;
+        ++syncs;
+      }
+
+      ++commits;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void awaitGroup()
+  {
+    long nanos = windowNanos;
+
+    try
+    {
+      while (nanos > 0L && requestedPosition - syncedPosition < maxBytes)
+      {
+        nanos = groupFull.awaitNanos(nanos);
+      }
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Called without holding the group lock, so that the next group can gather while the file is being forced.
+   */
+  protected void force(LissomeFileOperation header) throws IOException
+  {
+    // The header must not become durable before the data it points to.
+    writer.force(false);
+
+    synchronized (writer)
+    {
+      writer.write(0L, header);
+    }
+
+    writer.force(false);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "LissomeFileSyncer[" + writer.getFile().getName() + "]";
+  }
+}
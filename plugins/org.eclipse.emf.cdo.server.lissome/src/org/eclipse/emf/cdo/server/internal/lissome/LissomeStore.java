@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2015, 2016, 2019, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2015, 2016, 2019, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -72,6 +72,44 @@ public class LissomeStore extends Store
 
   public static final String PERSISTENT_PROPERTIES_EXTENSION = "properties";
 
+  /**
+   * The store property that selects how the {@link Vob} and the {@link Journal} are read, either
+   * {@link #READER_MODE_FILE} (the default) or {@link #READER_MODE_MAPPED}.
+   */
+  public static final String PROP_READER_MODE = "readerMode"; //$NON-NLS-1$
+
+  public static final String READER_MODE_FILE = "file"; //$NON-NLS-1$
+
+  public static final String READER_MODE_MAPPED = "mapped"; //$NON-NLS-1$
+
+  /**
+   * The store property that enables group commit, i.e., the {@link Journal} is not written synchronously and
+   * concurrent commits are made durable together by a {@link LissomeFileSyncer syncer}.
+   */
+  public static final String PROP_GROUP_COMMIT = "groupCommit"; //$NON-NLS-1$
+
+  /**
+   * The store property that specifies how many milliseconds the first commit of a group waits for more commits to
+   * join the group.
+   */
+  public static final String PROP_GROUP_COMMIT_WINDOW = "groupCommitWindow"; //$NON-NLS-1$
+
+  /**
+   * The store property that specifies after how many appended journal bytes a group is forced to disk, even if the
+   * window has not elapsed, yet.
+   */
+  public static final String PROP_GROUP_COMMIT_BYTES = "groupCommitBytes"; //$NON-NLS-1$
+
+  /**
+   * The store property that specifies how many workers of the {@link Optimizer} apply committed changes to the
+   * {@link Index} concurrently. The default is one.
+   */
+  public static final String PROP_OPTIMIZER_WORKERS = "optimizerWorkers"; //$NON-NLS-1$
+
+  public static final long DEFAULT_GROUP_COMMIT_WINDOW = 0L;
+
+  public static final long DEFAULT_GROUP_COMMIT_BYTES = 1024L * 1024L;
+
   private static final String PROP_REPOSITORY_CREATED = "org.eclipse.emf.cdo.server.lissome.repositoryCreated"; //$NON-NLS-1$
 
   private static final String PROP_REPOSITORY_STOPPED = "org.eclipse.emf.cdo.server.lissome.repositoryStopped"; //$NON-NLS-1$
@@ -118,6 +156,14 @@ public class LissomeStore extends Store
 
   private Map<Object, Integer> metaIDs = new HashMap<>();
 
+  private boolean mappedReaders;
+
+  private boolean groupCommit;
+
+  private long groupCommitWindow = DEFAULT_GROUP_COMMIT_WINDOW;
+
+  private long groupCommitBytes = DEFAULT_GROUP_COMMIT_BYTES;
+
   public LissomeStore()
   {
     super(TYPE, null, set(ChangeFormat.DELTA), set(RevisionTemporality.AUDITING), set(RevisionParallelism.BRANCHING));
@@ -149,6 +195,54 @@ public class LissomeStore extends Store
     this.folder = folder;
   }
 
+  /**
+   * Returns <code>true</code> if revisions are read from {@link LissomeFileMapping memory-mapped} files,
+   * <code>false</code> if they are read through buffered random access files.
+   */
+  public boolean isMappedReaders()
+  {
+    return mappedReaders;
+  }
+
+  public void setMappedReaders(boolean mappedReaders)
+  {
+    checkInactive();
+    this.mappedReaders = mappedReaders;
+  }
+
+  public boolean isGroupCommit()
+  {
+    return groupCommit;
+  }
+
+  public void setGroupCommit(boolean groupCommit)
+  {
+    checkInactive();
+    this.groupCommit = groupCommit;
+  }
+
+  public long getGroupCommitWindow()
+  {
+    return groupCommitWindow;
+  }
+
+  public void setGroupCommitWindow(long groupCommitWindow)
+  {
+    checkInactive();
+    this.groupCommitWindow = groupCommitWindow;
+  }
+
+  public long getGroupCommitBytes()
+  {
+    return groupCommitBytes;
+  }
+
+  public void setGroupCommitBytes(long groupCommitBytes)
+  {
+    checkInactive();
+    this.groupCommitBytes = groupCommitBytes;
+  }
+
   public File getLogFile()
   {
     return journal;
@@ -353,6 +447,39 @@ public class LissomeStore extends Store
   {
     super.doBeforeActivate();
     checkNull(folder, "folder");
+
+    if (properties != null)
+    {
+      String readerMode = properties.get(PROP_READER_MODE);
+      if (readerMode != null)
+      {
+        mappedReaders = READER_MODE_MAPPED.equalsIgnoreCase(readerMode);
+      }
+
+      String groupCommit = properties.get(PROP_GROUP_COMMIT);
+      if (groupCommit != null)
+      {
+        this.groupCommit = Boolean.parseBoolean(groupCommit);
+      }
+
+      String groupCommitWindow = properties.get(PROP_GROUP_COMMIT_WINDOW);
+      if (groupCommitWindow != null)
+      {
+        this.groupCommitWindow = Long.parseLong(groupCommitWindow);
+      }
+
+      String groupCommitBytes = properties.get(PROP_GROUP_COMMIT_BYTES);
+      if (groupCommitBytes != null)
+      {
+        this.groupCommitBytes = Long.parseLong(groupCommitBytes);
+      }
+
+      String optimizerWorkers = properties.get(PROP_OPTIMIZER_WORKERS);
+      if (optimizerWorkers != null)
+      {
+        optimizer.setPartitions(Integer.parseInt(optimizerWorkers));
+      }
+    }
   }
 
   @Override
@@ -416,6 +543,9 @@ public class LissomeStore extends Store
     }
 
     optimizer.deactivate();
+
+    vob.closeMapping();
+    journal.closeMapping();
     super.doDeactivate();
   }
 
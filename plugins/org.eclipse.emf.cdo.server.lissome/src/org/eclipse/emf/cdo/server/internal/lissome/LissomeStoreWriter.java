@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2016, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,8 @@ import java.util.Map;
  */
 public class LissomeStoreWriter extends LissomeStoreReader
 {
+  private CommitTransactionTask commitTransactionTask;
+
   public LissomeStoreWriter(LissomeStore store, ITransaction transaction)
   {
     super(store, transaction);
@@ -116,7 +118,7 @@ public class LissomeStoreWriter extends LissomeStoreReader
       }
 
       context.applyIDMappings(monitor.fork());
-      journal.write(context, monitor.fork(monitor.getTotalWork() - 2));
+      commitTransactionTask = journal.write(context, monitor.fork(monitor.getTotalWork() - 2));
     }
     finally
     {
@@ -127,7 +129,10 @@ public class LissomeStoreWriter extends LissomeStoreReader
   @Override
   protected void doCommit(OMMonitor monitor)
   {
-    CommitTransactionTask task = journal.commit(monitor);
+    CommitTransactionTask task = commitTransactionTask;
+    commitTransactionTask = null;
+
+    journal.commit(task, monitor);
     if (task != null)
     {
       Optimizer optimizer = getStore().getOptimizer();
@@ -138,7 +143,19 @@ public class LissomeStoreWriter extends LissomeStoreReader
   @Override
   protected void doRollback(CommitContext commitContext)
   {
-    journal.rollback(commitContext);
+    CommitTransactionTask task = commitTransactionTask;
+    commitTransactionTask = null;
+
+    journal.rollback(task);
+  }
+
+  @Override
+  protected void doPassivate() throws Exception
+  {
+    // A commit that failed between its write and its commit, e.g., with a timeout, has been neither committed nor
+    // rolled back. Its pending journal block would block the commits of all later transactions.
+    doRollback(null);
+    super.doPassivate();
   }
 
   @Override
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.lissome;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * A read-only {@link LissomeFileHandle file handle} that reads from the shared {@link LissomeFileMapping mapping} of
+ * its file instead of issuing a system call per seek.
+ * <p>
+ * Each handle has its own position and its own views of the mapped segments, so that any number of handles can read
+ * concurrently without locking. Only extending the mapping after the file has grown is synchronized.
+ *
+ * @author Eike Stepper
+ */
+public class MappedLissomeFileHandle extends LissomeFileHandle
+{
+  private static final ByteBuffer[] NO_VIEWS = {};
+
+  private final LissomeFileMapping mapping;
+
+  private final long segmentMask;
+
+  private long position;
+
+  private long mappedLength;
+
+  private MappedByteBuffer[] segments;
+
+  private ByteBuffer[] views = NO_VIEWS;
+
+  public MappedLissomeFileHandle(LissomeFile file, LissomeFileMapping mapping)
+  {
+    // Neither opens the file nor allocates a read buffer.
+    super(file);
+    this.mapping = mapping;
+    segmentMask = (1L << mapping.getSegmentShift()) - 1;
+  }
+
+  public LissomeFileMapping getMapping()
+  {
+    return mapping;
+  }
+
+  @Override
+  public void seek(long filePointer) throws IOException
+  {
+    position = filePointer;
+  }
+
+  @Override
+  public long getFilePointer() throws IOException
+  {
+    return position;
+  }
+
+  @Override
+  public long length() throws IOException
+  {
+    return mapping.getFileLength();
+  }
+
+  @Override
+  public int skipBytes(int n) throws IOException
+  {
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int read() throws IOException
+  {
+    ByteBuffer view = getView(position);
+    if (view == null)
+    {
+      return -1;
+    }
+
+    return view.get((int)(position++ & segmentMask)) & 0xff;
+  }
+
+  @Override
+  public int read(byte[] array, int offset, int length) throws IOException
+  {
+    if (length == 0)
+    {
+      return 0;
+    }
+
+    ByteBuffer view = getView(position);
+    if (view == null)
+    {
+      return -1;
+    }
+
+    int index = (int)(position & segmentMask);
+    int bytesToCopy = Math.min(length, view.capacity() - index);
+
+    view.position(index);
+    view.get(array, offset, bytesToCopy);
+
+    position += bytesToCopy;
+    return bytesToCopy;
+  }
+
+  @Override
+  public void flush() throws IOException
+  {
+    // Nothing to flush.
+  }
+
+  @Override
+  public void force(boolean metaData) throws IOException
+  {
+    // Nothing to force.
+  }
+
+  @Override
+  public void write(int byteValue) throws IOException
+  {
+    throw new IOException("Read-only: " + getFile());
+  }
+
+  @Override
+  public void write(byte[] array, int offset, int length) throws IOException
+  {
+    throw new IOException("Read-only: " + getFile());
+  }
+
+  private ByteBuffer getView(long position) throws IOException
+  {
+    if (position >= mappedLength)
+    {
+      if (!mapping.remap(position))
+      {
+        return null;
+      }
+
+      updateViews();
+    }
+
+    int index = (int)(position >>> mapping.getSegmentShift());
+    ByteBuffer view = views[index];
+    if (view == null)
+    {
+      view = segments[index].duplicate();
+      views[index] = view;
+    }
+
+    return view;
+  }
+
+  private void updateViews()
+  {
+    mappedLength = mapping.getMappedLength();
+    MappedByteBuffer[] newSegments = mapping.getSegments();
+    ByteBuffer[] newViews = new ByteBuffer[newSegments.length];
+
+    if (segments != null)
+    {
+      for (int i = 0; i < Math.min(segments.length, newSegments.length); i++)
+      {
+        if (segments[i] == newSegments[i])
+        {
+          newViews[i] = views[i];
+        }
+      }
+    }
+
+    segments = newSegments;
+    views = newViews;
+  }
+}
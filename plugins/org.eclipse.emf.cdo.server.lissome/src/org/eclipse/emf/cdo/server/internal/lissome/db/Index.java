@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2013, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2013, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -149,11 +149,16 @@ public class Index implements IDBConnectionProvider
     return createDataSource(store.getFolder(), repoName, repoName);
   }
 
-  protected IndexWriter createWriter()
+  public IndexWriter createWriter()
   {
     return new IndexWriter(this);
   }
 
+  public IndexWriter createWriter(Connection connection)
+  {
+    return new IndexWriter(this, connection);
+  }
+
   public IndexReader createReader()
   {
     return new IndexReader(this);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -71,6 +71,11 @@ public class IndexReader implements IDBConnectionProvider
   protected PreparedStatement[] loadCommitInfosStatements = new PreparedStatement[8];
 
   public IndexReader(Index index)
+  {
+    this(index, index.getConnection());
+  }
+
+  public IndexReader(Index index, Connection connection)
   {
     this.index = index;
 
@@ -78,7 +83,7 @@ public class IndexReader implements IDBConnectionProvider
     supportingAudits = index.isSupportingAudits();
     supportingBranches = index.isSupportingBranches();
 
-    connection = index.getConnection();
+    this.connection = connection;
   }
 
   public Index getIndex()
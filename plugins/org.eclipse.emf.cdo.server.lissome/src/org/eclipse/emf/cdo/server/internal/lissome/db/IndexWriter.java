@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,8 +21,10 @@ import org.eclipse.emf.cdo.util.CDOURIUtil;
 
 import org.eclipse.net4j.db.DBException;
 import org.eclipse.net4j.db.DBType;
+import org.eclipse.net4j.db.DBUtil;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Arrays;
@@ -48,7 +50,15 @@ public class IndexWriter extends IndexReader
 
   public IndexWriter(Index index)
   {
-    super(index);
+    this(index, index.getConnection());
+  }
+
+  /**
+   * Creates a writer that shares the given connection, and thereby its transaction, with other writers.
+   */
+  public IndexWriter(Index index, Connection connection)
+  {
+    super(index, connection);
 
     try
     {
@@ -60,7 +70,10 @@ public class IndexWriter extends IndexReader
     }
   }
 
-  public void commit()
+  /**
+   * Executes the pending batches of this writer without committing the transaction.
+   */
+  public void flush()
   {
     try
     {
@@ -68,8 +81,46 @@ public class IndexWriter extends IndexReader
       {
         stmt.executeBatch();
       }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      clearBatches();
+    }
+  }
 
+  /**
+   * Discards the pending batches of this writer.
+   */
+  public void clearBatches()
+  {
+    for (PreparedStatement stmt : batches)
+    {
+      try
+      {
+        stmt.clearBatch();
+      }
+      catch (SQLException ignore)
+      {
+        // The statement is discarded with the rolled back transaction anyway.
+      }
+    }
+
+    batches.clear();
+  }
+
+  public void commit()
+  {
+    boolean committed = false;
+
+    try
+    {
+      flush();
       connection.commit();
+      committed = true;
     }
     catch (SQLException ex)
     {
@@ -77,10 +128,20 @@ public class IndexWriter extends IndexReader
     }
     finally
     {
-      batches.clear();
+      if (!committed)
+      {
+        // A partially executed transaction must not be committed with the next one.
+        rollback();
+      }
     }
   }
 
+  public void rollback()
+  {
+    clearBatches();
+    DBUtil.rollbackSilently(connection);
+  }
+
   protected void execute(PreparedStatement stmt) throws SQLException
   {
     index.trace(TRACER, stmt);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, 2017, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2016, 2017, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,11 +17,12 @@ import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.model.EMFUtil;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
-import org.eclipse.emf.cdo.server.IStoreAccessor;
 import org.eclipse.emf.cdo.server.internal.lissome.LissomeFile;
 import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileHandle;
 import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileOperation;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileSyncer;
 import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+import org.eclipse.emf.cdo.server.internal.lissome.MappedLissomeFileHandle;
 import org.eclipse.emf.cdo.server.internal.lissome.bundle.OM;
 import org.eclipse.emf.cdo.server.internal.lissome.optimizer.CommitTransactionTask;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranchManager.BranchLoader.BranchInfo;
@@ -57,6 +58,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -73,6 +75,11 @@ public class Journal extends LissomeFile
 
   public static final byte CREATE_BRANCH_BLOCK = 3;
 
+  /**
+   * Replaces the {@link #COMMIT_TRANSACTION_BLOCK} type of a commit block that has been rolled back.
+   */
+  public static final byte ROLLED_BACK_BLOCK = 4;
+
   private static final ContextTracer TRACER = new ContextTracer(OM.JOURNAL, Journal.class);
 
   private static final long serialVersionUID = 1L;
@@ -81,22 +88,52 @@ public class Journal extends LissomeFile
 
   private Map<String, Long> ePackagePointers = new HashMap<>();
 
+  /**
+   * The last commit block that has been written, not necessarily committed.
+   */
   private long commitPointer;
 
-  private long newCommitPointer;
-
+  /**
+   * The last package units block that has been written, not necessarily committed.
+   */
   private long packageUnitPointer;
 
-  private long newPackageUnitPointer;
+  private long headerCommitPointer;
+
+  private long headerPackageUnitPointer;
 
-  private CommitTransactionTask commitTransactionTask;
+  /**
+   * The tasks that have been written but not committed or rolled back yet, in the order of their blocks.
+   */
+  private final LinkedList<CommitTransactionTask> pendingTasks = new LinkedList<>();
 
   private final LissomeFileHandle writer;
 
+  private final LissomeFileSyncer syncer;
+
   public Journal(LissomeStore store) throws FileNotFoundException
   {
     super(store, store.getRepository().getName() + "." + EXTENSION);
-    writer = openWriter();
+
+    if (store.isGroupCommit())
+    {
+      writer = openHandle(DEFERRED_WRITE_MODE);
+      syncer = new LissomeFileSyncer(writer, store.getGroupCommitWindow(), store.getGroupCommitBytes());
+    }
+    else
+    {
+      writer = openWriter();
+      syncer = null;
+    }
+  }
+
+  /**
+   * Returns the {@link LissomeFileSyncer syncer} that makes commits durable in groups, or <code>null</code> if every
+   * commit is written synchronously.
+   */
+  public LissomeFileSyncer getSyncer()
+  {
+    return syncer;
   }
 
   @Override
@@ -119,40 +156,77 @@ public class Journal extends LissomeFile
     }
   }
 
-  public void firstStart()
+  @Override
+  protected LissomeFileHandle openMappedHandle()
   {
-    try
-    {
-      writer.seek(0);
-      writer.writeXLong(commitPointer);
-      writer.writeXLong(packageUnitPointer);
-    }
-    catch (IOException ex)
+    return new MappedLissomeFileHandle(this, getMapping())
     {
-      throw new IORuntimeException(ex);
-    }
-    finally
+      @Override
+      public CDORevision getRevision(long pointer)
+      {
+        return super.getRevision(-pointer);
+      }
+    };
+  }
+
+  public void firstStart()
+  {
+    synchronized (writer)
     {
-      cleanUp();
+      writeHeader(commitPointer, packageUnitPointer);
+
+      if (syncer != null)
+      {
+        try
+        {
+          writer.force(false);
+        }
+        catch (IOException ex)
+        {
+          throw new IORuntimeException(ex);
+        }
+      }
     }
   }
 
   public void reStart()
   {
-    try
+    synchronized (writer)
     {
-      writer.seek(0);
-      commitPointer = writer.readXLong();
-      packageUnitPointer = writer.readXLong();
-    }
-    catch (IOException ex)
-    {
-      throw new IORuntimeException(ex);
+      try
+      {
+        writer.seek(0);
+        commitPointer = writer.readXLong();
+        packageUnitPointer = writer.readXLong();
+
+        headerCommitPointer = commitPointer;
+        headerPackageUnitPointer = packageUnitPointer;
+      }
+      catch (IOException ex)
+      {
+        throw new IORuntimeException(ex);
+      }
     }
-    finally
+  }
+
+  protected void writeHeader(long commitPointer, long packageUnitPointer)
+  {
+    writer.write(0L, createHeaderOperation(commitPointer, packageUnitPointer));
+    headerCommitPointer = commitPointer;
+    headerPackageUnitPointer = packageUnitPointer;
+  }
+
+  protected LissomeFileOperation createHeaderOperation(final long commitPointer, final long packageUnitPointer)
+  {
+    return new LissomeFileOperation()
     {
-      cleanUp();
-    }
+      @Override
+      public void execute(LissomeFileHandle writer) throws IOException
+      {
+        writer.writeXLong(commitPointer);
+        writer.writeXLong(packageUnitPointer);
+      }
+    };
   }
 
   public Collection<InternalCDOPackageUnit> readPackageUnits()
@@ -340,15 +414,22 @@ public class Journal extends LissomeFile
 
     try
     {
-      writer.append(new LissomeFileOperation()
+      synchronized (writer)
       {
-        @Override
-        public void execute(LissomeFileHandle writer) throws IOException
+        final long[] newPackageUnitPointer = { packageUnitPointer };
+
+        writer.append(new LissomeFileOperation()
         {
-          writer.writeByte(PACKAGE_UNITS_BLOCK);
-          writePackageUnits(writer, packageUnits, monitor);
-        }
-      });
+          @Override
+          public void execute(LissomeFileHandle writer) throws IOException
+          {
+            writer.writeByte(PACKAGE_UNITS_BLOCK);
+            newPackageUnitPointer[0] = writePackageUnits(writer, packageUnits, monitor);
+          }
+        });
+
+        packageUnitPointer = newPackageUnitPointer[0];
+      }
     }
     finally
     {
@@ -356,7 +437,11 @@ public class Journal extends LissomeFile
     }
   }
 
-  protected void writePackageUnits(LissomeFileHandle writer, InternalCDOPackageUnit[] packageUnits, OMMonitor monitor) throws IOException
+  /**
+   * Returns the pointer to the new package units, which becomes the {@link #packageUnitPointer} when the enclosing block
+   * has been written.
+   */
+  protected long writePackageUnits(LissomeFileHandle writer, InternalCDOPackageUnit[] packageUnits, OMMonitor monitor) throws IOException
   {
     writer.writeXInt(packageUnits.length);
     for (InternalCDOPackageUnit packageUnit : packageUnits)
@@ -370,7 +455,7 @@ public class Journal extends LissomeFile
       monitor.worked(3);
     }
 
-    newPackageUnitPointer = writer.getFilePointer();
+    long newPackageUnitPointer = writer.getFilePointer();
     writer.writeXLong(packageUnitPointer);
 
     writer.writeXInt(packageUnits.length);
@@ -386,6 +471,8 @@ public class Journal extends LissomeFile
 
       monitor.worked(1);
     }
+
+    return newPackageUnitPointer;
   }
 
   public long createBranch(final int branchID, final BranchInfo branchInfo)
@@ -395,21 +482,29 @@ public class Journal extends LissomeFile
       TRACER.format("createBranch: {0}, {1}", branchID, branchInfo); //$NON-NLS-1$
     }
 
-    return writer.append(new LissomeFileOperation()
+    synchronized (writer)
     {
-      @Override
-      public void execute(LissomeFileHandle writer) throws IOException
+      return writer.append(new LissomeFileOperation()
       {
-        writer.writeByte(CREATE_BRANCH_BLOCK);
-        writer.writeXInt(branchID);
-        writer.writeString(branchInfo.getName());
-        writer.writeXInt(branchInfo.getBaseBranchID());
-        writer.writeXLong(branchInfo.getBaseTimeStamp());
-      }
-    });
+        @Override
+        public void execute(LissomeFileHandle writer) throws IOException
+        {
+          writer.writeByte(CREATE_BRANCH_BLOCK);
+          writer.writeXInt(branchID);
+          writer.writeString(branchInfo.getName());
+          writer.writeXInt(branchInfo.getBaseBranchID());
+          writer.writeXLong(branchInfo.getBaseTimeStamp());
+        }
+      });
+    }
   }
 
-  public void write(final InternalCommitContext context, final OMMonitor monitor)
+  /**
+   * Appends the commit block of the given context and returns the task that {@link #commit(CommitTransactionTask, OMMonitor) commits}
+   * or {@link #rollback(CommitTransactionTask) rolls back} it. Several commits can be written before the first one of them
+   * is committed.
+   */
+  public CommitTransactionTask write(final InternalCommitContext context, final OMMonitor monitor)
   {
     if (TRACER.isEnabled())
     {
@@ -433,122 +528,139 @@ public class Journal extends LissomeFile
       int revisionWork = detachedObjects.length + 3 * newObjects.length + 2 * dirtyObjectDeltas.length;
       monitor.begin(1 + 4 * newPackageUnits.length + revisionWork);
 
-      commitTransactionTask = new CommitTransactionTask(context);
+      final CommitTransactionTask task = new CommitTransactionTask(context);
 
-      newCommitPointer = writer.append(new LissomeFileOperation()
+      synchronized (writer)
       {
-        @Override
-        public void execute(LissomeFileHandle writer) throws IOException
-        {
-          writer.writeByte(COMMIT_TRANSACTION_BLOCK);
-          writer.writeXLong(commitPointer);
-          writer.writeCDOBranchPoint(branchPoint);
-          writer.writeXLong(previousTimeStamp);
-          writer.writeString(userID);
-          writer.writeString(commitComment);
-          monitor.worked();
-
-          // New package units
-          if (newPackageUnits.length != 0)
-          {
-            writePackageUnits(writer, newPackageUnits, monitor);
-          }
-
-          InternalCDORevision[] detachedRevisions = null;
-          if (detachedObjects.length != 0 && detachedObjectTypes != null && detachedObjectVersions != null)
-          {
-            detachedRevisions = new InternalCDORevision[detachedObjects.length];
-            commitTransactionTask.setDetachedRevisions(detachedRevisions);
-          }
-
-          // Detached objects
-          CDOBranch transactionBranch = branchPoint.getBranch();
-          long timeStamp = branchPoint.getTimeStamp();
+        task.setPreviousPointers(commitPointer, packageUnitPointer);
+        task.setNewPackageUnitPointer(packageUnitPointer);
 
-          writer.writeBoolean(detachedObjectTypes != null);
-          writer.writeBoolean(detachedObjectVersions != null);
-          writer.writeXInt(detachedObjects.length);
-
-          for (int i = 0; i < detachedObjects.length; i++)
+        long newCommitPointer = writer.append(new LissomeFileOperation()
+        {
+          @Override
+          public void execute(LissomeFileHandle writer) throws IOException
           {
-            CDOID id = detachedObjects[i];
-            EClass eClass = detachedObjectTypes != null ? detachedObjectTypes.get(id) : null;
-            CDOBranchVersion branchVersion = detachedObjectVersions != null ? detachedObjectVersions[i] : null;
+            writer.writeByte(COMMIT_TRANSACTION_BLOCK);
+            writer.writeXLong(commitPointer);
+            writer.writeCDOBranchPoint(branchPoint);
+            writer.writeXLong(previousTimeStamp);
+            writer.writeString(userID);
+            writer.writeString(commitComment);
+            monitor.worked();
 
-            if (detachedRevisions != null)
+            // New package units
+            if (newPackageUnits.length != 0)
             {
-              int version = branchVersion.getBranch() == transactionBranch ? branchVersion.getVersion() + 1 : CDOBranchVersion.FIRST_VERSION;
-
-              detachedRevisions[i] = new DetachedCDORevision(eClass, id, transactionBranch, version, timeStamp);
+              task.setNewPackageUnitPointer(writePackageUnits(writer, newPackageUnits, monitor));
             }
 
-            if (eClass != null)
+            InternalCDORevision[] detachedRevisions = null;
+            if (detachedObjects.length != 0 && detachedObjectTypes != null && detachedObjectVersions != null)
             {
-              int cid = getStore().getMetaID(eClass);
-              writer.writeXInt(cid);
+              detachedRevisions = new InternalCDORevision[detachedObjects.length];
+              task.setDetachedRevisions(detachedRevisions);
             }
 
-            if (branchVersion != null)
+            // Detached objects
+            CDOBranch transactionBranch = branchPoint.getBranch();
+            long timeStamp = branchPoint.getTimeStamp();
+
+            writer.writeBoolean(detachedObjectTypes != null);
+            writer.writeBoolean(detachedObjectVersions != null);
+            writer.writeXInt(detachedObjects.length);
+
+            for (int i = 0; i < detachedObjects.length; i++)
             {
-              int version = branchVersion.getVersion();
-              if (branchVersion.getBranch() == transactionBranch)
+              CDOID id = detachedObjects[i];
+              EClass eClass = detachedObjectTypes != null ? detachedObjectTypes.get(id) : null;
+              CDOBranchVersion branchVersion = detachedObjectVersions != null ? detachedObjectVersions[i] : null;
+
+              if (detachedRevisions != null)
               {
-                writer.writeXInt(version);
+                int version = branchVersion.getBranch() == transactionBranch ? branchVersion.getVersion() + 1 : CDOBranchVersion.FIRST_VERSION;
+
+                detachedRevisions[i] = new DetachedCDORevision(eClass, id, transactionBranch, version, timeStamp);
               }
-              else
+
+              if (eClass != null)
               {
-                writer.writeXInt(-version);
-                writer.writeCDOBranch(branchVersion.getBranch());
+                int cid = getStore().getMetaID(eClass);
+                writer.writeXInt(cid);
               }
-            }
 
-            monitor.worked();
-          }
+              if (branchVersion != null)
+              {
+                int version = branchVersion.getVersion();
+                if (branchVersion.getBranch() == transactionBranch)
+                {
+                  writer.writeXInt(version);
+                }
+                else
+                {
+                  writer.writeXInt(-version);
+                  writer.writeCDOBranch(branchVersion.getBranch());
+                }
+              }
 
-          // New objects
-          Map<CDORevision, Long> newObjectPointers = commitTransactionTask.getNewObjectPointers();
-          writer.writeXInt(newObjects.length);
-          for (InternalCDORevision revision : newObjects)
-          {
-            long pointer = writer.getFilePointer();
-            newObjectPointers.put(revision, pointer);
-            writer.writeCDORevision(revision, CDORevision.UNCHUNKED);
-            monitor.worked();
-          }
+              monitor.worked();
+            }
 
-          // Dirty object deltas
-          writer.writeXInt(dirtyObjectDeltas.length);
-          for (InternalCDORevisionDelta revisionDelta : dirtyObjectDeltas)
-          {
-            writer.writeCDORevisionDelta(revisionDelta);
-            monitor.worked();
-          }
+            // New objects
+            Map<CDORevision, Long> newObjectPointers = task.getNewObjectPointers();
+            writer.writeXInt(newObjects.length);
+            for (InternalCDORevision revision : newObjects)
+            {
+              long pointer = writer.getFilePointer();
+              newObjectPointers.put(revision, pointer);
+              writer.writeCDORevision(revision, CDORevision.UNCHUNKED);
+              monitor.worked();
+            }
 
-          // Large objects
-          ExtendedDataInputStream in = context.getLobs();
-          if (in != null)
-          {
-            int count = in.readInt();
-            for (int i = 0; i < count; i++)
+            // Dirty object deltas
+            writer.writeXInt(dirtyObjectDeltas.length);
+            for (InternalCDORevisionDelta revisionDelta : dirtyObjectDeltas)
             {
-              byte[] id = in.readByteArray();
-              commitTransactionTask.getLobs().add(id);
+              writer.writeCDORevisionDelta(revisionDelta);
+              monitor.worked();
+            }
 
-              long size = in.readLong();
-              if (size > 0)
-              {
-                writeBlob(id, size, in);
-              }
-              else
+            // Large objects
+            ExtendedDataInputStream in = context.getLobs();
+            if (in != null)
+            {
+              int count = in.readInt();
+              for (int i = 0; i < count; i++)
               {
-                writeClob(id, -size, new InputStreamReader(in));
+                byte[] id = in.readByteArray();
+                task.getLobs().add(id);
+
+                long size = in.readLong();
+                if (size > 0)
+                {
+                  writeBlob(id, size, in);
+                }
+                else
+                {
+                  writeClob(id, -size, new InputStreamReader(in));
+                }
               }
             }
           }
-        }
-      });
+        });
+
+        task.setNewCommitPointer(newCommitPointer);
+        task.setEndPointer(writer.getFilePointer());
+
+        commitPointer = newCommitPointer;
+        packageUnitPointer = task.getNewPackageUnitPointer();
+        pendingTasks.add(task);
+      }
 
-      commitTransactionTask.setNewCommitPointer(newCommitPointer);
+      return task;
+    }
+    catch (IOException ex)
+    {
+      throw new IORuntimeException(ex);
     }
     finally
     {
@@ -574,53 +686,162 @@ public class Journal extends LissomeFile
     throw new UnsupportedOperationException();
   }
 
-  public CommitTransactionTask commit(OMMonitor monitor)
+  /**
+   * Makes the given task, or all blocks written so far if the task is <code>null</code>, durable and reachable from the
+   * journal header. In {@link LissomeStore#isGroupCommit() group commit} mode this blocks until the group of the task
+   * has been forced to disk.
+   * <p>
+   * The header only advances over a contiguous run of completed tasks. A task that has been written after other tasks
+   * that are still pending waits until they have been committed or rolled back, because its block is linked to theirs.
+   */
+  public void commit(CommitTransactionTask task, OMMonitor monitor)
   {
-    try
+    long position;
+    long newCommitPointer;
+    long newPackageUnitPointer;
+
+    synchronized (writer)
     {
-      if (newCommitPointer != commitPointer || newPackageUnitPointer != packageUnitPointer)
+      if (task != null)
       {
-        commitPointer = newCommitPointer;
-        packageUnitPointer = newPackageUnitPointer;
+        awaitPredecessors(task);
+        pendingTasks.removeFirst();
+        writer.notifyAll();
 
-        writer.seek(0L);
-        writer.writeXLong(commitPointer);
-        writer.writeXLong(packageUnitPointer);
+        position = task.getEndPointer();
+        newCommitPointer = task.getNewCommitPointer();
+
+        // Only commits with new package units link them. They hold the package registry commit lock of the repository
+        // until they're completed, so the package units of the header can't belong to a pending or rolled back task.
+        newPackageUnitPointer = task.hasNewPackageUnits() ? task.getNewPackageUnitPointer() : headerPackageUnitPointer;
+      }
+      else
+      {
+        if (!pendingTasks.isEmpty())
+        {
+          // The blocks written so far include pending tasks, which must not become reachable.
+          return;
+        }
+
+        try
+        {
+          position = writer.length();
+        }
+        catch (IOException ex)
+        {
+          throw new IORuntimeException(ex);
+        }
+
+        newCommitPointer = commitPointer;
+        newPackageUnitPointer = packageUnitPointer;
       }
 
-      return commitTransactionTask;
+      if (newCommitPointer != headerCommitPointer || newPackageUnitPointer != headerPackageUnitPointer)
+      {
+        if (syncer == null)
+        {
+          writeHeader(newCommitPointer, newPackageUnitPointer);
+          return;
+        }
+
+        // The syncer writes the header later, but the next task must already build on this one.
+        headerCommitPointer = newCommitPointer;
+        headerPackageUnitPointer = newPackageUnitPointer;
+      }
+      else if (syncer == null)
+      {
+        return;
+      }
     }
-    catch (IOException ex)
+
+    try
     {
-      throw new IORuntimeException(ex);
+      syncer.sync(position, createHeaderOperation(newCommitPointer, newPackageUnitPointer));
     }
-    finally
+    catch (IOException ex)
     {
-      cleanUp();
+      throw new IORuntimeException(ex);
     }
   }
 
-  public void rollback(IStoreAccessor.CommitContext commitContext)
+  /**
+   * Waits until the given task is the oldest pending one. Must be called while holding the monitor of the writer.
+   */
+  private void awaitPredecessors(CommitTransactionTask task)
   {
-    try
+    boolean interrupted = false;
+
+    while (pendingTasks.getFirst() != task)
     {
-      List<byte[]> lobs = commitTransactionTask.getLobs();
-      for (byte[] id : lobs)
+      try
+      {
+        writer.wait();
+      }
+      catch (InterruptedException ex)
       {
-        removeLob(id);
+        // The task has been written and must not be left pending.
+        interrupted = true;
       }
     }
-    finally
+
+    if (interrupted)
     {
-      cleanUp();
+      Thread.currentThread().interrupt();
     }
   }
 
-  protected void cleanUp()
+  public void rollback(CommitTransactionTask task)
   {
-    commitTransactionTask = null;
-    newCommitPointer = commitPointer;
-    newPackageUnitPointer = packageUnitPointer;
+    if (task == null)
+    {
+      return;
+    }
+
+    synchronized (writer)
+    {
+      int index = pendingTasks.indexOf(task);
+      if (index == -1)
+      {
+        return;
+      }
+
+      pendingTasks.remove(index);
+      writer.notifyAll();
+
+      if (index < pendingTasks.size())
+      {
+        // The next task builds on the predecessor of the task from now on.
+        CommitTransactionTask successor = pendingTasks.get(index);
+        successor.setPreviousPointers(task.getPreviousCommitPointer(), task.getPreviousPackageUnitPointer());
+      }
+
+      if (commitPointer == task.getNewCommitPointer())
+      {
+        // No other commits have been written on top of the blocks of the task. Unlink them.
+        commitPointer = task.getPreviousCommitPointer();
+      }
+
+      if (task.hasNewPackageUnits() && packageUnitPointer == task.getNewPackageUnitPointer())
+      {
+        packageUnitPointer = task.getPreviousPackageUnitPointer();
+      }
+
+      // Later commit blocks can still be linked to the block of the task. Mark it, so that it's never read as a commit.
+      writer.write(task.getNewCommitPointer(), new LissomeFileOperation()
+      {
+        @Override
+        public void execute(LissomeFileHandle writer) throws IOException
+        {
+          writer.writeByte(ROLLED_BACK_BLOCK);
+        }
+      });
+    }
+
+    List<byte[]> lobs = task.getLobs();
+    for (byte[] id : lobs)
+    {
+      removeLob(id);
+    }
   }
 
   public CDOCommitInfo readCommitInfo(LissomeFileHandle reader, long pointer)
@@ -628,7 +849,12 @@ public class Journal extends LissomeFile
     try
     {
       reader.seek(pointer);
-      reader.readByte(); // COMMIT_TRANSACTION_BLOCK
+      byte blockType = reader.readByte();
+      if (blockType != COMMIT_TRANSACTION_BLOCK)
+      {
+        throw new IOException("Commit block expected at " + pointer + ": " + blockType);
+      }
+
       reader.readXLong(); // commitPointer
 
       CDOBranchPoint branchPoint = reader.readCDOBranchPoint();
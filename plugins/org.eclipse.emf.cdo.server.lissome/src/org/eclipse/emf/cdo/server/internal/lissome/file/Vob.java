@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2017, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2017, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,14 +55,18 @@ public class Vob extends LissomeFile
 
   public long addRevision(final CDORevision revision)
   {
-    return writer.append(new LissomeFileOperation()
+    // Called concurrently by the partition workers of the optimizer.
+    synchronized (writer)
     {
-      @Override
-      public void execute(LissomeFileHandle writer) throws IOException
+      return writer.append(new LissomeFileOperation()
       {
-        writer.writeCDORevision(revision, CDORevision.UNCHUNKED);
-      }
-    });
+        @Override
+        public void execute(LissomeFileHandle writer) throws IOException
+        {
+          writer.writeCDORevision(revision, CDORevision.UNCHUNKED);
+        }
+      });
+    }
   }
 
   public void delete(long[] pointers)
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, 2019, 2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2016, 2019, 2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,7 +17,6 @@ import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.CDORevisionInterner;
-import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
 import org.eclipse.emf.cdo.server.internal.lissome.db.IndexWriter;
 import org.eclipse.emf.cdo.server.internal.lissome.file.Vob;
 import org.eclipse.emf.cdo.spi.common.commit.InternalCDOCommitInfoManager;
@@ -68,6 +67,12 @@ public class CommitTransactionTask implements OptimizerTask
 
   private long newPackageUnitPointer;
 
+  private long previousCommitPointer;
+
+  private long previousPackageUnitPointer;
+
+  private long endPointer;
+
   private Map<CDORevision, Long> newObjectPointers = new HashMap<>();
 
   private InternalCDORevision[] detachedRevisions;
@@ -103,6 +108,11 @@ public class CommitTransactionTask implements OptimizerTask
     return branchPoint.getBranch() == this.branchPoint.getBranch();
   }
 
+  public boolean hasNewPackageUnits()
+  {
+    return newPackageUnits.length != 0;
+  }
+
   public void setDetachedRevisions(InternalCDORevision[] detachedRevisions)
   {
     this.detachedRevisions = detachedRevisions;
@@ -123,6 +133,40 @@ public class CommitTransactionTask implements OptimizerTask
     return newPackageUnitPointer;
   }
 
+  public void setNewPackageUnitPointer(long newPackageUnitPointer)
+  {
+    this.newPackageUnitPointer = newPackageUnitPointer;
+  }
+
+  public long getPreviousCommitPointer()
+  {
+    return previousCommitPointer;
+  }
+
+  public long getPreviousPackageUnitPointer()
+  {
+    return previousPackageUnitPointer;
+  }
+
+  public void setPreviousPointers(long previousCommitPointer, long previousPackageUnitPointer)
+  {
+    this.previousCommitPointer = previousCommitPointer;
+    this.previousPackageUnitPointer = previousPackageUnitPointer;
+  }
+
+  /**
+   * Returns the journal position right after the commit block of this task.
+   */
+  public long getEndPointer()
+  {
+    return endPointer;
+  }
+
+  public void setEndPointer(long endPointer)
+  {
+    this.endPointer = endPointer;
+  }
+
   public Map<CDORevision, Long> getNewObjectPointers()
   {
     return newObjectPointers;
@@ -141,22 +185,46 @@ public class CommitTransactionTask implements OptimizerTask
   }
 
   @Override
-  public void execute(Optimizer optimizer) throws IOException
+  public void execute(Optimizer optimizer, IndexWriter indexWriter, int partition, int partitions) throws IOException
   {
-    LissomeStore store = optimizer.getStore();
-    IndexWriter indexWriter = store.getIndex().getWriter();
-    Vob vob = store.getVob();
+    Vob vob = optimizer.getStore().getVob();
 
-    indexWriter.addCommitInfo(branchPoint, newCommitPointer);
+    if (partition == 0)
+    {
+      indexWriter.addCommitInfo(branchPoint, newCommitPointer);
+    }
 
-    addObjects(indexWriter);
-    updateObjects(indexWriter, vob);
-    detachObjects(indexWriter, vob);
+    addObjects(indexWriter, select(optimizer, newObjects, partition, partitions));
+    updateObjects(indexWriter, vob, select(optimizer, dirtyObjects, partition, partitions));
 
-    indexWriter.commit();
+    if (detachedObjects.length != 0)
+    {
+      detachObjects(indexWriter, vob, select(optimizer, detachedRevisions, partition, partitions));
+    }
+
+    indexWriter.flush();
   }
 
-  protected void addObjects(IndexWriter indexWriter)
+  protected InternalCDORevision[] select(Optimizer optimizer, InternalCDORevision[] revisions, int partition, int partitions)
+  {
+    if (partitions == 1)
+    {
+      return revisions;
+    }
+
+    List<InternalCDORevision> result = new ArrayList<>();
+    for (InternalCDORevision revision : revisions)
+    {
+      if (optimizer.getPartition(revision.getID()) == partition)
+      {
+        result.add(revision);
+      }
+    }
+
+    return result.toArray(new InternalCDORevision[result.size()]);
+  }
+
+  protected void addObjects(IndexWriter indexWriter, InternalCDORevision[] newObjects)
   {
     if (newObjects.length != 0)
     {
@@ -171,7 +239,7 @@ public class CommitTransactionTask implements OptimizerTask
     }
   }
 
-  protected void updateObjects(IndexWriter indexWriter, Vob vob)
+  protected void updateObjects(IndexWriter indexWriter, Vob vob, InternalCDORevision[] dirtyObjects)
   {
     if (dirtyObjects.length != 0)
     {
@@ -186,18 +254,20 @@ public class CommitTransactionTask implements OptimizerTask
     }
   }
 
-  protected void detachObjects(IndexWriter indexWriter, Vob vob)
+  protected void detachObjects(IndexWriter indexWriter, Vob vob, InternalCDORevision[] detachedRevisions)
   {
-    if (detachedObjects.length != 0)
+    if (detachedRevisions.length != 0)
     {
+      CDOID[] ids = new CDOID[detachedRevisions.length];
       long[] pointers = new long[detachedRevisions.length];
       for (int i = 0; i < detachedRevisions.length; i++)
       {
         InternalCDORevision revision = detachedRevisions[i];
+        ids[i] = revision.getID();
         pointers[i] = vob.addRevision(revision);
       }
 
-      indexWriter.detachObjects(branchPoint, detachedObjects, detachedRevisions, pointers);
+      indexWriter.detachObjects(branchPoint, ids, detachedRevisions, pointers);
     }
   }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -57,10 +57,12 @@ public class CreateBranchTask implements OptimizerTask
   }
 
   @Override
-  public void execute(Optimizer optimizer) throws IOException
+  public void execute(Optimizer optimizer, IndexWriter indexWriter, int partition, int partitions) throws IOException
   {
-    IndexWriter indexWriter = optimizer.getStore().getIndex().getWriter();
-    indexWriter.createBranch(branchID, name, base, pointer);
-    indexWriter.commit();
+    if (partition == 0)
+    {
+      indexWriter.createBranch(branchID, name, base, pointer);
+      indexWriter.flush();
+    }
   }
 }
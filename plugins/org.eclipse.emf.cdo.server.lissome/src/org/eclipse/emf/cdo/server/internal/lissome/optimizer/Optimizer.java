@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, 2019, 2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2016, 2019, 2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,9 @@ import org.eclipse.emf.cdo.eresource.EresourcePackage;
 import org.eclipse.emf.cdo.server.IStoreAccessor;
 import org.eclipse.emf.cdo.server.IStoreAccessor.QueryResourcesContext;
 import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+import org.eclipse.emf.cdo.server.internal.lissome.bundle.OM;
+import org.eclipse.emf.cdo.server.internal.lissome.db.Index;
+import org.eclipse.emf.cdo.server.internal.lissome.db.IndexWriter;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
 
@@ -35,22 +38,42 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.io.IOException;
 import java.util.LinkedList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Applies the {@link OptimizerTask tasks} of committed transactions to the {@link Index}.
+ * <p>
+ * The index updates of each task are partitioned by {@link CDOID}, so that several {@link #getPartitions() partition}
+ * workers can apply them concurrently, each through its own {@link IndexWriter}. The writers share one connection and
+ * the tasks are applied one after the other, so that all partitions of a task are committed in a single transaction,
+ * by the worker of partition 0. If any partition fails, that transaction is rolled back and the whole task is applied
+ * again. The index is thereby always at the state of a completed task and a crash can't leave a task half applied.
+ * A task stays visible to readers, through the optimizer's revision cache, until it has been committed.
+ *
  * @author Eike Stepper
  */
 public class Optimizer extends Lifecycle
 {
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
   private final LissomeStore store;
 
   private final boolean async;
 
-  private final LinkedList<OptimizerTask> queue = new LinkedList<>();
+  private final LinkedList<Entry> queue = new LinkedList<>();
+
+  private int partitions = 1;
 
-  private Worker worker;
+  private Partition[] workers;
 
   private Cache cache;
 
+  private long appliedTasks;
+
+  private long activationTime;
+
   public Optimizer(LissomeStore store, boolean async)
   {
     this.store = store;
@@ -67,17 +90,113 @@ public class Optimizer extends Lifecycle
     return async;
   }
 
+  /**
+   * Returns the number of partitions, i.e., the number of workers that apply index updates concurrently.
+   */
+  public int getPartitions()
+  {
+    return partitions;
+  }
+
+  public void setPartitions(int partitions)
+  {
+    checkInactive();
+    if (partitions < 1)
+    {
+      throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+    }
+
+    this.partitions = partitions;
+  }
+
+  /**
+   * Returns the partition of the index updates for the given object.
+   */
+  public int getPartition(CDOID id)
+  {
+    if (partitions == 1)
+    {
+      return 0;
+    }
+
+    return (id.hashCode() & Integer.MAX_VALUE) % partitions;
+  }
+
   public OptimizerTask[] getTasks()
   {
     return getCache().getTasks();
   }
 
+  /**
+   * Returns the number of tasks that are not yet fully applied to the index.
+   */
+  public int getQueueDepth()
+  {
+    synchronized (queue)
+    {
+      return queue.size();
+    }
+  }
+
+  /**
+   * Returns the number of milliseconds the oldest pending task has been waiting, or zero if no task is pending.
+   */
+  public long getLag()
+  {
+    synchronized (queue)
+    {
+      if (queue.isEmpty())
+      {
+        return 0L;
+      }
+
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queue.getFirst().added);
+    }
+  }
+
+  public long getAppliedTasks()
+  {
+    synchronized (queue)
+    {
+      return appliedTasks;
+    }
+  }
+
+  /**
+   * Returns the average number of tasks per second that have been applied since this optimizer was activated.
+   */
+  public double getApplyRate()
+  {
+    synchronized (queue)
+    {
+      long duration = System.nanoTime() - activationTime;
+      if (activationTime == 0L || duration <= 0L)
+      {
+        return 0d;
+      }
+
+      return (double)appliedTasks * NANOS_PER_SECOND / duration;
+    }
+  }
+
   public void addTask(OptimizerTask task)
   {
+    Entry entry = new Entry(task, workers.length - 1);
+
     synchronized (queue)
     {
       cache = null;
-      queue.addLast(task);
+      queue.addLast(entry);
+
+      if (async)
+      {
+        // The partitions must see the tasks in the same order as the queue.
+        for (Partition worker : workers)
+        {
+          worker.addEntry(entry);
+        }
+      }
+
       queue.notifyAll();
     }
 
@@ -85,67 +204,130 @@ public class Optimizer extends Lifecycle
     {
       try
       {
-        executeFirstTask();
+        applyAll(entry);
       }
-      catch (InterruptedException ignore)
+      catch (IOException ex)
       {
-        // Can not happen
+        throw new IORuntimeException(ex);
       }
     }
   }
 
-  protected void executeFirstTask() throws InterruptedException
+  /**
+   * Applies all partitions of the given entry through the writer of partition 0 and commits them.
+   */
+  protected void applyAll(Entry entry) throws IOException
   {
+    IndexWriter indexWriter = workers[0].indexWriter;
+    boolean committed = false;
+
     try
     {
-      OptimizerTask task = getFirstTask();
-      task.execute(this);
-      removeFirstTask();
+      for (int i = 0; i < partitions; i++)
+      {
+        entry.task.execute(this, indexWriter, i, partitions);
+      }
+
+      indexWriter.commit();
+      committed = true;
     }
-    catch (InterruptedException ex)
+    finally
     {
-      throw ex;
+      if (!committed)
+      {
+        indexWriter.rollback();
+      }
+    }
+
+    retire(entry);
+  }
+
+  /**
+   * Waits until the given entry is the first one in the queue, i.e., until all earlier tasks have been committed.
+   */
+  protected void awaitFirst(Entry entry) throws InterruptedException
+  {
+    synchronized (queue)
+    {
+      while (queue.getFirst() != entry)
+      {
+        queue.wait(100);
+      }
     }
-    catch (IOException ex)
+  }
+
+  /**
+   * Marks one of the helper partitions of the given entry as applied, or as failed if a failure is given.
+   */
+  protected void partitionApplied(Entry entry, Exception failure)
+  {
+    synchronized (queue)
     {
-      throw new IORuntimeException(ex);
+      if (failure != null && entry.failure == null)
+      {
+        entry.failure = failure;
+      }
+
+      --entry.pendingPartitions;
+      queue.notifyAll();
     }
   }
 
-  protected OptimizerTask getFirstTask() throws InterruptedException
+  /**
+   * Waits until all helper partitions of the given entry are applied and returns the first failure of them, if any.
+   */
+  protected Exception awaitPartitions(Entry entry) throws InterruptedException
   {
-    OptimizerTask task;
     synchronized (queue)
     {
-      while (queue.isEmpty())
+      while (entry.pendingPartitions != 0)
       {
         queue.wait(100);
       }
 
-      task = queue.getFirst();
+      return entry.failure;
     }
-
-    return task;
   }
 
-  protected void removeFirstTask()
+  protected void retire(Entry entry)
   {
     synchronized (queue)
     {
+      queue.remove(entry);
+      ++appliedTasks;
       cache = null;
-      queue.removeFirst();
       queue.notifyAll();
     }
   }
 
+  protected IndexWriter createIndexWriter(int partition)
+  {
+    Index index = store.getIndex();
+    IndexWriter indexWriter = index.getWriter();
+    if (partition == 0)
+    {
+      return indexWriter;
+    }
+
+    // The helper partitions write into the transaction of partition 0.
+    return index.createWriter(indexWriter.getConnection());
+  }
+
   @Override
   protected void doActivate() throws Exception
   {
     super.doActivate();
-    if (async)
+    activationTime = System.nanoTime();
+
+    // Without a thread per partition, all partitions are applied through the writer of partition 0.
+    workers = new Partition[async ? partitions : 1];
+    for (int i = 0; i < workers.length; i++)
     {
-      worker = new TaskWorker();
-      worker.activate();
+      workers[i] = new Partition(i, createIndexWriter(i));
+      if (async)
+      {
+        workers[i].activate();
+      }
     }
   }
 
@@ -162,10 +344,13 @@ public class Optimizer extends Lifecycle
 
     if (async)
     {
-      worker.deactivate();
-      worker = null;
+      for (Partition worker : workers)
+      {
+        worker.deactivate();
+      }
     }
 
+    workers = null;
     super.doDeactivate();
   }
 
@@ -203,18 +388,129 @@ public class Optimizer extends Lifecycle
   /**
    * @author Eike Stepper
    */
-  private final class TaskWorker extends Worker
+  protected static final class Entry
   {
+    private final OptimizerTask task;
+
+    private final long added = System.nanoTime();
+
+    private int pendingPartitions;
+
+    private Exception failure;
+
+    private Entry(OptimizerTask task, int pendingPartitions)
+    {
+      this.task = task;
+      this.pendingPartitions = pendingPartitions;
+    }
+
+    public OptimizerTask getTask()
+    {
+      return task;
+    }
+  }
+
+  /**
+   * Applies one partition of all tasks, in the order in which they were added. The worker of partition 0 commits
+   * each task after the other workers have applied their partitions of it.
+   *
+   * @author Eike Stepper
+   */
+  private final class Partition extends Worker
+  {
+    private final int partition;
+
+    private final IndexWriter indexWriter;
+
+    private final BlockingQueue<Entry> entries = new LinkedBlockingQueue<>();
+
+    private Entry current;
+
+    public Partition(int partition, IndexWriter indexWriter)
+    {
+      this.partition = partition;
+      this.indexWriter = indexWriter;
+    }
+
+    public void addEntry(Entry entry)
+    {
+      entries.add(entry);
+    }
+
+    private void execute(Entry entry) throws Exception
+    {
+      awaitFirst(entry);
+
+      Exception failure = null;
+
+      try
+      {
+        entry.task.execute(Optimizer.this, indexWriter, partition, partitions);
+      }
+      catch (Exception ex)
+      {
+        indexWriter.clearBatches();
+        failure = ex;
+      }
+
+      if (partition != 0)
+      {
+        partitionApplied(entry, failure);
+        return;
+      }
+
+      // The other partitions write into the same transaction, so it can only be committed after all of them.
+      if (failure == null)
+      {
+        failure = awaitPartitions(entry);
+      }
+      else
+      {
+        awaitPartitions(entry);
+      }
+
+      if (failure == null)
+      {
+        try
+        {
+          indexWriter.commit();
+          retire(entry);
+          return;
+        }
+        catch (RuntimeException ex)
+        {
+          failure = ex;
+        }
+      }
+
+      OM.LOG.warn(failure);
+
+      // Nothing of the failed task has been committed, so it's applied again as a whole.
+      indexWriter.rollback();
+      applyAll(entry);
+    }
+
     @Override
     protected String getThreadName()
     {
-      return "OptimizerTaskWorker";
+      return partitions == 1 ? "OptimizerTaskWorker" : "OptimizerTaskWorker-" + partition;
     }
 
     @Override
     protected void work(WorkContext context) throws Exception
     {
-      executeFirstTask();
+      if (current == null)
+      {
+        current = entries.poll(100, TimeUnit.MILLISECONDS);
+        if (current == null)
+        {
+          context.nextWork();
+        }
+      }
+
+      // A failed entry is retried, so that later tasks are never applied before it.
+      execute(current);
+      current = null;
     }
   }
 
@@ -229,10 +525,16 @@ public class Optimizer extends Lifecycle
 
     private InternalCDORevisionCache revisionCache;
 
-    public Cache(LinkedList<OptimizerTask> queue, boolean supportingBranches)
+    public Cache(LinkedList<Entry> queue, boolean supportingBranches)
     {
       this.supportingBranches = supportingBranches;
-      tasks = queue.toArray(new OptimizerTask[queue.size()]);
+      tasks = new OptimizerTask[queue.size()];
+
+      int i = 0;
+      for (Entry entry : queue)
+      {
+        tasks[i++] = entry.getTask();
+      }
     }
 
     public OptimizerTask[] getTasks()
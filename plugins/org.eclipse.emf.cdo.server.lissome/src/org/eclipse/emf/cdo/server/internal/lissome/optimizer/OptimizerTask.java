@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  */
 package org.eclipse.emf.cdo.server.internal.lissome.optimizer;
 
+import org.eclipse.emf.cdo.server.internal.lissome.db.IndexWriter;
+
 import java.io.IOException;
 
 /**
@@ -17,5 +19,10 @@ import java.io.IOException;
  */
 public interface OptimizerTask
 {
-  public void execute(Optimizer optimizer) throws IOException;
+  /**
+   * Applies the index updates of this task that belong to the given {@link Optimizer#getPartition(org.eclipse.emf.cdo.common.id.CDOID) partition}
+   * and {@link IndexWriter#flush() flushes} them. The {@link Optimizer} commits them when all partitions of this task
+   * are applied.
+   */
+  public void execute(Optimizer optimizer, IndexWriter indexWriter, int partition, int partitions) throws IOException;
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015, 2016, 2018-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015, 2016, 2018-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -298,6 +298,9 @@ public class CDOServerProtocol extends SignalProtocol<InternalSession> implement
     case SIGNAL_LOAD_LOB:
       return new LoadLobIndication(this);
 
+    case SIGNAL_LOAD_LOB_RANGE:
+      return new LoadLobRangeIndication(this);
+
     case SIGNAL_COMMIT_TRANSACTION:
       return new CommitTransactionIndication(this);
 
@@ -322,6 +325,9 @@ public class CDOServerProtocol extends SignalProtocol<InternalSession> implement
     case SIGNAL_QUERY_CANCEL:
       return new QueryCancelIndication(this);
 
+    case SIGNAL_QUERY_CREDIT:
+      return new QueryCreditIndication(this);
+
     case SIGNAL_REFRESH_SESSION:
       return new RefreshSessionIndication(this);
 
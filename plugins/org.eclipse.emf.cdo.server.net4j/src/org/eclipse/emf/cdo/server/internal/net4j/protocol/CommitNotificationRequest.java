@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,11 +12,21 @@
  */
 package org.eclipse.emf.cdo.server.internal.net4j.protocol;
 
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
+import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.common.revision.delta.CDORevisionDelta;
+import org.eclipse.emf.cdo.internal.common.commit.DelegatingCommitInfo;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -34,6 +44,117 @@ public class CommitNotificationRequest extends CDOServerRequest
   @Override
   protected void requesting(CDODataOutput out) throws IOException
   {
+    Map<Object, byte[]> sharedBlocks = info.getSharedCommitInfoBlocks();
+    if (sharedBlocks != null && info.getCommitInfoBlock() == null && info.getCommitInfo().getBranch() != null)
+    {
+      info.setCommitInfoBlock(getSharedBlock(out, sharedBlocks));
+    }
+
     info.write(out);
   }
+
+  /**
+   * Returns the serialized commit info of the notification, which is shared with the notifications of the same commit to
+   * all sessions that receive the same objects in the same form.
+   * <p>
+   * Whether an object is sent as a full revision or delta, or only as a key, depends on the session. The per-session commit
+   * info computes this (and the new permissions of the session) lazily, so it is materialized exactly once here.
+   */
+  private byte[] getSharedBlock(CDODataOutput out, Map<Object, byte[]> sharedBlocks) throws IOException
+  {
+    MaterializedCommitInfo commitInfo = new MaterializedCommitInfo(info.getCommitInfo());
+    BitSet form = commitInfo.getForm();
+
+    byte[] block = sharedBlocks.get(form);
+    if (block == null)
+    {
+      block = out.createCDOCommitInfoBlock(commitInfo);
+
+      byte[] existingBlock = sharedBlocks.putIfAbsent(form, block);
+      if (existingBlock != null)
+      {
+        block = existingBlock;
+      }
+    }
+
+    return block;
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class MaterializedCommitInfo extends DelegatingCommitInfo
+  {
+    private final CDOCommitInfo delegate;
+
+    private final List<CDOIDAndVersion> newObjects;
+
+    private final List<CDORevisionKey> changedObjects;
+
+    private final BitSet form = new BitSet();
+
+    public MaterializedCommitInfo(CDOCommitInfo delegate)
+    {
+      this.delegate = delegate;
+      newObjects = copy(delegate.getNewObjects());
+      changedObjects = copy(delegate.getChangedObjects());
+
+      int newSize = newObjects.size();
+      for (int i = 0; i < newSize; i++)
+      {
+        if (newObjects.get(i) instanceof CDORevision)
+        {
+          form.set(i);
+        }
+      }
+
+      for (int i = 0; i < changedObjects.size(); i++)
+      {
+        if (changedObjects.get(i) instanceof CDORevisionDelta)
+        {
+          form.set(newSize + i);
+        }
+      }
+    }
+
+    /**
+     * Copies by iteration because the lists of the server's commit infos are indexed lists that don't support toArray().
+     */
+    private static <T> List<T> copy(List<T> list)
+    {
+      List<T> result = new ArrayList<>(list.size());
+      for (T element : list)
+      {
+        result.add(element);
+      }
+
+      return result;
+    }
+
+    /**
+     * Returns the positions of the new and changed objects that are sent as full revisions and deltas.
+     */
+    public BitSet getForm()
+    {
+      return form;
+    }
+
+    @Override
+    protected CDOCommitInfo getDelegate()
+    {
+      return delegate;
+    }
+
+    @Override
+    public List<CDOIDAndVersion> getNewObjects()
+    {
+      return newObjects;
+    }
+
+    @Override
+    public List<CDORevisionKey> getChangedObjects()
+    {
+      return changedObjects;
+    }
+  }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.net4j.protocol;
+
+import org.eclipse.emf.cdo.common.protocol.CDODataInput;
+import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
+
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+
+import java.io.IOException;
+
+/**
+ * @author Eike Stepper
+ */
+public class LoadLobRangeIndication extends CDOServerReadIndication
+{
+  private byte[] id;
+
+  private long offset;
+
+  private long length;
+
+  public LoadLobRangeIndication(CDOServerProtocol protocol)
+  {
+    super(protocol, CDOProtocolConstants.SIGNAL_LOAD_LOB_RANGE);
+  }
+
+  @Override
+  protected void indicating(CDODataInput in) throws IOException
+  {
+    id = in.readByteArray();
+    offset = in.readXLong();
+    length = in.readXLong();
+  }
+
+  @Override
+  protected void responding(ExtendedDataOutputStream out) throws Exception
+  {
+    getRepository().loadLob(id, offset, length, out);
+  }
+
+  @Override
+  protected void responding(CDODataOutput out) throws IOException
+  {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.net4j.protocol;
+
+import org.eclipse.emf.cdo.common.protocol.CDODataInput;
+import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
+
+import java.io.IOException;
+
+/**
+ * @author Eike Stepper
+ */
+public class QueryCreditIndication extends CDOServerReadIndication
+{
+  public QueryCreditIndication(CDOServerProtocol protocol)
+  {
+    super(protocol, CDOProtocolConstants.SIGNAL_QUERY_CREDIT);
+  }
+
+  @Override
+  protected void indicating(CDODataInput in) throws IOException
+  {
+    int queryID = in.readXInt();
+    int credits = in.readXInt();
+    getRepository().getQueryManager().addCredits(queryID, credits);
+  }
+
+  @Override
+  protected void responding(CDODataOutput out) throws IOException
+  {
+    out.writeBoolean(true);
+  }
+}
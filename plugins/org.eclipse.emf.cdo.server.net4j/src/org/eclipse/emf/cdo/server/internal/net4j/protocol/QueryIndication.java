@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2016, 2017, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2016, 2017, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -60,7 +60,8 @@ public class QueryIndication extends CDOServerReadIndication
     Map<String, Object> parameters = queryInfo.getParameters();
     disableResponseFlushing = xrefs || Boolean.TRUE.equals(parameters.get(CDOQueryInfo.PARAM_DISABLE_RESPONSE_FLUSHING));
 
-    disableResponseTimeout = Boolean.TRUE.equals(parameters.get(CDOQueryInfo.PARAM_DISABLE_RESPONSE_TIMEOUT));
+    // A paged result waits for the client to request more results, which can take arbitrarily long.
+    disableResponseTimeout = queryInfo.getPageSize() > 0 || Boolean.TRUE.equals(parameters.get(CDOQueryInfo.PARAM_DISABLE_RESPONSE_TIMEOUT));
     if (!disableResponseTimeout)
     {
       IQueryHandler handler = queryResult.getQueryHandler();
@@ -101,61 +102,75 @@ public class QueryIndication extends CDOServerReadIndication
 
   private void doRespond(CDODataOutput out) throws IOException
   {
-    // Return queryID immediately.
-    out.writeXInt(queryResult.getQueryID());
-    flushUnlessDisabled();
-
-    for (;;)
+    try
     {
-      Object object;
+      // Return queryID immediately.
+      out.writeXInt(queryResult.getQueryID());
+      flushUnlessDisabled();
 
-      try
+      for (;;)
       {
-        if (!queryResult.hasNext())
+        Object object;
+
+        try
         {
+          if (!queryResult.hasNext() || !queryResult.acquireCredit())
+          {
+            break;
+          }
+
+          object = queryResult.next();
+        }
+        catch (Throwable ex)
+        {
+          out.writeBoolean(true);
+          out.writeCDORevisionOrPrimitive(ex);
           break;
         }
 
-        object = queryResult.next();
-      }
-      catch (Throwable ex)
-      {
         out.writeBoolean(true);
-        out.writeCDORevisionOrPrimitive(ex);
-        break;
-      }
 
-      out.writeBoolean(true);
+        if (xrefs)
+        {
+          CDOIDReference idReference = (CDOIDReference)object;
+          out.writeCDOIDReference(idReference);
+        }
+        else
+        {
+          out.writeCDORevisionOrPrimitive(object);
+        }
 
-      if (xrefs)
-      {
-        CDOIDReference idReference = (CDOIDReference)object;
-        out.writeCDOIDReference(idReference);
-      }
-      else
-      {
-        out.writeCDORevisionOrPrimitive(object);
-      }
+        if (queryResult.getCredits() == 0)
+        {
+          // The client can only request more results after it has received the requested ones.
+          flush();
+          continue;
+        }
 
-      try
-      {
-        if (queryResult.peek() == null)
+        try
         {
-          flushUnlessDisabled();
+          if (queryResult.peek() == null)
+          {
+            flushUnlessDisabled();
+          }
+        }
+        catch (IOException ex)
+        {
+          throw ex;
+        }
+        catch (Throwable ex)
+        {
+          // Ignore execution exceptions from peek(); they're handled.
         }
       }
-      catch (IOException ex)
-      {
-        throw ex;
-      }
-      catch (Throwable ex)
-      {
-        // Ignore execution exceptions from peek(); they're handled.
-      }
-    }
 
-    // No more results.
-    out.writeBoolean(false);
+      // No more results.
+      out.writeBoolean(false);
+    }
+    finally
+    {
+      queryResult.close();
+    }
   }
 
   private void flushUnlessDisabled() throws IOException
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2015, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2013, 2015, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,11 @@
  */
 package org.eclipse.emf.cdo.server.ocl;
 
+import org.eclipse.emf.cdo.common.model.EMFUtil;
 import org.eclipse.emf.cdo.eresource.CDOResource;
 
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EClassifier;
@@ -27,14 +29,26 @@ import org.eclipse.emf.ecore.util.EcoreUtil;
 
 import org.eclipse.ocl.ecore.TypeType;
 import org.eclipse.ocl.expressions.CollectionKind;
+import org.eclipse.ocl.expressions.IteratorExp;
+import org.eclipse.ocl.expressions.LoopExp;
+import org.eclipse.ocl.expressions.OCLExpression;
+import org.eclipse.ocl.expressions.OperationCallExp;
+import org.eclipse.ocl.expressions.PropertyCallExp;
+import org.eclipse.ocl.expressions.TypeExp;
+import org.eclipse.ocl.expressions.Variable;
+import org.eclipse.ocl.expressions.VariableExp;
+import org.eclipse.ocl.utilities.PredefinedType;
 import org.eclipse.ocl.utilities.TypedElement;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -140,6 +154,44 @@ abstract class CDOAdditionalOperation extends AdapterImpl
     new MatchesAnyStringAttribute(env).register();
   }
 
+  /**
+   * Replaces the <code>X.allInstances()->select(x | x.attribute = value)</code> subexpressions of the given expression
+   * with calls of the <tt>cdoAllInstancesWhere</tt> operation, so that only the matching instances are materialized.
+   *
+   * @return the given expression or, if the given expression itself has been replaced, its replacement.
+   */
+  static OCLExpression<EClassifier> rewriteSelects(CDOEnvironment env, OCLExpression<EClassifier> expression)
+  {
+    List<IteratorExp<EClassifier, EParameter>> selects = new ArrayList<>();
+
+    for (TreeIterator<EObject> it = EcoreUtil.getAllContents(Collections.singleton(expression)); it.hasNext();)
+    {
+      EObject object = it.next();
+      if (object instanceof IteratorExp<?, ?>)
+      {
+        @SuppressWarnings("unchecked")
+        IteratorExp<EClassifier, EParameter> select = (IteratorExp<EClassifier, EParameter>)object;
+        selects.add(select);
+      }
+    }
+
+    OCLExpression<EClassifier> result = expression;
+    for (IteratorExp<EClassifier, EParameter> select : selects)
+    {
+      OCLExpression<EClassifier> replacement = AllInstancesWhere.createCall(env, select);
+      if (replacement != null)
+      {
+        EcoreUtil.replace((EObject)select, (EObject)replacement);
+        if (select == result)
+        {
+          result = replacement;
+        }
+      }
+    }
+
+    return result;
+  }
+
   /**
    * The <tt>cdoAllContents</tt> operation that collects all of the proper (non-cross-resource-contained)
    * elements within a {@link CDOResource} or an {@link EObject}.  An optional argument filters the result
@@ -246,7 +298,7 @@ abstract class CDOAdditionalOperation extends AdapterImpl
 
     private static final int CACHE_SIZE = 16;
 
-    private Map<String, Matcher> matcherCache;
+    private Map<String, Pattern> patternCache;
 
     private Map<EClass, List<EAttribute>> stringAttributes;
 
@@ -272,7 +324,7 @@ abstract class CDOAdditionalOperation extends AdapterImpl
       if (source instanceof EObject)
       {
         EObject object = (EObject)source;
-        Matcher m = getMatcher((String)arguments[0]);
+        Matcher m = getPattern((String)arguments[0]).matcher(""); //$NON-NLS-1$
 
         // Check all string-valued attributes of this EClass
         for (EAttribute next : getStringAttributes(object.eClass()))
@@ -303,33 +355,36 @@ abstract class CDOAdditionalOperation extends AdapterImpl
       return result;
     }
 
-    private Matcher getMatcher(String regex)
+    /**
+     * Cached query expressions are evaluated concurrently, so only the immutable patterns are cached.
+     */
+    private synchronized Pattern getPattern(String regex)
     {
-      if (matcherCache == null)
+      if (patternCache == null)
       {
-        matcherCache = new java.util.LinkedHashMap<String, Matcher>(CACHE_SIZE, 0.75f, true)
+        patternCache = new java.util.LinkedHashMap<String, Pattern>(CACHE_SIZE, 0.75f, true)
         {
           private static final long serialVersionUID = 1L;
 
           @Override
-          protected boolean removeEldestEntry(Map.Entry<String, Matcher> eldest)
+          protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest)
           {
             return size() > CACHE_SIZE;
           }
         };
       }
 
-      Matcher result = matcherCache.get(regex);
+      Pattern result = patternCache.get(regex);
       if (result == null)
       {
-        result = Pattern.compile(regex).matcher(""); //$NON-NLS-1$
-        matcherCache.put(regex, result);
+        result = Pattern.compile(regex);
+        patternCache.put(regex, result);
       }
 
       return result;
     }
 
-    private List<EAttribute> getStringAttributes(EClass eClass)
+    private synchronized List<EAttribute> getStringAttributes(EClass eClass)
     {
       if (stringAttributes == null)
       {
@@ -363,4 +418,168 @@ abstract class CDOAdditionalOperation extends AdapterImpl
       return result;
     }
   }
+
+  /**
+   * The <tt>cdoAllInstancesWhere</tt> operation that returns the instances of a class whose attribute is equal to the
+   * argument. It is not registered in the environment, but {@link CDOAdditionalOperation#rewriteSelects(CDOEnvironment, OCLExpression)
+   * rewriteSelects()} calls it in place of the equivalent <code>allInstances()->select()</code> expressions, which are
+   * then answered by the {@link CDOExtentMap#get(EClass, EAttribute, Object) filtered extents} of the query.
+   *
+   * @author Eike Stepper
+   */
+  private static class AllInstancesWhere extends CDOAdditionalOperation
+  {
+    private static final String NAME = "cdoAllInstancesWhere"; //$NON-NLS-1$
+
+    private static final Set<Class<?>> FILTERABLE_TYPES = new HashSet<>(Arrays.asList(String.class, Boolean.class, boolean.class, Integer.class, int.class,
+        Long.class, long.class, Short.class, short.class, Byte.class, byte.class, Double.class, double.class, Float.class, float.class));
+
+    private final EAttribute attribute;
+
+    private AllInstancesWhere(CDOEnvironment env, EAttribute attribute)
+    {
+      super(env, NAME);
+      this.attribute = attribute;
+    }
+
+    @Override
+    protected void register()
+    {
+      // Only called by rewritten expressions.
+    }
+
+    @Override
+    protected Object evaluate(CDOEvaluationEnvironment evalEnv, Object source, Object[] arguments)
+    {
+      CDOExtentMap extentMap = evalEnv.getExtentMap();
+      if (extentMap == null)
+      {
+        throw new IllegalStateException("Extent map missing"); //$NON-NLS-1$
+      }
+
+      // The result of a select() is a real set, even if the extent is lazy.
+      Set<EObject> result = new HashSet<>();
+      for (EObject object : extentMap.get((EClass)source, attribute, arguments[0]))
+      {
+        result.add(object);
+      }
+
+      return result;
+    }
+
+    /**
+     * Returns a call of this operation that is equivalent to the given iterator expression, or <code>null</code> if the
+     * iterator expression is not a <code>X.allInstances()->select(x | x.attribute = value)</code> expression with a
+     * persistent, single-valued attribute of a primitive type and a value that does not depend on a loop variable.
+     */
+    @SuppressWarnings("unchecked")
+    public static OCLExpression<EClassifier> createCall(CDOEnvironment env, IteratorExp<EClassifier, EParameter> select)
+    {
+      if (!PredefinedType.SELECT_NAME.equals(select.getName()) || select.getIterator().size() != 1)
+      {
+        return null;
+      }
+
+      OCLExpression<EClassifier> source = select.getSource();
+      if (!(source instanceof OperationCallExp<?, ?>))
+      {
+        return null;
+      }
+
+      OperationCallExp<EClassifier, ?> allInstances = (OperationCallExp<EClassifier, ?>)source;
+      if (allInstances.getOperationCode() != PredefinedType.ALL_INSTANCES || !(allInstances.getSource() instanceof TypeExp<?>))
+      {
+        return null;
+      }
+
+      TypeExp<EClassifier> typeExp = (TypeExp<EClassifier>)allInstances.getSource();
+      if (!(typeExp.getReferredType() instanceof EClass))
+      {
+        return null;
+      }
+
+      OCLExpression<EClassifier> body = select.getBody();
+      if (!(body instanceof OperationCallExp<?, ?>))
+      {
+        return null;
+      }
+
+      OperationCallExp<EClassifier, ?> equal = (OperationCallExp<EClassifier, ?>)body;
+      if (equal.getOperationCode() != PredefinedType.EQUAL || equal.getArgument().size() != 1)
+      {
+        return null;
+      }
+
+      Variable<EClassifier, EParameter> iterator = select.getIterator().get(0);
+      OCLExpression<EClassifier> value = equal.getArgument().get(0);
+
+      EAttribute attribute = getAttribute(equal.getSource(), iterator);
+      if (attribute == null)
+      {
+        attribute = getAttribute(value, iterator);
+        value = equal.getSource();
+      }
+
+      if (attribute == null || !isConstant(value))
+      {
+        return null;
+      }
+
+      EClassifier resultType = select.getType();
+      AllInstancesWhere operation = new AllInstancesWhere(env, attribute);
+
+      org.eclipse.ocl.ecore.OperationCallExp call = org.eclipse.ocl.ecore.EcoreFactory.eINSTANCE.createOperationCallExp();
+      call.setReferredOperation(operation.createEOperation(resultType, "value", value.getType())); //$NON-NLS-1$
+      call.setType(resultType);
+      call.setSource(typeExp);
+      call.getArgument().add(value);
+      return call;
+    }
+
+    private static EAttribute getAttribute(OCLExpression<EClassifier> expression, Variable<EClassifier, EParameter> iterator)
+    {
+      if (expression instanceof PropertyCallExp<?, ?>)
+      {
+        PropertyCallExp<?, ?> propertyCall = (PropertyCallExp<?, ?>)expression;
+        Object property = propertyCall.getReferredProperty();
+        Object source = propertyCall.getSource();
+
+        if (property instanceof EAttribute && propertyCall.getQualifier().isEmpty() && source instanceof VariableExp<?, ?>
+            && ((VariableExp<?, ?>)source).getReferredVariable() == iterator)
+        {
+          EAttribute attribute = (EAttribute)property;
+          EClassifier type = attribute.getEType();
+
+          if (!attribute.isMany() && EMFUtil.isPersistent(attribute) && type != null && FILTERABLE_TYPES.contains(type.getInstanceClass()))
+          {
+            return attribute;
+          }
+        }
+      }
+
+      return null;
+    }
+
+    /**
+     * Returns <code>true</code> if the given expression does not refer to the variables of a loop, i.e., if it is
+     * evaluated to the same value for all elements of the extent.
+     */
+    private static boolean isConstant(OCLExpression<EClassifier> expression)
+    {
+      for (TreeIterator<EObject> it = EcoreUtil.getAllContents(Collections.singleton(expression)); it.hasNext();)
+      {
+        EObject object = it.next();
+        if (object instanceof VariableExp<?, ?>)
+        {
+          Object variable = ((VariableExp<?, ?>)object).getReferredVariable();
+          if (variable instanceof EObject && ((EObject)variable).eContainer() instanceof LoopExp<?, ?>)
+          {
+            return false;
+          }
+        }
+      }
+
+      return true;
+    }
+  }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2015 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2013, 2015, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,6 +34,8 @@ import org.eclipse.ocl.ecore.SendSignalAction;
  */
 class CDOEnvironmentFactory extends EcoreEnvironmentFactory
 {
+  private CDOExtentMap extentMap;
+
   public CDOEnvironmentFactory(EPackage.Registry packageRegistry)
   {
     super(packageRegistry);
@@ -43,6 +45,20 @@ class CDOEnvironmentFactory extends EcoreEnvironmentFactory
   {
   }
 
+  public CDOExtentMap getExtentMap()
+  {
+    return extentMap;
+  }
+
+  /**
+   * Sets the extent map that the {@link #createEvaluationEnvironment() evaluation environments} of this factory pass to
+   * the additional operations.
+   */
+  public void setExtentMap(CDOExtentMap extentMap)
+  {
+    this.extentMap = extentMap;
+  }
+
   @Override
   public Environment<EPackage, EClassifier, EOperation, EStructuralFeature, EEnumLiteral, EParameter, EObject, CallOperationAction, SendSignalAction, Constraint, EClass, EObject> createEnvironment()
   {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2015, 2016 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2013, 2015, 2016, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,14 +28,34 @@ import org.eclipse.ocl.ecore.EcoreEvaluationEnvironment;
  */
 class CDOEvaluationEnvironment extends EcoreEvaluationEnvironment
 {
+  private CDOExtentMap extentMap;
+
   public CDOEvaluationEnvironment(EcoreEnvironmentFactory factory)
   {
     super(factory);
+
+    if (factory instanceof CDOEnvironmentFactory)
+    {
+      extentMap = ((CDOEnvironmentFactory)factory).getExtentMap();
+    }
   }
 
   public CDOEvaluationEnvironment(EvaluationEnvironment<EClassifier, EOperation, EStructuralFeature, EClass, EObject> parent)
   {
     super(parent);
+
+    if (parent instanceof CDOEvaluationEnvironment)
+    {
+      extentMap = ((CDOEvaluationEnvironment)parent).getExtentMap();
+    }
+  }
+
+  /**
+   * Returns the extent map of the query that is evaluated in this environment, or <code>null</code> if it is unknown.
+   */
+  public CDOExtentMap getExtentMap()
+  {
+    return extentMap;
   }
 
   @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2015, 2016, 2019-2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2015, 2016, 2019-2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,28 +17,35 @@ import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.model.CDOPackageRegistry;
 import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionData;
 import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
 import org.eclipse.emf.cdo.common.revision.CDORevisionInterner;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
 import org.eclipse.emf.cdo.server.CDOServerUtil;
 import org.eclipse.emf.cdo.server.ISession;
 import org.eclipse.emf.cdo.server.IStoreAccessor;
 import org.eclipse.emf.cdo.server.StoreThreadLocal;
+import org.eclipse.emf.cdo.spi.common.revision.DetachedCDORevision;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.util.ObjectNotFoundException;
 import org.eclipse.emf.cdo.view.CDOView;
 
 import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
 
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.InternalEObject.EStore;
 import org.eclipse.emf.spi.cdo.InternalCDOObject;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -48,10 +55,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * An OCL {@link OCLExtentCreator extent creator} implementation for CDO.
  * <p>
  * The {@link #createExtent(EClass, AtomicBoolean) extent} of a {@link EClass class} X is the set of all {@link EObject objects} with <code>object.getEClass() == X</code>.
+ * <p>
+ * The {@link #createExtent(EClass, EAttribute, Object, AtomicBoolean) filtered extents} are created from the revisions
+ * in the store, and only the objects of the revisions that match the filter are materialized. Subclasses can override
+ * {@link #handleRevisions(EClass, EAttribute, Object, IStoreAccessor, CDOBranch, long, CDORevisionHandler)
+ * handleRevisions()} to answer the filter from an index of the store.
  *
  * @author Eike Stepper
  */
-public class CDOExtentCreator implements OCLExtentCreator
+public class CDOExtentCreator implements OCLExtentCreator.Filtering
 {
   private CDOView view;
 
@@ -122,22 +134,39 @@ public class CDOExtentCreator implements OCLExtentCreator
     return createExtent(eClass, accessor, branch, timeStamp, canceled);
   }
 
+  /**
+   * @since 4.6
+   */
+  @Override
+  public Set<EObject> createExtent(EClass eClass, EAttribute attribute, Object value, AtomicBoolean canceled)
+  {
+    IStoreAccessor accessor = StoreThreadLocal.getAccessor();
+    CDOBranch branch = view.getBranch();
+    long timeStamp = view.getTimeStamp();
+    return createExtent(eClass, attribute, value, accessor, branch, timeStamp, canceled);
+  }
+
   protected Set<EObject> createExtent(EClass eClass, IStoreAccessor accessor, CDOBranch branch, long timeStamp, final AtomicBoolean canceled)
+  {
+    return createExtent(eClass, null, null, accessor, branch, timeStamp, canceled);
+  }
+
+  /**
+   * Creates the extent of the given class, filtered by the given attribute and value if the attribute is not
+   * <code>null</code>.
+   *
+   * @since 4.6
+   */
+  protected Set<EObject> createExtent(EClass eClass, EAttribute attribute, Object value, IStoreAccessor accessor, CDOBranch branch, long timeStamp,
+      final AtomicBoolean canceled)
   {
     final Set<EObject> extent = new HashSet<>();
-    if (changeSetData != null)
+    for (CDOID id : getDirtyIDs(attribute))
     {
-      List<CDOIDAndVersion> newObjects = changeSetData.getNewObjects();
-      if (newObjects != null)
+      EObject object = getEObject(id);
+      if (object != null && (attribute == null || matches(object, eClass, attribute, value)))
       {
-        for (CDOIDAndVersion key : newObjects)
-        {
-          EObject object = getEObject(key.getID());
-          if (object != null)
-          {
-            extent.add(object);
-          }
-        }
+        extent.add(object);
       }
     }
 
@@ -152,7 +181,7 @@ public class CDOExtentCreator implements OCLExtentCreator
         }
 
         CDOID id = revision.getID();
-        if (!isDetached(id))
+        if (!isDetached(id) && !(attribute != null && isChanged(id)))
         {
           EObject object = getEObject(id);
           if (object != null)
@@ -165,7 +194,7 @@ public class CDOExtentCreator implements OCLExtentCreator
       }
     });
 
-    createExtent(eClass, accessor, branch, timeStamp, canceled, revisionHandler);
+    createExtent(eClass, attribute, value, accessor, branch, timeStamp, canceled, revisionHandler);
     return extent;
   }
 
@@ -193,6 +222,39 @@ public class CDOExtentCreator implements OCLExtentCreator
     }
   }
 
+  /**
+   * Passes the revisions of the given class and its subclasses to the given handler, only the ones whose given attribute
+   * value is equal to the given value if the attribute is not <code>null</code>.
+   *
+   * @since 4.6
+   */
+  protected void createExtent(EClass eClass, EAttribute attribute, Object value, IStoreAccessor accessor, CDOBranch branch, long timeStamp,
+      final AtomicBoolean canceled, CDORevisionHandler revisionHandler)
+  {
+    if (attribute == null)
+    {
+      createExtent(eClass, accessor, branch, timeStamp, canceled, revisionHandler);
+      return;
+    }
+
+    handleRevisions(eClass, attribute, value, accessor, branch, timeStamp, revisionHandler);
+
+    CDOPackageRegistry packageRegistry = accessor.getStore().getRepository().getPackageRegistry();
+    List<EClass> subTypes = packageRegistry.getSubTypes().get(eClass);
+    if (subTypes != null)
+    {
+      for (EClass subType : subTypes)
+      {
+        if (canceled.get())
+        {
+          break;
+        }
+
+        handleRevisions(subType, attribute, value, accessor, branch, timeStamp, revisionHandler);
+      }
+    }
+  }
+
   /**
    * @since 4.2
    */
@@ -205,6 +267,33 @@ public class CDOExtentCreator implements OCLExtentCreator
     }
   }
 
+  /**
+   * Passes the revisions of the given class whose given attribute value is equal to the given value to the given
+   * handler. Detached revisions may be passed, too.
+   * <p>
+   * This implementation reads all revisions of the class and compares their attribute values before the objects are
+   * materialized. Subclasses may override it to look the matching revisions up in an index of the store.
+   *
+   * @since 4.6
+   */
+  protected void handleRevisions(EClass eClass, final EAttribute attribute, final Object value, IStoreAccessor accessor, CDOBranch branch, long timeStamp,
+      CDORevisionHandler revisionHandler)
+  {
+    handleRevisions(eClass, accessor, branch, timeStamp, new CDORevisionHandler.Filtered(revisionHandler)
+    {
+      @Override
+      protected boolean filter(CDORevision revision)
+      {
+        if (revision instanceof DetachedCDORevision)
+        {
+          return false;
+        }
+
+        return !isEqual(getValue(revision, attribute), value);
+      }
+    });
+  }
+
   protected boolean isDetached(CDOID id)
   {
     if (changeSetData == null)
@@ -216,6 +305,113 @@ public class CDOExtentCreator implements OCLExtentCreator
     return changeKind == CDOChangeKind.DETACHED;
   }
 
+  /**
+   * Returns <code>true</code> if the object with the given ID is changed in the {@link #getChangeSetData() change set
+   * data}, i.e., if its attribute values in the store can be stale.
+   *
+   * @since 4.6
+   */
+  protected boolean isChanged(CDOID id)
+  {
+    if (changeSetData == null)
+    {
+      return false;
+    }
+
+    CDOChangeKind changeKind = changeSetData.getChangeKind(id);
+    return changeKind == CDOChangeKind.CHANGED;
+  }
+
+  /**
+   * Returns the IDs of the objects from the {@link #getChangeSetData() change set data} that are added to an extent
+   * independently of the store: the new objects and, for a filtered extent, also the changed objects.
+   *
+   * @since 4.6
+   */
+  protected List<CDOID> getDirtyIDs(EAttribute attribute)
+  {
+    List<CDOID> ids = new ArrayList<>();
+    if (changeSetData != null)
+    {
+      List<CDOIDAndVersion> newObjects = changeSetData.getNewObjects();
+      if (newObjects != null)
+      {
+        for (CDOIDAndVersion key : newObjects)
+        {
+          ids.add(key.getID());
+        }
+      }
+
+      if (attribute != null)
+      {
+        List<CDORevisionKey> changedObjects = changeSetData.getChangedObjects();
+        if (changedObjects != null)
+        {
+          for (CDORevisionKey key : changedObjects)
+          {
+            ids.add(key.getID());
+          }
+        }
+      }
+    }
+
+    return ids;
+  }
+
+  /**
+   * Returns <code>true</code> if the given object is an instance of the given class and its given attribute value is
+   * equal to the given value.
+   */
+  private static boolean matches(EObject object, EClass eClass, EAttribute attribute, Object value)
+  {
+    return eClass.isSuperTypeOf(object.eClass()) && isEqual(object.eGet(attribute), value);
+  }
+
+  private static Object getValue(CDORevision revision, EAttribute attribute)
+  {
+    Object value = revision.data().get(attribute, EStore.NO_INDEX);
+    if (value == CDORevisionData.NIL)
+    {
+      return null;
+    }
+
+    if (value == null)
+    {
+      return attribute.getDefaultValue();
+    }
+
+    return value;
+  }
+
+  /**
+   * Returns <code>true</code> if the given attribute value is equal to the given value in the sense of the OCL
+   * <code>=</code> operation, i.e., numbers are compared by their numeric values.
+   *
+   * @since 4.6
+   */
+  public static boolean isEqual(Object attributeValue, Object value)
+  {
+    if (attributeValue instanceof Number && value instanceof Number)
+    {
+      Number number1 = (Number)attributeValue;
+      Number number2 = (Number)value;
+
+      if (isIntegral(number1) && isIntegral(number2))
+      {
+        return number1.longValue() == number2.longValue();
+      }
+
+      return number1.doubleValue() == number2.doubleValue();
+    }
+
+    return Objects.equals(attributeValue, value);
+  }
+
+  private static boolean isIntegral(Number number)
+  {
+    return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+  }
+
   protected EObject getEObject(CDOID id) throws ObjectNotFoundException
   {
     InternalCDOObject object = (InternalCDOObject)view.getObject(id);
@@ -239,8 +435,12 @@ public class CDOExtentCreator implements OCLExtentCreator
       super(view);
     }
 
+    /**
+     * @since 4.6
+     */
     @Override
-    protected Set<EObject> createExtent(EClass eClass, IStoreAccessor accessor, CDOBranch branch, long timeStamp, AtomicBoolean canceled)
+    protected Set<EObject> createExtent(EClass eClass, EAttribute attribute, Object value, IStoreAccessor accessor, CDOBranch branch, long timeStamp,
+        AtomicBoolean canceled)
     {
       return new Set<EObject>()
       {
@@ -283,6 +483,9 @@ public class CDOExtentCreator implements OCLExtentCreator
 
           Object mutex = new Object();
           LinkedList<CDOID> ids = new LinkedList<>();
+
+          // The objects from the change set data are matched against the filter when they're consumed.
+          Set<CDOID> dirtyIDs = new HashSet<>();
           boolean[] done = { false };
 
           class OCLExtentIterator implements Runnable
@@ -308,17 +511,17 @@ public class CDOExtentCreator implements OCLExtentCreator
 
             private void handleDirtyState()
             {
-              CDOChangeSetData changeSetData = getChangeSetData();
-              if (changeSetData != null)
+              for (CDOID id : getDirtyIDs(attribute))
               {
-                List<CDOIDAndVersion> newObjects = changeSetData.getNewObjects();
-                if (newObjects != null)
+                if (attribute != null)
                 {
-                  for (CDOIDAndVersion key : newObjects)
+                  synchronized (mutex)
                   {
-                    enqueue(key.getID());
+                    dirtyIDs.add(id);
                   }
                 }
+
+                enqueue(id);
               }
             }
 
@@ -339,7 +542,7 @@ public class CDOExtentCreator implements OCLExtentCreator
                   }
 
                   CDOID id = revision.getID();
-                  if (!isDetached(id))
+                  if (!isDetached(id) && !(attribute != null && isChanged(id)))
                   {
                     enqueue(id);
                   }
@@ -348,7 +551,7 @@ public class CDOExtentCreator implements OCLExtentCreator
                 }
               });
 
-              createExtent(eClass, accessor, branch, timeStamp, canceled, revisionHandler);
+              createExtent(eClass, attribute, value, accessor, branch, timeStamp, canceled, revisionHandler);
             }
 
             private void enqueue(CDOID id)
@@ -375,6 +578,7 @@ public class CDOExtentCreator implements OCLExtentCreator
             {
               while (next == null)
               {
+                boolean dirty = false;
                 if (canceled.get())
                 {
                   return false;
@@ -401,8 +605,14 @@ public class CDOExtentCreator implements OCLExtentCreator
                   else
                   {
                     next = ids.removeFirst();
+                    dirty = dirtyIDs.remove(next);
                   }
                 }
+
+                if (dirty && !matches(getEObject(next), eClass, attribute, value))
+                {
+                  next = null;
+                }
               }
 
               return true;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2012, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,13 @@
  */
 package org.eclipse.emf.cdo.server.ocl;
 
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -22,6 +25,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Maps {@link EClass classes} to their extents.
  * <p>
  * The {@link #get(Object) extent} of a {@link EClass class} X is the set of all {@link EObject objects} with <code>object.getEClass() == X</code>.
+ * <p>
+ * If the {@link OCLExtentCreator extent creator} is {@link OCLExtentCreator.Filtering filtering} the
+ * {@link #get(EClass, EAttribute, Object) filtered extents} of a class are created without materializing the objects
+ * that don't match the filter.
  *
  * @author Eike Stepper
  */
@@ -29,6 +36,8 @@ public class CDOExtentMap implements Map<EClass, Set<? extends EObject>>
 {
   private final Map<EClass, Set<? extends EObject>> delegate = new java.util.HashMap<>();
 
+  private final Map<List<Object>, Set<? extends EObject>> filteredExtents = new java.util.HashMap<>();
+
   private final OCLExtentCreator extentCreator;
 
   private AtomicBoolean canceled = new AtomicBoolean(false);
@@ -64,6 +73,43 @@ public class CDOExtentMap implements Map<EClass, Set<? extends EObject>>
     return null;
   }
 
+  /**
+   * Returns the set of all objects in the extent of the given class whose given single-valued attribute is equal to the
+   * given value.
+   *
+   * @since 4.6
+   */
+  public Set<? extends EObject> get(EClass cls, EAttribute attribute, Object value)
+  {
+    List<Object> key = Arrays.asList(cls, attribute, value);
+
+    Set<? extends EObject> result = filteredExtents.get(key);
+    if (result == null)
+    {
+      if (extentCreator instanceof OCLExtentCreator.Filtering)
+      {
+        result = ((OCLExtentCreator.Filtering)extentCreator).createExtent(cls, attribute, value, canceled);
+      }
+      else
+      {
+        Set<EObject> filtered = new java.util.HashSet<>();
+        for (EObject object : get(cls))
+        {
+          if (CDOExtentCreator.isEqual(object.eGet(attribute), value))
+          {
+            filtered.add(object);
+          }
+        }
+
+        result = filtered;
+      }
+
+      filteredExtents.put(key, result);
+    }
+
+    return result;
+  }
+
   //
   // Strictly delegating methods
   //
@@ -72,6 +118,7 @@ public class CDOExtentMap implements Map<EClass, Set<? extends EObject>>
   public void clear()
   {
     delegate.clear();
+    filteredExtents.clear();
   }
 
   @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2012, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  */
 package org.eclipse.emf.cdo.server.ocl;
 
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 
@@ -26,4 +27,21 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public interface OCLExtentCreator
 {
   public Set<EObject> createExtent(EClass cls, AtomicBoolean canceled);
+
+  /**
+   * An {@link OCLExtentCreator extent creator} that can also create filtered extents, so that the objects of a
+   * <code>X.allInstances()->select(x | x.attribute = value)</code> expression don't need to be materialized before
+   * they're selected.
+   *
+   * @author Eike Stepper
+   * @since 4.6
+   */
+  public interface Filtering extends OCLExtentCreator
+  {
+    /**
+     * Returns the set of all {@link EObject objects} in the extent of the given {@link EClass class} whose given
+     * single-valued attribute is equal to the given value, in the sense of the OCL <code>=</code> operation.
+     */
+    public Set<EObject> createExtent(EClass cls, EAttribute attribute, Object value, AtomicBoolean canceled);
+  }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.ocl;
+
+import org.eclipse.emf.ecore.EClassifier;
+
+import org.eclipse.ocl.expressions.OCLExpression;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe cache of compiled OCL query expressions that {@link OCLQueryHandler query handlers} share, so
+ * that the expression of a query is parsed only once and not for every execution of that query.
+ * <p>
+ * A compiled expression only depends on its query text, its context classifier, the names and types of its parameters
+ * and the parsing options of the handler. It does not depend on the view or on the extents of an execution, so it can be
+ * evaluated concurrently by several executions. When the cache is full the least recently used expression is evicted.
+ *
+ * @author Eike Stepper
+ * @since 4.6
+ */
+public class OCLQueryCache
+{
+  public static final int DEFAULT_CAPACITY = 1000;
+
+  private final Map<Object, OCLExpression<EClassifier>> expressions;
+
+  private final int capacity;
+
+  private long hits;
+
+  private long misses;
+
+  public OCLQueryCache()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public OCLQueryCache(int capacity)
+  {
+    this.capacity = capacity;
+    expressions = new LinkedHashMap<Object, OCLExpression<EClassifier>>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, OCLExpression<EClassifier>> eldest)
+      {
+        return size() > OCLQueryCache.this.capacity;
+      }
+    };
+  }
+
+  public int getCapacity()
+  {
+    return capacity;
+  }
+
+  public synchronized int size()
+  {
+    return expressions.size();
+  }
+
+  public synchronized long getHits()
+  {
+    return hits;
+  }
+
+  public synchronized long getMisses()
+  {
+    return misses;
+  }
+
+  /**
+   * Returns the compiled expression with the given key, or <code>null</code> if it is not cached.
+   */
+  public synchronized OCLExpression<EClassifier> getExpression(Object key)
+  {
+    OCLExpression<EClassifier> expression = expressions.get(key);
+    if (expression != null)
+    {
+      ++hits;
+    }
+    else
+    {
+      ++misses;
+    }
+
+    return expression;
+  }
+
+  /**
+   * Caches the given compiled expression under the given key.
+   */
+  public synchronized void putExpression(Object key, OCLExpression<EClassifier> expression)
+  {
+    expressions.put(key, expression);
+  }
+
+  public synchronized void clear()
+  {
+    expressions.clear();
+  }
+
+  @Override
+  public synchronized String toString()
+  {
+    return "OCLQueryCache[size=" + expressions.size() + ", hits=" + hits + ", misses=" + misses + "]";
+  }
+}
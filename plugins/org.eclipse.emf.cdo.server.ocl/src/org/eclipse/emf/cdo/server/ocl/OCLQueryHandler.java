@@ -72,6 +72,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -96,8 +97,17 @@ public class OCLQueryHandler implements IQueryHandler
    */
   public static final String IMPLICIT_ROOT_CLASS_PARAMETER = "cdoImplicitRootClass";
 
+  /**
+   * Query parameter indicating whether <code>X.allInstances()->select(x | x.attribute = value)</code> expressions are
+   * answered by {@link CDOExtentMap#get(EClass, org.eclipse.emf.ecore.EAttribute, Object) filtered extents}, which only
+   * materialize the matching instances. The default is {@code true}.
+   *
+   * @since 4.6
+   */
+  public static final String FILTERED_EXTENTS_PARAMETER = "cdoFilteredExtents";
+
   private static final Set<String> SERVER_QUERY_PARAMETERS = Collections
-      .unmodifiableSet(new java.util.HashSet<>(Arrays.asList(LAZY_EXTENTS_PARAMETER, IMPLICIT_ROOT_CLASS_PARAMETER)));
+      .unmodifiableSet(new java.util.HashSet<>(Arrays.asList(LAZY_EXTENTS_PARAMETER, IMPLICIT_ROOT_CLASS_PARAMETER, FILTERED_EXTENTS_PARAMETER)));
 
   private static final EcoreFactory FACTORY = EcoreFactory.eINSTANCE;
 
@@ -109,14 +119,41 @@ public class OCLQueryHandler implements IQueryHandler
 
   private EClass implicitRootClass;
 
+  private boolean filteredExtents = true;
+
+  private final OCLQueryCache queryCache;
+
   public OCLQueryHandler()
   {
+    this(null);
+  }
+
+  /**
+   * Creates a query handler that compiles each query only once and looks it up in the given cache afterwards.
+   *
+   * @since 4.6
+   */
+  public OCLQueryHandler(OCLQueryCache queryCache)
+  {
+    this.queryCache = queryCache;
+  }
+
+  /**
+   * Returns the cache of compiled queries of this handler, or <code>null</code> if each query is compiled for each
+   * execution.
+   *
+   * @since 4.6
+   */
+  public OCLQueryCache getQueryCache()
+  {
+    return queryCache;
   }
 
   @Override
   public void executeQuery(CDOQueryInfo info, IQueryContext context)
   {
     CDOExtentMap extentMap = null;
+    OCL<?, EClassifier, ?, ?, ?, ?, ?, ?, ?, Constraint, EClass, EObject> ocl = null;
 
     try
     {
@@ -133,7 +170,7 @@ public class OCLQueryHandler implements IQueryHandler
 
       CDOView view = CDOServerUtil.openView(serverView.getSession(), context, revisionProvider);
       extentMap = createExtentMap(view, changeSetData, context);
-      OCL<?, EClassifier, ?, ?, ?, ?, ?, ?, ?, Constraint, EClass, EObject> ocl = createOCL(view, extentMap);
+      ocl = createOCL(view, extentMap);
 
       ContextParameter contextParameter = getContextParameter(info, view);
       Query<EClassifier, EClass, EObject> query = createQuery(view, info, contextParameter, ocl);
@@ -169,6 +206,12 @@ public class OCLQueryHandler implements IQueryHandler
       {
         extentMap.cancel();
       }
+
+      // A cached expression can still reference the environment factory of this execution.
+      if (ocl != null && ocl.getEnvironment().getFactory() instanceof CDOEnvironmentFactory)
+      {
+        ((CDOEnvironmentFactory)ocl.getEnvironment().getFactory()).setExtentMap(null);
+      }
     }
   }
 
@@ -206,12 +249,21 @@ public class OCLQueryHandler implements IQueryHandler
     return lazyExtents;
   }
 
+  /**
+   * @since 4.6
+   */
+  protected boolean createsFilteredExtents()
+  {
+    return filteredExtents;
+  }
+
   /**
    * @since 4.2
    */
   protected OCL<?, EClassifier, ?, ?, ?, ?, ?, ?, ?, Constraint, EClass, EObject> createOCL(CDOView view, CDOExtentMap extentMap)
   {
-    EcoreEnvironmentFactory envFactory = new CDOEnvironmentFactory(view.getSession().getPackageRegistry());
+    CDOEnvironmentFactory envFactory = new CDOEnvironmentFactory(view.getSession().getPackageRegistry());
+    envFactory.setExtentMap(extentMap);
 
     OCL<?, EClassifier, ?, ?, ?, ?, ?, ?, ?, Constraint, EClass, EObject> ocl = createOCL(envFactory);
     CDOAdditionalOperation.registerOperations((CDOEnvironment)ocl.getEnvironment());
@@ -226,12 +278,30 @@ public class OCLQueryHandler implements IQueryHandler
       OCL<?, EClassifier, ?, ?, ?, ?, ?, ?, ?, Constraint, EClass, EObject> ocl) throws ParserException, DiagnosticException
   {
     Map<String, Object> parameters = new HashMap<>(info.getParameters());
+
+    Object queryKey = queryCache != null ? createQueryKey(view, info, contextParameter, parameters) : null;
+    if (queryKey != null)
+    {
+      OCLExpression<EClassifier> expr = queryCache.getExpression(queryKey);
+      if (expr != null)
+      {
+        Query<EClassifier, EClass, EObject> query = ocl.createQuery(expr);
+        setOCLQueryParameters(parameters, query);
+        return query;
+      }
+    }
+
     initEnvironment(ocl.getEnvironment(), view.getSession().getPackageRegistry(), parameters);
 
     OCLHelper<EClassifier, ?, ?, Constraint> helper = ocl.createOCLHelper();
     helper.setContext(contextParameter.getClassifier());
 
     OCLExpression<EClassifier> expr = helper.createQuery(info.getQueryString());
+    if (createsFilteredExtents() && ocl.getEnvironment() instanceof CDOEnvironment)
+    {
+      expr = CDOAdditionalOperation.rewriteSelects((CDOEnvironment)ocl.getEnvironment(), expr);
+    }
+
     Query<EClassifier, EClass, EObject> query = ocl.createQuery(expr);
     if (query instanceof ProblemAware)
     {
@@ -243,10 +313,47 @@ public class OCLQueryHandler implements IQueryHandler
       }
     }
 
+    if (queryKey != null)
+    {
+      queryCache.putExpression(queryKey, expr);
+    }
+
     setOCLQueryParameters(parameters, query);
     return query;
   }
 
+  /**
+   * Returns the key under which the compiled expression of the given query is {@link #getQueryCache() cached}, or
+   * <code>null</code> if the compiled expression can not be cached. The key covers everything that the compiled
+   * expression depends on: the query text, the context classifier, the names and types of the OCL query parameters and
+   * the parsing options of this handler.
+   *
+   * @since 4.6
+   */
+  protected Object createQueryKey(CDOView view, CDOQueryInfo info, ContextParameter contextParameter, Map<String, Object> parameters)
+  {
+    CDOPackageRegistry packageRegistry = view.getSession().getPackageRegistry();
+    Map<String, Object> parameterTypes = new HashMap<>();
+
+    for (Map.Entry<String, Object> parameter : parameters.entrySet())
+    {
+      String name = parameter.getKey();
+      if (isOCLQueryParameter(name))
+      {
+        Object type = getParameterType(packageRegistry, parameter.getValue());
+        if (type == null)
+        {
+          return null;
+        }
+
+        parameterTypes.put(name, type);
+      }
+    }
+
+    return new QueryKey(getClass(), packageRegistry, info.getQueryString(), contextParameter.getClassifier(), getImplicitRootClass(),
+        createsFilteredExtents(), parameterTypes);
+  }
+
   /**
    * @deprecated As of 4.2 no longer supported.
    */
@@ -376,6 +483,7 @@ public class OCLQueryHandler implements IQueryHandler
   {
     lazyExtents = readParameter(queryParameters, LAZY_EXTENTS_PARAMETER, lazyExtents);
     implicitRootClass = readParameter(queryParameters, IMPLICIT_ROOT_CLASS_PARAMETER, EClass.class, implicitRootClass);
+    filteredExtents = readParameter(queryParameters, FILTERED_EXTENTS_PARAMETER, filteredExtents);
   }
 
   /**
@@ -471,6 +579,39 @@ public class OCLQueryHandler implements IQueryHandler
     return null;
   }
 
+  /**
+   * Returns an object that identifies the type of the {@link #createInitExpression(OCLStandardLibrary, CDOPackageRegistry, Object)
+   * init expression} of the given parameter value, or <code>null</code> if the type is not recognized.
+   */
+  private Object getParameterType(CDOPackageRegistry packageRegistry, Object value)
+  {
+    if (value instanceof String || value instanceof Boolean)
+    {
+      return value.getClass();
+    }
+
+    if (getInteger(value) != null)
+    {
+      return Integer.class;
+    }
+
+    if (getDouble(value) != null)
+    {
+      return Double.class;
+    }
+
+    if (value instanceof Enumerator)
+    {
+      EEnumLiteral eEnumLiteral = packageRegistry.getEnumLiteralFor((Enumerator)value);
+      if (eEnumLiteral != null)
+      {
+        return eEnumLiteral.getEEnum();
+      }
+    }
+
+    return null;
+  }
+
   @SuppressWarnings({ "unchecked", "rawtypes" })
   private Object convertResult(Object result, CDOView view)
   {
@@ -549,15 +690,92 @@ public class OCLQueryHandler implements IQueryHandler
    */
   public static class Factory extends QueryHandlerFactory
   {
+    private final OCLQueryCache queryCache = new OCLQueryCache();
+
     public Factory()
     {
       super(LANGUAGE_NAME);
     }
 
+    /**
+     * Returns the cache of compiled queries that all handlers of this factory share.
+     *
+     * @since 4.6
+     */
+    public OCLQueryCache getQueryCache()
+    {
+      return queryCache;
+    }
+
     @Override
     public OCLQueryHandler create(String description) throws ProductCreationException
     {
-      return new OCLQueryHandler();
+      return new OCLQueryHandler(queryCache);
+    }
+  }
+
+  /**
+   * The key of a compiled query in an {@link OCLQueryCache}. The package registry and the classes are compared by
+   * identity.
+   *
+   * @author Eike Stepper
+   */
+  private static final class QueryKey
+  {
+    private final Class<?> handlerClass;
+
+    private final CDOPackageRegistry packageRegistry;
+
+    private final String queryString;
+
+    private final EClassifier contextClassifier;
+
+    private final EClass implicitRootClass;
+
+    private final boolean filteredExtents;
+
+    private final Map<String, Object> parameterTypes;
+
+    private final int hashCode;
+
+    public QueryKey(Class<?> handlerClass, CDOPackageRegistry packageRegistry, String queryString, EClassifier contextClassifier, EClass implicitRootClass,
+        boolean filteredExtents, Map<String, Object> parameterTypes)
+    {
+      this.handlerClass = handlerClass;
+      this.packageRegistry = packageRegistry;
+      this.queryString = queryString;
+      this.contextClassifier = contextClassifier;
+      this.implicitRootClass = implicitRootClass;
+      this.filteredExtents = filteredExtents;
+      this.parameterTypes = parameterTypes;
+
+      hashCode = Objects.hash(handlerClass, System.identityHashCode(packageRegistry), queryString, contextClassifier, implicitRootClass, filteredExtents,
+          parameterTypes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (obj == this)
+      {
+        return true;
+      }
+
+      if (!(obj instanceof QueryKey))
+      {
+        return false;
+      }
+
+      QueryKey that = (QueryKey)obj;
+      return handlerClass == that.handlerClass && packageRegistry == that.packageRegistry && Objects.equals(queryString, that.queryString)
+          && contextClassifier == that.contextClassifier && implicitRootClass == that.implicitRootClass && filteredExtents == that.filteredExtents
+          && parameterTypes.equals(that.parameterTypes);
     }
   }
 
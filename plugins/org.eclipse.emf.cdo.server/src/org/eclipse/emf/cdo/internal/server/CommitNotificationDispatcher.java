@@ -0,0 +1,827 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.server;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.commit.CDOCommitData;
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.model.CDOPackageUnit;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
+import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
+import org.eclipse.emf.cdo.common.revision.CDORevisionUtil;
+import org.eclipse.emf.cdo.common.revision.delta.CDORevisionDelta;
+import org.eclipse.emf.cdo.internal.server.bundle.OM;
+import org.eclipse.emf.cdo.spi.common.commit.CDOCommitInfoUtil;
+import org.eclipse.emf.cdo.spi.common.commit.InternalCDOCommitInfoManager;
+import org.eclipse.emf.cdo.spi.server.InternalSession;
+
+import org.eclipse.net4j.util.ObjectUtil;
+import org.eclipse.net4j.util.concurrent.ThreadPool;
+import org.eclipse.net4j.util.lifecycle.Lifecycle;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the commit notifications of a {@link SessionManager session manager} to the sessions on a bounded number of
+ * threads, so that the committing thread does not have to wait for the sessions.
+ * <p>
+ * Each session has its own queue, so that the notifications of a session are still sent in commit order, and a session is
+ * served by at most one thread at a time. If the queue of a slow session grows beyond the coalescing threshold, the commit
+ * notifications that only invalidate objects are appended to the coalesced entry at the tail of the queue, as long as
+ * they're of the same branch, and are combined into a single invalidation when that entry is sent.
+ * <p>
+ * Notifications that can't be combined, such as lock notifications or the commit notifications for the sender of a
+ * commit, can still pile up. If the queue of a session grows beyond the maximum queue depth, its notifications are
+ * dropped and the session is closed, so that its client reconnects and refreshes instead of silently missing changes.
+ *
+ * @author Eike Stepper
+ */
+public class CommitNotificationDispatcher extends Lifecycle
+{
+  public static final int DEFAULT_COALESCING_THRESHOLD = 64;
+
+  public static final int DEFAULT_MAX_QUEUE_DEPTH = 10000;
+
+  private static final int MAX_ENTRIES_PER_RUN = 16;
+
+  private final SessionManager sessionManager;
+
+  private final int threads;
+
+  private final int coalescingThreshold;
+
+  private final int maxQueueDepth;
+
+  private final Map<InternalSession, SessionQueue> queues = new ConcurrentHashMap<>();
+
+  private ThreadPool executor;
+
+  private final AtomicLong dispatchedCommits = new AtomicLong();
+
+  private final AtomicLong completedCommits = new AtomicLong();
+
+  private final AtomicLong sentNotifications = new AtomicLong();
+
+  private final AtomicLong coalescedNotifications = new AtomicLong();
+
+  private final AtomicLong droppedNotifications = new AtomicLong();
+
+  private final AtomicLong totalFanOutNanos = new AtomicLong();
+
+  private final AtomicLong maxFanOutNanos = new AtomicLong();
+
+  private final AtomicInteger highestQueueDepth = new AtomicInteger();
+
+  public CommitNotificationDispatcher(SessionManager sessionManager, int threads, int coalescingThreshold, int maxQueueDepth)
+  {
+    this.sessionManager = sessionManager;
+    this.threads = threads;
+    this.coalescingThreshold = coalescingThreshold;
+    this.maxQueueDepth = maxQueueDepth;
+  }
+
+  public final SessionManager getSessionManager()
+  {
+    return sessionManager;
+  }
+
+  public final int getThreads()
+  {
+    return threads;
+  }
+
+  public final int getCoalescingThreshold()
+  {
+    return coalescingThreshold;
+  }
+
+  /**
+   * Returns the number of notifications that may wait for a session before the session is closed.
+   */
+  public final int getMaxQueueDepth()
+  {
+    return maxQueueDepth;
+  }
+
+  /**
+   * Returns the number of commits whose notifications have been dispatched.
+   */
+  public long getDispatchedCommits()
+  {
+    return dispatchedCommits.get();
+  }
+
+  /**
+   * Returns the number of commits whose notifications have been sent to all receiving sessions.
+   */
+  public long getCompletedCommits()
+  {
+    return completedCommits.get();
+  }
+
+  /**
+   * Returns the number of notifications that have been sent to sessions, combined ones counting once.
+   */
+  public long getSentNotifications()
+  {
+    return sentNotifications.get();
+  }
+
+  /**
+   * Returns the number of commit notifications that have been combined with other ones instead of being sent separately.
+   */
+  public long getCoalescedNotifications()
+  {
+    return coalescedNotifications.get();
+  }
+
+  /**
+   * Returns the number of notifications that have been dropped because the queue of their session overflowed.
+   */
+  public long getDroppedNotifications()
+  {
+    return droppedNotifications.get();
+  }
+
+  /**
+   * Returns the average time in nanoseconds between the dispatch of a commit notification and its arrival at the last
+   * receiving session.
+   */
+  public long getAverageFanOutNanos()
+  {
+    long count = completedCommits.get();
+    return count == 0 ? 0 : totalFanOutNanos.get() / count;
+  }
+
+  /**
+   * Returns the longest time in nanoseconds between the dispatch of a commit notification and its arrival at the last
+   * receiving session.
+   */
+  public long getMaxFanOutNanos()
+  {
+    return maxFanOutNanos.get();
+  }
+
+  /**
+   * Returns the number of notifications that are currently waiting to be sent to the given session.
+   */
+  public int getQueueDepth(InternalSession session)
+  {
+    SessionQueue queue = queues.get(session);
+    return queue == null ? 0 : queue.getDepth();
+  }
+
+  /**
+   * Returns the number of notifications that are currently waiting to be sent to all sessions.
+   */
+  public int getQueueDepth()
+  {
+    int depth = 0;
+    for (SessionQueue queue : queues.values())
+    {
+      depth += queue.getDepth();
+    }
+
+    return depth;
+  }
+
+  /**
+   * Returns the highest number of notifications that have been waiting to be sent to a single session.
+   */
+  public int getHighestQueueDepth()
+  {
+    return highestQueueDepth.get();
+  }
+
+  public void dispatchCommitNotification(CommitNotificationInfo info, List<InternalSession> sessions)
+  {
+    if (sessions.isEmpty())
+    {
+      return;
+    }
+
+    checkActive();
+    dispatchedCommits.incrementAndGet();
+
+    Dispatch dispatch = new Dispatch(sessions.size());
+    for (InternalSession session : sessions)
+    {
+      enqueue(session, new CommitEntry(session, info, dispatch));
+    }
+  }
+
+  /**
+   * Sends the given notification to the given session after all commit notifications that have already been dispatched
+   * to it.
+   */
+  public void dispatch(InternalSession session, Runnable notification)
+  {
+    checkActive();
+    enqueue(session, new Entry(notification));
+  }
+
+  @Override
+  protected void doActivate() throws Exception
+  {
+    super.doActivate();
+    executor = ThreadPool.create("CDOCommitNotifier", threads, threads, ThreadPool.DEFAULT_KEEP_ALIVE_SECONDS); //$NON-NLS-1$
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    executor.shutdown();
+    executor = null;
+    queues.clear();
+    super.doDeactivate();
+  }
+
+  private void enqueue(InternalSession session, Entry entry)
+  {
+    for (;;)
+    {
+      SessionQueue queue = queues.computeIfAbsent(session, SessionQueue::new);
+      if (queue.add(entry))
+      {
+        return;
+      }
+
+      // The queue has been removed after it ran empty. Try again with a new one.
+    }
+  }
+
+  private void sent(Entry entry)
+  {
+    sentNotifications.incrementAndGet();
+    completed(entry);
+  }
+
+  private void dropped(Entry entry)
+  {
+    droppedNotifications.incrementAndGet();
+    completed(entry);
+  }
+
+  private void completed(Entry entry)
+  {
+    for (Dispatch dispatch : entry.getDispatches())
+    {
+      long nanos = dispatch.sent();
+      if (nanos != Dispatch.PENDING)
+      {
+        completedCommits.incrementAndGet();
+        totalFanOutNanos.addAndGet(nanos);
+
+        for (;;)
+        {
+          long max = maxFanOutNanos.get();
+          if (nanos <= max || maxFanOutNanos.compareAndSet(max, nanos))
+          {
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  private void updateHighestQueueDepth(int depth)
+  {
+    for (;;)
+    {
+      int max = highestQueueDepth.get();
+      if (depth <= max || highestQueueDepth.compareAndSet(max, depth))
+      {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Combines the given commit notifications of one branch into one invalidation. Objects that have been changed by
+   * several of the commits are only reported with the key of their oldest changed revision, which makes the receivers
+   * reload them on demand.
+   */
+  private CommitEntry combine(List<CommitEntry> entries)
+  {
+    CommitEntry first = entries.get(0);
+    CommitEntry last = entries.get(entries.size() - 1);
+
+    List<CDOPackageUnit> newPackageUnits = new ArrayList<>();
+    Map<CDOID, CDOIDAndVersion> newObjects = CDOIDUtil.createMap();
+    Map<CDOID, CDORevisionKey> changedObjects = CDOIDUtil.createMap();
+    Map<CDOID, CDOIDAndVersion> detachedObjects = CDOIDUtil.createMap();
+
+    List<Dispatch> dispatches = new ArrayList<>();
+    boolean clearResourcePathCache = false;
+    boolean modifiedByServer = false;
+
+    for (CommitEntry entry : entries)
+    {
+      CommitNotificationInfo info = entry.getInfo();
+      CDOCommitInfo commitInfo = info.getCommitInfo();
+
+      // The lists of the commit infos don't support toArray(), which addAll() relies on.
+      for (CDOPackageUnit packageUnit : commitInfo.getNewPackageUnits())
+      {
+        newPackageUnits.add(packageUnit);
+      }
+
+      for (CDOIDAndVersion key : commitInfo.getNewObjects())
+      {
+        newObjects.put(key.getID(), key);
+      }
+
+      for (CDORevisionKey key : commitInfo.getChangedObjects())
+      {
+        CDOID id = key.getID();
+
+        CDOIDAndVersion newObject = newObjects.get(id);
+        if (newObject != null)
+        {
+          // The object is new to the receiver; it must not be reported as a revision that is outdated already.
+          if (newObject instanceof CDORevision)
+          {
+            newObjects.put(id, CDOIDUtil.createIDAndVersion(newObject));
+          }
+
+          continue;
+        }
+
+        CDORevisionKey oldKey = changedObjects.get(id);
+        if (oldKey == null)
+        {
+          changedObjects.put(id, key);
+        }
+        else if (oldKey instanceof CDORevisionDelta)
+        {
+          // The deltas can't be combined without changing them. Report the oldest revision as invalid.
+          changedObjects.put(id, CDORevisionUtil.copyRevisionKey(oldKey));
+        }
+      }
+
+      for (CDOIDAndVersion key : commitInfo.getDetachedObjects())
+      {
+        CDOID id = key.getID();
+        if (newObjects.remove(id) == null)
+        {
+          changedObjects.remove(id);
+          detachedObjects.put(id, key);
+        }
+      }
+
+      clearResourcePathCache |= info.isClearResourcePathCache();
+      modifiedByServer |= info.isModifiedByServer();
+      dispatches.addAll(entry.getDispatches());
+    }
+
+    CDOCommitInfo firstCommitInfo = first.getInfo().getCommitInfo();
+    CDOCommitInfo lastCommitInfo = last.getInfo().getCommitInfo();
+
+    CDOCommitData commitData = CDOCommitInfoUtil.createCommitData(newPackageUnits, new ArrayList<>(newObjects.values()),
+        new ArrayList<>(changedObjects.values()), new ArrayList<>(detachedObjects.values()));
+
+    InternalCDOCommitInfoManager commitInfoManager = sessionManager.getRepository().getCommitInfoManager();
+    CDOCommitInfo commitInfo = commitInfoManager.createCommitInfo(lastCommitInfo.getBranch(), lastCommitInfo.getTimeStamp(),
+        firstCommitInfo.getPreviousTimeStamp(), lastCommitInfo.getUserID(), null, null, commitData);
+
+    List<CDORevisionProvider> revisionProviders = new ArrayList<>(entries.size());
+    for (CommitEntry entry : entries)
+    {
+      CDORevisionProvider revisionProvider = entry.getInfo().getRevisionProvider();
+      if (revisionProvider != null)
+      {
+        revisionProviders.add(0, revisionProvider);
+      }
+    }
+
+    CommitNotificationInfo info = new CommitNotificationInfo();
+    info.setSender(last.getInfo().getSender());
+    info.setCommitInfo(commitInfo);
+    info.setClearResourcePathCache(clearResourcePathCache);
+    info.setModifiedByServer(modifiedByServer);
+    info.setRevisionProvider(id -> {
+      // The newest revision of the combined commits.
+      for (CDORevisionProvider revisionProvider : revisionProviders)
+      {
+        CDORevision revision = revisionProvider.getRevision(id);
+        if (revision != null)
+        {
+          return revision;
+        }
+      }
+
+      return null;
+    });
+
+    return new CommitEntry(first.getSession(), info, dispatches);
+  }
+
+  /**
+   * Tracks the sessions that a commit notification has not been sent to yet.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Dispatch
+  {
+    public static final long PENDING = -1;
+
+    private final long start = System.nanoTime();
+
+    private final AtomicInteger pendingSessions;
+
+    public Dispatch(int sessions)
+    {
+      pendingSessions = new AtomicInteger(sessions);
+    }
+
+    /**
+     * @return the fan-out time in nanoseconds if the notification has been sent to the last session, {@link #PENDING} otherwise.
+     */
+    public long sent()
+    {
+      if (pendingSessions.decrementAndGet() == 0)
+      {
+        return System.nanoTime() - start;
+      }
+
+      return PENDING;
+    }
+  }
+
+  /**
+   * A notification in the queue of a session.
+   *
+   * @author Eike Stepper
+   */
+  private static class Entry
+  {
+    private final Runnable notification;
+
+    public Entry(Runnable notification)
+    {
+      this.notification = notification;
+    }
+
+    public List<Dispatch> getDispatches()
+    {
+      return Collections.emptyList();
+    }
+
+    public void send()
+    {
+      notification.run();
+    }
+  }
+
+  /**
+   * A commit notification in the queue of a session.
+   *
+   * @author Eike Stepper
+   */
+  private final class CommitEntry extends Entry
+  {
+    private final InternalSession session;
+
+    private final CommitNotificationInfo info;
+
+    private final List<Dispatch> dispatches;
+
+    public CommitEntry(InternalSession session, CommitNotificationInfo info, Dispatch dispatch)
+    {
+      this(session, info, Collections.singletonList(dispatch));
+    }
+
+    public CommitEntry(InternalSession session, CommitNotificationInfo info, List<Dispatch> dispatches)
+    {
+      super(null);
+      this.session = session;
+      this.info = info;
+      this.dispatches = dispatches;
+    }
+
+    public InternalSession getSession()
+    {
+      return session;
+    }
+
+    public CommitNotificationInfo getInfo()
+    {
+      return info;
+    }
+
+    public CDOBranch getBranch()
+    {
+      return info.getCommitInfo().getBranch();
+    }
+
+    @Override
+    public List<Dispatch> getDispatches()
+    {
+      return dispatches;
+    }
+
+    /**
+     * Returns <code>true</code> if this notification only invalidates objects and can therefore be combined with other
+     * ones, <code>false</code> if it carries failures, locks, security impacts or is sent back to its own sender.
+     */
+    public boolean isCoalescible()
+    {
+      return getBranch() != null // Not a failure commit info.
+          && info.getSender() != session //
+          && info.getLockChangeInfo() == null //
+          && info.getSecurityImpact() == CommitNotificationInfo.IMPACT_NONE //
+          && ObjectUtil.isEmpty(info.getImpactedRules());
+    }
+
+    @Override
+    public void send()
+    {
+      sessionManager.sendCommitNotification(session, info);
+    }
+  }
+
+  /**
+   * Consecutive coalescible commit notifications of one branch in the queue of a session. They're only combined into a
+   * single invalidation when they're sent.
+   *
+   * @author Eike Stepper
+   */
+  private final class CoalescedEntry extends Entry
+  {
+    private final List<CommitEntry> entries = new ArrayList<>();
+
+    public CoalescedEntry(CommitEntry first)
+    {
+      super(null);
+      entries.add(first);
+    }
+
+    public CDOBranch getBranch()
+    {
+      return entries.get(0).getBranch();
+    }
+
+    public void add(CommitEntry entry)
+    {
+      entries.add(entry);
+    }
+
+    @Override
+    public List<Dispatch> getDispatches()
+    {
+      List<Dispatch> dispatches = new ArrayList<>(entries.size());
+      for (CommitEntry entry : entries)
+      {
+        dispatches.addAll(entry.getDispatches());
+      }
+
+      return dispatches;
+    }
+
+    @Override
+    public void send()
+    {
+      combine(entries).send();
+    }
+  }
+
+  /**
+   * The queue of the notifications that have not been sent to a session yet. The queue is drained by at most one thread
+   * at a time, which yields to the other sessions after a number of notifications.
+   *
+   * @author Eike Stepper
+   */
+  private final class SessionQueue implements Runnable
+  {
+    private final InternalSession session;
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    /**
+     * The last entry of the queue if it can take more coalescible commit notifications, <code>null</code> otherwise.
+     */
+    private Entry coalescibleTail;
+
+    private boolean scheduled;
+
+    /**
+     * Set when the queue has overflowed. From then on notifications are dropped until the session is closed.
+     */
+    private boolean overflowed;
+
+    private boolean removed;
+
+    public SessionQueue(InternalSession session)
+    {
+      this.session = session;
+    }
+
+    public synchronized int getDepth()
+    {
+      return entries.size();
+    }
+
+    /**
+     * @return <code>false</code> if this queue has been removed and must not be used anymore.
+     */
+    public boolean add(Entry entry)
+    {
+      boolean schedule;
+      List<Entry> dropped = null;
+
+      synchronized (this)
+      {
+        if (removed)
+        {
+          return false;
+        }
+
+        if (overflowed)
+        {
+          dropped = Collections.singletonList(entry);
+        }
+        else if (!coalesce(entry))
+        {
+          entries.add(entry);
+          coalescibleTail = entry instanceof CommitEntry && ((CommitEntry)entry).isCoalescible() ? entry : null;
+        }
+
+        int depth = entries.size();
+        updateHighestQueueDepth(depth);
+
+        if (depth > maxQueueDepth)
+        {
+          dropped = new ArrayList<>(entries);
+          entries.clear();
+          coalescibleTail = null;
+          overflowed = true;
+          closeSession();
+        }
+
+        schedule = !scheduled && !overflowed;
+        scheduled |= schedule;
+      }
+
+      if (dropped != null)
+      {
+        for (Entry droppedEntry : dropped)
+        {
+          dropped(droppedEntry);
+        }
+      }
+      else if (schedule)
+      {
+        schedule();
+      }
+
+      return true;
+    }
+
+    /**
+     * Appends the given entry to the coalescible tail of this queue if the queue is longer than the coalescing threshold.
+     * Runs in constant time, so that a slow session doesn't slow down the dispatching of the notifications.
+     */
+    private boolean coalesce(Entry entry)
+    {
+      if (coalescibleTail == null || entries.size() < coalescingThreshold || !(entry instanceof CommitEntry))
+      {
+        return false;
+      }
+
+      CommitEntry commitEntry = (CommitEntry)entry;
+      if (!commitEntry.isCoalescible())
+      {
+        return false;
+      }
+
+      CoalescedEntry coalescedEntry;
+      if (coalescibleTail instanceof CoalescedEntry)
+      {
+        coalescedEntry = (CoalescedEntry)coalescibleTail;
+      }
+      else
+      {
+        coalescedEntry = new CoalescedEntry((CommitEntry)coalescibleTail);
+      }
+
+      if (coalescedEntry.getBranch() != commitEntry.getBranch())
+      {
+        return false;
+      }
+
+      if (coalescedEntry != coalescibleTail)
+      {
+        entries.pollLast();
+        entries.add(coalescedEntry);
+        coalescibleTail = coalescedEntry;
+      }
+
+      coalescedEntry.add(commitEntry);
+      coalescedNotifications.incrementAndGet();
+      return true;
+    }
+
+    private void closeSession()
+    {
+      OM.LOG.warn("Closing session " + session + " because more than " + maxQueueDepth + " notifications are waiting for it"); //$NON-NLS-1$ //$NON-NLS-2$
+
+      ThreadPool executor = CommitNotificationDispatcher.this.executor;
+      if (executor != null)
+      {
+        executor.execute(() -> {
+          try
+          {
+            LifecycleUtil.deactivate(session);
+          }
+          finally
+          {
+            remove();
+          }
+        });
+      }
+    }
+
+    private synchronized void remove()
+    {
+      removed = true;
+      queues.remove(session, this);
+    }
+
+    @Override
+    public void run()
+    {
+      for (int i = 0; i < MAX_ENTRIES_PER_RUN; i++)
+      {
+        Entry entry;
+
+        synchronized (this)
+        {
+          entry = entries.poll();
+          if (entry == null)
+          {
+            scheduled = false;
+            if (!overflowed)
+            {
+              // An overflowed queue is removed when its session is closed.
+              removed = true;
+              queues.remove(session, this);
+            }
+
+            return;
+          }
+
+          if (entry == coalescibleTail)
+          {
+            coalescibleTail = null;
+          }
+        }
+
+        try
+        {
+          entry.send();
+        }
+        catch (Throwable ex)
+        {
+          OM.LOG.warn("A problem occured while notifying session " + session, ex);
+        }
+        finally
+        {
+          sent(entry);
+        }
+      }
+
+      // Give the other sessions a chance.
+      schedule();
+    }
+
+    private void schedule()
+    {
+      ThreadPool executor = CommitNotificationDispatcher.this.executor;
+      if (executor != null)
+      {
+        executor.execute(this);
+      }
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2015, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2013, 2015, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ import org.eclipse.net4j.util.factory.ProductCreationException;
 
 import org.eclipse.emf.ecore.EClass;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -37,12 +38,13 @@ public class InstancesQueryHandler implements IQueryHandler
   }
 
   @Override
-  public void executeQuery(CDOQueryInfo info, IQueryContext context)
+  public void executeQuery(CDOQueryInfo info, final IQueryContext context)
   {
     EClass type = (EClass)info.getParameters().get(CDOProtocolConstants.QUERY_LANGUAGE_INSTANCES_TYPE);
     if (type != null)
     {
-      executeQuery(type, context);
+      List<EClass> types = new ArrayList<>();
+      addType(type, types);
 
       if (!Boolean.TRUE.equals(info.getParameters().get(CDOProtocolConstants.QUERY_LANGUAGE_INSTANCES_EXACT)))
       {
@@ -51,42 +53,43 @@ public class InstancesQueryHandler implements IQueryHandler
         {
           for (EClass subType : subTypes)
           {
-            if (context.getResultCount() == 0)
-            {
-              break;
-            }
-
-            executeQuery(subType, context);
+            addType(subType, types);
           }
         }
       }
-    }
-  }
 
-  private void executeQuery(EClass type, final IQueryContext context)
-  {
-    if (type.isInterface() || type.isAbstract())
-    {
-      return;
-    }
+      if (types.isEmpty())
+      {
+        return;
+      }
 
-    CDOBranch branch = context.getBranch();
-    long timeStamp = context.getTimeStamp();
+      CDOBranch branch = context.getBranch();
+      long timeStamp = context.getTimeStamp();
 
-    InternalRepository repository = (InternalRepository)context.getView().getRepository();
-    repository.handleRevisions(type, branch, false, timeStamp, false, new CDORevisionHandler()
-    {
-      @Override
-      public boolean handleRevision(CDORevision revision)
+      // The repository may handle the types in parallel, but it serializes the calls of the handler.
+      InternalRepository repository = (InternalRepository)context.getView().getRepository();
+      repository.handleClassRevisions(types, branch, false, timeStamp, false, new CDORevisionHandler()
       {
-        if (revision instanceof DetachedCDORevision)
+        @Override
+        public boolean handleRevision(CDORevision revision)
         {
-          return true;
+          if (revision instanceof DetachedCDORevision)
+          {
+            return true;
+          }
+
+          return context.addResult(revision);
         }
+      });
+    }
+  }
 
-        return context.addResult(revision);
-      }
-    });
+  private static void addType(EClass type, List<EClass> types)
+  {
+    if (!type.isInterface() && !type.isAbstract())
+    {
+      types.add(type);
+    }
   }
 
   /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2013, 2015, 2016, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2013, 2015, 2016, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -54,6 +54,8 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
 
   private Map<Integer, QueryContext> queryContexts = new ConcurrentHashMap<>();
 
+  private Map<Integer, QueryResult> queryResults = new ConcurrentHashMap<>();
+
   private ExecutorService executors;
 
   private boolean shutdownExecutorService;
@@ -120,7 +122,18 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
   {
     IQueryHandler handler = repository.getQueryHandler(queryInfo);
 
-    InternalQueryResult queryResult = new QueryResult(view, queryInfo, getNextQueryID(), handler);
+    QueryResult queryResult = new QueryResult(view, queryInfo, getNextQueryID(), handler)
+    {
+      @Override
+      public void close()
+      {
+        super.close();
+        queryResults.remove(getQueryID());
+      }
+    };
+
+    queryResults.put(queryResult.getQueryID(), queryResult);
+
     QueryContext queryContext = new QueryContext(queryResult);
     execute(queryContext);
     return queryResult;
@@ -139,6 +152,14 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
     QueryContext queryContext = queryContexts.get(queryID);
     if (queryContext == null || queryContext.getFuture().isDone())
     {
+      QueryResult queryResult = queryResults.get(queryID);
+      if (queryResult != null && queryResult.isPaged())
+      {
+        // The query handler is done, but the rest of the result may still wait for credits.
+        queryResult.close();
+        return;
+      }
+
       throw new RuntimeException("Query " + queryID + " is not running anymore"); //$NON-NLS-1$ //$NON-NLS-2$
     }
 
@@ -150,6 +171,22 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
     queryContext.cancel();
   }
 
+  @Override
+  public void addCredits(int queryID, int credits)
+  {
+    QueryResult queryResult = queryResults.get(queryID);
+    if (queryResult != null)
+    {
+      queryResult.addCredits(credits);
+    }
+  }
+
+  @Override
+  public InternalQueryResult[] getQueryResults()
+  {
+    return queryResults.values().toArray(new InternalQueryResult[0]);
+  }
+
   public synchronized void register(QueryContext queryContext)
   {
     int queryID = queryContext.getQueryResult().getQueryID();
@@ -215,7 +252,7 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
 
     private CDOBranchPoint branchPoint;
 
-    private InternalQueryResult queryResult;
+    private QueryResult queryResult;
 
     private boolean started;
 
@@ -225,7 +262,7 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
 
     private Future<?> future;
 
-    public QueryContext(InternalQueryResult queryResult)
+    public QueryContext(QueryResult queryResult)
     {
       this.queryResult = queryResult;
 
@@ -234,7 +271,7 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
       branchPoint = CDOBranchUtil.copyBranchPoint(view);
     }
 
-    public InternalQueryResult getQueryResult()
+    public QueryResult getQueryResult()
     {
       return queryResult;
     }
@@ -284,6 +321,12 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
           future.cancel(allowInterruptRunningQueries);
         }
 
+        if (queryResult.isPaged())
+        {
+          // Release a query handler that waits for buffer space and a sender that waits for credits.
+          queryResult.close();
+        }
+
         if (!started)
         {
           unregister(this);
@@ -305,8 +348,17 @@ public class QueryManager extends Lifecycle implements InternalQueryManager
         throw new IllegalStateException("Maximum number of results exceeded"); //$NON-NLS-1$
       }
 
-      CDOQueryQueue<Object> queue = queryResult.getQueue();
-      queue.add(object);
+      try
+      {
+        if (!queryResult.addResult(object))
+        {
+          return false;
+        }
+      }
+      catch (InterruptedException ex)
+      {
+        return false;
+      }
 
       return !cancelled && --resultCount > 0;
     }
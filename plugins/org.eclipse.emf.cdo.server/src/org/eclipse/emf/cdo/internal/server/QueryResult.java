@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2012, 2015, 2016, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2012, 2015, 2016, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,10 +25,26 @@ public class QueryResult extends AbstractQueryResult<Object> implements Internal
 {
   private final IQueryHandler handler;
 
+  private final int pageSize;
+
+  private final Object pageLock = new Object();
+
+  private int bufferedResults;
+
+  private int sentResults;
+
+  private int credits;
+
+  private boolean closed;
+
   public QueryResult(InternalView view, CDOQueryInfo queryInfo, int queryID, IQueryHandler handler)
   {
     super(view, queryInfo, queryID);
     this.handler = handler;
+
+    int pageSize = queryInfo.getPageSize();
+    this.pageSize = pageSize > 0 ? pageSize : CDOQueryInfo.UNLIMITED_RESULTS;
+    credits = this.pageSize;
   }
 
   @Override
@@ -42,4 +58,145 @@ public class QueryResult extends AbstractQueryResult<Object> implements Internal
   {
     return handler;
   }
+
+  public boolean isPaged()
+  {
+    return pageSize != CDOQueryInfo.UNLIMITED_RESULTS;
+  }
+
+  @Override
+  public int getBufferedResults()
+  {
+    synchronized (pageLock)
+    {
+      return bufferedResults;
+    }
+  }
+
+  @Override
+  public int getSentResults()
+  {
+    synchronized (pageLock)
+    {
+      return sentResults;
+    }
+  }
+
+  @Override
+  public int getCredits()
+  {
+    synchronized (pageLock)
+    {
+      return credits;
+    }
+  }
+
+  @Override
+  public void addCredits(int credits)
+  {
+    if (isPaged() && credits > 0)
+    {
+      synchronized (pageLock)
+      {
+        this.credits += credits;
+        pageLock.notifyAll();
+      }
+    }
+  }
+
+  @Override
+  public boolean acquireCredit() throws InterruptedException
+  {
+    synchronized (pageLock)
+    {
+      if (isPaged())
+      {
+        while (credits == 0 && !closed)
+        {
+          pageLock.wait();
+        }
+
+        if (closed)
+        {
+          return false;
+        }
+
+        --credits;
+      }
+
+      return true;
+    }
+  }
+
+  /**
+   * Adds the given result to the queue of this query result. If this result is paged this method blocks as long as a
+   * full page of results is buffered.
+   *
+   * @return <code>false</code> if this result has been closed in the meantime, <code>true</code> otherwise.
+   */
+  public boolean addResult(Object result) throws InterruptedException
+  {
+    synchronized (pageLock)
+    {
+      if (isPaged())
+      {
+        while (bufferedResults >= pageSize && !closed)
+        {
+          pageLock.wait();
+        }
+
+        if (closed)
+        {
+          return false;
+        }
+      }
+
+      ++bufferedResults;
+    }
+
+    getQueue().add(result);
+    return true;
+  }
+
+  @Override
+  public Object next()
+  {
+    boolean sent = false;
+
+    try
+    {
+      Object result = super.next();
+      sent = true;
+      return result;
+    }
+    finally
+    {
+      synchronized (pageLock)
+      {
+        if (bufferedResults > 0)
+        {
+          --bufferedResults;
+        }
+
+        if (sent)
+        {
+          ++sentResults;
+        }
+
+        pageLock.notifyAll();
+      }
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    synchronized (pageLock)
+    {
+      closed = true;
+      pageLock.notifyAll();
+    }
+
+    super.close();
+  }
 }
@@ -58,6 +58,7 @@ import org.eclipse.emf.cdo.common.util.RepositoryTypeChangedEvent;
 import org.eclipse.emf.cdo.eresource.EresourcePackage;
 import org.eclipse.emf.cdo.etypes.EtypesPackage;
 import org.eclipse.emf.cdo.internal.common.model.CDOPackageRegistryImpl;
+import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheOffHeap;
 import org.eclipse.emf.cdo.internal.server.LockingManager.LockDeltaCollector;
 import org.eclipse.emf.cdo.internal.server.LockingManager.LockStateCollector;
 import org.eclipse.emf.cdo.internal.server.bundle.OM;
@@ -98,6 +99,7 @@ import org.eclipse.emf.cdo.spi.common.revision.PointerCDORevision;
 import org.eclipse.emf.cdo.spi.common.revision.RevisionInfo;
 import org.eclipse.emf.cdo.spi.common.util.CoreOperations;
 import org.eclipse.emf.cdo.spi.server.ContainerQueryHandlerProvider;
+import org.eclipse.emf.cdo.spi.server.ContainmentIndex;
 import org.eclipse.emf.cdo.spi.server.ICommitConflictResolver;
 import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
 import org.eclipse.emf.cdo.spi.server.InternalCommitManager;
@@ -123,6 +125,7 @@ import org.eclipse.net4j.util.collection.Pair;
 import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
 import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
 import org.eclipse.net4j.util.concurrent.IRWOLockManager;
+import org.eclipse.net4j.util.concurrent.ThreadPool;
 import org.eclipse.net4j.util.concurrent.TimeoutRuntimeException;
 import org.eclipse.net4j.util.container.Container;
 import org.eclipse.net4j.util.container.IManagedContainer;
@@ -159,9 +162,12 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
@@ -224,8 +230,26 @@ public class Repository extends Container<Object> implements InternalRepository
 
   private boolean serializingCommits;
 
+  private boolean pipeliningCommits;
+
+  private long offHeapRevisionCacheSize;
+
+  private int commitNotificationThreads;
+
+  private int commitNotificationCoalescingThreshold = CommitNotificationDispatcher.DEFAULT_COALESCING_THRESHOLD;
+
+  private int commitNotificationMaxQueueDepth = CommitNotificationDispatcher.DEFAULT_MAX_QUEUE_DEPTH;
+
   private boolean ensuringReferentialIntegrity;
 
+  private boolean containmentIndexed;
+
+  private int handleRevisionsParallelism = 1;
+
+  private ExecutorService handleRevisionsExecutor;
+
+  private ContainmentIndex containmentIndex;
+
   private IDGenerationLocation idGenerationLocation;
 
   private CommitInfoStorage commitInfoStorage;
@@ -452,12 +476,28 @@ public class Repository extends Container<Object> implements InternalRepository
     return serializingCommits;
   }
 
+  /**
+   * Returns <code>true</code> if the {@link Props#PIPELINE_COMMITS} property is set to <code>true</code>.
+   */
+  public boolean isPipeliningCommits()
+  {
+    return pipeliningCommits;
+  }
+
   @Override
   public boolean isEnsuringReferentialIntegrity()
   {
     return ensuringReferentialIntegrity;
   }
 
+  /**
+   * Returns the value of the {@link Props#HANDLE_REVISIONS_PARALLELISM} property, at least <code>1</code>.
+   */
+  public int getHandleRevisionsParallelism()
+  {
+    return handleRevisionsParallelism;
+  }
+
   @Override
   public IDGenerationLocation getIDGenerationLocation()
   {
@@ -794,6 +834,9 @@ public class Repository extends Container<Object> implements InternalRepository
   public List<RevisionInfo> loadRevisions(List<RevisionInfo> infos, CDOBranchPoint branchPoint, int referenceChunk, int prefetchDepth,
       boolean prefetchLockStates)
   {
+    IStoreAccessor accessor = StoreThreadLocal.getAccessor();
+    Map<CDOID, InternalCDORevision> readRevisions = readRevisions(infos, branchPoint, referenceChunk, accessor);
+
     for (RevisionInfo info : infos)
     {
       CDOID id = info.getID();
@@ -844,8 +887,7 @@ public class Repository extends Container<Object> implements InternalRepository
         throw new IllegalStateException("Invalid revision info type: " + type);
       }
 
-      IStoreAccessor accessor = StoreThreadLocal.getAccessor();
-      InternalCDORevision revision = accessor.readRevision(id, branchPoint, referenceChunk, revisionManager);
+      InternalCDORevision revision = readRevisions != null ? readRevisions.get(id) : accessor.readRevision(id, branchPoint, referenceChunk, revisionManager);
       if (revision == null)
       {
         if (isSupportingAudits())
@@ -887,6 +929,31 @@ public class Repository extends Container<Object> implements InternalRepository
     return null;
   }
 
+  private Map<CDOID, InternalCDORevision> readRevisions(List<RevisionInfo> infos, CDOBranchPoint branchPoint, int referenceChunk, IStoreAccessor accessor)
+  {
+    if (infos.size() > 1 && accessor instanceof IStoreAccessor.BatchReadSupport)
+    {
+      List<CDOID> ids = new ArrayList<>(infos.size());
+      for (RevisionInfo info : infos)
+      {
+        if (info.getType() == RevisionInfo.Type.AVAILABLE_POINTER && !((RevisionInfo.Available.Pointer)info).hasTarget())
+        {
+          // The target is loaded by version.
+          continue;
+        }
+
+        ids.add(info.getID());
+      }
+
+      if (ids.size() > 1)
+      {
+        return ((IStoreAccessor.BatchReadSupport)accessor).readRevisions(ids, branchPoint, referenceChunk, revisionManager);
+      }
+    }
+
+    return null;
+  }
+
   private InternalCDORevision normalizeRevision(InternalCDORevision revision, RevisionInfo info, int referenceChunk)
   {
     if (info instanceof RevisionInfo.Available)
@@ -1314,6 +1381,12 @@ public class Repository extends Container<Object> implements InternalRepository
     this.unitManager = unitManager;
   }
 
+  @Override
+  public ContainmentIndex getContainmentIndex()
+  {
+    return containmentIndex;
+  }
+
   @Override
   public InternalCDOBranchManager getBranchManager()
   {
@@ -1533,20 +1606,41 @@ public class Repository extends Container<Object> implements InternalRepository
         synchronized (commitTransactionLock)
         {
           commitContext.setLastTreeRestructuringCommit(lastTreeRestructuringCommit);
-          commitUnsynced(commitContext, monitor);
+          if (pipeliningCommits)
+          {
+            commitPipelined(commitContext, monitor);
+          }
+          else
+          {
+            commitUnsynced(commitContext, monitor);
+          }
+
           lastTreeRestructuringCommit = commitContext.getTimeStamp();
+
+          // Must happen before the next tree-restructuring commit is checked.
+          updateContainmentIndex(commitContext);
         }
       }
-      else if (serializingCommits)
+      else
       {
-        synchronized (commitTransactionLock)
+        if (pipeliningCommits)
+        {
+          commitPipelined(commitContext, monitor);
+        }
+        else if (serializingCommits)
+        {
+          synchronized (commitTransactionLock)
+          {
+            commitUnsynced(commitContext, monitor);
+          }
+        }
+        else
         {
           commitUnsynced(commitContext, monitor);
         }
-      }
-      else
-      {
-        commitUnsynced(commitContext, monitor);
+
+        // Only new and detached objects can change the index.
+        updateContainmentIndex(commitContext);
       }
     }
     finally
@@ -1555,12 +1649,65 @@ public class Repository extends Container<Object> implements InternalRepository
     }
   }
 
+  protected void updateContainmentIndex(InternalCommitContext commitContext)
+  {
+    if (containmentIndex != null && commitContext.getRollbackMessage() == null && commitContext.getBranchPoint().getBranch().isMainBranch())
+    {
+      containmentIndex.update(commitContext);
+    }
+  }
+
   protected void commitUnsynced(InternalCommitContext commitContext, OMMonitor monitor)
   {
     ProgressDistributor distributor = store.getIndicatingCommitDistributor();
     distributor.run(InternalCommitContext.OPS, commitContext, monitor);
   }
 
+  /**
+   * Only the write stage, i.e., locking, timestamp allocation, conflict checks and the writes to the store accessor,
+   * is serialized. The store commit of a transaction overlaps with the write stages of its successors, but it waits
+   * for the store commits of its predecessors, so that they become visible in timestamp order. If the wait is
+   * interrupted nothing has been committed to the store, yet, and the commit is rolled back. The commit notifications
+   * are sent later in {@link InternalCommitContext#postCommit(boolean) postCommit()}, outside of any repository lock.
+   */
+  protected void commitPipelined(InternalCommitContext commitContext, OMMonitor monitor)
+  {
+    try
+    {
+      monitor.begin(2);
+
+      synchronized (commitTransactionLock)
+      {
+        commitContext.write(monitor.fork());
+      }
+
+      if (commitContext.getRollbackMessage() == null)
+      {
+        try
+        {
+          timeStampAuthority.awaitPredecessors(commitContext.getTimeStamp());
+        }
+        catch (InterruptedException ex)
+        {
+          commitContext.rollback("Commit interrupted while waiting for earlier commits"); //$NON-NLS-1$
+          Thread.currentThread().interrupt();
+          monitor.worked();
+          return;
+        }
+
+        commitContext.commit(monitor.fork());
+      }
+      else
+      {
+        monitor.worked();
+      }
+    }
+    finally
+    {
+      monitor.done();
+    }
+  }
+
   @Override
   public void sendCommitNotification(CommitNotificationInfo info)
   {
@@ -2221,6 +2368,21 @@ public class Repository extends Container<Object> implements InternalRepository
     accessor.loadLob(id, out);
   }
 
+  @Override
+  public void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException
+  {
+    IStoreAccessor accessor = StoreThreadLocal.getAccessor();
+    if (accessor instanceof IStoreAccessor.LobRangeSupport)
+    {
+      ((IStoreAccessor.LobRangeSupport)accessor).loadLob(id, offset, length, out);
+    }
+    else
+    {
+      // The store can only serialize the whole large object; pass on the requested range.
+      accessor.loadLob(id, new RangeOutputStream(out, offset, length));
+    }
+  }
+
   @Override
   public void handleRevisions(EClass eClass, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime, final CDORevisionHandler handler)
   {
@@ -2265,6 +2427,20 @@ public class Repository extends Container<Object> implements InternalRepository
     }
   }
 
+  @Override
+  public void handleClassRevisions(List<EClass> eClasses, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime,
+      CDORevisionHandler handler)
+  {
+    int parallelism = Math.min(handleRevisionsParallelism, eClasses.size());
+    if (parallelism > 1 && !StoreThreadLocal.hasSession())
+    {
+      // The helper threads could not open their own store accessors.
+      parallelism = 1;
+    }
+
+    new ClassRevisionsHandling(eClasses, branch, exactBranch, timeStamp, exactTime, handler).run(parallelism);
+  }
+
   private CDORevisionKey[] checkStaleRevisions(InternalView view, List<CDORevisionKey> revisionKeys, List<Object> objectsToLock, LockType lockType,
       long[] requiredTimestamp)
   {
@@ -2481,6 +2657,42 @@ public class Repository extends Container<Object> implements InternalRepository
       serializingCommits = Boolean.valueOf(valueCommits);
     }
 
+    // PIPELINE_COMMITS
+    String valuePipeline = properties.get(Props.PIPELINE_COMMITS);
+    if (valuePipeline != null)
+    {
+      pipeliningCommits = Boolean.valueOf(valuePipeline);
+      timeStampAuthority.setPipelined(pipeliningCommits);
+    }
+
+    // OFF_HEAP_REVISION_CACHE_SIZE
+    String valueOffHeap = properties.get(Props.OFF_HEAP_REVISION_CACHE_SIZE);
+    if (valueOffHeap != null)
+    {
+      offHeapRevisionCacheSize = Long.parseLong(valueOffHeap);
+    }
+
+    // COMMIT_NOTIFICATION_THREADS
+    String valueNotificationThreads = properties.get(Props.COMMIT_NOTIFICATION_THREADS);
+    if (valueNotificationThreads != null)
+    {
+      commitNotificationThreads = Integer.parseInt(valueNotificationThreads);
+    }
+
+    // COMMIT_NOTIFICATION_COALESCING_THRESHOLD
+    String valueCoalescingThreshold = properties.get(Props.COMMIT_NOTIFICATION_COALESCING_THRESHOLD);
+    if (valueCoalescingThreshold != null)
+    {
+      commitNotificationCoalescingThreshold = Integer.parseInt(valueCoalescingThreshold);
+    }
+
+    // COMMIT_NOTIFICATION_MAX_QUEUE_DEPTH
+    String valueMaxQueueDepth = properties.get(Props.COMMIT_NOTIFICATION_MAX_QUEUE_DEPTH);
+    if (valueMaxQueueDepth != null)
+    {
+      commitNotificationMaxQueueDepth = Integer.parseInt(valueMaxQueueDepth);
+    }
+
     // ENSURE_REFERENTIAL_INTEGRITY
     String valueIntegrity = properties.get(Props.ENSURE_REFERENTIAL_INTEGRITY);
     if (valueIntegrity != null)
@@ -2488,6 +2700,20 @@ public class Repository extends Container<Object> implements InternalRepository
       ensuringReferentialIntegrity = Boolean.valueOf(valueIntegrity);
     }
 
+    // HANDLE_REVISIONS_PARALLELISM
+    String valueParallelism = properties.get(Props.HANDLE_REVISIONS_PARALLELISM);
+    if (valueParallelism != null)
+    {
+      handleRevisionsParallelism = Math.max(1, Integer.parseInt(valueParallelism));
+    }
+
+    // CONTAINMENT_INDEX
+    String valueContainmentIndex = properties.get(Props.CONTAINMENT_INDEX);
+    if (valueContainmentIndex != null)
+    {
+      containmentIndexed = Boolean.valueOf(valueContainmentIndex);
+    }
+
     // ID_GENERATION_LOCATION
     String valueIDLocation = properties.get(Props.ID_GENERATION_LOCATION);
     if (valueIDLocation != null)
@@ -2865,7 +3091,26 @@ public class Repository extends Container<Object> implements InternalRepository
     }
 
     LifecycleUtil.activate(packageRegistry);
+
+    if (sessionManager instanceof SessionManager)
+    {
+      SessionManager manager = (SessionManager)sessionManager;
+      manager.setCommitNotificationThreads(commitNotificationThreads);
+      manager.setCommitNotificationCoalescingThreshold(commitNotificationCoalescingThreshold);
+      manager.setCommitNotificationMaxQueueDepth(commitNotificationMaxQueueDepth);
+    }
+
     LifecycleUtil.activate(sessionManager);
+
+    if (offHeapRevisionCacheSize > 0 && revisionManager.getCache() == null)
+    {
+      CDORevisionCacheOffHeap revisionCache = new CDORevisionCacheOffHeap();
+      revisionCache.setPackageRegistry(packageRegistry);
+      revisionCache.setBranchManager(branchManager);
+      revisionCache.setMaxBytes(offHeapRevisionCacheSize);
+      revisionManager.setCache(revisionCache);
+    }
+
     LifecycleUtil.activate(revisionManager);
     LifecycleUtil.activate(branchManager);
     LifecycleUtil.activate(queryManager);
@@ -2878,6 +3123,19 @@ public class Repository extends Container<Object> implements InternalRepository
       LifecycleUtil.activate(unitManager);
     }
 
+    if (containmentIndexed)
+    {
+      containmentIndex = new ContainmentIndex(this);
+    }
+
+    if (handleRevisionsParallelism > 1)
+    {
+      // The helper threads can block while the query results are consumed, so they must not be taken from the shared
+      // executor service of the container.
+      int helpers = handleRevisionsParallelism - 1;
+      handleRevisionsExecutor = ThreadPool.create("CDOClassRevisionsHandler", helpers, helpers, ThreadPool.DEFAULT_KEEP_ALIVE_SECONDS); //$NON-NLS-1$
+    }
+
     if (!skipInitialization)
     {
       long creationTime = store.getCreationTime();
@@ -2983,6 +3241,13 @@ public class Repository extends Container<Object> implements InternalRepository
       REPOSITORIES.remove(uuid);
     }
 
+    if (handleRevisionsExecutor != null)
+    {
+      handleRevisionsExecutor.shutdown();
+      handleRevisionsExecutor = null;
+    }
+
+    containmentIndex = null;
     LifecycleUtil.deactivate(unitManager);
     LifecycleUtil.deactivate(lockingManager);
     LifecycleUtil.deactivate(queryHandlerProvider);
@@ -3230,4 +3495,257 @@ public class Repository extends Container<Object> implements InternalRepository
   {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Hands the classes of a {@link Repository#handleClassRevisions(List, CDOBranch, boolean, long, boolean, CDORevisionHandler)
+   * handleClassRevisions()} call out to the calling thread and to helper threads of a thread pool that the repository
+   * dedicates to this purpose. The helpers can block in the revision handler, e.g., while a full query result queue is
+   * consumed, without tying up the threads of the shared executor service. The calling thread takes part, so that all
+   * classes are handled even if no helper thread is available, and it only waits for the helpers that have actually
+   * started.
+   *
+   * @author Eike Stepper
+   */
+  private final class ClassRevisionsHandling implements CDORevisionHandler
+  {
+    private final Queue<EClass> eClasses;
+
+    private final CDOBranch branch;
+
+    private final boolean exactBranch;
+
+    private final long timeStamp;
+
+    private final boolean exactTime;
+
+    private final CDORevisionHandler handler;
+
+    private final Object handlerLock = new Object();
+
+    private volatile boolean stopped;
+
+    private Throwable exception;
+
+    private int runningHelpers;
+
+    private boolean done;
+
+    public ClassRevisionsHandling(List<EClass> eClasses, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime,
+        CDORevisionHandler handler)
+    {
+      this.eClasses = new ConcurrentLinkedQueue<>(eClasses);
+      this.branch = branch;
+      this.exactBranch = exactBranch;
+      this.timeStamp = timeStamp;
+      this.exactTime = exactTime;
+      this.handler = handler;
+    }
+
+    @Override
+    public boolean handleRevision(CDORevision revision)
+    {
+      synchronized (handlerLock)
+      {
+        if (stopped)
+        {
+          return false;
+        }
+
+        if (!handler.handleRevision(revision))
+        {
+          stopped = true;
+          return false;
+        }
+
+        return true;
+      }
+    }
+
+    public void run(int parallelism)
+    {
+      ExecutorService executorService = parallelism > 1 ? handleRevisionsExecutor : null;
+      if (executorService != null)
+      {
+        InternalSession session = StoreThreadLocal.getSession();
+
+        try
+        {
+          for (int i = 1; i < parallelism; i++)
+          {
+            executorService.submit(StoreThreadLocal.wrap(session, this::runHelper));
+          }
+        }
+        catch (RejectedExecutionException ex)
+        {
+          // The calling thread handles the remaining classes.
+        }
+      }
+
+      try
+      {
+        handleClasses();
+      }
+      catch (RuntimeException | Error ex)
+      {
+        setException(ex);
+      }
+
+      awaitHelpers();
+
+      Throwable ex;
+      synchronized (this)
+      {
+        ex = exception;
+      }
+
+      if (ex instanceof Error)
+      {
+        throw (Error)ex;
+      }
+
+      if (ex != null)
+      {
+        throw WrappedException.wrap((Exception)ex);
+      }
+    }
+
+    private void runHelper()
+    {
+      synchronized (this)
+      {
+        if (done)
+        {
+          // The calling thread has handled all classes in the meantime.
+          return;
+        }
+
+        ++runningHelpers;
+      }
+
+      try
+      {
+        handleClasses();
+      }
+      catch (Throwable ex)
+      {
+        setException(ex);
+      }
+      finally
+      {
+        synchronized (this)
+        {
+          --runningHelpers;
+          notifyAll();
+        }
+      }
+    }
+
+    private void handleClasses()
+    {
+      EClass eClass;
+      while (!stopped && (eClass = eClasses.poll()) != null)
+      {
+        handleRevisions(eClass, branch, exactBranch, timeStamp, exactTime, this);
+      }
+    }
+
+    private void awaitHelpers()
+    {
+      boolean interrupted = false;
+
+      synchronized (this)
+      {
+        done = true;
+
+        while (runningHelpers > 0)
+        {
+          try
+          {
+            wait();
+          }
+          catch (InterruptedException ex)
+          {
+            // Let the helpers stop at their next revision.
+            stopped = true;
+            interrupted = true;
+          }
+        }
+      }
+
+      if (interrupted)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private synchronized void setException(Throwable ex)
+    {
+      if (exception == null)
+      {
+        exception = ex;
+      }
+
+      stopped = true;
+    }
+  }
+
+  /**
+   * Passes only the bytes of a range to the wrapped stream and discards all others.
+   *
+   * @author Eike Stepper
+   */
+  private static final class RangeOutputStream extends OutputStream
+  {
+    private final OutputStream out;
+
+    private long skip;
+
+    private long remaining;
+
+    public RangeOutputStream(OutputStream out, long offset, long length)
+    {
+      this.out = out;
+      skip = offset;
+      remaining = length;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+      if (skip > 0L)
+      {
+        --skip;
+      }
+      else if (remaining > 0L)
+      {
+        --remaining;
+        out.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+      if (skip > 0L)
+      {
+        int n = (int)Math.min(skip, len);
+        skip -= n;
+        off += n;
+        len -= n;
+      }
+
+      if (remaining > 0L && len > 0)
+      {
+        int n = (int)Math.min(remaining, len);
+        remaining -= n;
+        out.write(b, off, n);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+      out.flush();
+    }
+  }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2016, 2019-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2016, 2019-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -723,6 +723,7 @@ public class Session extends Container<IView> implements InternalSession
     sessionNotificationInfo.setClearResourcePathCache(notificationInfo.isClearResourcePathCache());
     sessionNotificationInfo.setNewPermissions(sessionCommitInfo.getNewPermissions());
     sessionNotificationInfo.setSecurityImpact(securityImpact);
+    sessionNotificationInfo.setSharedCommitInfoBlocks(notificationInfo.getSharedCommitInfoBlocks());
 
     CDOLockChangeInfo lockChangeInfo = notificationInfo.getLockChangeInfo();
     if (lockChangeInfo != null)
@@ -1036,7 +1037,14 @@ public class Session extends Container<IView> implements InternalSession
         @Override
         public CDOIDAndVersion get(int index)
         {
-          CDORevision revision = (CDORevision)newObjects.get(index);
+          CDOIDAndVersion newObject = newObjects.get(index);
+          if (!(newObject instanceof CDORevision))
+          {
+            // Coalesced commit infos don't carry the revisions of objects that have been changed again
+            return newObject;
+          }
+
+          CDORevision revision = (CDORevision)newObject;
           if (additions)
           {
             if (permissionManager == null)
@@ -1077,7 +1085,14 @@ public class Session extends Container<IView> implements InternalSession
         @Override
         public CDORevisionKey get(int index)
         {
-          CDORevisionDelta revisionDelta = (CDORevisionDelta)changedObjects.get(index);
+          CDORevisionKey changedObject = changedObjects.get(index);
+          if (!(changedObject instanceof CDORevisionDelta))
+          {
+            // Coalesced commit infos don't carry the deltas of objects that have been changed several times
+            return changedObject;
+          }
+
+          CDORevisionDelta revisionDelta = (CDORevisionDelta)changedObject;
           CDOID id = revisionDelta.getID();
 
           if (changes || isDeltaNeeded(id, views))
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2015-2017, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2013, 2015-2017, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,10 +22,14 @@ import org.eclipse.emf.cdo.common.branch.CDOBranchChangedEvent.ChangeKind;
 import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.lock.CDOLockChangeInfo;
 import org.eclipse.emf.cdo.common.lock.CDOLockOwner;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
 import org.eclipse.emf.cdo.internal.server.bundle.OM;
 import org.eclipse.emf.cdo.server.IPermissionManager;
 import org.eclipse.emf.cdo.server.IRepository;
@@ -67,6 +71,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -107,6 +112,14 @@ public class SessionManager extends Container<ISession> implements InternalSessi
 
   private InternalSession[] sessionsArray = {};
 
+  private int commitNotificationThreads;
+
+  private int commitNotificationCoalescingThreshold = CommitNotificationDispatcher.DEFAULT_COALESCING_THRESHOLD;
+
+  private int commitNotificationMaxQueueDepth = CommitNotificationDispatcher.DEFAULT_MAX_QUEUE_DEPTH;
+
+  private CommitNotificationDispatcher commitNotificationDispatcher;
+
   /**
    * @since 2.0
    */
@@ -139,6 +152,58 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     return repository.getExecutorService();
   }
 
+  public int getCommitNotificationThreads()
+  {
+    return commitNotificationThreads;
+  }
+
+  /**
+   * Sets the number of threads that send commit notifications to the sessions. Zero, the default, makes the committing
+   * thread send them.
+   */
+  public void setCommitNotificationThreads(int commitNotificationThreads)
+  {
+    checkInactive();
+    this.commitNotificationThreads = commitNotificationThreads;
+  }
+
+  public int getCommitNotificationCoalescingThreshold()
+  {
+    return commitNotificationCoalescingThreshold;
+  }
+
+  /**
+   * Sets the number of commit notifications that may wait for a session before they're combined into fewer ones.
+   */
+  public void setCommitNotificationCoalescingThreshold(int commitNotificationCoalescingThreshold)
+  {
+    checkInactive();
+    this.commitNotificationCoalescingThreshold = commitNotificationCoalescingThreshold;
+  }
+
+  public int getCommitNotificationMaxQueueDepth()
+  {
+    return commitNotificationMaxQueueDepth;
+  }
+
+  /**
+   * Sets the number of notifications that may wait for a session before they're dropped and the session is closed.
+   */
+  public void setCommitNotificationMaxQueueDepth(int commitNotificationMaxQueueDepth)
+  {
+    checkInactive();
+    this.commitNotificationMaxQueueDepth = commitNotificationMaxQueueDepth;
+  }
+
+  /**
+   * Returns the dispatcher that sends commit notifications asynchronously, or <code>null</code> if they're sent by the
+   * committing thread.
+   */
+  public CommitNotificationDispatcher getCommitNotificationDispatcher()
+  {
+    return commitNotificationDispatcher;
+  }
+
   @Override
   @Deprecated
   public IUserManager getUserManager()
@@ -492,21 +557,75 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     CDOCommonSession sender = info.getSender();
     InternalSession[] sessions = getSessions();
 
-    for (InternalSession session : sessions)
+    if (sessions.length > 1 && info.getSharedCommitInfoBlocks() == null)
     {
-      if (session != sender || info.isModifiedByServer())
+      // Let the protocols serialize the commit info only once per form.
+      info.setSharedCommitInfoBlocks(new ConcurrentHashMap<>());
+    }
+
+    CommitNotificationDispatcher dispatcher = commitNotificationDispatcher;
+    if (dispatcher != null)
+    {
+      List<InternalSession> receivers = new ArrayList<>(sessions.length);
+      for (InternalSession session : sessions)
       {
-        if (session.isOpenOnClientSide())
-        {
-          processQueuedCommitNotifications(session);
-          doSendCommitNotification(session, info);
-        }
-        else
+        if (session != sender || info.isModifiedByServer())
         {
-          queueCommitNotification(session, info);
+          receivers.add(session);
         }
       }
+
+      if (!receivers.isEmpty())
+      {
+        snapshotRevisionProvider(info);
+        dispatcher.dispatchCommitNotification(info, receivers);
+      }
+
+      return;
     }
+
+    for (InternalSession session : sessions)
+    {
+      if (session != sender || info.isModifiedByServer())
+      {
+        sendCommitNotification(session, info);
+      }
+    }
+  }
+
+  void sendCommitNotification(InternalSession session, CommitNotificationInfo info)
+  {
+    if (session.isOpenOnClientSide())
+    {
+      processQueuedCommitNotifications(session);
+      doSendCommitNotification(session, info);
+    }
+    else
+    {
+      queueCommitNotification(session, info);
+    }
+  }
+
+  /**
+   * The revision provider of a commit notification is usually the commit context, which must not be used after the
+   * commit. Remember the revisions that the sessions may need for their permission checks.
+   */
+  private void snapshotRevisionProvider(CommitNotificationInfo info)
+  {
+    CDORevisionProvider revisionProvider = info.getRevisionProvider();
+    if (revisionProvider == null || permissionManager == null)
+    {
+      return;
+    }
+
+    Map<CDOID, CDORevision> revisions = CDOIDUtil.createMap();
+    for (CDORevisionKey key : info.getCommitInfo().getChangedObjects())
+    {
+      CDOID id = key.getID();
+      revisions.put(id, revisionProvider.getRevision(id));
+    }
+
+    info.setRevisionProvider(revisions::get);
   }
 
   private void doSendCommitNotification(InternalSession session, CommitNotificationInfo info)
@@ -560,22 +679,37 @@ public class SessionManager extends Container<ISession> implements InternalSessi
   @Override
   public void sendLockNotification(InternalSession sender, CDOLockChangeInfo lockChangeInfo)
   {
+    CommitNotificationDispatcher dispatcher = commitNotificationDispatcher;
+
     for (InternalSession session : getSessions())
     {
       if (session != sender && session.options().getLockNotificationMode() != LockNotificationMode.OFF)
       {
-        try
+        if (dispatcher != null)
         {
-          session.sendLockNotification(lockChangeInfo);
+          // Keep the order of lock and commit notifications.
+          dispatcher.dispatch(session, () -> doSendLockNotification(session, lockChangeInfo));
         }
-        catch (Exception ex)
+        else
         {
-          handleNotificationProblem(session, ex);
+          doSendLockNotification(session, lockChangeInfo);
         }
       }
     }
   }
 
+  private void doSendLockNotification(InternalSession session, CDOLockChangeInfo lockChangeInfo)
+  {
+    try
+    {
+      session.sendLockNotification(lockChangeInfo);
+    }
+    catch (Exception ex)
+    {
+      handleNotificationProblem(session, ex);
+    }
+  }
+
   @Override
   public void sendLockOwnerRemappedNotification(InternalSession sender, CDOBranch branch, CDOLockOwner oldOwner, CDOLockOwner newOwner)
   {
@@ -846,6 +980,13 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     super.doActivate();
     LifecycleUtil.activate(topicManager);
     initAuthentication();
+
+    if (commitNotificationThreads > 0)
+    {
+      commitNotificationDispatcher = new CommitNotificationDispatcher(this, commitNotificationThreads, commitNotificationCoalescingThreshold,
+          commitNotificationMaxQueueDepth);
+      commitNotificationDispatcher.activate();
+    }
   }
 
   protected void initAuthentication()
@@ -865,6 +1006,12 @@ public class SessionManager extends Container<ISession> implements InternalSessi
   @Override
   protected void doDeactivate() throws Exception
   {
+    if (commitNotificationDispatcher != null)
+    {
+      commitNotificationDispatcher.deactivate();
+      commitNotificationDispatcher = null;
+    }
+
     LifecycleUtil.deactivate(authenticator);
     LifecycleUtil.deactivate(authenticationServer);
 
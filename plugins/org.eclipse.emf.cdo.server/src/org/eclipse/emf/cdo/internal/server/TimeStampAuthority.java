@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011-2013, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011-2013, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,9 +43,9 @@ class TimeStampAuthority
   /**
    * Holds the <i>begin</i> timestamp that was last reported finished by a call to {@link #endCommit(long)}.
    * <p>
-   * Synchronized on <code>lastFinishedTimeStampLock</code>.
+   * Written while synchronized on <code>lastFinishedTimeStampLock</code>, read without synchronization.
    */
-  private long lastFinishedTimeStamp;
+  private volatile long lastFinishedTimeStamp;
 
   private LastCommitTimeStampLock lastFinishedTimeStampLock = new LastCommitTimeStampLock();
 
@@ -56,6 +56,13 @@ class TimeStampAuthority
    */
   private StrictOrderingLock strictOrderingLock = new StrictOrderingLock();
 
+  /**
+   * If <code>true</code> commits are not serialized from {@link #startCommit(long, OMMonitor) start} to
+   * {@link #endCommit(long) end}. Instead several commits may be in flight at the same time and each of them
+   * {@link #awaitPredecessors(long) waits} for the earlier ones before it commits to the store.
+   */
+  private boolean pipelined;
+
   /**
    * An ordered list of timestamps that have been issued but have not (yet) been reported finished. (It is ordered
    * because the timestamps are added sequentially.)
@@ -72,6 +79,16 @@ class TimeStampAuthority
     this.repository = repository;
   }
 
+  boolean isPipelined()
+  {
+    return pipelined;
+  }
+
+  void setPipelined(boolean pipelined)
+  {
+    this.pipelined = pipelined;
+  }
+
   /**
    * The purpose of this method is to make sure that no commit can occur at the same time as
    * the base of a new branch. Otherwise that commit could change revisions of that branch base.
@@ -161,6 +178,12 @@ class TimeStampAuthority
       }
     }
 
+    if (pipelined)
+    {
+      // Wake up the successors that wait in awaitPredecessors()
+      notifyAll();
+    }
+
     unlockIfNeeded();
   }
 
@@ -177,7 +200,18 @@ class TimeStampAuthority
     }
   }
 
-  synchronized long getLastFinishedTimeStamp()
+  long getLastFinishedTimeStamp()
+  {
+    long timeStamp = lastFinishedTimeStamp;
+    if (timeStamp != 0)
+    {
+      return timeStamp;
+    }
+
+    return getLastFinishedTimeStampSynced();
+  }
+
+  private synchronized long getLastFinishedTimeStampSynced()
   {
     if (lastFinishedTimeStamp != 0)
     {
@@ -231,9 +265,22 @@ class TimeStampAuthority
     repository.getStore().setLastCommitTime(lastFinishedTimeStamp);
   }
 
+  /**
+   * Waits until all commits that started before the given one have ended, so that the store commits, and with them the
+   * publication of {@link #lastFinishedTimeStamp}, happen in timestamp order. If the waiting thread is interrupted the
+   * caller must roll the commit back.
+   */
+  synchronized void awaitPredecessors(long timeStamp) throws InterruptedException
+  {
+    while (!runningTransactions.isEmpty() && runningTransactions.get(0) < timeStamp)
+    {
+      wait();
+    }
+  }
+
   private void lockIfNeeded()
   {
-    if (strictOrdering)
+    if (strictOrdering && !pipelined)
     {
       strictOrderingLock.lock();
     }
@@ -241,7 +288,7 @@ class TimeStampAuthority
 
   private void unlockIfNeeded()
   {
-    if (strictOrdering)
+    if (strictOrdering && !pipelined)
     {
       strictOrderingLock.unlock();
     }
@@ -73,6 +73,7 @@ import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionManager;
 import org.eclipse.emf.cdo.spi.common.revision.StubCDORevision;
+import org.eclipse.emf.cdo.spi.server.ContainmentIndex;
 import org.eclipse.emf.cdo.spi.server.ICommitConflictResolver;
 import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
 import org.eclipse.emf.cdo.spi.server.InternalLockManager;
@@ -1579,6 +1580,9 @@ public class TransactionCommitContext implements InternalCommitContext
       return;
     }
 
+    ContainmentIndex containmentIndex = branch.isMainBranch() ? repository.getContainmentIndex() : null;
+    Map<CDOID, CDOID> changedParentIDs = containmentIndex != null ? ContainmentIndex.getChangedParentIDs(this) : null;
+
     Set<CDOID> objectsThatReachTheRoot = new HashSet<>();
     for (int i = 0; i < dirtyObjectDeltas.length; i++)
     {
@@ -1587,7 +1591,18 @@ public class TransactionCommitContext implements InternalCommitContext
       if (containerDelta != null)
       {
         InternalCDORevision revision = dirtyObjects[i];
-        if (!isTheRootReachable(revision, objectsThatReachTheRoot, new HashSet<>()))
+        boolean rootReachable;
+        if (containmentIndex != null)
+        {
+          // Walks up the parent IDs of the index, overlaid with the changes of this commit, without loading revisions.
+          rootReachable = containmentIndex.isRootReachable(revision.getID(), changedParentIDs);
+        }
+        else
+        {
+          rootReachable = isTheRootReachable(revision, objectsThatReachTheRoot, new HashSet<>());
+        }
+
+        if (!rootReachable)
         {
           throw new RollbackException(CDOProtocolConstants.ROLLBACK_REASON_CONTAINMENT_CYCLE,
               "Attempt by " + transaction + " to introduce a containment cycle");
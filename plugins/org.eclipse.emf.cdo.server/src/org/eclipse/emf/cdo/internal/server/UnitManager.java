@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2016, 2019, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,11 +25,13 @@ import org.eclipse.emf.cdo.server.IUnitManager;
 import org.eclipse.emf.cdo.server.IView;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
+import org.eclipse.emf.cdo.spi.server.ContainmentIndex;
 import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.spi.server.InternalUnitManager;
 import org.eclipse.emf.cdo.spi.server.InternalView;
 
+import org.eclipse.net4j.util.ObjectUtil;
 import org.eclipse.net4j.util.container.Container;
 import org.eclipse.net4j.util.om.monitor.OMMonitor;
 import org.eclipse.net4j.util.om.monitor.OMMonitor.Async;
@@ -315,6 +317,9 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
       Set<CDOID> rootIDs = getRootIDs();
       if (!rootIDs.isEmpty())
       {
+        ContainmentIndex containmentIndex = getContainmentIndex(after);
+        Map<CDOID, CDOID> changedParentIDs = containmentIndex != null ? ContainmentIndex.getChangedParentIDs((InternalCommitContext)after) : null;
+
         for (InternalCDORevisionDelta delta : deltas)
         {
           CDOID id = delta.getID();
@@ -324,13 +329,31 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
             EStructuralFeature feature = featureDelta.getFeature();
             if (feature == CDOContainerFeatureDelta.CONTAINER_FEATURE)
             {
-              InternalCDORevision beforeRevision = (InternalCDORevision)before.getRevision(id);
-              CDOID beforeUnit = getUnitOf(beforeRevision, before, rootIDs);
+              CDOID beforeUnit;
+              if (containmentIndex != null)
+              {
+                beforeUnit = containmentIndex.getAncestorOrSelf(id, rootIDs, null);
+              }
+              else
+              {
+                InternalCDORevision beforeRevision = (InternalCDORevision)before.getRevision(id);
+                beforeUnit = getUnitOf(beforeRevision, before, rootIDs);
+              }
+
               if (beforeUnit != null)
               {
-                InternalCDORevision afterRevision = (InternalCDORevision)after.getRevision(id);
-                CDOID afterUnit = getUnitOf(afterRevision, after, rootIDs);
-                if (afterUnit != beforeUnit)
+                CDOID afterUnit;
+                if (containmentIndex != null)
+                {
+                  afterUnit = containmentIndex.getAncestorOrSelf(id, rootIDs, changedParentIDs);
+                }
+                else
+                {
+                  InternalCDORevision afterRevision = (InternalCDORevision)after.getRevision(id);
+                  afterUnit = getUnitOf(afterRevision, after, rootIDs);
+                }
+
+                if (!ObjectUtil.equals(afterUnit, beforeUnit))
                 {
                   unitMoves.add(delta);
                 }
@@ -372,12 +395,24 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
       Set<CDOID> rootIDs = getRootIDs();
       boolean checkUnits = !rootIDs.isEmpty();
 
+      ContainmentIndex containmentIndex = checkUnits ? getContainmentIndex(commitContext) : null;
+      Map<CDOID, CDOID> changedParentIDs = containmentIndex != null ? ContainmentIndex.getChangedParentIDs(commitContext) : null;
+
       List<InternalCDORevision> unmappedRevisions = new ArrayList<>();
       for (InternalCDORevision revision : commitContext.getNewObjects())
       {
         if (checkUnits)
         {
-          CDOID rootID = getUnitOf(revision, commitContext, rootIDs);
+          CDOID rootID;
+          if (containmentIndex != null)
+          {
+            rootID = containmentIndex.getAncestorOrSelf(revision.getID(), rootIDs, changedParentIDs);
+          }
+          else
+          {
+            rootID = getUnitOf(revision, commitContext, rootIDs);
+          }
+
           if (rootID != null)
           {
             unitMappings.put(revision.getID(), rootID);
@@ -504,6 +539,24 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
     return rootIDs;
   }
 
+  /**
+   * Returns the containment index of the repository if the given revision provider is a commit context of the main
+   * branch, whose committed state the index reflects.
+   */
+  private ContainmentIndex getContainmentIndex(CDORevisionProvider revisionProvider)
+  {
+    if (revisionProvider instanceof InternalCommitContext)
+    {
+      InternalCommitContext commitContext = (InternalCommitContext)revisionProvider;
+      if (commitContext.getBranchPoint().getBranch().isMainBranch())
+      {
+        return repository.getContainmentIndex();
+      }
+    }
+
+    return null;
+  }
+
   private static CDOID getUnitOf(InternalCDORevision revision, CDORevisionProvider revisionProvider, Set<CDOID> rootIDs)
   {
     // Bug 494372: Revisions of deleted roots may be null.
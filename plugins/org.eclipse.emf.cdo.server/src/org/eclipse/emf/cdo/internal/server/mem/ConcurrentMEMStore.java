@@ -0,0 +1,656 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.server.mem;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfoHandler;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranch;
+import org.eclipse.emf.cdo.spi.common.revision.DetachedCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.SyntheticCDORevision;
+
+import org.eclipse.net4j.util.HexUtil;
+import org.eclipse.net4j.util.io.IOUtil;
+
+import org.eclipse.emf.ecore.EClass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link MEMStore} that can be read and written by multiple threads concurrently.
+ * <p>
+ * The revisions of each object are kept in a copy-on-write {@link RevisionChain chain} that is only locked by the writers
+ * of that particular object; readers always see a consistent snapshot of the chain without any locking.
+ * The commit infos are kept in an append-only {@link CommitInfoLog log} that readers access lock-free, too.
+ * Object types, lobs and the optional XRef index are kept in concurrent maps.
+ * <p>
+ * Operations that are not on the hot read or commit paths, such as branching, durable locking or resource queries,
+ * are inherited from {@link MEMStore} unchanged. Removals from the commit info log, e.g. when branches are deleted,
+ * publish a new copy of the log.
+ *
+ * @author Eike Stepper
+ */
+public class ConcurrentMEMStore extends MEMStore
+{
+  /**
+   * Serializes the additions of resource nodes, so that the check for duplicate resources stays reliable.
+   */
+  private final Object resourceLock = new ResourceLock();
+
+  public ConcurrentMEMStore()
+  {
+  }
+
+  public ConcurrentMEMStore(int listLimit)
+  {
+    super(listLimit);
+  }
+
+  @Override
+  public void loadCommitInfos(CDOBranch branch, long startTime, long endTime, CDOCommitInfoHandler handler)
+  {
+    List<CommitInfo> snapshot = ((CommitInfoLog)commitInfos).snapshot();
+    loadCommitInfos(snapshot, branch, startTime, endTime, handler);
+  }
+
+  @Override
+  public void addCommitInfo(CDOBranch branch, long timeStamp, long previousTimeStamp, String userID, String comment, CDOBranchPoint mergeSource)
+  {
+    CommitInfo commitInfo = new CommitInfo(branch, timeStamp, previousTimeStamp, userID, comment, mergeSource);
+    ((CommitInfoLog)commitInfos).insert(commitInfo);
+  }
+
+  @Override
+  public void handleRevisions(EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
+  {
+    for (List<InternalCDORevision> list : revisions.values())
+    {
+      for (InternalCDORevision revision : list)
+      {
+        if (!handleRevision(revision, eClass, branch, timeStamp, exactTime, handler))
+        {
+          return;
+        }
+      }
+    }
+  }
+
+  @Override
+  public InternalCDORevision getRevisionByVersion(CDOID id, CDOBranchVersion branchVersion)
+  {
+    RevisionChain chain = getChain(id, branchVersion.getBranch());
+    if (chain == null)
+    {
+      return null;
+    }
+
+    return getRevisionByVersion(chain.snapshot(), branchVersion.getVersion());
+  }
+
+  @Override
+  public InternalCDORevision getRevision(CDOID id, CDOBranchPoint branchPoint)
+  {
+    long timeStamp = branchPoint.getTimeStamp();
+    if (timeStamp != CDORevision.UNSPECIFIED_DATE && !getRepository().isSupportingAudits())
+    {
+      throw new UnsupportedOperationException("Auditing not supported");
+    }
+
+    RevisionChain chain = getChain(id, branchPoint.getBranch());
+    if (chain == null)
+    {
+      return null;
+    }
+
+    List<InternalCDORevision> snapshot = chain.snapshot();
+    if (snapshot.isEmpty())
+    {
+      return null;
+    }
+
+    if (timeStamp == CDORevision.UNSPECIFIED_DATE)
+    {
+      return snapshot.get(snapshot.size() - 1);
+    }
+
+    return getRevision(snapshot, branchPoint);
+  }
+
+  @Override
+  public void addRevision(final InternalCDORevision revision, final boolean raw)
+  {
+    InternalCDOBranch branch = revision.getBranch();
+    if (branch.getBranchManager().getRepository() != getRepository())
+    {
+      throw new IllegalArgumentException("Branch does not belong to this repository: " + branch);
+    }
+
+    Object listKey = createListKey(revision.getID(), branch);
+    RevisionChain chain = (RevisionChain)revisions.computeIfAbsent(listKey, key -> createRevisionList());
+    Consumer<List<InternalCDORevision>> operation = list -> addRevision(list, revision, raw);
+
+    if (!(revision instanceof SyntheticCDORevision) && revision.isResourceNode())
+    {
+      synchronized (resourceLock)
+      {
+        chain.update(operation);
+      }
+    }
+    else
+    {
+      chain.update(operation);
+    }
+
+    indexXRefs(listKey, revision);
+
+    if (raw)
+    {
+      ensureLastObjectID(revision.getID());
+    }
+  }
+
+  @Override
+  public boolean rollbackRevision(InternalCDORevision revision)
+  {
+    RevisionChain chain = getChain(revision.getID(), revision.getBranch());
+    if (chain == null)
+    {
+      return false;
+    }
+
+    int version = revision.getVersion();
+    boolean[] result = { false };
+
+    chain.update(list -> {
+      for (Iterator<InternalCDORevision> it = list.iterator(); it.hasNext();)
+      {
+        InternalCDORevision rev = it.next();
+        if (rev.getVersion() == version)
+        {
+          it.remove();
+          result[0] = true;
+          return;
+        }
+        else if (rev.getVersion() == version - 1)
+        {
+          rev.setRevised(CDORevision.UNSPECIFIED_DATE);
+        }
+      }
+    });
+
+    return result[0];
+  }
+
+  @Override
+  public DetachedCDORevision detachObject(CDOID id, CDOBranch branch, long timeStamp)
+  {
+    EClass eClass = getObjectType(id);
+    RevisionChain chain = getOrCreateChain(id, branch);
+    DetachedCDORevision[] result = { null };
+
+    chain.update(list -> {
+      int version;
+      if (list.isEmpty())
+      {
+        version = CDOBranchVersion.FIRST_VERSION;
+      }
+      else
+      {
+        InternalCDORevision revision = getRevision(list, branch.getHead());
+        if (revision != null)
+        {
+          revision.setRevised(timeStamp - 1);
+        }
+
+        version = getHighestVersion(list) + 1;
+      }
+
+      result[0] = new DetachedCDORevision(eClass, id, branch, version, timeStamp);
+      addRevision(list, result[0], false);
+    });
+
+    return result[0];
+  }
+
+  @Override
+  public void rawDelete(CDOID id, int version, CDOBranch branch)
+  {
+    RevisionChain chain = getChain(id, branch);
+    if (chain != null)
+    {
+      chain.update(list -> list.removeIf(rev -> rev.getVersion() == version));
+    }
+  }
+
+  @Override
+  public EClass getObjectType(CDOID id)
+  {
+    return objectTypes.get(id);
+  }
+
+  @Override
+  public void queryLobs(List<byte[]> ids)
+  {
+    ids.removeIf(id -> !lobs.containsKey(HexUtil.bytesToHex(id)));
+  }
+
+  @Override
+  public void loadLob(byte[] id, OutputStream out) throws IOException
+  {
+    String key = HexUtil.bytesToHex(id);
+    Object lob = lobs.get(key);
+    if (lob == null)
+    {
+      throw new IOException("Lob not found: " + key);
+    }
+
+    if (lob instanceof byte[])
+    {
+      // Write the whole array at once instead of copying it through another array.
+      writeBlobRange(id, lob, 0L, Long.MAX_VALUE, out);
+    }
+    else
+    {
+      char[] clob = (char[])lob;
+      CharArrayReader in = new CharArrayReader(clob);
+      IOUtil.copyCharacter(in, new OutputStreamWriter(out), clob.length);
+    }
+  }
+
+  @Override
+  public void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException
+  {
+    writeBlobRange(id, lobs.get(HexUtil.bytesToHex(id)), offset, length, out);
+  }
+
+  @Override
+  public void writeBlob(byte[] id, long size, InputStream inputStream) throws IOException
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    IOUtil.copyBinary(inputStream, out, size);
+    lobs.put(HexUtil.bytesToHex(id), out.toByteArray());
+  }
+
+  @Override
+  public void writeClob(byte[] id, long size, Reader reader) throws IOException
+  {
+    CharArrayWriter out = new CharArrayWriter();
+    IOUtil.copyCharacter(reader, out, size);
+    lobs.put(HexUtil.bytesToHex(id), out.toCharArray());
+  }
+
+  @Override
+  Map<Object, List<InternalCDORevision>> createRevisionMap()
+  {
+    return new ConcurrentHashMap<>();
+  }
+
+  @Override
+  List<InternalCDORevision> createRevisionList()
+  {
+    return new RevisionChain();
+  }
+
+  @Override
+  List<CommitInfo> createCommitInfoList()
+  {
+    return new CommitInfoLog();
+  }
+
+  @Override
+  Map<CDOID, EClass> createObjectTypeMap()
+  {
+    return new ConcurrentHashMap<>();
+  }
+
+  @Override
+  Map<String, Object> createLobMap()
+  {
+    return new ConcurrentHashMap<>();
+  }
+
+  @Override
+  Map<CDOID, Set<Object>> createXRefIndex()
+  {
+    return new ConcurrentHashMap<>();
+  }
+
+  @Override
+  Set<Object> createXRefSourceSet()
+  {
+    return ConcurrentHashMap.newKeySet();
+  }
+
+  private RevisionChain getChain(CDOID id, CDOBranch branch)
+  {
+    Object listKey = createListKey(id, branch);
+    return (RevisionChain)revisions.get(listKey);
+  }
+
+  private RevisionChain getOrCreateChain(CDOID id, CDOBranch branch)
+  {
+    Object listKey = createListKey(id, branch);
+    return (RevisionChain)revisions.computeIfAbsent(listKey, key -> createRevisionList());
+  }
+
+  /**
+   * A separate class for better monitor debugging.
+   *
+   * @author Eike Stepper
+   */
+  private static final class ResourceLock
+  {
+  }
+
+  /**
+   * The copy-on-write revision list of one object in one branch.
+   * <p>
+   * All modifications are synchronized on the chain and publish a new array; {@link #iterator() iterations} and
+   * {@link #snapshot() snapshots} operate on the array that was current when they were started.
+   *
+   * @author Eike Stepper
+   */
+  static final class RevisionChain extends AbstractList<InternalCDORevision> implements RandomAccess
+  {
+    private static final InternalCDORevision[] NO_REVISIONS = {};
+
+    private volatile InternalCDORevision[] revisions = NO_REVISIONS;
+
+    public RevisionChain()
+    {
+    }
+
+    public List<InternalCDORevision> snapshot()
+    {
+      return Collections.unmodifiableList(Arrays.asList(revisions));
+    }
+
+    public synchronized void update(Consumer<List<InternalCDORevision>> operation)
+    {
+      List<InternalCDORevision> list = new ArrayList<>(Arrays.asList(revisions));
+      try
+      {
+        operation.accept(list);
+      }
+      finally
+      {
+        // Publish even partial modifications, just like MEMStore does with its ArrayLists.
+        revisions = list.toArray(NO_REVISIONS);
+      }
+    }
+
+    @Override
+    public InternalCDORevision get(int index)
+    {
+      return revisions[index];
+    }
+
+    @Override
+    public int size()
+    {
+      return revisions.length;
+    }
+
+    @Override
+    public Iterator<InternalCDORevision> iterator()
+    {
+      return snapshot().iterator();
+    }
+
+    @Override
+    public synchronized void add(int index, InternalCDORevision element)
+    {
+      update(list -> list.add(index, element));
+    }
+
+    @Override
+    public synchronized InternalCDORevision set(int index, InternalCDORevision element)
+    {
+      InternalCDORevision old = revisions[index];
+      update(list -> list.set(index, element));
+      return old;
+    }
+
+    @Override
+    public synchronized InternalCDORevision remove(int index)
+    {
+      InternalCDORevision old = revisions[index];
+      update(list -> list.remove(index));
+      return old;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+      revisions = NO_REVISIONS;
+    }
+  }
+
+  /**
+   * An append-mostly list of {@link CommitInfo commit infos} that is sorted by time stamp.
+   * <p>
+   * Readers never lock; they take a {@link #snapshot() snapshot} of the published segment. Writers are serialized.
+   * Appending to the end, which is the normal case, writes into spare capacity of the shared array without copying,
+   * which is safe because no published snapshot can see beyond its own size.
+   *
+   * @author Eike Stepper
+   */
+  static final class CommitInfoLog extends AbstractList<CommitInfo> implements RandomAccess
+  {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile Segment segment = new Segment(new CommitInfo[INITIAL_CAPACITY], 0);
+
+    public CommitInfoLog()
+    {
+    }
+
+    public List<CommitInfo> snapshot()
+    {
+      return segment;
+    }
+
+    public synchronized void insert(CommitInfo commitInfo)
+    {
+      Segment current = segment;
+      CommitInfo[] elements = current.elements;
+      int size = current.size;
+
+      int index = size;
+      while (index > 0 && commitInfo.getTimeStamp() <= elements[index - 1].getTimeStamp())
+      {
+        --index;
+      }
+
+      if (index == size && size < elements.length)
+      {
+        elements[size] = commitInfo;
+        segment = new Segment(elements, size + 1);
+        return;
+      }
+
+      int capacity = size < elements.length ? elements.length : elements.length << 1;
+      CommitInfo[] newElements = new CommitInfo[capacity];
+      System.arraycopy(elements, 0, newElements, 0, index);
+      newElements[index] = commitInfo;
+      System.arraycopy(elements, index, newElements, index + 1, size - index);
+      segment = new Segment(newElements, size + 1);
+    }
+
+    @Override
+    public CommitInfo get(int index)
+    {
+      return segment.get(index);
+    }
+
+    @Override
+    public int size()
+    {
+      return segment.size;
+    }
+
+    /**
+     * Returns an iterator over the current {@link #snapshot() snapshot}. Its {@link Iterator#remove() remove()} method
+     * removes the last returned commit info from this log, not from the snapshot.
+     */
+    @Override
+    public Iterator<CommitInfo> iterator()
+    {
+      Iterator<CommitInfo> delegate = segment.iterator();
+      return new Iterator<CommitInfo>()
+      {
+        private CommitInfo last;
+
+        @Override
+        public boolean hasNext()
+        {
+          return delegate.hasNext();
+        }
+
+        @Override
+        public CommitInfo next()
+        {
+          last = delegate.next();
+          return last;
+        }
+
+        @Override
+        public void remove()
+        {
+          if (last == null)
+          {
+            throw new IllegalStateException();
+          }
+
+          CommitInfo element = last;
+          last = null;
+          removeIf(commitInfo -> commitInfo == element);
+        }
+      };
+    }
+
+    @Override
+    public synchronized CommitInfo remove(int index)
+    {
+      CommitInfo commitInfo = get(index);
+      removeIf(info -> info == commitInfo);
+      return commitInfo;
+    }
+
+    /**
+     * Removes the matching commit infos by publishing a new segment. The array of the current segment is never modified
+     * because published snapshots may still iterate over it.
+     */
+    @Override
+    public synchronized boolean removeIf(Predicate<? super CommitInfo> filter)
+    {
+      Segment current = segment;
+      CommitInfo[] elements = current.elements;
+      int size = current.size;
+
+      CommitInfo[] newElements = new CommitInfo[elements.length];
+      int newSize = 0;
+
+      for (int i = 0; i < size; i++)
+      {
+        CommitInfo commitInfo = elements[i];
+        if (!filter.test(commitInfo))
+        {
+          newElements[newSize++] = commitInfo;
+        }
+      }
+
+      if (newSize == size)
+      {
+        return false;
+      }
+
+      segment = new Segment(newElements, newSize);
+      return true;
+    }
+
+    @Override
+    public synchronized void add(int index, CommitInfo element)
+    {
+      if (index != size())
+      {
+        throw new UnsupportedOperationException("Only appending or time stamp ordered insertion supported");
+      }
+
+      insert(element);
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+      segment = new Segment(new CommitInfo[INITIAL_CAPACITY], 0);
+    }
+
+    /**
+     * An immutable view of the first <code>size</code> elements of a shared array.
+     *
+     * @author Eike Stepper
+     */
+    private static final class Segment extends AbstractList<CommitInfo> implements RandomAccess
+    {
+      private final CommitInfo[] elements;
+
+      private final int size;
+
+      public Segment(CommitInfo[] elements, int size)
+      {
+        this.elements = elements;
+        this.size = size;
+      }
+
+      @Override
+      public CommitInfo get(int index)
+      {
+        if (index >= size)
+        {
+          throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return elements[index];
+      }
+
+      @Override
+      public int size()
+      {
+        return size;
+      }
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2016, 2019-2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2016, 2019-2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,6 +53,7 @@ import org.eclipse.emf.cdo.spi.common.revision.SyntheticCDORevision;
 import org.eclipse.emf.cdo.spi.server.InternalLockManager;
 import org.eclipse.emf.cdo.spi.server.LongIDStore;
 import org.eclipse.emf.cdo.spi.server.StoreAccessorPool;
+import org.eclipse.emf.cdo.spi.server.XRefIndexUtil;
 
 import org.eclipse.emf.internal.cdo.transaction.CDOTransactionImpl;
 
@@ -68,7 +69,6 @@ import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.om.monitor.OMMonitor;
 
 import org.eclipse.emf.ecore.EClass;
-import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
 import java.io.ByteArrayInputStream;
@@ -113,15 +113,21 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
 
   private int lastLocalBranchID;
 
-  private Map<Object, List<InternalCDORevision>> revisions = new HashMap<>();
+  final Map<Object, List<InternalCDORevision>> revisions = createRevisionMap();
 
-  private List<CommitInfo> commitInfos = new ArrayList<>();
+  final List<CommitInfo> commitInfos = createCommitInfoList();
 
-  private Map<CDOID, EClass> objectTypes = CDOIDUtil.createMap();
+  final Map<CDOID, EClass> objectTypes = createObjectTypeMap();
 
   private Map<String, LockArea> lockAreas = new HashMap<>();
 
-  private Map<String, Object> lobs = new HashMap<>();
+  final Map<String, Object> lobs = createLobMap();
+
+  /**
+   * Maps the IDs of referenced objects to the list keys of the objects that reference them, or is <code>null</code> if
+   * the {@link org.eclipse.emf.cdo.server.IRepository.Props#XREF_INDEX XRef index} is not enabled.
+   */
+  Map<CDOID, Set<Object>> xRefIndex;
 
   private int listLimit;
 
@@ -285,14 +291,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
       monitor.worked();
     }
 
-    for (Iterator<CommitInfo> it = commitInfos.iterator(); it.hasNext();)
-    {
-      CommitInfo commitInfo = it.next();
-      if (deletedBranches.contains(commitInfo.getBranch()))
-      {
-        it.remove();
-      }
-    }
+    commitInfos.removeIf(commitInfo -> deletedBranches.contains(commitInfo.getBranch()));
 
     for (Iterator<Map.Entry<String, LockArea>> it = lockAreas.entrySet().iterator(); it.hasNext();)
     {
@@ -341,6 +340,11 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
   }
 
   public synchronized void loadCommitInfos(final CDOBranch branch, long startTime, final long endTime, CDOCommitInfoHandler handler)
+  {
+    loadCommitInfos(commitInfos, branch, startTime, endTime, handler);
+  }
+
+  void loadCommitInfos(List<CommitInfo> commitInfos, final CDOBranch branch, long startTime, final long endTime, CDOCommitInfoHandler handler)
   {
     InternalCDOCommitInfoManager manager = getRepository().getCommitInfoManager();
 
@@ -480,7 +484,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     }
   }
 
-  private boolean handleRevision(InternalCDORevision revision, EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
+  boolean handleRevision(InternalCDORevision revision, EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
   {
     if (eClass != null && revision.getEClass() != eClass)
     {
@@ -611,11 +615,12 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     List<InternalCDORevision> list = revisions.get(listKey);
     if (list == null)
     {
-      list = new ArrayList<>();
+      list = createRevisionList();
       revisions.put(listKey, list);
     }
 
     addRevision(list, revision, raw);
+    indexXRefs(listKey, revision);
 
     if (raw)
     {
@@ -693,7 +698,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     int version;
     if (list == null)
     {
-      list = new ArrayList<>();
+      list = createRevisionList();
       revisions.put(listKey, list);
       version = CDOBranchVersion.FIRST_VERSION;
     }
@@ -767,8 +772,11 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
 
   public synchronized void queryXRefs(QueryXRefsContext context)
   {
-    Set<CDOID> targetIDs = context.getTargetObjects().keySet();
-    Map<EClass, List<EReference>> sourceCandidates = context.getSourceCandidates();
+    if (xRefIndex != null)
+    {
+      queryXRefsIndexed(context);
+      return;
+    }
 
     for (Map.Entry<Object, List<InternalCDORevision>> entry : revisions.entrySet())
     {
@@ -778,71 +786,55 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
         continue;
       }
 
-      List<InternalCDORevision> list = entry.getValue();
-      if (list.isEmpty())
+      if (!queryXRefs(context, entry.getValue()))
       {
-        continue;
+        return;
       }
+    }
+  }
 
-      InternalCDORevision revision = getRevision(list, context);
-      if (revision == null || revision instanceof SyntheticCDORevision)
+  private void queryXRefsIndexed(QueryXRefsContext context)
+  {
+    Set<Object> listKeys = new HashSet<>();
+    for (CDOID targetID : context.getTargetObjects().keySet())
+    {
+      Set<Object> sourceListKeys = xRefIndex.get(targetID);
+      if (sourceListKeys != null)
       {
-        continue;
+        listKeys.addAll(sourceListKeys);
       }
+    }
 
-      EClass eClass = revision.getEClass();
-      CDOID sourceID = revision.getID();
+    for (Object listKey : listKeys)
+    {
+      CDOBranch branch = getBranch(listKey);
+      if (branch != context.getBranch())
+      {
+        continue;
+      }
 
-      List<EReference> eReferences = sourceCandidates.get(eClass);
-      if (eReferences != null)
+      List<InternalCDORevision> list = revisions.get(listKey);
+      if (list != null && !queryXRefs(context, list))
       {
-        for (EReference eReference : eReferences)
-        {
-          Object value = revision.getValue(eReference);
-          if (value != null)
-          {
-            if (eReference.isMany())
-            {
-              @SuppressWarnings("unchecked")
-              List<CDOID> ids = (List<CDOID>)value;
-              int index = 0;
-              for (CDOID id : ids)
-              {
-                if (!queryXRefs(context, targetIDs, id, sourceID, eReference, index++))
-                {
-                  return;
-                }
-              }
-            }
-            else
-            {
-              CDOID id = (CDOID)value;
-              if (!queryXRefs(context, targetIDs, id, sourceID, eReference, 0))
-              {
-                return;
-              }
-            }
-          }
-        }
+        return;
       }
     }
   }
 
-  private boolean queryXRefs(QueryXRefsContext context, Set<CDOID> targetIDs, CDOID targetID, CDOID sourceID, EReference sourceReference, int index)
+  private boolean queryXRefs(QueryXRefsContext context, List<InternalCDORevision> list)
   {
-    for (CDOID id : targetIDs)
+    if (list.isEmpty())
     {
-      if (id == targetID)
-      {
-        if (!context.addXRef(targetID, sourceID, sourceReference, index))
-        {
-          // No more results allowed
-          return false;
-        }
-      }
+      return true;
     }
 
-    return true;
+    InternalCDORevision revision = getRevision(list, context);
+    if (revision == null || revision instanceof SyntheticCDORevision)
+    {
+      return true;
+    }
+
+    return XRefIndexUtil.addXRefs(context, revision);
   }
 
   public synchronized void rawExport(CDODataOutput out, int fromBranchID, int toBranchID, long fromCommitTime, long toCommitTime)
@@ -1070,9 +1062,8 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
 
     if (lob instanceof byte[])
     {
-      byte[] blob = (byte[])lob;
-      ByteArrayInputStream in = new ByteArrayInputStream(blob);
-      IOUtil.copyBinary(in, out, blob.length);
+      // Write the whole array at once instead of copying it through another array.
+      writeBlobRange(id, lob, 0L, Long.MAX_VALUE, out);
     }
     else
     {
@@ -1082,6 +1073,25 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     }
   }
 
+  public synchronized void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException
+  {
+    writeBlobRange(id, lobs.get(HexUtil.bytesToHex(id)), offset, length, out);
+  }
+
+  static void writeBlobRange(byte[] id, Object lob, long offset, long length, OutputStream out) throws IOException
+  {
+    if (!(lob instanceof byte[]))
+    {
+      throw new IOException((lob == null ? "Lob not found: " : "Not a blob: ") + HexUtil.bytesToHex(id));
+    }
+
+    byte[] blob = (byte[])lob;
+    int start = (int)Math.min(offset, blob.length);
+    int count = (int)Math.min(length, blob.length - start);
+    out.write(blob, start, count);
+    out.flush();
+  }
+
   public synchronized void writeBlob(byte[] id, long size, InputStream inputStream) throws IOException
   {
     ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -1173,6 +1183,11 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     super.doActivate();
     creationTime = getRepository().getTimeStamp();
 
+    if (XRefIndexUtil.isXRefIndexed(getRepository()))
+    {
+      xRefIndex = createXRefIndex();
+    }
+
     if (getRepository().getIDGenerationLocation() == IDGenerationLocation.CLIENT)
     {
       setObjectIDTypes(Collections.singleton(CDOID.ObjectType.UUID));
@@ -1187,6 +1202,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     commitInfos.clear();
     objectTypes.clear();
     properties.clear();
+    xRefIndex = null;
     resourceNameFeature = null;
     lastBranchID = 0;
     lastLocalBranchID = 0;
@@ -1207,7 +1223,59 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     return null;
   }
 
-  private Object createListKey(CDOID id, CDOBranch branch)
+  Map<Object, List<InternalCDORevision>> createRevisionMap()
+  {
+    return new HashMap<>();
+  }
+
+  List<InternalCDORevision> createRevisionList()
+  {
+    return new ArrayList<>();
+  }
+
+  List<CommitInfo> createCommitInfoList()
+  {
+    return new ArrayList<>();
+  }
+
+  Map<CDOID, EClass> createObjectTypeMap()
+  {
+    return CDOIDUtil.createMap();
+  }
+
+  Map<String, Object> createLobMap()
+  {
+    return new HashMap<>();
+  }
+
+  Map<CDOID, Set<Object>> createXRefIndex()
+  {
+    return CDOIDUtil.createMap();
+  }
+
+  Set<Object> createXRefSourceSet()
+  {
+    return new HashSet<>();
+  }
+
+  /**
+   * Adds the objects that the given revision references to the {@link #xRefIndex XRef index}, if it is enabled.
+   */
+  void indexXRefs(Object listKey, InternalCDORevision revision)
+  {
+    if (xRefIndex != null && !(revision instanceof SyntheticCDORevision))
+    {
+      List<CDOID> targetIDs = new ArrayList<>();
+      XRefIndexUtil.collectTargetIDs(revision, targetIDs);
+
+      for (CDOID targetID : targetIDs)
+      {
+        xRefIndex.computeIfAbsent(targetID, key -> createXRefSourceSet()).add(listKey);
+      }
+    }
+  }
+
+  Object createListKey(CDOID id, CDOBranch branch)
   {
     if (getRevisionParallelism() == RevisionParallelism.NONE)
     {
@@ -1227,7 +1295,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     return getRepository().getBranchManager().getMainBranch();
   }
 
-  private int getHighestVersion(List<InternalCDORevision> list)
+  int getHighestVersion(List<InternalCDORevision> list)
   {
     int version = CDOBranchVersion.UNSPECIFIED_VERSION;
     for (InternalCDORevision revision : list)
@@ -1241,7 +1309,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     return version;
   }
 
-  private InternalCDORevision getRevisionByVersion(List<InternalCDORevision> list, int version)
+  InternalCDORevision getRevisionByVersion(List<InternalCDORevision> list, int version)
   {
     for (InternalCDORevision revision : list)
     {
@@ -1254,7 +1322,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     return null;
   }
 
-  private InternalCDORevision getRevision(List<InternalCDORevision> list, CDOBranchPoint branchPoint)
+  InternalCDORevision getRevision(List<InternalCDORevision> list, CDOBranchPoint branchPoint)
   {
     long timeStamp = branchPoint.getTimeStamp();
     for (InternalCDORevision revision : list)
@@ -1278,7 +1346,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     return null;
   }
 
-  private void addRevision(List<InternalCDORevision> list, InternalCDORevision revision, boolean raw)
+  void addRevision(List<InternalCDORevision> list, InternalCDORevision revision, boolean raw)
   {
     boolean resource = !(revision instanceof SyntheticCDORevision) && revision.isResourceNode();
     if (resource && resourceNameFeature == null)
@@ -1350,7 +1418,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
     }
   }
 
-  private void enforceListLimit(List<InternalCDORevision> list)
+  void enforceListLimit(List<InternalCDORevision> list)
   {
     while (list.size() > listLimit)
     {
@@ -1454,7 +1522,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
   /**
    * @author Eike Stepper
    */
-  private static class CommitInfoKey implements CDOTimeProvider, Comparable<CommitInfoKey>
+  static class CommitInfoKey implements CDOTimeProvider, Comparable<CommitInfoKey>
   {
     private long timeStamp;
 
@@ -1479,7 +1547,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader5, D
   /**
    * @author Eike Stepper
    */
-  private static final class CommitInfo extends CommitInfoKey
+  static final class CommitInfo extends CommitInfoKey
   {
     private CDOBranch branch;
 
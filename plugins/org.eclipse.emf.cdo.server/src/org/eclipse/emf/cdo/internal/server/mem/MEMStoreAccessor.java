@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2016, 2019-2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2016, 2019-2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ import org.eclipse.emf.cdo.common.util.CDOQueryInfo;
 import org.eclipse.emf.cdo.server.IQueryHandler;
 import org.eclipse.emf.cdo.server.ISession;
 import org.eclipse.emf.cdo.server.IStoreAccessor.DurableLocking2;
+import org.eclipse.emf.cdo.server.IStoreAccessor.LobRangeSupport;
 import org.eclipse.emf.cdo.server.IStoreAccessor.Raw2;
 import org.eclipse.emf.cdo.server.ITransaction;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranchManager.BranchLoader5;
@@ -63,7 +64,7 @@ import java.util.function.Consumer;
 /**
  * @author Simon McDuff
  */
-public class MEMStoreAccessor extends LongIDStoreAccessor implements Raw2, DurableLocking2, BranchLoader5
+public class MEMStoreAccessor extends LongIDStoreAccessor implements Raw2, DurableLocking2, BranchLoader5, LobRangeSupport
 {
   private final MEMStore store;
 
@@ -456,6 +457,12 @@ public class MEMStoreAccessor extends LongIDStoreAccessor implements Raw2, Durab
     store.loadLob(id, out);
   }
 
+  @Override
+  public void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException
+  {
+    store.loadLob(id, offset, length, out);
+  }
+
   @Override
   protected void writeBlob(byte[] id, long size, InputStream inputStream) throws IOException
   {
@@ -36,6 +36,11 @@ public class MEMStoreFactory implements IStoreFactory
   @Override
   public IStore createStore(String repositoryName, Map<String, String> repositoryProperties, Element storeConfig)
   {
+    if (Boolean.parseBoolean(storeConfig.getAttribute("concurrent"))) //$NON-NLS-1$
+    {
+      return new ConcurrentMEMStore();
+    }
+
     return new MEMStore();
   }
 }
@@ -56,6 +56,7 @@ import org.eclipse.emf.cdo.spi.common.model.InternalCDOPackageUnit;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
+import org.eclipse.emf.cdo.spi.server.ContainmentIndex;
 import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.spi.server.InternalRepositorySynchronizer;
@@ -343,6 +344,7 @@ public abstract class SynchronizableRepository extends Repository.Default implem
 
       commitContext.write(new Monitor());
       commitContext.commit(new Monitor());
+      updateContainmentIndex(commitContext);
 
       setLastCommitTimeStamp(timeStamp);
       setLastReplicatedCommitTime(timeStamp);
@@ -486,6 +488,12 @@ public abstract class SynchronizableRepository extends Repository.Default implem
     {
       cache.removeRevision(revision.getID(), revision);
     }
+
+    ContainmentIndex containmentIndex = getContainmentIndex();
+    if (containmentIndex != null)
+    {
+      containmentIndex.clear();
+    }
   }
 
   private void replicateRawReloadLocks()
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2016, 2018-2020, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2016, 2018-2020, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -46,23 +46,41 @@ import org.eclipse.emf.cdo.spi.server.InternalSession;
 
 import org.eclipse.net4j.util.HexUtil;
 import org.eclipse.net4j.util.WrappedException;
+import org.eclipse.net4j.util.concurrent.ThreadPool;
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
 import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.io.XMLOutput;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
 import org.xml.sax.SAXException;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 /**
@@ -416,6 +434,17 @@ public abstract class CDOServerExporter<OUT>
       consumer.accept("Clobs:         " + clobs);
       consumer.accept("Commits:       " + commits);
     }
+
+    void add(Statistics statistics)
+    {
+      packageUnits += statistics.packageUnits;
+      packageInfos += statistics.packageInfos;
+      branches += statistics.branches;
+      revisions += statistics.revisions;
+      blobs += statistics.blobs;
+      clobs += statistics.clobs;
+      commits += statistics.commits;
+    }
   }
 
   /**
@@ -1189,4 +1218,473 @@ public abstract class CDOServerExporter<OUT>
       }
     }
   }
+
+  /**
+   * A {@link Binary binary} exporter that writes the revisions, large objects and commit infos of a repository in
+   * parallel into separate segment files of a folder.
+   * <p>
+   * The <code>header</code> segment contains the repository, its packages and its branches. There's one segment with the
+   * revisions of each class in each branch, one segment with the large objects and one segment with the commit infos.
+   * All segments have the binary export format. A segment is written to a temporary file that is renamed when the
+   * segment is complete, and the completed segments are listed in a <code>manifest</code> file. A failed export can be
+   * {@link #setResume(boolean) resumed} as long as the repository hasn't been committed to in the meantime; the completed
+   * segments are then not written again.
+   * <p>
+   * A segmented export is imported with a {@link CDOServerImporter.Segmented segmented importer}.
+   *
+   * @author Eike Stepper
+   * @since 4.21
+   */
+  public static class Segmented extends Binary
+  {
+    public static final String HEADER = "header";
+
+    public static final String MANIFEST = "manifest";
+
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private boolean resume;
+
+    private File folder;
+
+    private SegmentManifest manifest;
+
+    private ExecutorService executor;
+
+    private InternalSession session;
+
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    public Segmented(IRepository repository)
+    {
+      super(repository);
+    }
+
+    public int getParallelism()
+    {
+      return parallelism;
+    }
+
+    public void setParallelism(int parallelism)
+    {
+      this.parallelism = Math.max(1, parallelism);
+    }
+
+    public boolean isResume()
+    {
+      return resume;
+    }
+
+    /**
+     * Specifies whether the segments that a previous, failed export has completed in the same folder are kept.
+     */
+    public void setResume(boolean resume)
+    {
+      this.resume = resume;
+    }
+
+    public void exportRepository(File folder) throws Exception
+    {
+      IOUtil.mkdirs(folder);
+      this.folder = folder;
+
+      File headerFile = new File(folder, HEADER);
+      File tempFile = new File(folder, HEADER + TEMP_SUFFIX);
+      OutputStream out = new FileOutputStream(tempFile);
+
+      try
+      {
+        exportRepository(out);
+      }
+      finally
+      {
+        IOUtil.close(out);
+      }
+
+      Files.move(tempFile.toPath(), headerFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+      manifest.setComplete(true);
+      manifest.write(folder);
+    }
+
+    @Override
+    protected void exportAll(CDODataOutput out) throws Exception
+    {
+      if (folder == null)
+      {
+        // Not called from exportRepository(File).
+        super.exportAll(out);
+        return;
+      }
+
+      manifest = new SegmentManifest(getRepository().getUUID(), getRepository().getLastCommitTimeStamp(), getBranchPath(), getTimeStamp());
+      if (resume)
+      {
+        SegmentManifest previous = SegmentManifest.read(folder);
+        if (previous != null && previous.isResumableBy(manifest))
+        {
+          manifest = previous;
+          manifest.setComplete(false);
+        }
+      }
+
+      session = StoreThreadLocal.getSession();
+      executor = ThreadPool.create("CDOServerExporter", parallelism, parallelism, ThreadPool.DEFAULT_KEEP_ALIVE_SECONDS); //$NON-NLS-1$
+
+      try
+      {
+        // Writes the header and schedules the segments.
+        super.exportAll(out);
+        awaitSegments(futures);
+      }
+      finally
+      {
+        executor.shutdownNow();
+        executor = null;
+        futures.clear();
+        session = null;
+      }
+    }
+
+    @Override
+    protected void exportRevisions(CDODataOutput out, CDOBranch branch) throws Exception
+    {
+      if (folder == null)
+      {
+        super.exportRevisions(out, branch);
+        return;
+      }
+
+      InternalCDOPackageRegistry packageRegistry = repository.getPackageRegistry(false);
+      for (InternalCDOPackageInfo packageInfo : packageRegistry.getPackageInfos())
+      {
+        for (EClass eClass : EMFUtil.getConcreteClasses(packageInfo.getEPackage()))
+        {
+          String uri = new CDOClassifierRef(eClass).getURI();
+          String name = "revisions-" + branch.getID() + "-" + eClass.getName() + "-" + Integer.toHexString(uri.hashCode()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+          scheduleSegment(name, REVISION, branch.getID(), (segmentOut, statistics) -> {
+            repository.handleRevisions(eClass, branch, true, getTimeStamp(), false, revision -> {
+              try
+              {
+                exportRevision(segmentOut, revision);
+                ++statistics.revisions;
+                return true;
+              }
+              catch (Exception ex)
+              {
+                throw WrappedException.wrap(ex);
+              }
+            });
+          });
+        }
+      }
+    }
+
+    @Override
+    protected void exportLobs(CDODataOutput out) throws Exception
+    {
+      if (folder == null)
+      {
+        super.exportLobs(out);
+        return;
+      }
+
+      scheduleSegment("lobs", BLOB, CDOBranch.MAIN_BRANCH_ID, (segmentOut, statistics) -> { //$NON-NLS-1$
+        repository.handleLobs(0, 0, new CDOLobHandler()
+        {
+          @Override
+          public OutputStream handleBlob(byte[] id, long size)
+          {
+            try
+            {
+              ++statistics.blobs;
+              return startBlob(segmentOut, id, size);
+            }
+            catch (Exception ex)
+            {
+              throw WrappedException.wrap(ex);
+            }
+          }
+
+          @Override
+          public Writer handleClob(byte[] id, long size)
+          {
+            try
+            {
+              ++statistics.clobs;
+              return startClob(segmentOut, id, size);
+            }
+            catch (Exception ex)
+            {
+              throw WrappedException.wrap(ex);
+            }
+          }
+        });
+      });
+    }
+
+    @Override
+    protected void exportCommits(CDODataOutput out) throws Exception
+    {
+      if (folder == null)
+      {
+        super.exportCommits(out);
+        return;
+      }
+
+      scheduleSegment("commits", COMMIT, CDOBranch.MAIN_BRANCH_ID, (segmentOut, statistics) -> { //$NON-NLS-1$
+        repository.getCommitInfoManager().getCommitInfos(null, 0L, 0L, commitInfo -> {
+          try
+          {
+            exportCommit(segmentOut, commitInfo);
+            ++statistics.commits;
+          }
+          catch (Exception ex)
+          {
+            throw WrappedException.wrap(ex);
+          }
+        });
+      });
+    }
+
+    private void scheduleSegment(String name, byte type, int branchID, SegmentWriter writer)
+    {
+      if (manifest.isComplete(name) && new File(folder, name).isFile())
+      {
+        return;
+      }
+
+      futures.add(executor.submit(StoreThreadLocal.wrap(session, () -> {
+        exportSegment(name, type, branchID, writer);
+        return null;
+      })));
+    }
+
+    private void exportSegment(String name, byte type, int branchID, SegmentWriter writer) throws Exception
+    {
+      File file = new File(folder, name);
+      File tempFile = new File(folder, name + TEMP_SUFFIX);
+      Statistics segmentStatistics = new Statistics();
+
+      OutputStream stream = new BufferedOutputStream(new FileOutputStream(tempFile));
+
+      try
+      {
+        CDODataOutput out = createOutput(stream);
+        writer.write(out, segmentStatistics);
+        out.writeByte(EOF);
+        stream.flush();
+      }
+      finally
+      {
+        IOUtil.close(stream);
+      }
+
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+      synchronized (manifest)
+      {
+        manifest.addSegment(name, type, branchID);
+        manifest.write(folder);
+        getStatistics().add(segmentStatistics);
+      }
+    }
+
+    /**
+     * @author Eike Stepper
+     */
+    @FunctionalInterface
+    private interface SegmentWriter
+    {
+      public void write(CDODataOutput out, Statistics statistics) throws Exception;
+    }
+  }
+
+  static void awaitSegments(Collection<Future<?>> futures) throws Exception
+  {
+    for (Future<?> future : futures)
+    {
+      try
+      {
+        future.get();
+      }
+      catch (ExecutionException ex)
+      {
+        Throwable cause = ex.getCause();
+        if (cause instanceof Exception)
+        {
+          throw WrappedException.unwrap((Exception)cause);
+        }
+
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Lists the completed segments of a {@link Segmented segmented} export, together with the repository state that they
+   * were exported from.
+   *
+   * @author Eike Stepper
+   */
+  static final class SegmentManifest
+  {
+    private static final int VERSION = 1;
+
+    private final String uuid;
+
+    private final long lastCommitTime;
+
+    private final String branchPath;
+
+    private final long timeStamp;
+
+    private final Map<String, Segment> segments = new LinkedHashMap<>();
+
+    private boolean complete;
+
+    public SegmentManifest(String uuid, long lastCommitTime, String branchPath, long timeStamp)
+    {
+      this.uuid = uuid;
+      this.lastCommitTime = lastCommitTime;
+      this.branchPath = branchPath;
+      this.timeStamp = timeStamp;
+    }
+
+    public boolean isComplete()
+    {
+      return complete;
+    }
+
+    public void setComplete(boolean complete)
+    {
+      this.complete = complete;
+    }
+
+    public boolean isComplete(String name)
+    {
+      return segments.containsKey(name);
+    }
+
+    public Collection<Segment> getSegments()
+    {
+      return segments.values();
+    }
+
+    public void addSegment(String name, byte type, int branchID)
+    {
+      segments.put(name, new Segment(name, type, branchID));
+    }
+
+    public boolean isResumableBy(SegmentManifest other)
+    {
+      return Objects.equals(uuid, other.uuid) && lastCommitTime == other.lastCommitTime && Objects.equals(branchPath, other.branchPath)
+          && timeStamp == other.timeStamp;
+    }
+
+    public void write(File folder) throws IOException
+    {
+      File file = new File(folder, Segmented.MANIFEST);
+      File tempFile = new File(folder, Segmented.MANIFEST + Segmented.TEMP_SUFFIX);
+
+      ExtendedDataOutputStream out = new ExtendedDataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+
+      try
+      {
+        out.writeInt(VERSION);
+        out.writeString(uuid);
+        out.writeLong(lastCommitTime);
+        out.writeString(branchPath);
+        out.writeLong(timeStamp);
+        out.writeBoolean(complete);
+        out.writeInt(segments.size());
+
+        for (Segment segment : segments.values())
+        {
+          out.writeString(segment.name);
+          out.writeByte(segment.type);
+          out.writeInt(segment.branchID);
+        }
+      }
+      finally
+      {
+        IOUtil.close(out);
+      }
+
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static SegmentManifest read(File folder) throws IOException
+    {
+      File file = new File(folder, Segmented.MANIFEST);
+      if (!file.isFile())
+      {
+        return null;
+      }
+
+      ExtendedDataInputStream in = new ExtendedDataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+      try
+      {
+        int version = in.readInt();
+        if (version != VERSION)
+        {
+          throw new IOException("Unsupported manifest version: " + version); //$NON-NLS-1$
+        }
+
+        SegmentManifest manifest = new SegmentManifest(in.readString(), in.readLong(), in.readString(), in.readLong());
+        manifest.complete = in.readBoolean();
+
+        for (int i = in.readInt(); i > 0; --i)
+        {
+          manifest.addSegment(in.readString(), in.readByte(), in.readInt());
+        }
+
+        return manifest;
+      }
+      finally
+      {
+        IOUtil.close(in);
+      }
+    }
+
+    /**
+     * @author Eike Stepper
+     */
+    public static final class Segment
+    {
+      private final String name;
+
+      private final byte type;
+
+      private final int branchID;
+
+      public Segment(String name, byte type, int branchID)
+      {
+        this.name = name;
+        this.type = type;
+        this.branchID = branchID;
+      }
+
+      public String getName()
+      {
+        return name;
+      }
+
+      public byte getType()
+      {
+        return type;
+      }
+
+      public int getBranchID()
+      {
+        return branchID;
+      }
+    }
+  }
 }
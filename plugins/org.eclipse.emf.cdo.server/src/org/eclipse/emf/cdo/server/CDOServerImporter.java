@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012, 2014, 2016, 2018-2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2012, 2014, 2016, 2018-2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -49,6 +49,7 @@ import org.eclipse.emf.cdo.spi.server.InternalRepository;
 
 import org.eclipse.net4j.util.HexUtil;
 import org.eclipse.net4j.util.WrappedException;
+import org.eclipse.net4j.util.concurrent.ThreadPool;
 import org.eclipse.net4j.util.io.AsyncOutputStream;
 import org.eclipse.net4j.util.io.AsyncWriter;
 import org.eclipse.net4j.util.io.ExtendedDataInputStream;
@@ -69,6 +70,11 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -79,9 +85,14 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Imports the complete contents of a {@link IRepository repository} from the output created by a
@@ -105,9 +116,19 @@ public abstract class CDOServerImporter
   private final Statistics statistics = new Statistics();
 
   public CDOServerImporter(IRepository repository)
+  {
+    this(repository, true);
+  }
+
+  /**
+   * Creates an importer that activates the given repository with or without dropping the data of its store.
+   *
+   * @since 4.21
+   */
+  protected CDOServerImporter(IRepository repository, boolean dropAllData)
   {
     this.repository = (InternalRepository)repository;
-    init();
+    init(dropAllData);
   }
 
   /**
@@ -142,11 +163,11 @@ public abstract class CDOServerImporter
     this.timeStamp = timeStamp;
   }
 
-  private void init()
+  private void init(boolean dropAllData)
   {
     LifecycleUtil.checkInactive(repository);
     repository.setSkipInitialization(true);
-    repository.getStore().setDropAllDataOnActivate(true);
+    repository.getStore().setDropAllDataOnActivate(dropAllData);
     LifecycleUtil.activate(repository);
   }
 
@@ -173,14 +194,19 @@ public abstract class CDOServerImporter
     }
     finally
     {
-      if (DEBUG_WITH_BROWSER)
-      {
-        ServerDebugUtil.removeAccessor(repository);
-      }
+      cleanUp();
+    }
+  }
 
-      StoreThreadLocal.release();
-      repository = null;
+  final void cleanUp()
+  {
+    if (DEBUG_WITH_BROWSER)
+    {
+      ServerDebugUtil.removeAccessor(repository);
     }
+
+    StoreThreadLocal.release();
+    repository = null;
   }
 
   protected abstract void importAll(InputStream in, Handler handler) throws Exception;
@@ -223,8 +249,10 @@ public abstract class CDOServerImporter
   /**
    * @author Eike Stepper
    */
-  private final class FlushHandler implements Handler2
+  private class FlushHandler implements Handler2
   {
+    private final Statistics statistics;
+
     private OMMonitor monitor = new Monitor();
 
     private IStoreAccessor.Raw accessor;
@@ -239,10 +267,25 @@ public abstract class CDOServerImporter
 
     public FlushHandler()
     {
+      statistics = CDOServerImporter.this.statistics;
+    }
+
+    /**
+     * Creates a handler that stores the revisions, large objects and commit infos of a segment with the given accessor.
+     */
+    public FlushHandler(IStoreAccessor.Raw accessor, Statistics statistics)
+    {
+      this.accessor = accessor;
+      this.statistics = statistics;
     }
 
     @Override
     public void handleRepository(String name, String uuid, CDOID root, long created, long committed)
+    {
+      initRepository(root, created, committed, true);
+    }
+
+    protected final void initRepository(CDOID root, long created, long committed, boolean firstStart)
     {
       repository.getStore().setCreationTime(created);
       repository.getStore().setLastCommitTime(committed);
@@ -251,7 +294,7 @@ public abstract class CDOServerImporter
       repository.initMainBranch(branchManager, created);
       LifecycleUtil.activate(branchManager);
 
-      repository.initSystemPackages(true);
+      repository.initSystemPackages(firstStart);
       repository.setRootResourceID(root);
 
       // InternalSession session = repository.getSessionManager().openSession(null);
@@ -908,6 +951,14 @@ public abstract class CDOServerImporter
       super(repository);
     }
 
+    /**
+     * @since 4.21
+     */
+    protected Binary(IRepository repository, boolean dropAllData)
+    {
+      super(repository, dropAllData);
+    }
+
     @Override
     protected void importAll(InputStream stream, Handler handler) throws Exception
     {
@@ -1146,4 +1197,277 @@ public abstract class CDOServerImporter
       handler.handleCommitInfo(time, previous, branch, user, comment);
     }
   }
+
+  /**
+   * An {@link CDOServerImporter importer} that reads the segments written by a {@link CDOServerExporter.Segmented
+   * segmented exporter} and stores them in parallel.
+   * <p>
+   * The header segment is imported first. The revision segments of a branch are then imported concurrently, one branch
+   * after the other, so that the revisions of an object are never stored concurrently. The segments with the large
+   * objects and the commit infos are imported concurrently with the revision segments. Each segment is streamed with
+   * its own {@link IStoreAccessor.Raw raw store accessor} and {@link IStoreAccessor.Raw#rawCommit(double, OMMonitor)
+   * committed} when it's complete, so that the memory needed does not depend on the size of the repository.
+   * <p>
+   * The names of the imported segments are recorded in a <code>progress</code> file in the export folder. An import that
+   * has failed after the header segment has been imported can be resumed by an importer that is created with
+   * <code>resume == true</code>; it doesn't drop the data of the store and imports only the segments that are not yet
+   * recorded. Resuming requires a store that commits the data of a segment atomically, such as a DB store.
+   *
+   * @author Eike Stepper
+   * @since 4.21
+   */
+  public static class Segmented extends Binary
+  {
+    public static final String PROGRESS = "progress";
+
+    private final boolean resume;
+
+    private int parallelism = CDOServerExporter.Segmented.DEFAULT_PARALLELISM;
+
+    private File progressFile;
+
+    private Set<String> importedSegments;
+
+    public Segmented(IRepository repository)
+    {
+      this(repository, false);
+    }
+
+    public Segmented(IRepository repository, boolean resume)
+    {
+      super(repository, !resume);
+      this.resume = resume;
+    }
+
+    public final boolean isResume()
+    {
+      return resume;
+    }
+
+    public int getParallelism()
+    {
+      return parallelism;
+    }
+
+    public void setParallelism(int parallelism)
+    {
+      this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void importRepository(File folder) throws Exception
+    {
+      ExecutorService executor = null;
+
+      try
+      {
+        CDOServerExporter.SegmentManifest manifest = CDOServerExporter.SegmentManifest.read(folder);
+        if (manifest == null || !manifest.isComplete())
+        {
+          throw new IOException("Incomplete export: " + folder);
+        }
+
+        progressFile = new File(folder, PROGRESS);
+        importedSegments = readProgress();
+
+        if (resume && !importedSegments.contains(CDOServerExporter.Segmented.HEADER))
+        {
+          throw new IllegalStateException("Nothing to resume: " + folder);
+        }
+
+        FlushHandler handler = resume ? new ResumeHandler() : new FlushHandler();
+        importSegment(new File(folder, CDOServerExporter.Segmented.HEADER), handler);
+        handler.flush();
+        addProgress(CDOServerExporter.Segmented.HEADER);
+
+        executor = ThreadPool.create("CDOServerImporter", parallelism, parallelism, ThreadPool.DEFAULT_KEEP_ALIVE_SECONDS); //$NON-NLS-1$
+
+        List<Future<?>> futures = new ArrayList<>();
+        Map<Integer, List<CDOServerExporter.SegmentManifest.Segment>> revisionSegments = new LinkedHashMap<>();
+
+        for (CDOServerExporter.SegmentManifest.Segment segment : manifest.getSegments())
+        {
+          if (importedSegments.contains(segment.getName()))
+          {
+            continue;
+          }
+
+          if (segment.getType() == REVISION)
+          {
+            revisionSegments.computeIfAbsent(segment.getBranchID(), k -> new ArrayList<>()).add(segment);
+          }
+          else
+          {
+            futures.add(submit(executor, folder, segment));
+          }
+        }
+
+        // Branch IDs increase with the creation of branches, so base branches are imported before their sub branches.
+        List<Integer> branchIDs = new ArrayList<>(revisionSegments.keySet());
+        branchIDs.sort(null);
+
+        for (Integer branchID : branchIDs)
+        {
+          List<Future<?>> branchFutures = new ArrayList<>();
+          for (CDOServerExporter.SegmentManifest.Segment segment : revisionSegments.get(branchID))
+          {
+            branchFutures.add(submit(executor, folder, segment));
+          }
+
+          CDOServerExporter.awaitSegments(branchFutures);
+        }
+
+        CDOServerExporter.awaitSegments(futures);
+      }
+      finally
+      {
+        if (executor != null)
+        {
+          executor.shutdownNow();
+        }
+
+        cleanUp();
+      }
+    }
+
+    private Future<?> submit(ExecutorService executor, File folder, CDOServerExporter.SegmentManifest.Segment segment)
+    {
+      return executor.submit(() -> {
+        importSegment(folder, segment);
+        return null;
+      });
+    }
+
+    private void importSegment(File folder, CDOServerExporter.SegmentManifest.Segment segment) throws Exception
+    {
+      IStoreAccessor.Raw accessor = (IStoreAccessor.Raw)getRepository().getStore().getWriter(null);
+      StoreThreadLocal.setAccessor(accessor);
+
+      try
+      {
+        Statistics segmentStatistics = new Statistics();
+        FlushHandler handler = new FlushHandler(accessor, segmentStatistics);
+
+        importSegment(new File(folder, segment.getName()), handler);
+        handler.flush();
+
+        addProgress(segment.getName());
+
+        synchronized (getStatistics())
+        {
+          getStatistics().add(segmentStatistics);
+        }
+      }
+      finally
+      {
+        StoreThreadLocal.release();
+      }
+    }
+
+    private void importSegment(File file, Handler handler) throws Exception
+    {
+      InputStream in = new FileInputStream(file);
+
+      try
+      {
+        importAll(in, handler);
+      }
+      finally
+      {
+        IOUtil.close(in);
+      }
+    }
+
+    private Set<String> readProgress() throws IOException
+    {
+      Set<String> result = new HashSet<>();
+      if (!resume)
+      {
+        IOUtil.delete(progressFile);
+      }
+      else if (progressFile.isFile())
+      {
+        BufferedReader reader = new BufferedReader(new FileReader(progressFile));
+
+        try
+        {
+          String line;
+          while ((line = reader.readLine()) != null)
+          {
+            if (line.length() != 0)
+            {
+              result.add(line);
+            }
+          }
+        }
+        finally
+        {
+          IOUtil.close(reader);
+        }
+      }
+
+      return result;
+    }
+
+    private synchronized void addProgress(String name) throws IOException
+    {
+      if (importedSegments.add(name))
+      {
+        FileWriter writer = new FileWriter(progressFile, true);
+
+        try
+        {
+          writer.write(name);
+          writer.write('\n');
+        }
+        finally
+        {
+          IOUtil.close(writer);
+        }
+      }
+    }
+
+    /**
+     * Replays the header segment of a resumed import without storing the packages and branches a second time.
+     *
+     * @author Eike Stepper
+     */
+    private final class ResumeHandler extends FlushHandler
+    {
+      @Override
+      public void handleRepository(String name, String uuid, CDOID root, long created, long committed)
+      {
+        initRepository(root, created, committed, false);
+      }
+
+      @Override
+      public InternalCDOPackageUnit handlePackageUnit(String id, Type type, long time, String data)
+      {
+        return null;
+      }
+
+      @Override
+      public InternalCDOPackageInfo handlePackageInfo(String packageURI)
+      {
+        return null;
+      }
+
+      @Override
+      public InternalCDOPackageRegistry handleModels()
+      {
+        return getRepository().getPackageRegistry(false);
+      }
+
+      @Override
+      public InternalCDOBranch handleBranch(int id, String name, long time, int parentID)
+      {
+        return getRepository().getBranchManager().getBranch(id);
+      }
+
+      @Override
+      public void flush()
+      {
+        // Do nothing.
+      }
+    }
+  }
 }
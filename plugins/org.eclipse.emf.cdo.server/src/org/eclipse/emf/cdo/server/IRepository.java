@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2015, 2016, 2019, 2020, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2013, 2015, 2016, 2019, 2020, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -337,11 +337,89 @@ public interface IRepository extends CDOCommonRepository, IQueryHandlerProvider,
      */
     public static final String CHECK_UNIT_MOVES = "checkUnitMoves"; //$NON-NLS-1$
 
+    /**
+     * If set to <code>true</code> the repository maintains a {@link org.eclipse.emf.cdo.spi.server.ContainmentIndex
+     * containment index} of its main branch, so that the containment cycle checks and the {@link #CHECK_UNIT_MOVES
+     * unit move checks} of tree-restructuring commits don't need to load the revisions of all ancestors of the moved
+     * objects.
+     *
+     * @since 4.21
+     */
+    public static final String CONTAINMENT_INDEX = "containmentIndex"; //$NON-NLS-1$
+
+    /**
+     * If set to <code>true</code> the stores that support it maintain a reverse reference index, i.e., an index from the
+     * IDs of referenced objects to the IDs of the objects that reference them, so that
+     * {@link IStoreAccessor#queryXRefs(IStoreAccessor.QueryXRefsContext) cross reference queries} and the checks of the
+     * {@link #ENSURE_REFERENTIAL_INTEGRITY referential integrity} don't need to scan all objects with references to the
+     * classes of the target objects.
+     *
+     * @since 4.21
+     * @see org.eclipse.emf.cdo.spi.server.XRefIndexUtil
+     */
+    public static final String XREF_INDEX = "xRefIndex"; //$NON-NLS-1$
+
+    /**
+     * If set to a number greater than one the revisions of the classes of an
+     * {@link org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants#QUERY_LANGUAGE_INSTANCES instances query}, i.e.,
+     * of the queried class and its subclasses, are read by the query thread and by the helper threads of a dedicated
+     * thread pool of the repository, up to that many threads in total, each with its own store accessor, instead of one
+     * class after the other by the query thread.
+     *
+     * @since 4.21
+     * @see org.eclipse.emf.cdo.spi.server.InternalRepository#handleClassRevisions(List, org.eclipse.emf.cdo.common.branch.CDOBranch,
+     *      boolean, long, boolean, org.eclipse.emf.cdo.common.revision.CDORevisionHandler)
+     */
+    public static final String HANDLE_REVISIONS_PARALLELISM = "handleRevisionsParallelism"; //$NON-NLS-1$
+
     /**
      * @since 4.2
      */
     public static final String SERIALIZE_COMMITS = "serializeCommits"; //$NON-NLS-1$
 
+    /**
+     * If set to <code>true</code> only the write stage of commits (locking, timestamp allocation, conflict checks and
+     * the writes to the store accessor) is serialized. The store commit of a transaction overlaps with the write stages
+     * of the following transactions and the commit notifications overlap with all stages. The store commits, and with
+     * them the last commit timestamp, still happen in timestamp order.
+     * Takes precedence over {@link #SERIALIZE_COMMITS}.
+     *
+     * @since 4.21
+     */
+    public static final String PIPELINE_COMMITS = "pipelineCommits"; //$NON-NLS-1$
+
+    /**
+     * If set to a positive number of bytes the revisions of the repository are cached in serialized form in direct
+     * (off-heap) memory of at most that size, instead of in the memory sensitive default cache.
+     *
+     * @since 4.21
+     */
+    public static final String OFF_HEAP_REVISION_CACHE_SIZE = "offHeapRevisionCacheSize"; //$NON-NLS-1$
+
+    /**
+     * If set to a positive number the commit notifications are sent to the sessions by that many threads of the
+     * repository, instead of by the committing thread. The notifications of each session are still sent in commit order.
+     *
+     * @since 4.21
+     */
+    public static final String COMMIT_NOTIFICATION_THREADS = "commitNotificationThreads"; //$NON-NLS-1$
+
+    /**
+     * The number of commit notifications that may wait for a slow session before the ones that only invalidate objects
+     * are combined into fewer notifications. Only used if {@link #COMMIT_NOTIFICATION_THREADS} is positive.
+     *
+     * @since 4.21
+     */
+    public static final String COMMIT_NOTIFICATION_COALESCING_THRESHOLD = "commitNotificationCoalescingThreshold"; //$NON-NLS-1$
+
+    /**
+     * The number of notifications that may wait for a slow session before they're dropped and the session is closed.
+     * Only used if {@link #COMMIT_NOTIFICATION_THREADS} is positive.
+     *
+     * @since 4.21
+     */
+    public static final String COMMIT_NOTIFICATION_MAX_QUEUE_DEPTH = "commitNotificationMaxQueueDepth"; //$NON-NLS-1$
+
     /**
      * @since 3.0
      */
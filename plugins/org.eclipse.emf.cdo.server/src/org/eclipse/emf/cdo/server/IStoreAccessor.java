@@ -914,4 +914,43 @@ public interface IStoreAccessor extends IQueryHandlerProvider, BranchLoader, Com
 
     public void writeUnits(Map<CDOID, CDOID> unitMappings, long timeStamp);
   }
+
+  /**
+   * An extension interface for {@link IStoreAccessor store accessors} that can read several revisions at once.
+   *
+   * @author Eike Stepper
+   * @since 4.21
+   */
+  public interface BatchReadSupport extends IStoreAccessor
+  {
+    /**
+     * Reads the revisions of the objects with the given IDs. The result is equivalent to calling
+     * {@link #readRevision(CDOID, CDOBranchPoint, int, CDORevisionCacheAdder) readRevision()} for each ID, but
+     * implementations are supposed to need fewer round trips to their backend.
+     *
+     * @return a map from IDs to the read revisions, never <code>null</code>. The IDs of objects that do not exist in the
+     *         given branch point are not contained in the map.
+     */
+    public Map<CDOID, InternalCDORevision> readRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache);
+  }
+
+  /**
+   * An extension interface for {@link IStoreAccessor store accessors} that can read a range of a large object without
+   * reading the bytes before it.
+   *
+   * @author Eike Stepper
+   * @since 4.21
+   */
+  public interface LobRangeSupport extends IStoreAccessor
+  {
+    /**
+     * Serializes at most <code>length</code> bytes of the binary large object identified by the given
+     * {@link CDOLob#getID() ID}, starting at the given <code>offset</code>, to the given <i>stream</i>. Fewer bytes are
+     * written if the large object ends before <code>offset + length</code>.
+     *
+     * @throws IOException
+     *           if the <i>stream</i> could not be written to.
+     */
+    public void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException;
+  }
 }
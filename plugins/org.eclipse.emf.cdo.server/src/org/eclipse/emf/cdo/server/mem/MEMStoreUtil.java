@@ -10,6 +10,7 @@
  */
 package org.eclipse.emf.cdo.server.mem;
 
+import org.eclipse.emf.cdo.internal.server.mem.ConcurrentMEMStore;
 import org.eclipse.emf.cdo.internal.server.mem.MEMStore;
 
 /**
@@ -33,4 +34,14 @@ public final class MEMStoreUtil
   {
     return new MEMStore();
   }
+
+  /**
+   * Creates a {@link IMEMStore} instance that can be read and written by multiple threads concurrently.
+   *
+   * @since 4.21
+   */
+  public static IMEMStore createConcurrentMEMStore()
+  {
+    return new ConcurrentMEMStore();
+  }
 }
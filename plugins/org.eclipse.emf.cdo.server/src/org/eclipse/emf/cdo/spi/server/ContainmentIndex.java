@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.spi.server;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.id.CDOWithID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionData;
+import org.eclipse.emf.cdo.common.revision.delta.CDOContainerFeatureDelta;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.server.IStoreAccessor.CommitContext;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps the IDs of the objects in the main branch of a {@link InternalRepository repository} to the IDs of their
+ * parents, i.e., of their containers or, for the top-level objects of a resource, of their resources. With this index
+ * the questions whether an object is an ancestor of another one or whether the root of a tree is reachable from an
+ * object are answered with one map lookup per containment level, instead of with one revision load per level.
+ * <p>
+ * The index is filled on demand, one object at a time, and is then maintained incrementally from the new objects, the
+ * {@link CDOContainerFeatureDelta container deltas} and the detached objects of the successful commits of the main
+ * branch. All changes of the containment tree happen in tree-restructuring commits, which the repository serializes,
+ * and the index of such a commit is {@link #update(CommitContext) updated} before the next one is checked. A parent ID
+ * that is loaded while a commit updates the index is not added to the index, because it may stem from the state before
+ * that commit.
+ * <p>
+ * The index is only created if the {@link IRepository.Props#CONTAINMENT_INDEX} property of the repository is set to
+ * <code>true</code>.
+ *
+ * @author Eike Stepper
+ * @since 4.21
+ */
+public class ContainmentIndex
+{
+  private final InternalRepository repository;
+
+  private final ConcurrentMap<CDOID, CDOID> parentIDs = new ConcurrentHashMap<>();
+
+  /**
+   * Is incremented before and after each modification by a commit, i.e., it's odd while the index is being modified.
+   */
+  private volatile long version;
+
+  public ContainmentIndex(InternalRepository repository)
+  {
+    this.repository = repository;
+  }
+
+  public InternalRepository getRepository()
+  {
+    return repository;
+  }
+
+  /**
+   * Returns the number of objects whose parents are currently known to this index.
+   */
+  public int size()
+  {
+    return parentIDs.size();
+  }
+
+  public synchronized void clear()
+  {
+    ++version;
+
+    try
+    {
+      parentIDs.clear();
+    }
+    finally
+    {
+      ++version;
+    }
+  }
+
+  /**
+   * Returns the ID of the parent of the object with the given ID in the latest committed state of the main branch,
+   * {@link CDOID#NULL} if the object is the root of a tree, or <code>null</code> if the object does not exist.
+   */
+  public CDOID getParentID(CDOID id)
+  {
+    if (id.equals(repository.getRootResourceID()))
+    {
+      return CDOID.NULL;
+    }
+
+    CDOID parentID = parentIDs.get(id);
+    if (parentID == null)
+    {
+      long loadVersion = version;
+
+      CDOBranchPoint head = repository.getBranchManager().getMainBranch().getHead();
+      InternalCDORevision revision = repository.getRevisionManager().getRevision(id, head, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true);
+      if (revision == null)
+      {
+        return null;
+      }
+
+      parentID = getParentID(revision);
+      if ((loadVersion & 1L) != 0L)
+      {
+        // A commit is updating the index, the loaded revision may be outdated.
+        return parentID;
+      }
+
+      CDOID existingID = parentIDs.putIfAbsent(id, parentID);
+      if (existingID != null)
+      {
+        // A commit has updated the index in the meantime and wins.
+        return existingID;
+      }
+
+      if (version != loadVersion)
+      {
+        // A commit has started to update the index since the revision was loaded. Remove the possibly outdated parent
+        // ID, unless that commit has replaced it already.
+        parentIDs.remove(id, parentID);
+      }
+    }
+
+    return parentID;
+  }
+
+  /**
+   * Returns <code>true</code> if the object with the given ancestor ID is a direct or indirect parent of the object with
+   * the given ID.
+   *
+   * @param changedParentIDs the parent IDs that a commit is about to change, as returned by
+   * {@link #getChangedParentIDs(CommitContext)}, or <code>null</code> to answer the question for the committed state.
+   */
+  public boolean isAncestor(CDOID ancestorID, CDOID id, Map<CDOID, CDOID> changedParentIDs)
+  {
+    if (id.equals(ancestorID))
+    {
+      return false;
+    }
+
+    return ancestorID.equals(getAncestorOrSelf(id, ancestorID, null, changedParentIDs));
+  }
+
+  /**
+   * Returns the ID of the nearest object that is the given object or one of its direct or indirect parents and that is
+   * contained in the given set of candidate IDs, or <code>null</code> if there is no such object.
+   *
+   * @param changedParentIDs the parent IDs that a commit is about to change, as returned by
+   * {@link #getChangedParentIDs(CommitContext)}, or <code>null</code> to answer the question for the committed state.
+   */
+  public CDOID getAncestorOrSelf(CDOID id, Set<CDOID> candidateIDs, Map<CDOID, CDOID> changedParentIDs)
+  {
+    return getAncestorOrSelf(id, null, candidateIDs, changedParentIDs);
+  }
+
+  /**
+   * Returns <code>true</code> if the root of a tree is reachable from the object with the given ID by following its
+   * parents, i.e., if neither a containment cycle nor a missing object is encountered on the way up.
+   *
+   * @param changedParentIDs the parent IDs that a commit is about to change, as returned by
+   * {@link #getChangedParentIDs(CommitContext)}, or <code>null</code> to answer the question for the committed state.
+   */
+  public boolean isRootReachable(CDOID id, Map<CDOID, CDOID> changedParentIDs)
+  {
+    return CDOID.NULL.equals(getAncestorOrSelf(id, CDOID.NULL, null, changedParentIDs));
+  }
+
+  /**
+   * Applies the parent IDs that the given successfully committed commit context has changed to this index.
+   */
+  public void update(CommitContext commitContext)
+  {
+    Map<CDOID, CDOID> changedParentIDs = getChangedParentIDs(commitContext);
+    if (changedParentIDs.isEmpty())
+    {
+      return;
+    }
+
+    synchronized (this)
+    {
+      ++version;
+
+      try
+      {
+        for (Map.Entry<CDOID, CDOID> entry : changedParentIDs.entrySet())
+        {
+          CDOID id = entry.getKey();
+          CDOID parentID = entry.getValue();
+
+          if (parentID == null)
+          {
+            parentIDs.remove(id);
+          }
+          else
+          {
+            parentIDs.put(id, parentID);
+          }
+        }
+      }
+      finally
+      {
+        ++version;
+      }
+    }
+  }
+
+  private CDOID getAncestorOrSelf(CDOID id, CDOID targetID, Set<CDOID> candidateIDs, Map<CDOID, CDOID> changedParentIDs)
+  {
+    Set<CDOID> visited = new HashSet<>();
+
+    while (id != null)
+    {
+      if (candidateIDs != null && candidateIDs.contains(id))
+      {
+        return id;
+      }
+
+      if (!visited.add(id))
+      {
+        // Cycle detected on the way up to the root.
+        return null;
+      }
+
+      CDOID parentID;
+      if (changedParentIDs != null && changedParentIDs.containsKey(id))
+      {
+        parentID = changedParentIDs.get(id);
+      }
+      else
+      {
+        parentID = getParentID(id);
+      }
+
+      if (CDOID.NULL.equals(parentID))
+      {
+        // The tree root has been reached.
+        return CDOID.NULL.equals(targetID) ? CDOID.NULL : null;
+      }
+
+      if (parentID != null && parentID.equals(targetID))
+      {
+        return targetID;
+      }
+
+      id = parentID;
+    }
+
+    // A missing object has been reached.
+    return null;
+  }
+
+  /**
+   * Returns the parent IDs that the given commit context changes, i.e., the parent IDs of its new objects and of its
+   * dirty objects with {@link CDOContainerFeatureDelta container deltas}. The IDs of its detached objects are mapped to
+   * <code>null</code>.
+   */
+  public static Map<CDOID, CDOID> getChangedParentIDs(CommitContext commitContext)
+  {
+    Map<CDOID, CDOID> changedParentIDs = new HashMap<>();
+
+    for (InternalCDORevision revision : commitContext.getNewObjects())
+    {
+      changedParentIDs.put(revision.getID(), getParentID(revision));
+    }
+
+    InternalCDORevisionDelta[] dirtyObjectDeltas = commitContext.getDirtyObjectDeltas();
+    InternalCDORevision[] dirtyObjects = commitContext.getDirtyObjects();
+
+    for (int i = 0; i < dirtyObjectDeltas.length; i++)
+    {
+      if (dirtyObjectDeltas[i].getFeatureDelta(CDOContainerFeatureDelta.CONTAINER_FEATURE) != null)
+      {
+        InternalCDORevision revision = dirtyObjects[i];
+        changedParentIDs.put(revision.getID(), getParentID(revision));
+      }
+    }
+
+    for (CDOID id : commitContext.getDetachedObjects())
+    {
+      changedParentIDs.put(id, null);
+    }
+
+    return changedParentIDs;
+  }
+
+  /**
+   * Returns the ID of the parent of the given revision, or {@link CDOID#NULL} if the revision is the root of a tree.
+   *
+   * @see org.eclipse.emf.cdo.common.revision.CDORevisionUtil#getParentRevision(CDORevision,
+   *      org.eclipse.emf.cdo.common.revision.CDORevisionProvider) CDORevisionUtil.getParentRevision()
+   */
+  public static CDOID getParentID(CDORevision revision)
+  {
+    CDOID parentID;
+    CDORevisionData data = revision.data();
+
+    Object containerID = data.getContainerID();
+    if (containerID instanceof CDOWithID)
+    {
+      parentID = ((CDOWithID)containerID).cdoID();
+    }
+    else
+    {
+      parentID = (CDOID)containerID;
+    }
+
+    if (CDOIDUtil.isNull(parentID))
+    {
+      parentID = data.getResourceID();
+      if (CDOIDUtil.isNull(parentID) || parentID.equals(revision.getID()))
+      {
+        return CDOID.NULL;
+      }
+    }
+
+    return parentID;
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2012 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2012, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,4 +31,19 @@ public interface InternalQueryManager
   public boolean isRunning(int queryID);
 
   public void cancel(int queryID);
+
+  /**
+   * Grants the given number of additional results to the {@link CDOQueryInfo#getPageSize() paged} result of the query
+   * with the given ID.
+   *
+   * @since 4.21
+   */
+  public void addCredits(int queryID, int credits);
+
+  /**
+   * Returns the results of all queries that are currently executed or whose results are currently sent to the clients.
+   *
+   * @since 4.21
+   */
+  public InternalQueryResult[] getQueryResults();
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2012, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2012, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,4 +37,40 @@ public interface InternalQueryResult extends BlockingCloseableIterator<Object>
    * @since 4.18
    */
   public IQueryHandler getQueryHandler();
+
+  /**
+   * Returns the number of results that the query handler has produced and that have not been sent to the client yet.
+   *
+   * @since 4.21
+   */
+  public int getBufferedResults();
+
+  /**
+   * Returns the number of results that have been sent to the client so far.
+   *
+   * @since 4.21
+   */
+  public int getSentResults();
+
+  /**
+   * Returns the number of results that the client has requested and that have not been sent to it yet, or
+   * {@link CDOQueryInfo#UNLIMITED_RESULTS} if this result is not {@link CDOQueryInfo#getPageSize() paged}.
+   *
+   * @since 4.21
+   */
+  public int getCredits();
+
+  /**
+   * @since 4.21
+   */
+  public void addCredits(int credits);
+
+  /**
+   * Blocks until the client has requested at least one more result and consumes that credit. Returns immediately if
+   * this result is not {@link CDOQueryInfo#getPageSize() paged}.
+   *
+   * @return <code>false</code> if this result has been closed in the meantime, <code>true</code> otherwise.
+   * @since 4.21
+   */
+  public boolean acquireCredit() throws InterruptedException;
 }
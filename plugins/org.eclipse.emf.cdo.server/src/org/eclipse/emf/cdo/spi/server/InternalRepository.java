@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2016, 2018-2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2016, 2018-2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -166,6 +166,14 @@ public interface InternalRepository extends IRepository, //
    */
   public void setUnitManager(InternalUnitManager unitManager);
 
+  /**
+   * Returns the containment index of this repository, or <code>null</code> if the
+   * {@link IRepository.Props#CONTAINMENT_INDEX} property is not set to <code>true</code>.
+   *
+   * @since 4.21
+   */
+  public ContainmentIndex getContainmentIndex();
+
   public InternalQueryManager getQueryManager();
 
   public void setQueryHandlerProvider(IQueryHandlerProvider queryHandlerProvider);
@@ -277,12 +285,33 @@ public interface InternalRepository extends IRepository, //
    */
   public void loadLob(byte[] id, OutputStream out) throws IOException;
 
+  /**
+   * Writes at most <code>length</code> bytes of the binary large object with the given ID, starting at the given
+   * <code>offset</code>, to the given stream.
+   *
+   * @since 4.21
+   */
+  public void loadLob(byte[] id, long offset, long length, OutputStream out) throws IOException;
+
   /**
    * @since 4.0
    */
   @Override
   public void handleRevisions(EClass eClass, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime, CDORevisionHandler handler);
 
+  /**
+   * Passes the revisions of all the given classes to the given handler, as if
+   * {@link #handleRevisions(EClass, CDOBranch, boolean, long, boolean, CDORevisionHandler) handleRevisions()} was called
+   * for one class after the other. If the {@link IRepository.Props#HANDLE_REVISIONS_PARALLELISM} property of this
+   * repository is greater than one the classes are handled concurrently by several threads, each with its own store
+   * accessor, and the revisions of the different classes arrive interleaved. The calls of the given handler are always
+   * serialized.
+   *
+   * @since 4.21
+   */
+  public void handleClassRevisions(List<EClass> eClasses, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime,
+      CDORevisionHandler handler);
+
   /**
    * @since 4.0
    */
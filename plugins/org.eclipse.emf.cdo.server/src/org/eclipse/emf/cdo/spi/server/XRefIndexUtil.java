@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.spi.server;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.delta.CDOAddFeatureDelta;
+import org.eclipse.emf.cdo.common.revision.delta.CDOFeatureDelta;
+import org.eclipse.emf.cdo.common.revision.delta.CDORevisionDelta;
+import org.eclipse.emf.cdo.common.revision.delta.CDOSetFeatureDelta;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
+import org.eclipse.emf.cdo.spi.common.revision.CDOFeatureDeltaVisitorImpl;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EReference;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static methods that may help stores to maintain and use a reverse reference index, i.e., an index from the IDs of
+ * referenced objects to the IDs of the objects that reference them.
+ * <p>
+ * Such an index only needs to contain a superset of the actual references. Stale entries, for example of references
+ * that have been removed in the meantime, are harmless because {@link #addXRefs(QueryXRefsContext, InternalCDORevision)
+ * addXRefs()} verifies each candidate source against its revision that is valid at the branch point of the query and
+ * computes the exact references, including their list indexes, from that revision.
+ *
+ * @author Eike Stepper
+ * @since 4.21
+ * @see IRepository.Props#XREF_INDEX
+ */
+public final class XRefIndexUtil
+{
+  private XRefIndexUtil()
+  {
+  }
+
+  /**
+   * Returns <code>true</code> if the {@link IRepository.Props#XREF_INDEX} property of the given repository is set to
+   * <code>true</code>.
+   */
+  public static boolean isXRefIndexed(IRepository repository)
+  {
+    String value = repository.getProperties().get(IRepository.Props.XREF_INDEX);
+    return Boolean.parseBoolean(value);
+  }
+
+  /**
+   * Adds the IDs of all objects that the given revision references to the given collection.
+   */
+  public static void collectTargetIDs(InternalCDORevision revision, Collection<CDOID> targetIDs)
+  {
+    for (EReference eReference : revision.getClassInfo().getAllPersistentReferences())
+    {
+      Object value = revision.getValue(eReference);
+      if (value instanceof List<?>)
+      {
+        for (Object element : (List<?>)value)
+        {
+          collectTargetID(element, targetIDs);
+        }
+      }
+      else
+      {
+        collectTargetID(value, targetIDs);
+      }
+    }
+  }
+
+  /**
+   * Adds the IDs of all objects that the given revision delta adds to the references of its revision to the given
+   * collection.
+   */
+  public static void collectTargetIDs(CDORevisionDelta revisionDelta, final Collection<CDOID> targetIDs)
+  {
+    revisionDelta.accept(new CDOFeatureDeltaVisitorImpl()
+    {
+      @Override
+      public void visit(CDOAddFeatureDelta delta)
+      {
+        collectTargetID(delta, delta.getValue(), targetIDs);
+      }
+
+      @Override
+      public void visit(CDOSetFeatureDelta delta)
+      {
+        collectTargetID(delta, delta.getValue(), targetIDs);
+      }
+    });
+  }
+
+  /**
+   * Reports all references from the given source revision to the target objects of the given context to that context.
+   *
+   * @return <code>false</code> if the context does not accept more results, <code>true</code> otherwise.
+   */
+  public static boolean addXRefs(QueryXRefsContext context, InternalCDORevision revision)
+  {
+    Map<EClass, List<EReference>> sourceCandidates = context.getSourceCandidates();
+    List<EReference> eReferences = sourceCandidates.get(revision.getEClass());
+    if (eReferences == null)
+    {
+      return true;
+    }
+
+    Set<CDOID> targetIDs = context.getTargetObjects().keySet();
+    CDOID sourceID = revision.getID();
+
+    for (EReference eReference : eReferences)
+    {
+      Object value = revision.getValue(eReference);
+      if (value != null)
+      {
+        if (eReference.isMany())
+        {
+          int index = 0;
+          for (Object id : (List<?>)value)
+          {
+            if (!addXRef(context, targetIDs, id, sourceID, eReference, index++))
+            {
+              return false;
+            }
+          }
+        }
+        else
+        {
+          if (!addXRef(context, targetIDs, value, sourceID, eReference, 0))
+          {
+            return false;
+          }
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean addXRef(QueryXRefsContext context, Set<CDOID> targetIDs, Object value, CDOID sourceID, EReference sourceReference, int index)
+  {
+    if (value instanceof CDOID && targetIDs.contains(value))
+    {
+      if (!context.addXRef((CDOID)value, sourceID, sourceReference, index))
+      {
+        // No more results allowed
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static void collectTargetID(CDOFeatureDelta delta, Object value, Collection<CDOID> targetIDs)
+  {
+    if (delta.getFeature() instanceof EReference)
+    {
+      collectTargetID(value, targetIDs);
+    }
+  }
+
+  private static void collectTargetID(Object value, Collection<CDOID> targetIDs)
+  {
+    if (value instanceof CDOID)
+    {
+      CDOID id = (CDOID)value;
+      if (!id.isNull())
+      {
+        targetIDs.add(id);
+      }
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,21 @@
  */
 package org.eclipse.emf.cdo.tests.db;
 
+import org.eclipse.emf.cdo.common.CDOCommonRepository.IDGenerationLocation;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
 import org.eclipse.emf.cdo.common.model.EMFUtil;
 import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.StoreThreadLocal;
+import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
+import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
+import org.eclipse.emf.cdo.server.internal.db.DBStore;
+import org.eclipse.emf.cdo.server.internal.db.DBStoreAccessor;
+import org.eclipse.emf.cdo.server.internal.db.IObjectTypeMapper;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.AbstractHorizontalMappingStrategy;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.HorizontalMappingStrategy;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.ObjectTypeCache;
 import org.eclipse.emf.cdo.session.CDOSession;
 import org.eclipse.emf.cdo.tests.AbstractCDOTest;
 import org.eclipse.emf.cdo.tests.model1.Company;
@@ -26,6 +39,7 @@ import org.eclipse.emf.cdo.view.CDOView;
 import org.eclipse.net4j.db.DBUtil;
 import org.eclipse.net4j.db.jdbc.DelegatingConnection;
 import org.eclipse.net4j.util.WrappedException;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 import org.eclipse.net4j.util.security.IUserAware;
 
 import org.eclipse.emf.ecore.EAttribute;
@@ -38,8 +52,11 @@ import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import oracle.jdbc.pool.OracleDataSource;
 
@@ -364,4 +381,184 @@ public class DBStoreTest extends AbstractCDOTest
     transaction.commit();
     session.close();
   }
+
+  public void testGetObjectTypes() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/test"));
+
+    // More objects than fit into one SELECT ... IN statement.
+    for (int i = 0; i < 1200; i++)
+    {
+      resource.getContents().add(i % 3 == 0 ? getModel1Factory().createSupplier() : getModel1Factory().createCompany());
+    }
+
+    transaction.commit();
+
+    Map<CDOID, String> expected = new HashMap<>();
+    for (EObject object : resource.getContents())
+    {
+      expected.put(CDOUtil.getCDOObject(object).cdoID(), object.eClass().getName());
+    }
+
+    // Clear the revision cache and the object type cache to force ObjectTypeTable to be used.
+    clearCache(getRepository().getRevisionManager());
+    IObjectTypeMapper objectTypeMapper = getObjectTypeMapper();
+    LifecycleUtil.deactivate(objectTypeMapper);
+    LifecycleUtil.activate(objectTypeMapper);
+
+    List<CDOID> ids = new ArrayList<>(expected.keySet());
+    ids.add(createUnknownID());
+
+    StoreThreadLocal.setSession(getRepository().getSessionManager().getSession(session.getSessionID()));
+
+    try
+    {
+      DBStoreAccessor accessor = (DBStoreAccessor)StoreThreadLocal.getAccessor();
+      assertEquals(expected, getNames(accessor.getObjectTypes(ids)));
+
+      // The second lookup is served by the object type cache.
+      assertEquals(expected, getNames(accessor.getObjectTypes(ids)));
+    }
+    finally
+    {
+      StoreThreadLocal.release();
+    }
+  }
+
+  public void testObjectTypeCacheEviction() throws Exception
+  {
+    IObjectTypeMapper objectTypeMapper = getObjectTypeMapper();
+    skipTest(!(objectTypeMapper instanceof ObjectTypeCache));
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/test"));
+
+    List<Company> companies = new ArrayList<>();
+    for (int i = 0; i < 40; i++)
+    {
+      Company company = getModel1Factory().createCompany();
+      resource.getContents().add(company);
+      companies.add(company);
+    }
+
+    transaction.commit();
+
+    List<CDOID> ids = new ArrayList<>();
+    for (Company company : companies)
+    {
+      ids.add(CDOUtil.getCDOObject(company).cdoID());
+    }
+
+    // A capacity of 16 results in a single segment.
+    RecordingObjectTypeCache cache = new RecordingObjectTypeCache(16);
+    cache.setMappingStrategy(getMappingStrategy());
+    cache.setDelegate(((ObjectTypeCache)objectTypeMapper).getDelegate());
+    cache.activate();
+
+    StoreThreadLocal.setSession(getRepository().getSessionManager().getSession(session.getSessionID()));
+
+    try
+    {
+      DBStoreAccessor accessor = (DBStoreAccessor)StoreThreadLocal.getAccessor();
+
+      Map<CDOID, CDOClassifierRef> types = cache.getObjectTypes(accessor, ids.subList(0, 16));
+      assertEquals(16, types.size());
+      for (CDOClassifierRef type : types.values())
+      {
+        assertEquals(getModel1Package().getCompany().getName(), type.getClassifierName());
+      }
+
+      // Reference only the first entry, then load 15 new ones.
+      assertEquals(ids.subList(0, 1), cache.getCachedIDs(accessor, ids.subList(0, 1)));
+      cache.getObjectTypes(accessor, ids.subList(16, 31));
+
+      // The referenced entry survives, the others are evicted in the order they were added.
+      List<CDOID> expected = new ArrayList<>();
+      expected.add(ids.get(0));
+      expected.addAll(ids.subList(16, 31));
+      assertEquals(expected, cache.getCachedIDs(accessor, ids));
+    }
+    finally
+    {
+      StoreThreadLocal.release();
+    }
+  }
+
+  private IMappingStrategy getMappingStrategy()
+  {
+    IMappingStrategy mappingStrategy = ((DBStore)getRepository().getStore()).getMappingStrategy();
+    if (mappingStrategy instanceof HorizontalMappingStrategy)
+    {
+      mappingStrategy = ((HorizontalMappingStrategy)mappingStrategy).getDelegate();
+    }
+
+    return mappingStrategy;
+  }
+
+  private IObjectTypeMapper getObjectTypeMapper()
+  {
+    return ((AbstractHorizontalMappingStrategy)getMappingStrategy()).getObjectTypeMapper();
+  }
+
+  private CDOID createUnknownID()
+  {
+    if (getRepository().getIDGenerationLocation() == IDGenerationLocation.CLIENT)
+    {
+      return CDOIDUtil.createUUID();
+    }
+
+    return CDOIDUtil.createLong(Long.MAX_VALUE);
+  }
+
+  private static Map<CDOID, String> getNames(Map<CDOID, EClass> types)
+  {
+    Map<CDOID, String> names = new HashMap<>();
+    for (Map.Entry<CDOID, EClass> entry : types.entrySet())
+    {
+      names.put(entry.getKey(), entry.getValue().getName());
+    }
+
+    return names;
+  }
+
+  /**
+   * An {@link ObjectTypeCache} that tells which IDs it finds in its segments.
+   *
+   * @author Eike Stepper
+   */
+  private static final class RecordingObjectTypeCache extends ObjectTypeCache
+  {
+    private final List<CDOID> cachedIDs = new ArrayList<>();
+
+    public RecordingObjectTypeCache(int cacheSize)
+    {
+      super(cacheSize);
+    }
+
+    public List<CDOID> getCachedIDs(IDBStoreAccessor accessor, List<CDOID> ids)
+    {
+      cachedIDs.clear();
+      for (CDOID id : ids)
+      {
+        getObjectType(accessor, id);
+      }
+
+      return new ArrayList<>(cachedIDs);
+    }
+
+    @Override
+    protected CDOID doGetObjectType(IDBStoreAccessor accessor, CDOID id)
+    {
+      CDOID type = super.doGetObjectType(accessor, id);
+      if (type != null)
+      {
+        cachedIDs.add(id);
+      }
+
+      return type;
+    }
+  }
 }
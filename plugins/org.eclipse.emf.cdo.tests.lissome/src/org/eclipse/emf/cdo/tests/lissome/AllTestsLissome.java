@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2013 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2013, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,10 @@
 package org.eclipse.emf.cdo.tests.lissome;
 
 import org.eclipse.emf.cdo.tests.AllConfigs;
+import org.eclipse.emf.cdo.tests.config.IScenario;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest;
+
+import java.util.List;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -29,5 +33,16 @@ public class AllTestsLissome extends AllConfigs
   protected void initConfigSuites(TestSuite parent)
   {
     addScenario(parent, LissomeConfig.INSTANCE, JVM, NATIVE);
+    addScenario(parent, LissomeConfig.OPTIMIZER_WORKERS, JVM, NATIVE);
+    addScenario(parent, LissomeConfig.MAPPED, JVM, NATIVE);
+    parent.addTestSuite(LissomeFileSyncerTest.class);
+  }
+
+  @Override
+  protected void initTestClasses(List<Class<? extends ConfigTest>> testClasses, IScenario scenario)
+  {
+    testClasses.add(LissomeJournalTest.class);
+    testClasses.add(LissomeOptimizerTest.class);
+    super.initTestClasses(testClasses, scenario);
   }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.lissome;
+
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFile;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileHandle;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileOperation;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileSyncer;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures the commits per second of a journal that is written synchronously, like the journal of a
+ * {@link LissomeStore} by default, and of a journal whose commits are made durable in groups by a
+ * {@link LissomeFileSyncer}. Each commit appends a block of about one KB and updates the journal header.
+ * <p>
+ * Pass <code>-Dorg.eclipse.emf.cdo.tests.lissome.LissomeCommitPerformanceTest.threads=32</code> and
+ * <code>...window=2</code> to vary the number of concurrent committers and the group commit window in milliseconds.
+ * <p>
+ * The synchronous journal pays one fsync per commit. The group commit run also prints how many fsyncs the syncer needed
+ * for all commits; the fewer, the more concurrent committers shared one.
+ *
+ * @author Eike Stepper
+ */
+public class LissomeCommitPerformanceTest extends AbstractOMTest
+{
+  private static final String PREFIX = LissomeCommitPerformanceTest.class.getName() + ".";
+
+  private static final int THREADS = Integer.getInteger(PREFIX + "threads", 16);
+
+  private static final int COMMITS = Integer.getInteger(PREFIX + "commits", 200);
+
+  private static final int WINDOW = Integer.getInteger(PREFIX + "window", 0);
+
+  private static final byte[] PAYLOAD = new byte[1000];
+
+  private LissomeFile file;
+
+  public void testSynchronousCommits() throws Exception
+  {
+    LissomeFileHandle writer = openWriter(LissomeFile.WRITE_MODE);
+
+    try
+    {
+      commit("Synchronous", writer, null);
+    }
+    finally
+    {
+      IOUtil.close(writer);
+    }
+  }
+
+  public void testGroupCommits() throws Exception
+  {
+    LissomeFileHandle writer = openWriter(LissomeFile.DEFERRED_WRITE_MODE);
+
+    try
+    {
+      LissomeFileSyncer syncer = new LissomeFileSyncer(writer, WINDOW, LissomeStore.DEFAULT_GROUP_COMMIT_BYTES);
+      commit("Group", writer, syncer);
+      msg("Group: " + syncer.getSyncs() + " syncs for " + syncer.getCommits() + " commits");
+    }
+    finally
+    {
+      IOUtil.close(writer);
+    }
+  }
+
+  private LissomeFileHandle openWriter(String mode) throws Exception
+  {
+    LissomeStore store = new LissomeStore();
+    store.setFolder(createTempFolder());
+    file = new LissomeFile(store, "benchmark.journal");
+
+    LissomeFileHandle writer = new LissomeFileHandle(file, mode);
+    writer.write(0L, header(0L));
+    writer.force(false);
+    return writer;
+  }
+
+  private void commit(String mode, final LissomeFileHandle writer, final LissomeFileSyncer syncer) throws Exception
+  {
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[THREADS];
+
+    for (int t = 0; t < THREADS; t++)
+    {
+      threads[t] = new Thread("Committer-" + t)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            start.await();
+
+            for (int i = 0; i < COMMITS; i++)
+            {
+              commit(writer, syncer);
+            }
+          }
+          catch (Throwable ex)
+          {
+            failure.compareAndSet(null, ex);
+          }
+        }
+      };
+
+      threads[t].start();
+    }
+
+    long begin = System.nanoTime();
+    start.countDown();
+
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    long duration = Math.max(1L, System.nanoTime() - begin);
+
+    Throwable ex = failure.get();
+    if (ex != null)
+    {
+      throw new Exception(ex);
+    }
+
+    long commits = (long)THREADS * COMMITS;
+    msg(mode + ": " + commits + " commits with " + THREADS + " threads in " + duration / 1000000L + " millis = " + commits * 1000000000L / duration
+        + " commits/sec");
+  }
+
+  private static void commit(LissomeFileHandle writer, LissomeFileSyncer syncer) throws IOException
+  {
+    long pointer;
+    long end;
+
+    synchronized (writer)
+    {
+      pointer = writer.append(new LissomeFileOperation()
+      {
+        @Override
+        public void execute(LissomeFileHandle writer) throws IOException
+        {
+          writer.writeByteArray(PAYLOAD);
+        }
+      });
+
+      if (syncer == null)
+      {
+        writer.write(0L, header(pointer));
+        return;
+      }
+
+      end = writer.getFilePointer();
+    }
+
+    syncer.sync(end, header(pointer));
+  }
+
+  private static LissomeFileOperation header(final long pointer)
+  {
+    return new LissomeFileOperation()
+    {
+      @Override
+      public void execute(LissomeFileHandle writer) throws IOException
+      {
+        writer.writeXLong(pointer);
+      }
+    };
+  }
+}
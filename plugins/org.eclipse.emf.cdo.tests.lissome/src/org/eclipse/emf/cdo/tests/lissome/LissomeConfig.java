@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2013, 2016, 2017, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2013, 2016, 2017, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,8 @@ import org.eclipse.net4j.util.io.IOUtil;
 import javax.sql.DataSource;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -33,6 +35,10 @@ public class LissomeConfig extends RepositoryConfig
 {
   public static final RepositoryConfig INSTANCE = new LissomeConfig();
 
+  public static final RepositoryConfig OPTIMIZER_WORKERS = new OptimizerWorkers();
+
+  public static final RepositoryConfig MAPPED = new Mapped();
+
   public static final String STORE_NAME = "Lissome";
 
   private static final long serialVersionUID = 1L;
@@ -41,7 +47,12 @@ public class LissomeConfig extends RepositoryConfig
 
   public LissomeConfig()
   {
-    super(STORE_NAME);
+    this(STORE_NAME);
+  }
+
+  protected LissomeConfig(String name)
+  {
+    super(name);
     supportingAudits(true);
     supportingBranches(true);
   }
@@ -94,13 +105,63 @@ public class LissomeConfig extends RepositoryConfig
 
     LissomeStore store = new LissomeStore();
     store.setFolder(reusableFolder);
+
+    Map<String, String> properties = new HashMap<>();
+    initStoreProperties(properties);
+    store.setProperties(properties);
     return store;
   }
 
+  protected void initStoreProperties(Map<String, String> properties)
+  {
+  }
+
   @Override
   public void setUp() throws Exception
   {
     IPluginContainer.INSTANCE.registerFactory(new LissomeBrowserPage.Factory());
     super.setUp();
   }
+
+  /**
+   * Runs the Lissome tests with several {@link LissomeStore#PROP_OPTIMIZER_WORKERS optimizer workers}.
+   *
+   * @author Eike Stepper
+   */
+  public static class OptimizerWorkers extends LissomeConfig
+  {
+    private static final long serialVersionUID = 1L;
+
+    public OptimizerWorkers()
+    {
+      super(STORE_NAME + "OptimizerWorkers");
+    }
+
+    @Override
+    protected void initStoreProperties(Map<String, String> properties)
+    {
+      properties.put(LissomeStore.PROP_OPTIMIZER_WORKERS, "4");
+    }
+  }
+
+  /**
+   * Runs the Lissome tests with {@link LissomeStore#READER_MODE_MAPPED memory-mapped readers}.
+   *
+   * @author Eike Stepper
+   */
+  public static class Mapped extends LissomeConfig
+  {
+    private static final long serialVersionUID = 1L;
+
+    public Mapped()
+    {
+      super(STORE_NAME + "Mapped");
+    }
+
+    @Override
+    protected void initStoreProperties(Map<String, String> properties)
+    {
+      properties.put(LissomeStore.PROP_READER_MODE, LissomeStore.READER_MODE_MAPPED);
+    }
+  }
 }
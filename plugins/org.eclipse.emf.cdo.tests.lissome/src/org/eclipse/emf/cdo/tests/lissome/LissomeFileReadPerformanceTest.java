@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.lissome;
+
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFile;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileHandle;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileMapping;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+import org.eclipse.emf.cdo.server.internal.lissome.MappedLissomeFileHandle;
+
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares random reads of revision-sized records from a large append-only file through buffered
+ * {@link LissomeFileHandle random access handles} with the same reads through {@link MappedLissomeFileHandle mapped
+ * handles}.
+ * <p>
+ * The file size defaults to 512 MB; pass <code>-Dorg.eclipse.emf.cdo.tests.lissome.LissomeFileReadPerformanceTest.megabytes=4096</code>
+ * to measure a multi-GB vob. The file is written right before the reads, so it's usually in the page cache.
+ * <p>
+ * Each reader thread opens its own handle. A file handle opens the file again and refills its buffer with a system call
+ * for nearly every random read, whereas all mapped handles share one mapping and read from memory. Pass
+ * <code>...reads</code> and <code>...threads</code> to vary the load. {@link #testMappedHandlesAfterGrowth()} only
+ * checks that a mapped handle sees records that were appended after the file was mapped.
+ *
+ * @author Eike Stepper
+ */
+public class LissomeFileReadPerformanceTest extends AbstractOMTest
+{
+  private static final String PREFIX = LissomeFileReadPerformanceTest.class.getName() + ".";
+
+  private static final long MEGABYTES = Integer.getInteger(PREFIX + "megabytes", 512);
+
+  private static final int READS = Integer.getInteger(PREFIX + "reads", 1000000);
+
+  private static final int THREADS = Integer.getInteger(PREFIX + "threads", 4);
+
+  private LissomeFile file;
+
+  private long[] pointers;
+
+  public void testFileHandles() throws Exception
+  {
+    prepareFile(MEGABYTES * 1024 * 1024);
+    read("File", false);
+  }
+
+  public void testMappedHandles() throws Exception
+  {
+    prepareFile(MEGABYTES * 1024 * 1024);
+    read("Mapped", true);
+  }
+
+  public void testMappedHandlesAfterGrowth() throws Exception
+  {
+    prepareFile(1024 * 1024);
+
+    LissomeFileMapping mapping = new LissomeFileMapping(file, 16);
+    MappedLissomeFileHandle reader = new MappedLissomeFileHandle(file, mapping);
+
+    try
+    {
+      reader.seek(pointers[pointers.length - 1]);
+      assertEquals(pointers.length - 1, reader.readXInt());
+
+      LissomeFileHandle writer = new LissomeFileHandle(file, "rw");
+      long pointer;
+
+      try
+      {
+        pointer = writer.length();
+        writer.seek(pointer);
+        writer.writeXInt(4711);
+        writer.writeString("Appended");
+      }
+      finally
+      {
+        IOUtil.close(writer);
+      }
+
+      reader.seek(pointer);
+      assertEquals(4711, reader.readXInt());
+      assertEquals("Appended", reader.readString());
+      assertEquals(-1, reader.read());
+    }
+    finally
+    {
+      IOUtil.close(reader);
+      IOUtil.close(mapping);
+    }
+  }
+
+  private void prepareFile(long size) throws Exception
+  {
+    File folder = createTempFolder();
+
+    LissomeStore store = new LissomeStore();
+    store.setFolder(folder);
+    file = new LissomeFile(store, "benchmark.vob");
+
+    Random random = new Random(4711);
+    byte[] payload = new byte[1000];
+    random.nextBytes(payload);
+
+    long[] result = new long[1024];
+    int count = 0;
+
+    LissomeFileHandle writer = new LissomeFileHandle(file, "rw");
+
+    try
+    {
+      long pointer = 0;
+      while (pointer < size)
+      {
+        if (count == result.length)
+        {
+          result = Arrays.copyOf(result, count << 1);
+        }
+
+        result[count] = pointer;
+
+        writer.writeXInt(count);
+        writer.writeString("Object " + count);
+        writer.writeXLong(pointer);
+
+        byte[] bytes = new byte[50 + random.nextInt(500)];
+        System.arraycopy(payload, 0, bytes, 0, bytes.length);
+        writer.writeByteArray(bytes);
+
+        pointer = writer.getFilePointer();
+        ++count;
+      }
+    }
+    finally
+    {
+      IOUtil.close(writer);
+    }
+
+    pointers = Arrays.copyOf(result, count);
+    msg("Written " + count + " records, " + file.length() / 1024 / 1024 + " MB");
+  }
+
+  private void read(String mode, boolean mapped) throws Exception
+  {
+    LissomeFileMapping mapping = mapped ? new LissomeFileMapping(file) : null;
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[THREADS];
+
+    for (int t = 0; t < THREADS; t++)
+    {
+      long seed = t;
+      threads[t] = new Thread("Reader-" + t)
+      {
+        @Override
+        public void run()
+        {
+          LissomeFileHandle reader = null;
+
+          try
+          {
+            reader = mapped ? new MappedLissomeFileHandle(file, mapping) : new LissomeFileHandle(file, LissomeFile.READ_MODE);
+            Random random = new Random(seed);
+
+            for (int i = 0; i < READS / THREADS; i++)
+            {
+              int index = random.nextInt(pointers.length);
+              long pointer = pointers[index];
+              reader.seek(pointer);
+
+              int id = reader.readXInt();
+              reader.readString();
+              long storedPointer = reader.readXLong();
+              reader.readByteArray();
+
+              if (id != index || storedPointer != pointer)
+              {
+                throw new AssertionError("Corrupt record at " + pointer);
+              }
+            }
+          }
+          catch (Throwable ex)
+          {
+            failure.compareAndSet(null, ex);
+          }
+          finally
+          {
+            IOUtil.closeSilent(reader);
+          }
+        }
+      };
+    }
+
+    long start = System.nanoTime();
+
+    for (Thread thread : threads)
+    {
+      thread.start();
+    }
+
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    long duration = Math.max(1L, System.nanoTime() - start);
+    IOUtil.closeSilent(mapping);
+
+    Throwable ex = failure.get();
+    if (ex != null)
+    {
+      throw new Exception(ex);
+    }
+
+    long reads = (long)READS / THREADS * THREADS;
+    msg(mode + ": " + reads + " random reads with " + THREADS + " threads in " + duration / 1000000L + " millis = " + reads * 1000000000L / duration
+        + " reads/sec, mean = " + duration * THREADS / reads / 1000L + " micros");
+  }
+}
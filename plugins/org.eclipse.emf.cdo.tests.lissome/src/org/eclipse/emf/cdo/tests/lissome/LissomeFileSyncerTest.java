@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.lissome;
+
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFile;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileHandle;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileOperation;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileSyncer;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Simulates a crash of a group committing journal by abandoning its writer without closing it and reopening the file
+ * with a new handle.
+ *
+ * @author Eike Stepper
+ */
+public class LissomeFileSyncerTest extends AbstractOMTest
+{
+  private static final int THREADS = 8;
+
+  private static final int COMMITS = 50;
+
+  private LissomeFile file;
+
+  private LissomeFileHandle writer;
+
+  private long tail;
+
+  private final Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+
+    LissomeStore store = new LissomeStore();
+    store.setFolder(createTempFolder());
+
+    file = new LissomeFile(store, "test.journal");
+    writer = new LissomeFileHandle(file, LissomeFile.DEFERRED_WRITE_MODE);
+    writer.write(0L, header(0L));
+    writer.force(false);
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    IOUtil.closeSilent(writer);
+    super.doTearDown();
+  }
+
+  public void testGroupCommit() throws Exception
+  {
+    LissomeFileSyncer syncer = new LissomeFileSyncer(writer, 20, Long.MAX_VALUE);
+    commitConcurrently(syncer);
+
+    assertEquals(THREADS * COMMITS, syncer.getCommits());
+    assertEquals(true, syncer.getSyncs() < syncer.getCommits());
+    assertEquals(acknowledged, reopen());
+  }
+
+  public void testGroupCommitWithoutWindow() throws Exception
+  {
+    LissomeFileSyncer syncer = new LissomeFileSyncer(writer, 0, Long.MAX_VALUE);
+    commitConcurrently(syncer);
+
+    assertEquals(THREADS * COMMITS, syncer.getCommits());
+    assertEquals(acknowledged, reopen());
+  }
+
+  public void testByteBudgetEndsWindow() throws Exception
+  {
+    // With a budget of one byte no commit waits for the window of ten minutes.
+    LissomeFileSyncer syncer = new LissomeFileSyncer(writer, 10 * 60 * 1000, 1);
+    commitConcurrently(syncer);
+
+    assertEquals(THREADS * COMMITS, syncer.getCommits());
+    assertEquals(acknowledged, reopen());
+  }
+
+  public void testUnsyncedCommitIsNotReachable() throws Exception
+  {
+    LissomeFileSyncer syncer = new LissomeFileSyncer(writer, 0, Long.MAX_VALUE);
+    commit(syncer, 0, 0);
+    commit(syncer, 0, 1);
+
+    // Crash after the append, before the sync.
+    commit(null, 0, 2);
+
+    Set<String> expected = new HashSet<>();
+    expected.add("0/0");
+    expected.add("0/1");
+    assertEquals(expected, reopen());
+  }
+
+  private void commitConcurrently(final LissomeFileSyncer syncer) throws Exception
+  {
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[THREADS];
+
+    for (int t = 0; t < THREADS; t++)
+    {
+      final int thread = t;
+      threads[t] = new Thread("Committer-" + t)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            start.await();
+
+            for (int i = 0; i < COMMITS; i++)
+            {
+              commit(syncer, thread, i);
+            }
+          }
+          catch (Throwable ex)
+          {
+            failure.compareAndSet(null, ex);
+          }
+        }
+      };
+
+      threads[t].start();
+    }
+
+    start.countDown();
+
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    Throwable ex = failure.get();
+    if (ex != null)
+    {
+      throw new Exception(ex);
+    }
+
+    assertEquals(THREADS * COMMITS, acknowledged.size());
+  }
+
+  private void commit(LissomeFileSyncer syncer, final int thread, final int i) throws IOException
+  {
+    long pointer;
+    long end;
+
+    synchronized (writer)
+    {
+      final long previous = tail;
+      pointer = writer.append(new LissomeFileOperation()
+      {
+        @Override
+        public void execute(LissomeFileHandle writer) throws IOException
+        {
+          writer.writeXLong(previous);
+          writer.writeString(thread + "/" + i);
+          writer.writeByteArray(new byte[100 + i]);
+        }
+      });
+
+      end = writer.getFilePointer();
+      tail = pointer;
+    }
+
+    if (syncer != null)
+    {
+      syncer.sync(end, header(pointer));
+      acknowledged.add(thread + "/" + i);
+    }
+  }
+
+  private Set<String> reopen() throws IOException
+  {
+    Set<String> result = new HashSet<>();
+    LissomeFileHandle reader = new LissomeFileHandle(file, LissomeFile.READ_MODE);
+
+    try
+    {
+      reader.seek(0L);
+      long pointer = reader.readXLong();
+
+      while (pointer != 0L)
+      {
+        reader.seek(pointer);
+        pointer = reader.readXLong();
+        assertEquals(true, result.add(reader.readString()));
+      }
+    }
+    finally
+    {
+      IOUtil.close(reader);
+    }
+
+    return result;
+  }
+
+  private static LissomeFileOperation header(final long pointer)
+  {
+    return new LissomeFileOperation()
+    {
+      @Override
+      public void execute(LissomeFileHandle writer) throws IOException
+      {
+        writer.writeXLong(pointer);
+      }
+    };
+  }
+}
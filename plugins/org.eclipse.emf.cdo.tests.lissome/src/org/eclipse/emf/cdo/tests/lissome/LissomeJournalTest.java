@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.lissome;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeFileHandle;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+import org.eclipse.emf.cdo.server.internal.lissome.file.Journal;
+import org.eclipse.emf.cdo.server.internal.lissome.optimizer.CommitTransactionTask;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
+import org.eclipse.emf.cdo.tests.AbstractCDOTest;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.util.io.IORuntimeException;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.om.monitor.Monitor;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the {@link Journal journal} with commits that overlap between their write and their commit.
+ *
+ * @author Eike Stepper
+ */
+@CleanRepositoriesBefore(reason = "Journal blocks")
+@CleanRepositoriesAfter(reason = "Journal blocks")
+public class LissomeJournalTest extends AbstractCDOTest
+{
+  private Journal journal;
+
+  private final List<CommitTransactionTask> tasks = new ArrayList<>();
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    journal = ((LissomeStore)getRepository().getStore()).getJournal();
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    // Don't leave pending tasks behind, they'd block the commits of the repository.
+    for (CommitTransactionTask task : tasks)
+    {
+      journal.rollback(task);
+    }
+
+    journal = null;
+    super.doTearDown();
+  }
+
+  public void testHeaderAdvancesInWriteOrder() throws Exception
+  {
+    long headerCommitPointer = readHeaderCommitPointer();
+
+    CommitTransactionTask task1 = write();
+    CommitTransactionTask task2 = write();
+
+    Thread committer2 = commitAsync(task2);
+    sleep(200);
+
+    // The second commit must wait for the first one.
+    assertEquals(true, committer2.isAlive());
+    assertEquals(headerCommitPointer, readHeaderCommitPointer());
+
+    journal.commit(task1, new Monitor());
+    committer2.join(DEFAULT_TIMEOUT);
+    assertEquals(false, committer2.isAlive());
+    assertEquals(task2.getNewCommitPointer(), readHeaderCommitPointer());
+  }
+
+  public void testRollbackOfEarlierCommit() throws Exception
+  {
+    CommitTransactionTask task1 = write();
+    CommitTransactionTask task2 = write();
+
+    Thread committer2 = commitAsync(task2);
+    sleep(200);
+    assertEquals(true, committer2.isAlive());
+
+    journal.rollback(task1);
+    committer2.join(DEFAULT_TIMEOUT);
+    assertEquals(false, committer2.isAlive());
+    assertEquals(task2.getNewCommitPointer(), readHeaderCommitPointer());
+
+    // The block of the rolled back commit is still linked from the second one, but it's marked.
+    assertEquals(Journal.ROLLED_BACK_BLOCK, readBlockType(task1.getNewCommitPointer()));
+    assertEquals(Journal.COMMIT_TRANSACTION_BLOCK, readBlockType(task2.getNewCommitPointer()));
+    assertRollbackMarked(task1);
+
+    CommitTransactionTask task3 = write();
+    assertEquals(task2.getNewCommitPointer(), task3.getPreviousCommitPointer());
+    journal.commit(task3, new Monitor());
+  }
+
+  public void testRollbackOfEarlierCommitBeforeLaterCommit() throws Exception
+  {
+    long headerCommitPointer = readHeaderCommitPointer();
+
+    CommitTransactionTask task1 = write();
+    CommitTransactionTask task2 = write();
+    CommitTransactionTask task3 = write();
+
+    journal.rollback(task2);
+    assertEquals(headerCommitPointer, readHeaderCommitPointer());
+
+    // The third task builds on the first one now.
+    assertEquals(task1.getNewCommitPointer(), task3.getPreviousCommitPointer());
+
+    journal.commit(task1, new Monitor());
+    assertEquals(task1.getNewCommitPointer(), readHeaderCommitPointer());
+
+    journal.rollback(task3);
+    assertEquals(task1.getNewCommitPointer(), readHeaderCommitPointer());
+
+    // Both rolled back tasks have been unlinked.
+    CommitTransactionTask task4 = write();
+    assertEquals(task1.getNewCommitPointer(), task4.getPreviousCommitPointer());
+    journal.commit(task4, new Monitor());
+    assertEquals(task4.getNewCommitPointer(), readHeaderCommitPointer());
+  }
+
+  public void testRollbackOfLatestCommit() throws Exception
+  {
+    CommitTransactionTask task1 = write();
+    CommitTransactionTask task2 = write();
+
+    journal.commit(task1, new Monitor());
+    assertEquals(task1.getNewCommitPointer(), readHeaderCommitPointer());
+
+    journal.rollback(task2);
+    assertEquals(task1.getNewCommitPointer(), readHeaderCommitPointer());
+    assertEquals(Journal.ROLLED_BACK_BLOCK, readBlockType(task2.getNewCommitPointer()));
+
+    CommitTransactionTask task3 = write();
+    assertEquals(task1.getNewCommitPointer(), task3.getPreviousCommitPointer());
+    journal.commit(task3, new Monitor());
+  }
+
+  public void testRepositoryAfterRollback() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    resource.getContents().add(getModel1Factory().createCompany());
+    transaction.commit();
+
+    CommitTransactionTask task = write();
+    journal.rollback(task);
+
+    resource.getContents().add(getModel1Factory().createCompany());
+    transaction.commit();
+    session.close();
+
+    restartRepository();
+    journal = ((LissomeStore)getRepository().getStore()).getJournal();
+
+    session = openSession();
+    CDOView view = session.openView();
+    assertEquals(2, view.getResource(getResourcePath("res")).getContents().size());
+  }
+
+  private CommitTransactionTask write()
+  {
+    CDOBranchPoint branchPoint = getRepository().getBranchManager().getMainBranch().getPoint(getRepository().getTimeStamp());
+    CommitTransactionTask task = journal.write(createCommitContext(branchPoint), new Monitor());
+    tasks.add(task);
+    return task;
+  }
+
+  private Thread commitAsync(final CommitTransactionTask task)
+  {
+    Thread thread = new Thread("committer")
+    {
+      @Override
+      public void run()
+      {
+        journal.commit(task, new Monitor());
+      }
+    };
+
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  private void assertRollbackMarked(CommitTransactionTask task)
+  {
+    LissomeFileHandle reader = journal.openReader();
+
+    try
+    {
+      journal.readCommitInfo(reader, task.getNewCommitPointer());
+      fail("IORuntimeException expected");
+    }
+    catch (IORuntimeException expected)
+    {
+      // SUCCESS
+    }
+    finally
+    {
+      IOUtil.close(reader);
+    }
+  }
+
+  private long readHeaderCommitPointer() throws IOException
+  {
+    LissomeFileHandle reader = journal.openReader();
+
+    try
+    {
+      reader.seek(0L);
+      return reader.readXLong();
+    }
+    finally
+    {
+      IOUtil.close(reader);
+    }
+  }
+
+  private byte readBlockType(long pointer) throws IOException
+  {
+    LissomeFileHandle reader = journal.openReader();
+
+    try
+    {
+      reader.seek(pointer);
+      return reader.readByte();
+    }
+    finally
+    {
+      IOUtil.close(reader);
+    }
+  }
+
+  private static InternalCommitContext createCommitContext(CDOBranchPoint branchPoint)
+  {
+    // The journal only reads the data of the commit, which is empty.
+    return (InternalCommitContext)Proxy.newProxyInstance(InternalCommitContext.class.getClassLoader(), new Class<?>[] { InternalCommitContext.class },
+        (proxy, method, args) -> {
+          switch (method.getName())
+          {
+          case "getBranchPoint":
+            return branchPoint;
+
+          case "getPreviousTimeStamp":
+            return CDOBranchPoint.UNSPECIFIED_DATE;
+
+          case "getUserID":
+          case "getCommitComment":
+            return "journal-test";
+
+          default:
+            Class<?> type = method.getReturnType();
+            return type.isArray() ? Array.newInstance(type.getComponentType(), 0) : null;
+          }
+        });
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.lissome;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
+import org.eclipse.emf.cdo.server.internal.lissome.db.IndexReader;
+import org.eclipse.emf.cdo.server.internal.lissome.db.IndexWriter;
+import org.eclipse.emf.cdo.server.internal.lissome.optimizer.Optimizer;
+import org.eclipse.emf.cdo.server.internal.lissome.optimizer.OptimizerTask;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.AbstractCDOTest;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.db.DBUtil;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link Optimizer optimizer} with several partitions.
+ *
+ * @author Eike Stepper
+ */
+@CleanRepositoriesBefore(reason = "Index rows")
+@CleanRepositoriesAfter(reason = "Index rows")
+public class LissomeOptimizerTest extends AbstractCDOTest
+{
+  private static final long POINTER = 4711L;
+
+  public void testPartitionedCommits() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    for (int i = 0; i < 3; i++)
+    {
+      for (int j = 0; j < 50; j++)
+      {
+        resource.getContents().add(createCompany("Company " + i + "-" + j));
+      }
+
+      transaction.commit();
+    }
+
+    EList<EObject> contents = resource.getContents();
+    for (int i = 0; i < contents.size(); i += 2)
+    {
+      ((Company)contents.get(i)).setName("Changed " + i);
+    }
+
+    transaction.commit();
+
+    contents.subList(0, 30).clear();
+    transaction.commit();
+
+    List<String> expected = getNames(contents);
+    session.close();
+
+    restartRepository();
+
+    session = openSession();
+    CDOView view = session.openView();
+    assertEquals(expected, getNames(view.getResource(getResourcePath("res")).getContents()));
+  }
+
+  public void testFailedPartitionIsNotCommitted() throws Exception
+  {
+    Optimizer optimizer = getOptimizer();
+    skipTest(optimizer.getPartitions() == 1);
+
+    CDOBranch mainBranch = getRepository().getBranchManager().getMainBranch();
+    CDOBranchPoint branchPoint = mainBranch.getPoint(getRepository().getTimeStamp());
+
+    CountDownLatch firstPartitionFlushed = new CountDownLatch(1);
+    CountDownLatch secondPartitionStarted = new CountDownLatch(1);
+    CountDownLatch secondPartitionReleased = new CountDownLatch(1);
+    AtomicInteger secondPartitionAttempts = new AtomicInteger();
+
+    optimizer.addTask(new OptimizerTask()
+    {
+      @Override
+      public void execute(Optimizer optimizer, IndexWriter indexWriter, int partition, int partitions) throws IOException
+      {
+        if (partition == 0)
+        {
+          indexWriter.addCommitInfo(branchPoint, POINTER);
+          indexWriter.flush();
+          firstPartitionFlushed.countDown();
+        }
+        else if (partition == 1 && secondPartitionAttempts.incrementAndGet() == 1)
+        {
+          secondPartitionStarted.countDown();
+          await(secondPartitionReleased);
+          throw new IOException("Partition failure (expected)");
+        }
+      }
+    });
+
+    await(firstPartitionFlushed);
+    await(secondPartitionStarted);
+
+    // The flushed partition must not be visible in the index while the other one is pending.
+    assertEquals(0, loadCommitInfoPointers(branchPoint).size());
+    assertEquals(1, optimizer.getQueueDepth());
+
+    secondPartitionReleased.countDown();
+    assertNoTimeout(() -> optimizer.getQueueDepth() == 0);
+
+    // The task has been applied again as a whole, and only once.
+    List<Long> pointers = loadCommitInfoPointers(branchPoint);
+    assertEquals(1, pointers.size());
+    assertEquals(POINTER, (long)pointers.get(0));
+  }
+
+  private Optimizer getOptimizer()
+  {
+    return ((LissomeStore)getRepository().getStore()).getOptimizer();
+  }
+
+  private List<Long> loadCommitInfoPointers(CDOBranchPoint branchPoint)
+  {
+    List<Long> pointers = new ArrayList<>();
+    IndexReader reader = ((LissomeStore)getRepository().getStore()).getIndex().createReader();
+
+    try
+    {
+      long timeStamp = branchPoint.getTimeStamp();
+      reader.loadCommitInfos(branchPoint.getBranch(), timeStamp, timeStamp, pointer -> pointers.add(pointer));
+    }
+    finally
+    {
+      DBUtil.close(reader.getConnection());
+    }
+
+    return pointers;
+  }
+
+  private Company createCompany(String name)
+  {
+    Company company = getModel1Factory().createCompany();
+    company.setName(name);
+    return company;
+  }
+
+  private static List<String> getNames(EList<EObject> contents)
+  {
+    List<String> names = new ArrayList<>();
+    for (EObject object : contents)
+    {
+      names.add(((Company)object).getName());
+    }
+
+    return names;
+  }
+}
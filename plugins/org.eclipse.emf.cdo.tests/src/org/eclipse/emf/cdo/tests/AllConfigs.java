@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2016, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2016, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import org.eclipse.emf.cdo.tests.bundle.OM;
 import org.eclipse.emf.cdo.tests.config.IScenario;
 import org.eclipse.emf.cdo.tests.config.impl.ConfigTest;
 import org.eclipse.emf.cdo.tests.config.impl.ConfigTestSuite;
+import org.eclipse.emf.cdo.tests.revisioncache.OffHeapRevisionCacheTest;
 
 import java.util.List;
 
@@ -51,6 +52,7 @@ public class AllConfigs extends ConfigTestSuite
     testClasses.add(AuditTest.class);
     testClasses.add(AutoAttacherTest.class);
     testClasses.add(BackupBinaryTest.class);
+    testClasses.add(BackupSegmentedTest.class);
     testClasses.add(BackupTest.class);
     testClasses.add(BranchingSameSessionTest.class);
     testClasses.add(BranchingTest.class);
@@ -61,11 +63,13 @@ public class AllConfigs extends ConfigTestSuite
     testClasses.add(ChunkingClearCachedRevisionTest.class);
     testClasses.add(ChunkingTest.class);
     testClasses.add(CommitInfoTest.class);
+    testClasses.add(CommitNotificationDispatcherTest.class);
     testClasses.add(CompareTest.class);
     testClasses.add(ComplexTest.class);
     testClasses.add(ConflictResolverExtendedTest.class);
     testClasses.add(ConflictResolverTest.class);
     testClasses.add(ContainmentTest.class);
+    testClasses.add(ContainmentIndexTest.class);
     testClasses.add(CrossReferenceTest.class);
     testClasses.add(DetachTest.class);
     testClasses.add(DynamicPackageTest.class);
@@ -93,8 +97,10 @@ public class AllConfigs extends ConfigTestSuite
     testClasses.add(MultiValuedOfAttributeTest.class);
     testClasses.add(OCLQueryTest.Lazy.class);
     testClasses.add(OCLQueryTest.class);
+    testClasses.add(OffHeapRevisionCacheTest.class);
     testClasses.add(PackageRegistryTest.class);
     testClasses.add(PartialCommitTest.class);
+    testClasses.add(PipelinedCommitTest.class);
     testClasses.add(PushTransactionTest.class);
     testClasses.add(PushTransactionWithoutReconstructSavepointsTest.class);
     testClasses.add(ReconnectingSessionTest.class);
@@ -121,6 +127,7 @@ public class AllConfigs extends ConfigTestSuite
     testClasses.add(WorkspaceTest.class);
     testClasses.add(XATransactionTest.class);
     testClasses.add(XRefTest.class);
+    testClasses.add(XRefTest.Indexed.class);
 
     // Bugzilla verifications
     testClasses.addAll(getBugzillaTests());
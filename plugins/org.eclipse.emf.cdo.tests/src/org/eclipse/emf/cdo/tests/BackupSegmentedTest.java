@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.CDOServerExporter;
+import org.eclipse.emf.cdo.server.CDOServerImporter;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.tests.model1.Customer;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import java.io.File;
+
+/**
+ * @author Eike Stepper
+ */
+public class BackupSegmentedTest extends BackupTest
+{
+  private File folder;
+
+  @Override
+  protected CDOServerExporter<?> createExporter(InternalRepository repo1)
+  {
+    return new CDOServerExporter.Segmented(repo1);
+  }
+
+  @Override
+  protected CDOServerImporter createImporter(InternalRepository repo2)
+  {
+    return new CDOServerImporter.Segmented(repo2);
+  }
+
+  @Override
+  protected void exportRepository(CDOServerExporter<?> exporter) throws Exception
+  {
+    folder = createTempFolder();
+    ((CDOServerExporter.Segmented)exporter).exportRepository(folder);
+  }
+
+  @Override
+  protected void importRepository(CDOServerImporter importer) throws Exception
+  {
+    ((CDOServerImporter.Segmented)importer).importRepository(folder);
+  }
+
+  @CleanRepositoriesBefore(reason = "Inactive repository required")
+  public void testResumeExport() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res1"));
+
+    for (int i = 0; i < 10; i++)
+    {
+      Customer customer = getModel1Factory().createCustomer();
+      customer.setName("Customer " + i);
+      resource.getContents().add(customer);
+    }
+
+    transaction.commit();
+    closeSession(session);
+
+    InternalRepository repo1 = getRepository();
+    folder = createTempFolder();
+    new CDOServerExporter.Segmented(repo1).exportRepository(folder);
+
+    // Simulate an export that has failed before the commits segment was complete.
+    File commits = new File(folder, "commits");
+    assertEquals(true, commits.delete());
+
+    CDOServerExporter.Segmented exporter = new CDOServerExporter.Segmented(repo1);
+    exporter.setResume(true);
+    exporter.exportRepository(folder);
+
+    assertEquals(true, commits.isFile());
+    assertEquals(0, exporter.getStatistics().revisions);
+    assertEquals(true, exporter.getStatistics().commits > 0);
+
+    InternalRepository repo2 = getRepository("repo2", false);
+    importRepository(createImporter(repo2));
+
+    CDOSession session2 = openSession("repo2");
+    CDOView view = session2.openView();
+    assertEquals(10, view.getResource(getResourcePath("/res1")).getContents().size());
+    session2.close();
+  }
+}
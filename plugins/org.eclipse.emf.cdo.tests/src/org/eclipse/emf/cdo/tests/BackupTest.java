@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2015, 2018, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2015, 2018, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -59,6 +59,8 @@ import java.util.Date;
  */
 public class BackupTest extends AbstractCDOTest
 {
+  private byte[] exportData;
+
   @Override
   protected void doSetUp() throws Exception
   {
@@ -84,6 +86,19 @@ public class BackupTest extends AbstractCDOTest
     return new CDOServerImporter.XML(repo2);
   }
 
+  protected void exportRepository(CDOServerExporter<?> exporter) throws Exception
+  {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    exporter.exportRepository(baos);
+    exportData = baos.toByteArray();
+  }
+
+  protected void importRepository(CDOServerImporter importer) throws Exception
+  {
+    ByteArrayInputStream bais = new ByteArrayInputStream(exportData);
+    importer.importRepository(bais);
+  }
+
   private Customer initExtResource(ResourceSet resourceSet)
   {
     resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("xmi", new XMIResourceFactoryImpl());
@@ -152,20 +167,16 @@ public class BackupTest extends AbstractCDOTest
     InternalRepository repo1 = getRepository();
     int sessionsBeforeExport = repo1.getSessionManager().getSessions().length;
 
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
     CDOServerExporter<?> exporter = createExporter(repo1);
-    exporter.exportRepository(baos);
-
-    System.out.println(baos);
+    exportRepository(exporter);
 
     // Test bug 552512.
     assertEquals(sessionsBeforeExport, repo1.getSessionManager().getSessions().length);
 
     InternalRepository repo2 = getRepository("repo2", false);
 
-    ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
     CDOServerImporter importer = createImporter(repo2);
-    importer.importRepository(bais);
+    importRepository(importer);
 
     if (useAfterImport)
     {
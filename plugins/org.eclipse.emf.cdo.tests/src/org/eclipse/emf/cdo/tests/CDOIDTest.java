@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2016, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2016, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.id.CDOIDExternal;
 import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.common.id.CDOIDLongMapImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDNullImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectLongImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDTempObjectExternalImpl;
@@ -29,6 +30,11 @@ import org.eclipse.emf.cdo.util.CDOUtil;
 
 import org.eclipse.emf.internal.cdo.transaction.CDOTransactionImpl;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @author Stefan Winkler
  */
@@ -90,6 +96,72 @@ public class CDOIDTest extends AbstractCDOTest
     }
   }
 
+  public void testCreateMap_LongIDs()
+  {
+    Map<CDOID, Integer> map = CDOIDUtil.createMap();
+    Map<CDOID, Integer> expected = new HashMap<>();
+
+    for (int i = 1; i <= 1000; i++)
+    {
+      CDOID id = CDOIDUtil.createLong(i * 7L);
+      map.put(id, i);
+      expected.put(id, i);
+    }
+
+    for (Iterator<Map.Entry<CDOID, Integer>> it = map.entrySet().iterator(); it.hasNext();)
+    {
+      Map.Entry<CDOID, Integer> entry = it.next();
+      if (entry.getValue() % 3 == 0)
+      {
+        it.remove();
+        expected.remove(entry.getKey());
+      }
+    }
+
+    assertTrue(((CDOIDLongMapImpl<?>)map).isPrimitive());
+    assertEquals(expected, map);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertNull(map.get(CDOIDUtil.createLong(3 * 7L)));
+    assertEquals(Integer.valueOf(2), map.get(CDOIDUtil.createLong(2 * 7L)));
+  }
+
+  public void testCreateMap_MixedIDs()
+  {
+    Map<CDOID, String> map = CDOIDUtil.createMap();
+    CDOID longID = CDOIDUtil.createLong(42L);
+    CDOID stringID = CDOIDUtil.createString("42");
+
+    map.put(longID, "long");
+    assertTrue(((CDOIDLongMapImpl<?>)map).isPrimitive());
+
+    map.put(stringID, "string");
+    assertFalse(((CDOIDLongMapImpl<?>)map).isPrimitive());
+    assertEquals(2, map.size());
+    assertEquals("long", map.get(longID));
+    assertEquals("string", map.get(stringID));
+    assertSame(longID, map.keySet().stream().filter(id -> id == longID).findFirst().orElse(null));
+  }
+
+  public void testCreateSet()
+  {
+    Set<CDOID> set = CDOIDUtil.createSet();
+    for (int i = 1; i <= 100; i++)
+    {
+      assertTrue(set.add(CDOIDUtil.createLong(i)));
+    }
+
+    assertFalse(set.add(CDOIDUtil.createLong(1)));
+    assertTrue(set.remove(CDOIDUtil.createLong(1)));
+    assertFalse(set.contains(CDOIDUtil.createLong(1)));
+    assertTrue(set.contains(CDOIDUtil.createLong(100)));
+    assertEquals(99, set.size());
+
+    assertTrue(set.add(CDOID.NULL));
+    assertEquals(100, set.size());
+    assertTrue(set.contains(CDOID.NULL));
+    assertTrue(set.contains(CDOIDUtil.createLong(100)));
+  }
+
   public void testURIFragment() throws Exception
   {
     CDOSession session = openSession();
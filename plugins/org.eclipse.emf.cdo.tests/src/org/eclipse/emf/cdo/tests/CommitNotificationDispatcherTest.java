@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.CDOLock;
+import org.eclipse.emf.cdo.common.CDOCommonSession.Options.LockNotificationMode;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.server.CommitNotificationDispatcher;
+import org.eclipse.emf.cdo.internal.server.Session;
+import org.eclipse.emf.cdo.internal.server.SessionManager;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.ISessionProtocol;
+import org.eclipse.emf.cdo.spi.server.InternalSession;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests the {@link CommitNotificationDispatcher asynchronous dispatching} of commit notifications.
+ *
+ * @author Eike Stepper
+ */
+@CleanRepositoriesBefore(reason = "Commit notification dispatcher")
+@CleanRepositoriesAfter(reason = "Commit notification dispatcher")
+public class CommitNotificationDispatcherTest extends AbstractCDOTest
+{
+  private static final int COALESCING_THRESHOLD = 4;
+
+  private static final int MAX_QUEUE_DEPTH = 20;
+
+  private final List<Long> receivedTimeStamps = new ArrayList<>();
+
+  private final CountDownLatch gate = new CountDownLatch(1);
+
+  private volatile int receiverSessionID;
+
+  private volatile boolean gated;
+
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(IRepository.Props.COMMIT_NOTIFICATION_THREADS, "2");
+    map.put(IRepository.Props.COMMIT_NOTIFICATION_COALESCING_THRESHOLD, Integer.toString(COALESCING_THRESHOLD));
+    map.put(IRepository.Props.COMMIT_NOTIFICATION_MAX_QUEUE_DEPTH, Integer.toString(MAX_QUEUE_DEPTH));
+    return map;
+  }
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    getTestProperties().put(RepositoryConfig.PROP_TEST_SESSION_MANAGER, new SessionManager()
+    {
+      @Override
+      protected InternalSession createSession(int id, String userID, ISessionProtocol protocol)
+      {
+        return new Session(this, protocol, id, userID)
+        {
+          @Override
+          public void sendCommitNotification(CommitNotificationInfo info) throws Exception
+          {
+            if (getSessionID() == receiverSessionID)
+            {
+              if (gated)
+              {
+                await(gate);
+              }
+
+              if (info.getCommitInfo() != null)
+              {
+                synchronized (receivedTimeStamps)
+                {
+                  receivedTimeStamps.add(info.getCommitInfo().getTimeStamp());
+                }
+              }
+            }
+
+            super.sendCommitNotification(info);
+          }
+        };
+      }
+    });
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    gate.countDown();
+    super.doTearDown();
+  }
+
+  public void testOrdering() throws Exception
+  {
+    CDOSession receiver = openReceiver();
+    CDOView view = receiver.openView();
+
+    CDOSession committer = openSession();
+    CDOTransaction transaction = committer.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    Company viewCompany = (Company)view.getResource(getResourcePath("res")).getContents().get(0);
+    long lastCommitTime = 0;
+
+    for (int i = 0; i < 50; i++)
+    {
+      company.setName("Company " + i);
+      lastCommitTime = transaction.commit().getTimeStamp();
+    }
+
+    awaitReceived(lastCommitTime);
+    assertAscending();
+
+    view.waitForUpdate(lastCommitTime, DEFAULT_TIMEOUT);
+    assertEquals("Company 49", viewCompany.getName());
+  }
+
+  public void testCoalescingForSlowConsumer() throws Exception
+  {
+    CDOSession receiver = openReceiver();
+    CDOView view = receiver.openView();
+
+    CDOSession committer = openSession();
+    CDOTransaction transaction = committer.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    CDOResource viewResource = view.getResource(getResourcePath("res"));
+    Company viewCompany = (Company)viewResource.getContents().get(0);
+
+    gated = true;
+    int commits = 10 * COALESCING_THRESHOLD;
+    long lastCommitTime = 0;
+
+    for (int i = 0; i < commits; i++)
+    {
+      company.setName("Company " + i);
+      if (i % 2 == 0)
+      {
+        resource.getContents().add(getModel1Factory().createCompany());
+      }
+
+      lastCommitTime = transaction.commit().getTimeStamp();
+    }
+
+    CommitNotificationDispatcher dispatcher = getDispatcher();
+    assertTrue("Queue too deep: " + dispatcher.getHighestQueueDepth(), dispatcher.getHighestQueueDepth() <= COALESCING_THRESHOLD + 1);
+    assertTrue(dispatcher.getCoalescedNotifications() > 0);
+
+    gate.countDown();
+    awaitReceived(lastCommitTime);
+    assertAscending();
+
+    synchronized (receivedTimeStamps)
+    {
+      assertTrue("Not coalesced: " + receivedTimeStamps.size(), receivedTimeStamps.size() < commits);
+    }
+
+    // The combined invalidations must leave the receiver with the same state as the single ones.
+    view.waitForUpdate(lastCommitTime, DEFAULT_TIMEOUT);
+    assertEquals("Company " + (commits - 1), viewCompany.getName());
+    assertEquals(1 + commits / 2, viewResource.getContents().size());
+  }
+
+  public void testOverflowClosesSlowConsumer() throws Exception
+  {
+    CDOSession receiver = openReceiver();
+    receiver.options().setLockNotificationMode(LockNotificationMode.ALWAYS);
+    int sessionID = receiver.getSessionID();
+
+    CDOSession committer = openSession();
+    CDOTransaction transaction = committer.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    // Block the receiver's queue with a commit notification, then pile up lock notifications, which can't be combined.
+    gated = true;
+    company.setName("Blocked");
+    transaction.commit();
+
+    CDOLock lock = CDOUtil.getCDOObject(company).cdoWriteLock();
+    for (int i = 0; i < 2 * MAX_QUEUE_DEPTH; i++)
+    {
+      lock.lock(DEFAULT_TIMEOUT);
+      lock.unlock();
+    }
+
+    CommitNotificationDispatcher dispatcher = getDispatcher();
+    assertTrue(dispatcher.getDroppedNotifications() > 0);
+    assertTrue("Queue too deep: " + dispatcher.getHighestQueueDepth(), dispatcher.getHighestQueueDepth() <= MAX_QUEUE_DEPTH + 1);
+
+    gate.countDown();
+
+    assertNoTimeout(() -> getRepository().getSessionManager().getSession(sessionID) == null);
+
+    // The other sessions are still served.
+    company.setName("Still notified");
+    transaction.commit();
+  }
+
+  private CDOSession openReceiver()
+  {
+    CDOSession session = openSession();
+    receiverSessionID = session.getSessionID();
+    return session;
+  }
+
+  private CommitNotificationDispatcher getDispatcher()
+  {
+    return ((SessionManager)getRepository().getSessionManager()).getCommitNotificationDispatcher();
+  }
+
+  private void awaitReceived(long timeStamp)
+  {
+    assertNoTimeout(() -> {
+      synchronized (receivedTimeStamps)
+      {
+        return !receivedTimeStamps.isEmpty() && receivedTimeStamps.get(receivedTimeStamps.size() - 1) == timeStamp;
+      }
+    });
+  }
+
+  private void assertAscending()
+  {
+    synchronized (receivedTimeStamps)
+    {
+      long last = 0;
+      for (long timeStamp : receivedTimeStamps)
+      {
+        assertTrue("Notifications out of order: " + receivedTimeStamps, timeStamp > last);
+        last = timeStamp;
+      }
+    }
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository.Props;
+import org.eclipse.emf.cdo.server.StoreThreadLocal;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.ContainmentIndex;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.spi.server.InternalSession;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.util.ContainmentCycleException;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Eike Stepper
+ */
+@CleanRepositoriesBefore(reason = "Instrumented repository")
+@CleanRepositoriesAfter(reason = "Instrumented repository")
+public class ContainmentIndexTest extends AbstractCDOTest
+{
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    Map<String, Object> map = getTestProperties();
+    map.put(Props.CONTAINMENT_INDEX, Boolean.toString(true));
+    super.doSetUp();
+  }
+
+  public void testAncestry() throws Exception
+  {
+    Category a = createCategory("A");
+    Category b = createCategory("B");
+    Category c = createCategory("C");
+    Category d = createCategory("D");
+    Category e = createCategory("E");
+
+    Company r = getModel1Factory().createCompany();
+    r.getCategories().add(a);
+    a.getCategories().add(b);
+    b.getCategories().add(c);
+    r.getCategories().add(d);
+    d.getCategories().add(e);
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    resource.getContents().add(r);
+    transaction.commit();
+
+    ContainmentIndex index = getRepository().getContainmentIndex();
+    assertNotNull(index);
+
+    assertEquals(id(b), index.getParentID(id(c)));
+    assertEquals(id(resource), index.getParentID(id(r)));
+    assertEquals(true, index.isAncestor(id(a), id(c), null));
+    assertEquals(true, index.isAncestor(id(resource), id(c), null));
+    assertEquals(false, index.isAncestor(id(d), id(c), null));
+    assertEquals(false, index.isAncestor(id(c), id(c), null));
+    assertEquals(false, index.isAncestor(id(c), id(a), null));
+    assertEquals(id(a), index.getAncestorOrSelf(id(c), Collections.singleton(id(a)), null));
+    assertEquals(id(c), index.getAncestorOrSelf(id(c), Collections.singleton(id(c)), null));
+    assertEquals(true, index.isRootReachable(id(c), null));
+
+    // Move B from A to E.
+    e.getCategories().add(b);
+    transaction.commit();
+
+    assertEquals(id(e), index.getParentID(id(b)));
+    assertEquals(true, index.isAncestor(id(d), id(c), null));
+    assertEquals(false, index.isAncestor(id(a), id(c), null));
+    assertEquals(true, index.isRootReachable(id(c), null));
+
+    // Detach D, E, B and C.
+    int size = index.size();
+    r.getCategories().remove(d);
+    transaction.commit();
+
+    assertEquals(size - 4, index.size());
+    assertEquals(true, index.isRootReachable(id(a), null));
+  }
+
+  public void testContainmentCycle() throws Exception
+  {
+    Category a1 = createCategory("A");
+    Category b1 = createCategory("B");
+    Category c1 = createCategory("C");
+    Category d1 = createCategory("D");
+    Category e1 = createCategory("E");
+
+    Company r1 = getModel1Factory().createCompany();
+    r1.getCategories().add(a1);
+    a1.getCategories().add(b1);
+    b1.getCategories().add(c1);
+    r1.getCategories().add(d1);
+    d1.getCategories().add(e1);
+
+    CDOSession session1 = openSession();
+    CDOTransaction transaction1 = session1.openTransaction();
+    CDOResource resource1 = transaction1.createResource(getResourcePath("res"));
+    resource1.getContents().add(r1);
+    transaction1.commit();
+
+    CDOSession session2 = openSession();
+    session2.options().setPassiveUpdateEnabled(false); // Important!
+    CDOTransaction transaction2 = session2.openTransaction();
+    CDOResource resource2 = transaction2.getResource(getResourcePath("res"));
+
+    Company r2 = (Company)resource2.getContents().get(0);
+    Category a2 = loadCategory(r2.getCategories(), 0, "A");
+    Category b2 = loadCategory(a2.getCategories(), 0, "B");
+    Category c2 = loadCategory(b2.getCategories(), 0, "C");
+    Category d2 = loadCategory(r2.getCategories(), 1, "D");
+
+    // Client1 - First tree move (element B from A to E).
+    e1.getCategories().add(b1);
+    transaction1.commit();
+
+    // Client2 - Second tree move (element D from R to C).
+    c2.getCategories().add(d2);
+
+    try
+    {
+      transaction2.commit();
+      fail("ContainmentCycleException expected");
+    }
+    catch (ContainmentCycleException expected)
+    {
+      // SUCCESS
+    }
+
+    // The index must not contain the rolled back move.
+    ContainmentIndex index = getRepository().getContainmentIndex();
+    assertEquals(id(r1), index.getParentID(id(d1)));
+    assertEquals(true, index.isRootReachable(id(c1), null));
+  }
+
+  public void testEqualIDs() throws Exception
+  {
+    Category a = createCategory("A");
+    Category b = createCategory("B");
+    a.getCategories().add(b);
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    resource.getContents().add(a);
+    transaction.commit();
+
+    ContainmentIndex index = getRepository().getContainmentIndex();
+    assertEquals(id(a), index.getParentID(copy(id(b))));
+    assertEquals(true, index.isAncestor(copy(id(a)), copy(id(b)), null));
+    assertEquals(false, index.isAncestor(copy(id(b)), id(b), null));
+    assertEquals(id(a), index.getAncestorOrSelf(id(b), Collections.singleton(copy(id(a))), null));
+    assertEquals(true, index.isRootReachable(copy(id(b)), null));
+    assertEquals(CDOID.NULL, index.getParentID(copy(getRepository().getRootResourceID())));
+  }
+
+  public void testLoadsDuringCommits() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    Category parent = createCategory("Parent");
+    resource.getContents().add(parent);
+    transaction.commit();
+
+    InternalRepository repository = getRepository();
+    InternalSession serverSession = repository.getSessionManager().getSession(session.getSessionID());
+    ContainmentIndex index = repository.getContainmentIndex();
+    AtomicReference<CDOID> childID = new AtomicReference<>();
+    AtomicBoolean done = new AtomicBoolean();
+
+    // Loads the parent IDs of the current child, while it's being attached and detached.
+    Thread loader = new Thread(() -> {
+      StoreThreadLocal.setSession(serverSession);
+
+      try
+      {
+        while (!done.get())
+        {
+          CDOID id = childID.get();
+          if (id != null)
+          {
+            index.clear();
+            index.getParentID(id);
+          }
+        }
+      }
+      finally
+      {
+        StoreThreadLocal.release();
+      }
+    });
+
+    loader.start();
+    StoreThreadLocal.setSession(serverSession);
+
+    try
+    {
+      for (int i = 0; i < 50; i++)
+      {
+        Category child = createCategory("Child " + i);
+        parent.getCategories().add(child);
+        transaction.commit();
+
+        childID.set(id(child));
+        sleep(2);
+
+        parent.getCategories().remove(child);
+        transaction.commit();
+
+        // The index must not contain the parent ID of the detached child.
+        sleep(2);
+        assertNull(index.getParentID(childID.get()));
+      }
+    }
+    finally
+    {
+      StoreThreadLocal.release();
+      done.set(true);
+      loader.join(DEFAULT_TIMEOUT);
+    }
+  }
+
+  private Category createCategory(String name)
+  {
+    Category category = getModel1Factory().createCategory();
+    category.setName(name);
+    return category;
+  }
+
+  private static Category loadCategory(EList<Category> categories, int i, String name)
+  {
+    Category category = categories.get(i);
+    assertEquals(name, category.getName());
+    return category;
+  }
+
+  private static CDOID id(EObject object)
+  {
+    return CDOUtil.getCDOObject(object).cdoID();
+  }
+
+  private static CDOID copy(CDOID id)
+  {
+    StringBuilder builder = new StringBuilder();
+    CDOIDUtil.write(builder, id);
+    return CDOIDUtil.read(builder.toString());
+  }
+}
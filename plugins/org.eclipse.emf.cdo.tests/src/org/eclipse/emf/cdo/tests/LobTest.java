@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2019, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2019, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.emf.cdo.tests;
 
 import org.eclipse.emf.cdo.common.lob.CDOBlob;
 import org.eclipse.emf.cdo.common.lob.CDOClob;
+import org.eclipse.emf.cdo.common.lob.CDOLobInfo;
 import org.eclipse.emf.cdo.eresource.CDOResource;
 import org.eclipse.emf.cdo.session.CDOSession;
 import org.eclipse.emf.cdo.spi.common.CDOLobStoreImpl;
@@ -23,10 +24,14 @@ import org.eclipse.emf.cdo.view.CDOView;
 
 import org.eclipse.net4j.util.io.IOUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * @author Eike Stepper
@@ -87,6 +92,119 @@ public class LobTest extends AbstractCDOTest
     }
   }
 
+  public void testReadBlobRange() throws Exception
+  {
+    byte[] expected;
+    try (InputStream inputStream = OM.BUNDLE.getInputStream("backup-tests/Ecore.uml"))
+    {
+      expected = readBytes(inputStream);
+    }
+
+    byte[] lobID = commitBlob();
+    CDOLobStoreImpl.INSTANCE.getBinaryFile(lobID).delete();
+
+    CDOSession session = openSession();
+    CDOView view = session.openView();
+    CDOResource resource = view.getResource(getResourcePath("res"));
+
+    Image image = (Image)resource.getContents().get(0);
+    CDOBlob blob = image.getData();
+
+    // The range is loaded from the repository.
+    assertRange(expected, blob, 1000, 5000);
+    assertRange(expected, blob, expected.length - 100, 5000);
+    assertRange(expected, blob, expected.length + 100, 5000);
+    assertRange(expected, blob, 0, expected.length);
+
+    // A range that is not read to its end doesn't block the session.
+    try (InputStream inputStream = blob.getContents(0, expected.length))
+    {
+      assertEquals(expected[0] & 0xFF, inputStream.read());
+    }
+
+    assertRange(expected, blob, 2000, 3000);
+    assertEquals(false, CDOLobStoreImpl.INSTANCE.getBinaryFile(lobID).exists());
+
+    // The range is read from the local cache.
+    assertEquals(expected.length, blob.getBytes().length);
+    assertRange(expected, blob, 1000, 5000);
+  }
+
+  public void testChunkedLobStore() throws Exception
+  {
+    byte[] contents = new byte[3 * 1024 * 1024];
+    new Random(4711).nextBytes(contents);
+
+    CDOLobStoreImpl store = new CDOLobStoreImpl(createTempFolder());
+    store.setSharded(true);
+    store.setChunked(true);
+
+    CDOLobInfo info = store.putBinary(new ByteArrayInputStream(contents));
+    assertEquals(contents.length, info.getSize());
+    assertEquals(true, store.getManifestFile(info.getID()).isFile());
+    assertNull(store.getBinaryFile(info.getID()));
+
+    // The ID does not depend on how the contents are stored.
+    CDOLobStoreImpl plainStore = new CDOLobStoreImpl(createTempFolder());
+    assertEquals(true, Arrays.equals(info.getID(), plainStore.putBinary(new ByteArrayInputStream(contents)).getID()));
+
+    assertEquals(true, Arrays.equals(contents, readBytes(store.getBinary(info))));
+    assertEquals(true, Arrays.equals(Arrays.copyOfRange(contents, 123456, 123456 + 700000), readBytes(store.getBinary(info, 123456, 700000))));
+
+    java.io.File chunksFolder = new java.io.File(store.getFolder(), "chunks");
+    int chunks = countFiles(chunksFolder);
+    assertEquals(true, chunks > 1);
+
+    // Storing the same contents again writes no chunks.
+    store.putBinary(new ByteArrayInputStream(contents));
+    assertEquals(chunks, countFiles(chunksFolder));
+
+    // Near-identical contents share most of their chunks.
+    byte[] modified = contents.clone();
+    modified[contents.length / 2] ^= 1;
+
+    CDOLobInfo modifiedInfo = store.putBinary(new ByteArrayInputStream(modified));
+    assertEquals(false, Arrays.equals(info.getID(), modifiedInfo.getID()));
+    assertEquals(true, countFiles(chunksFolder) - chunks <= 2);
+    assertEquals(true, Arrays.equals(modified, readBytes(store.getBinary(modifiedInfo))));
+  }
+
+  private static void assertRange(byte[] expected, CDOBlob blob, int offset, int length) throws Exception
+  {
+    int start = Math.min(offset, expected.length);
+    int end = Math.min(expected.length, start + length);
+
+    try (InputStream inputStream = blob.getContents(offset, length))
+    {
+      assertEquals(true, Arrays.equals(Arrays.copyOfRange(expected, start, end), readBytes(inputStream)));
+    }
+  }
+
+  private static byte[] readBytes(InputStream inputStream) throws Exception
+  {
+    try
+    {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      IOUtil.copyBinary(inputStream, outputStream);
+      return outputStream.toByteArray();
+    }
+    finally
+    {
+      IOUtil.close(inputStream);
+    }
+  }
+
+  private static int countFiles(java.io.File folder)
+  {
+    int count = 0;
+    for (java.io.File file : folder.listFiles())
+    {
+      count += file.isDirectory() ? countFiles(file) : 1;
+    }
+
+    return count;
+  }
+
   private byte[] commitClob() throws Exception
   {
     try (InputStream inputStream = OM.BUNDLE.getInputStream("backup-tests/Ecore.uml"))
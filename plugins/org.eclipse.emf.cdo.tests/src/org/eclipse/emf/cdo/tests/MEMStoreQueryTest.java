@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2013, 2019, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2013, 2019, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,10 +13,11 @@ package org.eclipse.emf.cdo.tests;
 
 import org.eclipse.emf.cdo.eresource.CDOResource;
 import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalQueryResult;
 import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Requires;
 import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig.MEMConfig;
 import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig.MEMConfig.MEMStoreAccessor_UT;
-import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig.MEMConfig.MEMStore_UT;
+import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig.MEMConfig.TrackingStore;
 import org.eclipse.emf.cdo.tests.model1.Category;
 import org.eclipse.emf.cdo.tests.model1.Company;
 import org.eclipse.emf.cdo.transaction.CDOTransaction;
@@ -187,7 +188,7 @@ public class MEMStoreQueryTest extends AbstractCDOTest
     CDOTransaction transaction = session.openTransaction();
     CDOQuery query = transaction.createQuery(MEMConfig.TEST_QUERY_LANGUAGE, null);
 
-    Set<MEMStoreAccessor_UT> accessors = ((MEMStore_UT)getRepository().getStore()).getStoreAccessors();
+    Set<MEMStoreAccessor_UT> accessors = ((TrackingStore)getRepository().getStore()).getStoreAccessors();
     int originalAccessors = accessors.size();
 
     CloseableIterator<Object> result = query.getResultAsync(Object.class);
@@ -238,6 +239,95 @@ public class MEMStoreQueryTest extends AbstractCDOTest
     }
   }
 
+  public void testPagedQuery() throws Exception
+  {
+    int pageSize = 10;
+    int integers = 1000;
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOQuery query = transaction.createQuery(MEMConfig.TEST_QUERY_LANGUAGE, "QUERYSTRING");
+    query.setParameter("integers", integers);
+    query.setPageSize(pageSize);
+
+    CDOQueryResultIteratorImpl<?> result = (CDOQueryResultIteratorImpl<?>)query.getResultAsync(Object.class);
+    InternalQueryResult serverResult = getServerQueryResult(result.getQueryID());
+    assertNotNull(serverResult);
+
+    // Let the server produce and send as many results as it is allowed to.
+    assertNoTimeout(() -> serverResult.getCredits() == 0 && serverResult.getBufferedResults() == pageSize);
+    sleep(100);
+    assertEquals(pageSize, serverResult.getSentResults());
+    assertEquals(pageSize, serverResult.getBufferedResults());
+    assertEquals(pageSize, result.getQueue().size());
+
+    for (int i = 1; i <= integers; i++)
+    {
+      assertEquals(true, result.hasNext());
+      assertEquals(i, result.next());
+
+      assertEquals(true, serverResult.getBufferedResults() <= pageSize);
+
+      // At most one page plus the end marker is sent ahead.
+      assertEquals(true, result.getQueue().size() <= pageSize + 1);
+    }
+
+    assertEquals(false, result.hasNext());
+    assertEquals(integers, serverResult.getSentResults());
+    assertNoTimeout(() -> getServerQueryResult(result.getQueryID()) == null);
+
+    session.close();
+  }
+
+  public void testPagedQuery_Cancel() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOQuery query = transaction.createQuery(MEMConfig.TEST_QUERY_LANGUAGE, "QUERYSTRING");
+    query.setParameter("integers", 100000);
+    query.setPageSize(10);
+
+    CDOQueryResultIteratorImpl<?> result = (CDOQueryResultIteratorImpl<?>)query.getResultAsync(Object.class);
+    for (int i = 1; i <= 25; i++)
+    {
+      assertEquals(i, result.next());
+    }
+
+    result.close();
+
+    assertNoTimeout(() -> !getRepository().getQueryManager().isRunning(result.getQueryID()));
+    assertNoTimeout(() -> getServerQueryResult(result.getQueryID()) == null);
+
+    session.close();
+  }
+
+  public void testPagedQuery_Sync() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOQuery query = transaction.createQuery(MEMConfig.TEST_QUERY_LANGUAGE, "QUERYSTRING");
+    query.setParameter("integers", 1000);
+    query.setPageSize(10);
+
+    List<Integer> result = query.getResult(Integer.class);
+    assertEquals(1000, result.size());
+
+    session.close();
+  }
+
+  private InternalQueryResult getServerQueryResult(int queryID)
+  {
+    for (InternalQueryResult queryResult : getRepository().getQueryManager().getQueryResults())
+    {
+      if (queryResult.getQueryID() == queryID)
+      {
+        return queryResult;
+      }
+    }
+
+    return null;
+  }
+
   private CDOTransaction initialize(int number)
   {
     CDOSession session = openSession();
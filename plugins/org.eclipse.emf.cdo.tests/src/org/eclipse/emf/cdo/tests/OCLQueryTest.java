@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2015-2017, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2015-2017, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,8 @@ package org.eclipse.emf.cdo.tests;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.eresource.CDOResource;
 import org.eclipse.emf.cdo.server.ISession;
+import org.eclipse.emf.cdo.server.ocl.OCLQueryCache;
+import org.eclipse.emf.cdo.server.ocl.OCLQueryHandler;
 import org.eclipse.emf.cdo.session.CDOSession;
 import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
 import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
@@ -22,6 +24,7 @@ import org.eclipse.emf.cdo.tests.model1.OrderDetail;
 import org.eclipse.emf.cdo.tests.model1.Product1;
 import org.eclipse.emf.cdo.tests.model1.SalesOrder;
 import org.eclipse.emf.cdo.tests.model1.VAT;
+import org.eclipse.emf.cdo.spi.server.QueryHandlerFactory;
 import org.eclipse.emf.cdo.transaction.CDOTransaction;
 import org.eclipse.emf.cdo.util.CommitException;
 import org.eclipse.emf.cdo.view.CDOQuery;
@@ -138,6 +141,36 @@ public class OCLQueryTest extends AbstractCDOTest
     assertEquals(1, products.size());
   }
 
+  public void testAllProductsWithNameUnfiltered() throws Exception
+  {
+    CDOQuery query = createQuery("Product1.allInstances()->select(p | p.name='1')", getModel1Package().getProduct1());
+    query.setParameter(OCLQueryHandler.FILTERED_EXTENTS_PARAMETER, false);
+
+    List<Product1> products = query.getResult();
+    assertEquals(1, products.size());
+  }
+
+  public void testAllOrderDetailsWithPrice() throws Exception
+  {
+    int expected = 0;
+    for (OrderDetail orderDetail : orderDetails)
+    {
+      if (orderDetail.getPrice() == 0f)
+      {
+        ++expected;
+      }
+    }
+
+    CDOQuery query = createQuery("OrderDetail.allInstances()->select(d | 0 = d.price)", getModel1Package().getOrderDetail());
+
+    List<OrderDetail> result = query.getResult();
+    assertEquals(expected, result.size());
+    for (OrderDetail orderDetail : result)
+    {
+      assertEquals(0f, orderDetail.getPrice());
+    }
+  }
+
   public void testAllProductsWithVAT() throws Exception
   {
     CDOQuery query = createQuery("Product1.allInstances()->select(p | p.vat=VAT::vat15)", getModel1Package().getProduct1());
@@ -222,6 +255,29 @@ public class OCLQueryTest extends AbstractCDOTest
     assertEquals(2, products.size());
   }
 
+  public void testDirtyObjectNotMatching() throws Exception
+  {
+    Product1 product = products.get(1);
+    product.setName("x");
+
+    CDOQuery query = createQuery("Product1.allInstances()->select(p | p.name='1')", getModel1Package().getProduct1(), true);
+
+    List<Product1> products = query.getResult();
+    assertEquals(0, products.size());
+  }
+
+  public void testNewObjectWithName() throws Exception
+  {
+    Product1 product = getModel1Factory().createProduct1();
+    product.setName("1");
+    resource.getContents().add(product);
+
+    CDOQuery query = createQuery("Product1.allInstances()->select(p | p.name='1')", getModel1Package().getProduct1(), true);
+
+    List<Product1> products = query.getResult();
+    assertEquals(2, products.size());
+  }
+
   public void testDetachedObject() throws Exception
   {
     Product1 p1 = getModel1Factory().createProduct1();
@@ -315,6 +371,24 @@ public class OCLQueryTest extends AbstractCDOTest
     assertEquals(originalLength, session.getListeners().length);
   }
 
+  public void testQueryCache() throws Exception
+  {
+    OCLQueryHandler.Factory factory = (OCLQueryHandler.Factory)getServerContainer().getFactory(QueryHandlerFactory.PRODUCT_GROUP,
+        OCLQueryHandler.LANGUAGE_NAME);
+    OCLQueryCache queryCache = factory.getQueryCache();
+
+    CDOQuery query = createQuery("Product1.allInstances()->select(p | p.name=myname)", getModel1Package().getProduct1());
+    query.setParameter("myname", "1");
+    assertEquals(1, query.getResult().size());
+    long hits = queryCache.getHits();
+
+    // Same query text and parameter types, but a different parameter value.
+    query = createQuery("Product1.allInstances()->select(p | p.name=myname)", getModel1Package().getProduct1());
+    query.setParameter("myname", "does not exist");
+    assertEquals(0, query.getResult().size());
+    assertEquals(hits + 1, queryCache.getHits());
+  }
+
   private CDOResource createTestSet(CDOTransaction transaction) throws CommitException
   {
     disableConsole();
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.server.Repository;
+import org.eclipse.emf.cdo.internal.server.TransactionCommitContext;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.spi.server.InternalTransaction;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Requires;
+import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CommitException;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.util.om.monitor.OMMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests the ordering and the visibility of commits if {@link IRepository.Props#PIPELINE_COMMITS} is set.
+ *
+ * @author Eike Stepper
+ */
+@Requires(IRepositoryConfig.CAPABILITY_AUDITING)
+public class PipelinedCommitTest extends AbstractCDOTest
+{
+  private static final int WRITERS = 4;
+
+  private static final int COMMITS_PER_WRITER = 20;
+
+  private volatile int slowSessionID;
+
+  private volatile int fastSessionID;
+
+  private final CountDownLatch slowCommitting = new CountDownLatch(1);
+
+  private final CountDownLatch slowRelease = new CountDownLatch(1);
+
+  private volatile Thread fastThread;
+
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(IRepository.Props.PIPELINE_COMMITS, "true");
+    return map;
+  }
+
+  @CleanRepositoriesBefore(reason = "Pipelined repository")
+  @CleanRepositoriesAfter(reason = "Pipelined repository")
+  public void testOrderAndVisibility() throws Exception
+  {
+    InternalRepository repository = getRepository();
+    long startTime = repository.getLastCommitTimeStamp();
+
+    SortedSet<Long> commitTimes = new TreeSet<>();
+    List<Throwable> exceptions = new ArrayList<>();
+    CountDownLatch startLatch = new CountDownLatch(1);
+    List<Thread> writers = new ArrayList<>();
+
+    for (int i = 0; i < WRITERS; i++)
+    {
+      CDOSession session = openSession();
+      CDOTransaction transaction = session.openTransaction();
+      CDOResource resource = transaction.createResource(getResourcePath("writer-" + i));
+      commitTimes.add(transaction.commit().getTimeStamp());
+
+      Thread writer = new Thread("writer-" + i)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            startLatch.await();
+
+            for (int j = 0; j < COMMITS_PER_WRITER; j++)
+            {
+              Company company = getModel1Factory().createCompany();
+              company.setName(getName() + "-" + j);
+              resource.getContents().add(company);
+
+              long timeStamp = transaction.commit().getTimeStamp();
+              synchronized (commitTimes)
+              {
+                commitTimes.add(timeStamp);
+              }
+            }
+          }
+          catch (Throwable ex)
+          {
+            synchronized (exceptions)
+            {
+              exceptions.add(ex);
+            }
+          }
+        }
+      };
+
+      writer.start();
+      writers.add(writer);
+    }
+
+    List<Long> observedTimes = new ArrayList<>();
+    startLatch.countDown();
+
+    for (Thread writer : writers)
+    {
+      while (writer.isAlive())
+      {
+        observedTimes.add(repository.getLastCommitTimeStamp());
+        writer.join(1);
+      }
+    }
+
+    if (!exceptions.isEmpty())
+    {
+      throw new Exception(exceptions.get(0));
+    }
+
+    assertEquals(WRITERS * (COMMITS_PER_WRITER + 1), commitTimes.size());
+    assertEquals(commitTimes.last().longValue(), repository.getLastCommitTimeStamp());
+
+    long lastObservedTime = startTime;
+    for (long observedTime : observedTimes)
+    {
+      assertTrue("Last commit time went backwards", observedTime >= lastObservedTime);
+      if (observedTime != startTime)
+      {
+        assertTrue("Unknown last commit time " + observedTime, commitTimes.contains(observedTime));
+      }
+
+      lastObservedTime = observedTime;
+    }
+
+    // The first commit of each writer creates its resource, all others add one company.
+    // Every commit must see the results of all commits with smaller timestamps.
+    CDOSession session = openSession();
+    int index = 0;
+
+    for (long commitTime : commitTimes)
+    {
+      CDOView view = session.openView(commitTime);
+      int companies = 0;
+
+      for (int i = 0; i < WRITERS; i++)
+      {
+        String path = getResourcePath("writer-" + i);
+        if (view.hasResource(path))
+        {
+          companies += view.getResource(path).getContents().size();
+        }
+      }
+
+      view.close();
+      assertEquals(Math.max(0, index - WRITERS + 1), companies);
+      ++index;
+    }
+  }
+
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public void testInterruptedCommitIsRolledBack() throws Exception
+  {
+    createInstrumentedRepository();
+
+    CDOSession slowSession = openSession();
+    CDOTransaction slowTransaction = slowSession.openTransaction();
+    CDOResource slowResource = slowTransaction.createResource(getResourcePath("slow"));
+    slowResource.getContents().add(getModel1Factory().createCompany()); // Register the package
+    slowTransaction.commit();
+
+    CDOSession fastSession = openSession();
+    CDOTransaction fastTransaction = fastSession.openTransaction();
+    CDOResource fastResource = fastTransaction.createResource(getResourcePath("fast"));
+    fastTransaction.commit();
+
+    slowSessionID = slowSession.getSessionID();
+    fastSessionID = fastSession.getSessionID();
+
+    Company slowCompany = getModel1Factory().createCompany();
+    slowResource.getContents().add(slowCompany);
+
+    List<Throwable> slowExceptions = new ArrayList<>();
+    Thread slowCommitter = new Thread("slow-committer")
+    {
+      @Override
+      public void run()
+      {
+        try
+        {
+          slowTransaction.commit();
+        }
+        catch (Throwable ex)
+        {
+          slowExceptions.add(ex);
+        }
+      }
+    };
+
+    slowCommitter.start();
+    await(slowCommitting);
+
+    // The fast commit gets a later timestamp and must wait for the slow one before it commits to the store.
+    Company fastCompany = getModel1Factory().createCompany();
+    fastResource.getContents().add(fastCompany);
+
+    List<Throwable> fastExceptions = new ArrayList<>();
+    Thread fastCommitter = new Thread("fast-committer")
+    {
+      @Override
+      public void run()
+      {
+        try
+        {
+          fastTransaction.commit();
+        }
+        catch (Throwable ex)
+        {
+          fastExceptions.add(ex);
+        }
+      }
+    };
+
+    fastCommitter.start();
+
+    new PollingTimeOuter()
+    {
+      @Override
+      protected boolean successful()
+      {
+        Thread thread = fastThread;
+        if (thread != null && thread.getState() == Thread.State.WAITING)
+        {
+          for (StackTraceElement element : thread.getStackTrace())
+          {
+            if ("awaitPredecessors".equals(element.getMethodName()))
+            {
+              return true;
+            }
+          }
+        }
+
+        return false;
+      }
+    }.assertNoTimeOut();
+
+    fastThread.interrupt();
+    fastCommitter.join(DEFAULT_TIMEOUT);
+
+    assertEquals(1, fastExceptions.size());
+    assertInstanceOf(CommitException.class, fastExceptions.get(0));
+
+    slowRelease.countDown();
+    slowCommitter.join(DEFAULT_TIMEOUT);
+    assertEquals(0, slowExceptions.size());
+
+    // The timestamp of the rolled back commit counts as finished, too.
+    long slowCommitTime = slowTransaction.getLastCommitTime();
+    assertTrue(getRepository().getLastCommitTimeStamp() > slowCommitTime);
+
+    CDOSession session = openSession();
+    CDOView view = session.openView();
+    assertEquals(2, view.getResource(getResourcePath("slow")).getContents().size());
+    assertEquals(0, view.getResource(getResourcePath("fast")).getContents().size());
+  }
+
+  private void createInstrumentedRepository()
+  {
+    Repository repository = new Repository.Default()
+    {
+      @Override
+      public InternalCommitContext createCommitContext(InternalTransaction transaction)
+      {
+        return new TransactionCommitContext(transaction)
+        {
+          @Override
+          public void commit(OMMonitor monitor)
+          {
+            if (getTransaction().getSession().getSessionID() == slowSessionID)
+            {
+              slowCommitting.countDown();
+              await(slowRelease);
+            }
+
+            super.commit(monitor);
+          }
+        };
+      }
+
+      @Override
+      protected void commitPipelined(InternalCommitContext commitContext, OMMonitor monitor)
+      {
+        if (commitContext.getTransaction().getSession().getSessionID() == fastSessionID)
+        {
+          fastThread = Thread.currentThread();
+        }
+
+        super.commitPipelined(commitContext, monitor);
+      }
+    };
+
+    Map<String, String> props = getRepositoryProperties();
+    props.put(IRepository.Props.PIPELINE_COMMITS, "true");
+    repository.setProperties(props);
+    repository.setName(IRepositoryConfig.REPOSITORY_NAME);
+
+    getTestProperties().put(RepositoryConfig.PROP_TEST_REPOSITORY, repository);
+  }
+}
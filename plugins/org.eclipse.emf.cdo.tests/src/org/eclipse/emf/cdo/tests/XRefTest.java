@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2013, 2016, 2017, 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2013, 2016, 2017, 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,8 +15,11 @@ import org.eclipse.emf.cdo.CDOObject;
 import org.eclipse.emf.cdo.CDOObjectReference;
 import org.eclipse.emf.cdo.common.model.EMFUtil;
 import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
 import org.eclipse.emf.cdo.session.CDOSession;
 import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
 import org.eclipse.emf.cdo.tests.model1.PurchaseOrder;
 import org.eclipse.emf.cdo.tests.model1.Supplier;
 import org.eclipse.emf.cdo.transaction.CDOTransaction;
@@ -37,6 +40,7 @@ import org.eclipse.emf.ecore.util.EcoreUtil;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Bug 300149: Support remote cross referencing with a convenient API on the client and SPI on the server.
@@ -603,4 +607,23 @@ public class XRefTest extends AbstractCDOTest
     reference.setUpperBound(many ? -1 : 1);
     return reference;
   }
+
+  /**
+   * Runs the same tests against a repository that maintains a {@link IRepository.Props#XREF_INDEX reverse reference
+   * index}.
+   *
+   * @author Eike Stepper
+   */
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public static final class Indexed extends XRefTest
+  {
+    @Override
+    protected void doSetUp() throws Exception
+    {
+      Map<String, Object> map = getTestProperties();
+      map.put(IRepository.Props.XREF_INDEX, Boolean.toString(true));
+      super.doSetUp();
+    }
+  }
 }
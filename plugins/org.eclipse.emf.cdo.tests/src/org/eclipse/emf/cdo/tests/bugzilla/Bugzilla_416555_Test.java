@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2016 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2013, 2016, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,13 @@
  */
 package org.eclipse.emf.cdo.tests.bugzilla;
 
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.server.StoreThreadLocal;
 import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.tests.AbstractCDOTest;
 import org.eclipse.emf.cdo.tests.model1.Order;
 import org.eclipse.emf.cdo.tests.model1.PurchaseOrder;
@@ -22,9 +27,15 @@ import org.eclipse.emf.cdo.view.CDOView;
 
 import org.eclipse.net4j.util.collection.CloseableIterator;
 
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Bug 416555: Provide CDOView.queryInstances(EClass).
@@ -146,4 +157,60 @@ public class Bugzilla_416555_Test extends AbstractCDOTest
 
     assertEquals(expected, count);
   }
+
+  /**
+   * Runs the same tests against a repository that reads the revisions of the queried classes with
+   * {@link IRepository.Props#HANDLE_REVISIONS_PARALLELISM several threads}.
+   *
+   * @author Eike Stepper
+   */
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public static final class Parallel extends Bugzilla_416555_Test
+  {
+    @Override
+    protected void doSetUp() throws Exception
+    {
+      Map<String, Object> map = getTestProperties();
+      map.put(IRepository.Props.HANDLE_REVISIONS_PARALLELISM, Integer.toString(4));
+      super.doSetUp();
+    }
+
+    public void testHelperThreads() throws Exception
+    {
+      CDOSession session = openSession();
+      CDOTransaction transaction = session.openTransaction();
+      CDOResource resource = transaction.createResource(getResourcePath("/test1"));
+      resource.getContents().add(getModel1Factory().createPurchaseOrder());
+      resource.getContents().add(getModel1Factory().createSalesOrder());
+      transaction.commit();
+
+      InternalRepository repository = getRepository();
+      EPackage ePackage = repository.getPackageRegistry().getEPackage(getModel1Package().getNsURI());
+      List<EClass> eClasses = Arrays.asList((EClass)ePackage.getEClassifier("PurchaseOrder"), (EClass)ePackage.getEClassifier("SalesOrder"));
+      CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+      Set<String> threadNames = new HashSet<>();
+
+      StoreThreadLocal.setSession(repository.getSessionManager().getSession(session.getSessionID()));
+
+      try
+      {
+        repository.handleClassRevisions(eClasses, mainBranch, false, CDOBranchPoint.UNSPECIFIED_DATE, false, revision -> {
+          threadNames.add(Thread.currentThread().getName());
+          return true;
+        });
+      }
+      finally
+      {
+        StoreThreadLocal.release();
+      }
+
+      // The helpers must not be threads of the shared executor service.
+      String callerName = Thread.currentThread().getName();
+      for (String threadName : threadNames)
+      {
+        assertEquals(threadName, true, threadName.equals(callerName) || threadName.startsWith("CDOClassRevisionsHandler"));
+      }
+    }
+  }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2013, 2016, 2017, 2020, 2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2013, 2016, 2017, 2020, 2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,6 +35,8 @@ public interface IConstants
 
   public static final RepositoryConfig MEM_EMBEDDED_BRANCHES = new MEMConfig.Embedded().supportingBranches(true);
 
+  public static final RepositoryConfig MEM_CONCURRENT_BRANCHES = new MEMConfig.Concurrent().supportingBranches(true);
+
   public static final SessionConfig EMBEDDED = Net4j.JVM.Embedded.INSTANCE;
 
   public static final SessionConfig JVM = Net4j.JVM.INSTANCE;
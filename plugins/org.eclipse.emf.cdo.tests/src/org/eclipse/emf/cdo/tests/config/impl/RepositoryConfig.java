@@ -29,6 +29,7 @@ import org.eclipse.emf.cdo.internal.common.revision.NOOPRevisionCache;
 import org.eclipse.emf.cdo.internal.net4j.CDONet4jSessionConfigurationImpl;
 import org.eclipse.emf.cdo.internal.net4j.CDONet4jSessionImpl;
 import org.eclipse.emf.cdo.internal.server.Repository;
+import org.eclipse.emf.cdo.internal.server.mem.ConcurrentMEMStore;
 import org.eclipse.emf.cdo.internal.server.mem.MEMStore;
 import org.eclipse.emf.cdo.internal.server.mem.MEMStoreAccessor;
 import org.eclipse.emf.cdo.internal.server.syncing.OfflineClone;
@@ -1430,9 +1431,19 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
     }
 
     /**
+     * A MEM store that keeps track of its active reader {@link MEMStoreAccessor_UT accessors}.
+     *
      * @author Eike Stepper
      */
-    public static class MEMStore_UT extends MEMStore
+    public interface TrackingStore
+    {
+      public Set<MEMStoreAccessor_UT> getStoreAccessors();
+    }
+
+    /**
+     * @author Eike Stepper
+     */
+    public static class MEMStore_UT extends MEMStore implements TrackingStore
     {
       private final Set<MEMStoreAccessor_UT> storeAccessors = Collections.synchronizedSet(new HashSet<>());
 
@@ -1445,6 +1456,7 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
         super(listLimit);
       }
 
+      @Override
       public Set<MEMStoreAccessor_UT> getStoreAccessors()
       {
         return Collections.unmodifiableSet(storeAccessors);
@@ -1476,6 +1488,45 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
       }
     }
 
+    /**
+     * @author Eike Stepper
+     */
+    public static class ConcurrentMEMStore_UT extends ConcurrentMEMStore implements TrackingStore
+    {
+      private final Set<MEMStoreAccessor_UT> storeAccessors = Collections.synchronizedSet(new HashSet<>());
+
+      public ConcurrentMEMStore_UT()
+      {
+      }
+
+      @Override
+      public Set<MEMStoreAccessor_UT> getStoreAccessors()
+      {
+        return Collections.unmodifiableSet(storeAccessors);
+      }
+
+      @Override
+      public MEMStoreAccessor createReader(ISession session)
+      {
+        MEMStoreAccessor_UT accessor = new MEMStoreAccessor_UT(this, session);
+        storeAccessors.add(accessor);
+        return accessor;
+      }
+
+      @Override
+      public MEMStoreAccessor createWriter(ITransaction transaction)
+      {
+        return new MEMStoreAccessor_UT(this, transaction);
+      }
+
+      @Override
+      protected void releaseAccessor(StoreAccessorBase accessor)
+      {
+        storeAccessors.remove(accessor);
+        super.releaseAccessor(accessor);
+      }
+    }
+
     /**
      * @author Eike Stepper
      */
@@ -1706,6 +1757,27 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
         return repository;
       }
     }
+
+    /**
+     * Runs the MEM tests against a {@link ConcurrentMEMStore}.
+     *
+     * @author Eike Stepper
+     */
+    public static class Concurrent extends MEMConfig
+    {
+      private static final long serialVersionUID = 1L;
+
+      public Concurrent()
+      {
+        super(STORE_NAME + "Concurrent");
+      }
+
+      @Override
+      public IStore createStore(String repoName)
+      {
+        return new ConcurrentMEMStore_UT();
+      }
+    }
   }
 
   /**
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the memory per entry and the lookup latency of {@link CDOIDUtil#createMap()} with a plain {@link HashMap}
+ * for long IDs. The number of entries can be set with the system property
+ * <code>org.eclipse.emf.cdo.tests.performance.CDOIDMapPerformanceTest.entries</code>; 10 million entries need a heap
+ * of about 2 GB.
+ *
+ * @author Eike Stepper
+ */
+public class CDOIDMapPerformanceTest extends PerformanceTest
+{
+  private static final int ENTRIES = Integer.getInteger(CDOIDMapPerformanceTest.class.getName() + ".entries", 1000000);
+
+  private static final int LOOKUPS = 10000000;
+
+  public void testHashMap() throws Exception
+  {
+    run(new HashMap<>());
+  }
+
+  public void testCDOIDMap() throws Exception
+  {
+    run(CDOIDUtil.createMap());
+  }
+
+  private void run(Map<CDOID, Object> map) throws Exception
+  {
+    CDOID[] ids = new CDOID[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++)
+    {
+      ids[i] = CDOIDUtil.createLong(i + 1);
+    }
+
+    Object value = new Object();
+    long before = usedMemory();
+
+    for (int i = 0; i < ENTRIES; i++)
+    {
+      map.put(ids[i], value);
+    }
+
+    long bytesPerEntry = (usedMemory() - before) / ENTRIES;
+
+    Random random = new Random(4711);
+    int[] indexes = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++)
+    {
+      indexes[i] = random.nextInt(ENTRIES);
+    }
+
+    int hits = 0;
+    startProbing();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < LOOKUPS; i++)
+    {
+      if (map.get(ids[indexes[i]]) == value)
+      {
+        ++hits;
+      }
+    }
+
+    long nanos = System.nanoTime() - start;
+    stopProbing();
+
+    assertEquals(LOOKUPS, hits);
+    msg(getName() + ": " + ENTRIES + " entries, " + bytesPerEntry + " bytes/entry, " + nanos / LOOKUPS + " nanos/lookup");
+  }
+
+  private static long usedMemory() throws InterruptedException
+  {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++)
+    {
+      System.gc();
+      Thread.sleep(50);
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
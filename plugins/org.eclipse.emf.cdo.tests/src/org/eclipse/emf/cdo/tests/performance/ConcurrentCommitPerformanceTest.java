@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the commit throughput of several concurrent writers with serialized and with pipelined commits.
+ *
+ * @author Eike Stepper
+ */
+public class ConcurrentCommitPerformanceTest extends PerformanceTest
+{
+  private static final int WRITERS = 8;
+
+  private static final int COMMITS_PER_WRITER = 100;
+
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(IRepository.Props.SERIALIZE_COMMITS, "true");
+    map.put(IRepository.Props.PIPELINE_COMMITS, Boolean.toString(getName().endsWith("Pipelined")));
+    return map;
+  }
+
+  public void testSerialized() throws Exception
+  {
+    runWriters();
+  }
+
+  public void testPipelined() throws Exception
+  {
+    runWriters();
+  }
+
+  private void runWriters() throws Exception
+  {
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final List<Throwable> exceptions = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+
+    for (int i = 0; i < WRITERS; i++)
+    {
+      final CDOSession session = openSession();
+      final CDOTransaction transaction = session.openTransaction();
+      final CDOResource resource = transaction.createResource(getResourcePath("writer-" + i));
+      transaction.commit();
+
+      Thread thread = new Thread("writer-" + i)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            startLatch.await();
+
+            for (int j = 0; j < COMMITS_PER_WRITER; j++)
+            {
+              Company company = getModel1Factory().createCompany();
+              company.setName(getName() + "-" + j);
+              resource.getContents().add(company);
+              transaction.commit();
+            }
+          }
+          catch (Throwable ex)
+          {
+            synchronized (exceptions)
+            {
+              exceptions.add(ex);
+            }
+          }
+        }
+      };
+
+      thread.start();
+      threads.add(thread);
+    }
+
+    startProbing();
+    long start = System.currentTimeMillis();
+    startLatch.countDown();
+
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    long duration = Math.max(1L, System.currentTimeMillis() - start);
+    stopProbing();
+
+    if (!exceptions.isEmpty())
+    {
+      throw new Exception(exceptions.get(0));
+    }
+
+    int commits = WRITERS * COMMITS_PER_WRITER;
+    msg(getName() + ": " + commits + " commits in " + duration + " millis = " + commits * 1000L / duration + " commits/sec");
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.CDOServerExporter;
+import org.eclipse.emf.cdo.server.CDOServerImporter;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.tests.model1.Customer;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+
+import org.eclipse.net4j.util.io.IOUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how fast a repository is exported and imported with the {@link CDOServerExporter.Binary binary} and the
+ * {@link CDOServerExporter.Segmented segmented} exporters and importers.
+ * <p>
+ * Pass <code>-Dorg.eclipse.emf.cdo.tests.performance.ExportImportPerformanceTest.objects=1000000</code> to vary the
+ * number of committed objects and <code>...parallelism=4</code> to vary the number of threads of the segmented exporter
+ * and importer.
+ *
+ * @author Eike Stepper
+ */
+public class ExportImportPerformanceTest extends PerformanceTest
+{
+  private static final String PREFIX = ExportImportPerformanceTest.class.getName() + ".";
+
+  private static final int OBJECTS = Integer.getInteger(PREFIX + "objects", 100000);
+
+  private static final int PARALLELISM = Integer.getInteger(PREFIX + "parallelism", CDOServerExporter.Segmented.DEFAULT_PARALLELISM);
+
+  private static final int OBJECTS_PER_COMMIT = 10000;
+
+  private static final AtomicInteger TARGET_REPOSITORIES = new AtomicInteger();
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    skipStoreWithoutRawAccess();
+  }
+
+  @CleanRepositoriesBefore(reason = "Inactive repository required")
+  public void testBinary() throws Exception
+  {
+    commitObjects();
+
+    File file = createTempFile();
+    startProbing();
+    long start = System.nanoTime();
+
+    CDOServerExporter.Binary exporter = new CDOServerExporter.Binary(getRepository());
+    OutputStream out = new FileOutputStream(file);
+
+    try
+    {
+      exporter.exportRepository(out);
+    }
+    finally
+    {
+      IOUtil.close(out);
+    }
+
+    long exported = System.nanoTime();
+
+    CDOServerImporter.Binary importer = new CDOServerImporter.Binary(getTargetRepository());
+    InputStream in = new FileInputStream(file);
+
+    try
+    {
+      importer.importRepository(in);
+    }
+    finally
+    {
+      IOUtil.close(in);
+    }
+
+    long imported = System.nanoTime();
+    stopProbing();
+
+    report(exporter.getStatistics().revisions, exported - start, imported - exported);
+  }
+
+  @CleanRepositoriesBefore(reason = "Inactive repository required")
+  public void testSegmented() throws Exception
+  {
+    commitObjects();
+
+    File folder = createTempFolder();
+    startProbing();
+    long start = System.nanoTime();
+
+    CDOServerExporter.Segmented exporter = new CDOServerExporter.Segmented(getRepository());
+    exporter.setParallelism(PARALLELISM);
+    exporter.exportRepository(folder);
+
+    long exported = System.nanoTime();
+
+    CDOServerImporter.Segmented importer = new CDOServerImporter.Segmented(getTargetRepository());
+    importer.setParallelism(PARALLELISM);
+    importer.importRepository(folder);
+
+    long imported = System.nanoTime();
+    stopProbing();
+
+    report(exporter.getStatistics().revisions, exported - start, imported - exported);
+  }
+
+  private void commitObjects() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    msg("Committing " + OBJECTS + " objects ...");
+
+    for (int i = 0; i < OBJECTS; i += 3)
+    {
+      Category category = getModel1Factory().createCategory();
+      category.setName("Category " + i);
+
+      Customer customer = getModel1Factory().createCustomer();
+      customer.setName("Customer " + i);
+
+      Company company = getModel1Factory().createCompany();
+      company.setName("Company " + i);
+      company.getCategories().add(category);
+      company.getCustomers().add(customer);
+
+      resource.getContents().add(company);
+
+      if ((i + 3) % OBJECTS_PER_COMMIT < 3)
+      {
+        transaction.commit();
+      }
+    }
+
+    transaction.commit();
+    session.close();
+  }
+
+  private InternalRepository getTargetRepository()
+  {
+    return getRepository("target" + TARGET_REPOSITORIES.incrementAndGet(), false);
+  }
+
+  private void report(long revisions, long exportNanos, long importNanos)
+  {
+    long exportMillis = Math.max(1L, exportNanos / 1000000L);
+    long importMillis = Math.max(1L, importNanos / 1000000L);
+
+    msg(getName() + ": exported " + revisions + " revisions in " + exportMillis + " millis = " + revisions * 1000L / exportMillis + " revisions/sec");
+    msg(getName() + ": imported " + revisions + " revisions in " + importMillis + " millis = " + revisions * 1000L / importMillis + " revisions/sec");
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionManager;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Requires;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures point-in-time reads of a long-lived object with many historical versions from the revision cache.
+ *
+ * @author Eike Stepper
+ */
+@Requires(IRepositoryConfig.CAPABILITY_AUDITING)
+public class HistoricalReadPerformanceTest extends PerformanceTest
+{
+  private static final int VERSIONS = 2000;
+
+  private static final int READS = 1000000;
+
+  public void testHistoricalReads() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    msg("Committing " + VERSIONS + " versions ...");
+    long[] timeStamps = new long[VERSIONS];
+
+    for (int i = 0; i < VERSIONS; i++)
+    {
+      company.setName("Company " + i);
+      timeStamps[i] = transaction.commit().getTimeStamp();
+    }
+
+    CDOID id = CDOUtil.getCDOObject(company).cdoID();
+    CDOBranch branch = transaction.getBranch();
+    CDORevisionManager revisionManager = session.getRevisionManager();
+
+    // Load all versions into the cache and keep them strongly reachable.
+    List<CDORevision> revisions = new ArrayList<>();
+    for (int i = 0; i < VERSIONS; i++)
+    {
+      revisions.add(revisionManager.getRevision(id, branch.getPoint(timeStamps[i]), CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true));
+    }
+
+    Random random = new Random(4711);
+    int[] indexes = new int[READS];
+    for (int i = 0; i < READS; i++)
+    {
+      indexes[i] = random.nextInt(VERSIONS);
+    }
+
+    startProbing();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < READS; i++)
+    {
+      CDORevision revision = revisionManager.getRevision(id, branch.getPoint(timeStamps[indexes[i]]), CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE,
+          false);
+      assertNotNull(revision);
+    }
+
+    long nanos = System.nanoTime() - start;
+    stopProbing();
+
+    msg(getName() + ": " + READS + " reads of " + revisions.size() + " versions, " + nanos / READS + " nanos/read");
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.model.EMFUtil;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how fast all instances of an abstract class with many concrete subclasses are queried, once with one thread
+ * per query and once with {@link IRepository.Props#HANDLE_REVISIONS_PARALLELISM several threads} that read the
+ * revisions of different subclasses.
+ * <p>
+ * Pass <code>-Dorg.eclipse.emf.cdo.tests.performance.InstancesQueryPerformanceTest.subclasses=500</code> to vary the
+ * number of subclasses, <code>...instances=100</code> to vary the number of instances per subclass,
+ * <code>...queries=10</code> to vary the number of queries and <code>...parallelism=16</code> to vary the number of
+ * threads.
+ *
+ * @author Eike Stepper
+ */
+public class InstancesQueryPerformanceTest extends PerformanceTest
+{
+  private static final String PREFIX = InstancesQueryPerformanceTest.class.getName() + ".";
+
+  private static final int SUBCLASSES = Integer.getInteger(PREFIX + "subclasses", 200);
+
+  private static final int INSTANCES = Integer.getInteger(PREFIX + "instances", 50);
+
+  private static final int QUERIES = Integer.getInteger(PREFIX + "queries", 10);
+
+  private static final int PARALLELISM = Integer.getInteger(PREFIX + "parallelism", 8);
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    Map<String, Object> map = getTestProperties();
+    map.put(IRepository.Props.HANDLE_REVISIONS_PARALLELISM, Integer.toString(getName().endsWith("Parallel") ? PARALLELISM : 1));
+    super.doSetUp();
+  }
+
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public void testQueryInstances() throws Exception
+  {
+    runQueries();
+  }
+
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public void testQueryInstancesParallel() throws Exception
+  {
+    runQueries();
+  }
+
+  private void runQueries() throws Exception
+  {
+    EClass baseClass = commitInstances();
+
+    CDOSession session = openSession();
+    CDOView view = session.openView();
+
+    msg("Querying all instances of " + SUBCLASSES + " subclasses " + QUERIES + " times ...");
+    startProbing();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < QUERIES; i++)
+    {
+      List<EObject> instances = view.queryInstances(baseClass);
+      assertEquals(SUBCLASSES * INSTANCES, instances.size());
+    }
+
+    long duration = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+    stopProbing();
+
+    msg(getName() + ": " + QUERIES + " queries in " + duration + " millis = " + duration / QUERIES + " millis/query");
+    session.close();
+  }
+
+  private EClass commitInstances() throws Exception
+  {
+    EPackage ePackage = createUniquePackage();
+    EClass baseClass = EMFUtil.createEClass(ePackage, "Base", true, false);
+    EMFUtil.createEAttribute(baseClass, "name", EcorePackage.eINSTANCE.getEString());
+
+    EClass[] subclasses = new EClass[SUBCLASSES];
+    for (int i = 0; i < SUBCLASSES; i++)
+    {
+      subclasses[i] = EMFUtil.createEClass(ePackage, "Sub" + i, false, false);
+      subclasses[i].getESuperTypes().add(baseClass);
+    }
+
+    if (!isConfig(LEGACY))
+    {
+      CDOUtil.prepareDynamicEPackage(ePackage);
+    }
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    msg("Committing " + SUBCLASSES * INSTANCES + " instances of " + SUBCLASSES + " subclasses ...");
+
+    for (EClass subclass : subclasses)
+    {
+      for (int i = 0; i < INSTANCES; i++)
+      {
+        resource.getContents().add(EcoreUtil.create(subclass));
+      }
+
+      transaction.commit();
+    }
+
+    session.close();
+    return baseClass;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how fast the repository loads many revisions that are requested at once and are not cached on the server.
+ *
+ * @author Eike Stepper
+ */
+public class LoadRevisionsPerformanceTest extends PerformanceTest
+{
+  private static final int OBJECTS = Integer.getInteger("org.eclipse.emf.cdo.tests.performance.LoadRevisionsPerformanceTest.objects", 100000);
+
+  private static final int OBJECTS_PER_COMMIT = 10000;
+
+  public void testLoadRevisions() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    msg("Committing " + OBJECTS + " objects ...");
+    List<Company> companies = new ArrayList<>(OBJECTS);
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = getModel1Factory().createCategory();
+      category.setName("Category " + i);
+
+      Company company = getModel1Factory().createCompany();
+      company.setName("Company " + i);
+      company.getCategories().add(category);
+
+      resource.getContents().add(company);
+      companies.add(company);
+
+      if ((i + 1) % OBJECTS_PER_COMMIT == 0)
+      {
+        transaction.commit();
+      }
+    }
+
+    transaction.commit();
+
+    List<CDOID> ids = new ArrayList<>(OBJECTS);
+    for (Company company : companies)
+    {
+      ids.add(CDOUtil.getCDOObject(company).cdoID());
+    }
+
+    CDOBranchPoint head = transaction.getBranch().getHead();
+    session.close();
+
+    clearCache(getRepository().getRevisionManager());
+    session = openSession();
+
+    startProbing();
+    long start = System.currentTimeMillis();
+
+    List<CDORevision> revisions = session.getRevisionManager().getRevisions(ids, head, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true);
+
+    long duration = Math.max(1L, System.currentTimeMillis() - start);
+    stopProbing();
+
+    assertEquals(OBJECTS, revisions.size());
+    msg(getName() + ": " + OBJECTS + " revisions in " + duration + " millis = " + OBJECTS * 1000L / duration + " revisions/sec");
+  }
+}
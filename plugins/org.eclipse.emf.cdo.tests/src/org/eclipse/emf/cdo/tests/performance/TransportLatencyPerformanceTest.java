@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionManager;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.net4j.CDONet4jSessionConfiguration;
+import org.eclipse.emf.cdo.net4j.CDONet4jUtil;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.config.ISessionConfig;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Requires;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+
+import org.eclipse.net4j.acceptor.IAcceptor;
+import org.eclipse.net4j.connector.IConnector;
+import org.eclipse.net4j.tcp.unix.UnixUtil;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the round-trip latency of loading single revisions through a TCP loopback connection with the latency
+ * through a Unix-domain socket connection.
+ *
+ * @author Eike Stepper
+ */
+@Requires(ISessionConfig.CAPABILITY_NET4J_TCP)
+public class TransportLatencyPerformanceTest extends PerformanceTest
+{
+  private static final int OBJECTS = Integer.getInteger("org.eclipse.emf.cdo.tests.performance.TransportLatencyPerformanceTest.objects", 10000);
+
+  private static final int WARMUP_OBJECTS = Math.min(1000, OBJECTS / 10);
+
+  public void testRevisionLoadLatency() throws Exception
+  {
+    if (!UnixUtil.isSupported())
+    {
+      msg("Unix-domain sockets are not supported by this Java platform");
+      return;
+    }
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    List<Company> companies = new ArrayList<>(OBJECTS);
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Company company = getModel1Factory().createCompany();
+      company.setName("Company " + i);
+      resource.getContents().add(company);
+      companies.add(company);
+    }
+
+    transaction.commit();
+
+    List<CDOID> ids = new ArrayList<>(OBJECTS);
+    for (Company company : companies)
+    {
+      ids.add(CDOUtil.getCDOObject(company).cdoID());
+    }
+
+    CDOBranchPoint head = transaction.getBranch().getHead();
+    session.close();
+
+    File socketFile = new File(createTempFolder(), "cdo.sock");
+    IAcceptor acceptor = UnixUtil.getAcceptor(getServerContainer(), socketFile.getAbsolutePath());
+
+    try
+    {
+      // The revisions are cached on the server now, so that only the transport makes a difference.
+      measure("TCP", openSession(), ids, head);
+
+      IConnector connector = UnixUtil.getConnector(getClientContainer(), socketFile.getAbsolutePath());
+      CDONet4jSessionConfiguration configuration = CDONet4jUtil.createNet4jSessionConfiguration();
+      configuration.setConnector(connector);
+      configuration.setRepositoryName(IRepositoryConfig.REPOSITORY_NAME);
+      measure("Unix", openSession(configuration), ids, head);
+
+      LifecycleUtil.deactivate(connector);
+    }
+    finally
+    {
+      LifecycleUtil.deactivate(acceptor);
+    }
+  }
+
+  private void measure(String transport, CDOSession session, List<CDOID> ids, CDOBranchPoint head)
+  {
+    CDORevisionManager revisionManager = session.getRevisionManager();
+    for (int i = 0; i < WARMUP_OBJECTS; i++)
+    {
+      revisionManager.getRevision(ids.get(i), head, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true);
+    }
+
+    int count = ids.size() - WARMUP_OBJECTS;
+    long[] latencies = new long[count];
+
+    startProbing();
+
+    for (int i = 0; i < count; i++)
+    {
+      long start = System.nanoTime();
+      CDORevision revision = revisionManager.getRevision(ids.get(WARMUP_OBJECTS + i), head, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true);
+      latencies[i] = System.nanoTime() - start;
+      assertNotNull(revision);
+    }
+
+    stopProbing();
+    session.close();
+
+    Arrays.sort(latencies);
+    long total = 0;
+    for (long latency : latencies)
+    {
+      total += latency;
+    }
+
+    msg(transport + ": " + count + " revision loads, mean = " + total / count / 1000L + " micros, p50 = " + latencies[count / 2] / 1000L + " micros, p99 = "
+        + latencies[Math.min(count - 1, count * 99 / 100)] / 1000L + " micros");
+  }
+}
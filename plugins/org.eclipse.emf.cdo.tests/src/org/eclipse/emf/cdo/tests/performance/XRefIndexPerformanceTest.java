@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.model4.ContainedElementNoOpposite;
+import org.eclipse.emf.cdo.tests.model4.RefSingleNonContainedNPL;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+import java.util.Map;
+
+/**
+ * Measures how fast objects are deleted from a big model in a repository that
+ * {@link IRepository.Props#ENSURE_REFERENTIAL_INTEGRITY ensures the referential integrity}, once with the cross
+ * reference queries of the store and once with a {@link IRepository.Props#XREF_INDEX reverse reference index}.
+ * <p>
+ * Pass <code>-Dorg.eclipse.emf.cdo.tests.performance.XRefIndexPerformanceTest.objects=5000000</code> to vary the number
+ * of objects in the model and <code>...deletes=100</code> to vary the number of delete commits.
+ *
+ * @author Eike Stepper
+ */
+public class XRefIndexPerformanceTest extends PerformanceTest
+{
+  private static final String PREFIX = XRefIndexPerformanceTest.class.getName() + ".";
+
+  private static final int OBJECTS = Integer.getInteger(PREFIX + "objects", 100000);
+
+  private static final int DELETES = Integer.getInteger(PREFIX + "deletes", 100);
+
+  private static final int OBJECTS_PER_RESOURCE = 1000;
+
+  private static final int OBJECTS_PER_COMMIT = 10000;
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    Map<String, Object> map = getTestProperties();
+    map.put(IRepository.Props.ENSURE_REFERENTIAL_INTEGRITY, Boolean.toString(true));
+    map.put(IRepository.Props.XREF_INDEX, Boolean.toString(getName().endsWith("Indexed")));
+
+    super.doSetUp();
+    skipStoreWithoutQueryXRefs();
+  }
+
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public void testDelete() throws Exception
+  {
+    runQueries();
+  }
+
+  @CleanRepositoriesBefore(reason = "Instrumented repository")
+  @CleanRepositoriesAfter(reason = "Instrumented repository")
+  public void testDeleteIndexed() throws Exception
+  {
+    runQueries();
+  }
+
+  private void runQueries() throws Exception
+  {
+    int resources = commitObjects();
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+
+    msg("Deleting " + DELETES + " pairs of objects ...");
+    startProbing();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < DELETES; i++)
+    {
+      CDOResource resource = transaction.getResource(getResourcePath("res" + i % resources));
+      EList<EObject> contents = resource.getContents();
+
+      // Delete a source together with its target, so that the referential integrity is preserved.
+      RefSingleNonContainedNPL source = (RefSingleNonContainedNPL)contents.get(contents.size() - 1);
+      contents.remove(source.getElement());
+      contents.remove(source);
+
+      transaction.commit();
+    }
+
+    long duration = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+    stopProbing();
+
+    msg(getName() + ": " + DELETES + " delete commits in " + duration + " millis = " + DELETES * 1000L / duration + " commits/sec");
+    session.close();
+  }
+
+  private int commitObjects() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = null;
+    int resources = 0;
+
+    msg("Committing " + OBJECTS + " objects ...");
+
+    for (int i = 0; i < OBJECTS; i += 2)
+    {
+      if (i % OBJECTS_PER_RESOURCE == 0)
+      {
+        resource = transaction.createResource(getResourcePath("res" + resources++));
+      }
+
+      ContainedElementNoOpposite target = getModel4Factory().createContainedElementNoOpposite();
+      RefSingleNonContainedNPL source = getModel4Factory().createRefSingleNonContainedNPL();
+      source.setElement(target);
+
+      EList<EObject> contents = resource.getContents();
+      contents.add(target);
+      contents.add(source);
+
+      if ((i + 2) % OBJECTS_PER_COMMIT == 0)
+      {
+        transaction.commit();
+      }
+    }
+
+    transaction.commit();
+    session.close();
+    return resources;
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.revisioncache;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionCache.AdditionEvent;
+import org.eclipse.emf.cdo.common.revision.CDORevisionCache.EvictionEvent;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheOffHeap;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.tests.AbstractCDOTest;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Requires;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.util.event.IEvent;
+import org.eclipse.net4j.util.event.IListener;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests the {@link CDORevisionCacheOffHeap off-heap revision cache}.
+ *
+ * @author Eike Stepper
+ */
+@Requires(IRepositoryConfig.CAPABILITY_BRANCHING)
+public class OffHeapRevisionCacheTest extends AbstractCDOTest
+{
+  private static final long MAX_BYTES = 64 * 1024;
+
+  private static final int SEGMENT_SIZE = 4096;
+
+  private static final long FIRST_ID = 1000000;
+
+  private InternalRepository repository;
+
+  private InternalCDORevision template;
+
+  private EStructuralFeature nameFeature;
+
+  private CDORevisionCacheOffHeap cache;
+
+  private final Set<String> added = new HashSet<>();
+
+  private final Set<String> evicted = new HashSet<>();
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+
+    // Register the model in the repository and get a server-side revision to copy from.
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+    Company company = getModel1Factory().createCompany();
+    company.setName("Template");
+    resource.getContents().add(company);
+    transaction.commit();
+
+    repository = getRepository();
+    CDOID id = CDOUtil.getCDOObject(company).cdoID();
+    template = repository.getRevisionManager().getRevision(id, repository.getBranchManager().getMainBranch().getHead(), CDORevision.UNCHUNKED,
+        CDORevision.DEPTH_NONE, true);
+    nameFeature = template.getEClass().getEStructuralFeature("name");
+    session.close();
+
+    cache = new CDORevisionCacheOffHeap();
+    cache.setPackageRegistry(repository.getPackageRegistry());
+    cache.setBranchManager(repository.getBranchManager());
+    cache.setMaxBytes(MAX_BYTES);
+    cache.setSegmentSize(SEGMENT_SIZE);
+    cache.addListener(new IListener()
+    {
+      @Override
+      public void notifyEvent(IEvent event)
+      {
+        if (event instanceof AdditionEvent)
+        {
+          CDORevision revision = ((AdditionEvent)event).getRevision();
+          assertTrue("Added twice: " + revision, added.add(key(revision.getID(), revision.getBranch(), revision.getVersion())));
+        }
+        else if (event instanceof EvictionEvent)
+        {
+          EvictionEvent e = (EvictionEvent)event;
+          String key = key(e.getID(), e.getBranch(), e.getVersion());
+          assertTrue("Evicted without addition: " + key, added.remove(key));
+          evicted.add(key);
+        }
+      }
+    });
+
+    LifecycleUtil.activate(cache);
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    LifecycleUtil.deactivate(cache);
+    cache = null;
+    template = null;
+    repository = null;
+    super.doTearDown();
+  }
+
+  public void testGetAndPut() throws Exception
+  {
+    CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+    InternalCDORevision revision = createRevision(1, mainBranch, 1, 1000, "Company");
+
+    assertSame(revision, cache.internRevision(revision));
+    assertEquals(1, cache.getRevisionCount());
+    assertTrue(cache.getBytes() > 0);
+
+    CDORevision cached = cache.getRevision(revision.getID(), mainBranch.getPoint(1000));
+    assertNotNull(cached);
+    assertNotSame(revision, cached);
+    assertEquals("Company", getName(cached));
+    assertEquals(revision.getID(), cached.getID());
+    assertEquals(1, cached.getVersion());
+
+    // While the materialized revision is reachable the same instance is returned.
+    assertSame(cached, cache.getRevisionByVersion(revision.getID(), mainBranch.getVersion(1)));
+    assertSame(cached, cache.getRevision(revision.getID(), mainBranch.getHead()));
+    assertNull(cache.getRevision(revision.getID(), mainBranch.getPoint(999)));
+
+    // Interning the same version again returns the cached instance.
+    assertSame(cached, cache.internRevision(createRevision(1, mainBranch, 1, 1000, "Company")));
+    assertEquals(1, cache.getRevisionCount());
+  }
+
+  public void testNewVersionRevisesPreviousVersion() throws Exception
+  {
+    CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+    InternalCDORevision revision1 = createRevision(1, mainBranch, 1, 1000, "Version 1");
+    InternalCDORevision revision2 = createRevision(1, mainBranch, 2, 2000, "Version 2");
+
+    cache.internRevision(revision1);
+    cache.internRevision(revision2);
+
+    CDORevision cached1 = cache.getRevisionByVersion(revision1.getID(), mainBranch.getVersion(1));
+    assertEquals(1999, cached1.getRevised());
+    assertEquals("Version 1", getName(cached1));
+
+    CDORevision cached2 = cache.getRevision(revision1.getID(), mainBranch.getHead());
+    assertEquals(2, cached2.getVersion());
+    assertEquals(CDOBranchPoint.UNSPECIFIED_DATE, cached2.getRevised());
+
+    assertSame(cached1, cache.getRevision(revision1.getID(), mainBranch.getPoint(1500)));
+  }
+
+  public void testRemoveRevision() throws Exception
+  {
+    CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+    InternalCDORevision revision = createRevision(1, mainBranch, 1, 1000, "Company");
+    cache.internRevision(revision);
+
+    CDORevision removed = cache.removeRevision(revision.getID(), mainBranch.getVersion(1));
+    assertNotNull(removed);
+    assertEquals("Company", getName(removed));
+
+    assertNull(cache.getRevision(revision.getID(), mainBranch.getHead()));
+    assertNull(cache.removeRevision(revision.getID(), mainBranch.getVersion(1)));
+    assertEquals(0, cache.getRevisionCount());
+    assertEquals(0, cache.getBytes());
+  }
+
+  public void testBranches() throws Exception
+  {
+    CDOSession session = openSession();
+    int subBranchID = session.getBranchManager().getMainBranch().createBranch(getBranchName("sub")).getID();
+
+    CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+    CDOBranch subBranch = repository.getBranchManager().getBranch(subBranchID);
+    long subBase = subBranch.getBase().getTimeStamp();
+
+    InternalCDORevision mainRevision = createRevision(1, mainBranch, 1, subBase - 10, "Main");
+    InternalCDORevision subRevision = createRevision(1, subBranch, 1, subBase + 10, "Sub");
+    cache.internRevision(mainRevision);
+    cache.internRevision(subRevision);
+
+    assertEquals("Main", getName(cache.getRevision(mainRevision.getID(), mainBranch.getHead())));
+    assertEquals("Sub", getName(cache.getRevision(mainRevision.getID(), subBranch.getHead())));
+    assertEquals(1, cache.getRevisions(subBranch.getHead()).size());
+
+    cache.removeRevisions(subBranch);
+    assertNull(cache.getRevision(mainRevision.getID(), subBranch.getHead()));
+    assertEquals("Main", getName(cache.getRevision(mainRevision.getID(), mainBranch.getHead())));
+    assertEquals(1, cache.getRevisionCount());
+  }
+
+  public void testEvictionUnderPressure() throws Exception
+  {
+    CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+    int count = 5000;
+
+    for (int i = 0; i < count; i++)
+    {
+      cache.internRevision(createRevision(i, mainBranch, 1, 1000 + i, "Company " + i));
+      assertTrue("Budget exceeded: " + cache.getBytes(), cache.getBytes() <= MAX_BYTES);
+    }
+
+    assertTrue(cache.getEvictionCount() > 0);
+    assertTrue(cache.getRevisionCount() < count);
+    assertEquals(count, cache.getRevisionCount() + cache.getEvictionCount() + cache.getRejectionCount());
+    assertEquals(cache.getRevisionCount(), added.size());
+    assertEquals(cache.getEvictionCount(), evicted.size());
+
+    // Every revision that is still announced must be readable with its original state.
+    for (String key : added)
+    {
+      long id = Long.parseLong(key.substring(0, key.indexOf(':')));
+      CDORevision revision = cache.getRevision(CDOIDUtil.createLong(id), mainBranch.getHead());
+      assertNotNull(key, revision);
+      assertEquals("Company " + (id - FIRST_ID), getName(revision));
+    }
+  }
+
+  public void testRejectedRevisionIsNotAnnounced() throws Exception
+  {
+    CDOBranch mainBranch = repository.getBranchManager().getMainBranch();
+
+    // Fill the cache and make the cached revisions hot.
+    int count = 2000;
+    for (int i = 0; i < count; i++)
+    {
+      cache.internRevision(createRevision(i, mainBranch, 1, 1000 + i, "Company " + i));
+    }
+
+    for (int round = 0; round < 10; round++)
+    {
+      for (int i = 0; i < count; i++)
+      {
+        cache.getRevision(CDOIDUtil.createLong(FIRST_ID + i), mainBranch.getHead());
+      }
+    }
+
+    long rejections = cache.getRejectionCount();
+
+    // A revision that is larger than the admission window competes with the hot revisions right away and loses.
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 1000; i++)
+    {
+      builder.append('x');
+    }
+
+    InternalCDORevision revision = createRevision(count, mainBranch, 1, 1000 + count, builder.toString());
+    assertSame(revision, cache.internRevision(revision));
+
+    assertEquals(rejections + 1, cache.getRejectionCount());
+    assertFalse(added.contains(key(revision.getID(), mainBranch, 1)));
+    assertFalse(evicted.contains(key(revision.getID(), mainBranch, 1)));
+    assertNull(cache.getRevision(revision.getID(), mainBranch.getHead()));
+    assertEquals(cache.getRevisionCount(), added.size());
+  }
+
+  @CleanRepositoriesBefore(reason = "Repository with off-heap revision cache")
+  @CleanRepositoriesAfter(reason = "Repository with off-heap revision cache")
+  public void testRepositoryWithOffHeapCache() throws Exception
+  {
+    getTestProperties().put(IRepository.Props.OFF_HEAP_REVISION_CACHE_SIZE, "1048576");
+    assertInstanceOf(CDORevisionCacheOffHeap.class, getRepository("offheap").getRevisionManager().getCache());
+
+    CDOSession session = openSession("offheap");
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("res"));
+
+    for (int i = 0; i < 100; i++)
+    {
+      Company company = getModel1Factory().createCompany();
+      company.setName("Company " + i);
+      resource.getContents().add(company);
+    }
+
+    transaction.commit();
+    session.close();
+
+    session = openSession("offheap");
+    CDOView view = session.openView();
+    resource = view.getResource(getResourcePath("res"));
+    assertEquals(100, resource.getContents().size());
+
+    for (int i = 0; i < 100; i++)
+    {
+      assertEquals("Company " + i, ((Company)resource.getContents().get(i)).getName());
+    }
+  }
+
+  private InternalCDORevision createRevision(int i, CDOBranch branch, int version, long timeStamp, String name)
+  {
+    InternalCDORevision revision = template.copy();
+    revision.setID(CDOIDUtil.createLong(FIRST_ID + i));
+    revision.setBranchPoint(branch.getPoint(timeStamp));
+    revision.setVersion(version);
+    revision.setRevised(CDOBranchPoint.UNSPECIFIED_DATE);
+    revision.setValue(nameFeature, name);
+    return revision;
+  }
+
+  private Object getName(CDORevision revision)
+  {
+    return ((InternalCDORevision)revision).getValue(nameFeature);
+  }
+
+  private static String key(CDOID id, CDOBranch branch, int version)
+  {
+    return CDOIDUtil.getLong(id) + ":" + branch.getID() + ":" + version;
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2012, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2012, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -88,6 +88,21 @@ public interface CDOQuery extends CDOQueryInfo
    */
   public CDOQuery setMaxResults(int maxResults);
 
+  /**
+   * Sets the maximum number of results that the server sends ahead of their consumption by the
+   * {@link #getResultAsync(Class) asynchronous result iterator}.
+   * <p>
+   * With a page size the server buffers at most one page of results and blocks the query execution until the iterator
+   * has consumed enough results to request more. The synchronous {@link #getResult(Class)} and
+   * {@link #getResultValue(Class)} methods always receive all results at once.
+   *
+   * @param pageSize
+   *          the page size or {@link #UNLIMITED_RESULTS} for results that are sent as fast as they are produced.
+   * @return the same query instance.
+   * @since 4.25
+   */
+  public CDOQuery setPageSize(int pageSize);
+
   /**
    * Binds an argument value to a named parameter.
    *
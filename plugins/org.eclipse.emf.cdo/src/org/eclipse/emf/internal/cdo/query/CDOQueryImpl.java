@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2013, 2016, 2019, 2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2013, 2016, 2019, 2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -79,9 +79,21 @@ public class CDOQueryImpl extends CDOQueryInfoImpl implements CDOQuery
     return this;
   }
 
+  @Override
+  public CDOQueryImpl setPageSize(int pageSize)
+  {
+    this.pageSize = pageSize;
+    return this;
+  }
+
   protected <T> AbstractQueryIterator<T> createQueryResult(Class<T> type)
   {
     CDOQueryInfoImpl queryInfo = createQueryInfo();
+    return createQueryResult(type, queryInfo);
+  }
+
+  private <T> AbstractQueryIterator<T> createQueryResult(Class<T> type, CDOQueryInfoImpl queryInfo)
+  {
     if (CDOID.class.equals(type))
     {
       return new CDOQueryCDOIDIteratorImpl<>(view, queryInfo);
@@ -90,6 +102,17 @@ public class CDOQueryImpl extends CDOQueryInfoImpl implements CDOQuery
     return new CDOQueryResultIteratorImpl<>(view, queryInfo);
   }
 
+  /**
+   * Creates a query result that is not paged because the synchronous result methods receive all results before they
+   * consume the first one.
+   */
+  private <T> AbstractQueryIterator<T> createUnpagedQueryResult(Class<T> type)
+  {
+    CDOQueryInfoImpl queryInfo = createQueryInfo();
+    queryInfo.setPageSize(UNLIMITED_RESULTS);
+    return createQueryResult(type, queryInfo);
+  }
+
   @Override
   public <T> List<T> getResult(Class<T> type)
   {
@@ -97,7 +120,7 @@ public class CDOQueryImpl extends CDOQueryInfoImpl implements CDOQuery
 
     try
     {
-      queryResult = createQueryResult(type);
+      queryResult = createUnpagedQueryResult(type);
       view.getSession().getSessionProtocol().query(view, queryResult);
       return queryResult.asList();
     }
@@ -123,7 +146,7 @@ public class CDOQueryImpl extends CDOQueryInfoImpl implements CDOQuery
 
     try
     {
-      queryResult = createQueryResult(type);
+      queryResult = createUnpagedQueryResult(type);
       view.getSession().getSessionProtocol().query(view, queryResult);
       return queryResult.asValue();
     }
@@ -194,6 +217,7 @@ public class CDOQueryImpl extends CDOQueryInfoImpl implements CDOQuery
   {
     CDOQueryInfoImpl queryInfo = new CDOQueryInfoImpl(getQueryLanguage(), getQueryString(), getContext());
     queryInfo.setMaxResults(getMaxResults());
+    queryInfo.setPageSize(getPageSize());
     queryInfo.setChangeSetData(getChangeSetData());
 
     for (Map.Entry<String, Object> entry : getParameters().entrySet())
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2016, 2018-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2016, 2018-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -156,6 +156,9 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.Reader;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -574,6 +577,36 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
         }
       }
 
+      @Override
+      public InputStream getBinary(CDOLobInfo info, long offset, long length) throws IOException
+      {
+        try
+        {
+          return super.getBinary(info, offset, length);
+        }
+        catch (FileNotFoundException notCached)
+        {
+          // Load only the requested range instead of the whole large object.
+          return loadLobRangeAsync(info, offset, length);
+        }
+      }
+
+      @Override
+      public void writeBinary(CDOLobInfo info, OutputStream out) throws IOException
+      {
+        try
+        {
+          super.writeBinary(info, out);
+        }
+        catch (FileNotFoundException notCached)
+        {
+          try (InputStream in = getBinary(info))
+          {
+            IOUtil.copyBinary(in, out, info.getSize());
+          }
+        }
+      }
+
       @Override
       public Reader getCharacter(CDOLobInfo info) throws IOException
       {
@@ -600,6 +633,13 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
       private void loadBinary(final CDOLobInfo info) throws IOException
       {
         File file = getDelegate().getBinaryFile(info.getID());
+        if (file == null)
+        {
+          // The large object has been stored in chunks in the meantime.
+          return;
+        }
+
+        file.getParentFile().mkdirs();
         FileOutputStream out = new FileOutputStream(file);
         loadLobAsync(info, file, out);
       }
@@ -607,6 +647,7 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
       private void loadCharacter(final CDOLobInfo info) throws IOException
       {
         File file = getDelegate().getCharacterFile(info.getID());
+        file.getParentFile().mkdirs();
         FileWriter out = new FileWriter(file);
         loadLobAsync(info, file, out);
       }
@@ -646,6 +687,48 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
     });
   }
 
+  /**
+   * Returns a stream of the given range of the given binary large object. The range is loaded in the background while
+   * the stream is read, so that it is never buffered as a whole.
+   *
+   * @since 4.25
+   */
+  protected InputStream loadLobRangeAsync(final CDOLobInfo info, final long offset, final long length) throws IOException
+  {
+    final LobRangeInputStream in = new LobRangeInputStream();
+    final PipedOutputStream out = new PipedOutputStream(in);
+
+    ConcurrencyUtil.execute(this, new RunnableWithName()
+    {
+      @Override
+      public String getName()
+      {
+        return "CDOLobRangeLoader-" + info.getIDString();
+      }
+
+      @Override
+      protected void doRun()
+      {
+        try
+        {
+          CDOSessionProtocol sessionProtocol = getSessionProtocol();
+          sessionProtocol.loadLob(info, offset, length, out);
+        }
+        catch (Throwable t)
+        {
+          // Is rethrown to the reader, unless it has closed the stream already.
+          in.setException(t);
+        }
+        finally
+        {
+          IOUtil.close(out);
+        }
+      }
+    });
+
+    return in;
+  }
+
   @Override
   public void close()
   {
@@ -1786,6 +1869,64 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
   {
   }
 
+  /**
+   * Rethrows the exception of the range loader at the end of the stream.
+   *
+   * @author Eike Stepper
+   */
+  private static final class LobRangeInputStream extends PipedInputStream
+  {
+    private volatile Throwable exception;
+
+    public LobRangeInputStream()
+    {
+      super(IOUtil.DEFAULT_BUFFER_SIZE);
+    }
+
+    public void setException(Throwable exception)
+    {
+      this.exception = exception;
+    }
+
+    @Override
+    public synchronized int read() throws IOException
+    {
+      int b = super.read();
+      if (b == IOUtil.EOF)
+      {
+        checkException();
+      }
+
+      return b;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException
+    {
+      int n = super.read(b, off, len);
+      if (n == IOUtil.EOF)
+      {
+        checkException();
+      }
+
+      return n;
+    }
+
+    private void checkException() throws IOException
+    {
+      Throwable t = exception;
+      if (t instanceof IOException)
+      {
+        throw (IOException)t;
+      }
+
+      if (t != null)
+      {
+        throw new IOException(t);
+      }
+    }
+  }
+
   /**
    * @author Eike Stepper
    * @since 2.0
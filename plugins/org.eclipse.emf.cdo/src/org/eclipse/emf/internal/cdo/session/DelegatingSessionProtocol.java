@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2016, 2019-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2016, 2019-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -72,6 +72,7 @@ import org.eclipse.emf.spi.cdo.InternalCDORemoteSessionManager;
 import org.eclipse.emf.spi.cdo.InternalCDOTransaction.InternalCDOCommitContext;
 import org.eclipse.emf.spi.cdo.InternalCDOXATransaction.InternalCDOXACommitContext;
 
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -156,6 +157,24 @@ public class DelegatingSessionProtocol extends Lifecycle implements CDOSessionPr
     }
   }
 
+  @Override
+  public void addQueryCredits(int queryID, int credits)
+  {
+    int attempt = 0;
+    for (;;)
+    {
+      try
+      {
+        delegate.addQueryCredits(queryID, credits);
+        return;
+      }
+      catch (Exception ex)
+      {
+        handleException(++attempt, ex);
+      }
+    }
+  }
+
   @Override
   public void changeSubscription(int viewID, List<CDOID> ids, boolean subscribeMode, boolean clear)
   {
@@ -285,6 +304,24 @@ public class DelegatingSessionProtocol extends Lifecycle implements CDOSessionPr
     }
   }
 
+  @Override
+  public void loadLob(CDOLobInfo info, long offset, long length, OutputStream out)
+  {
+    int attempt = 0;
+    for (;;)
+    {
+      try
+      {
+        delegate.loadLob(info, offset, length, out);
+        return;
+      }
+      catch (Exception ex)
+      {
+        handleException(++attempt, ex);
+      }
+    }
+  }
+
   @Override
   public void handleRevisions(EClass eClass, CDOBranch branch, boolean exactBranch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
   {
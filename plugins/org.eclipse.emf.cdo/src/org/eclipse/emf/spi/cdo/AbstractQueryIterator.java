@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2012, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2012, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,8 @@ public abstract class AbstractQueryIterator<T> extends AbstractQueryResult<T>
 
   private ConcurrentValue<Boolean> queryIDSet = new ConcurrentValue<>(false);
 
+  private int consumedResults;
+
   /**
    * @since 3.0
    */
@@ -70,6 +72,28 @@ public abstract class AbstractQueryIterator<T> extends AbstractQueryResult<T>
     return (CDOView)super.getView();
   }
 
+  /**
+   * Returns the next result and, if the query is {@link CDOQueryInfo#getPageSize() paged}, requests more results from
+   * the server whenever half a page has been consumed.
+   */
+  @Override
+  public T next()
+  {
+    T result = super.next();
+
+    int pageSize = getQueryInfo().getPageSize();
+    if (pageSize > 0 && ++consumedResults >= Math.max(1, pageSize / 2))
+    {
+      int credits = consumedResults;
+      consumedResults = 0;
+
+      InternalCDOSession session = (InternalCDOSession)getView().getSession();
+      session.getSessionProtocol().addQueryCredits(getQueryID(), credits);
+    }
+
+    return result;
+  }
+
   @Override
   public void remove()
   {
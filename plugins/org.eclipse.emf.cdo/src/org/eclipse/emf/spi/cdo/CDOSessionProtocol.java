@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013, 2015-2017, 2019-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2009-2013, 2015-2017, 2019-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -70,6 +70,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.PlatformObject;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -159,6 +160,14 @@ public interface CDOSessionProtocol extends CDOProtocol, PackageLoader, BranchLo
 
   public boolean cancelQuery(int queryId);
 
+  /**
+   * Requests the given number of additional results of the {@link org.eclipse.emf.cdo.common.util.CDOQueryInfo#getPageSize()
+   * paged} query with the given ID from the server.
+   *
+   * @since 4.25
+   */
+  public void addQueryCredits(int queryID, int credits);
+
   /**
    * @since 4.1
    */
@@ -201,6 +210,13 @@ public interface CDOSessionProtocol extends CDOProtocol, PackageLoader, BranchLo
    */
   public void loadLob(CDOLobInfo info, Object outputStreamOrWriter) throws IOException;
 
+  /**
+   * Loads at most <code>length</code> bytes of the binary large object, starting at the given <code>offset</code>.
+   *
+   * @since 4.25
+   */
+  public void loadLob(CDOLobInfo info, long offset, long length, OutputStream out) throws IOException;
+
   /**
    * @since 4.1
    */
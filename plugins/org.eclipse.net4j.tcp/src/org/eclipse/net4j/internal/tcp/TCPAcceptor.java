@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2015, 2019, 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2013, 2015, 2019, 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -133,41 +133,16 @@ public class TCPAcceptor extends Acceptor implements ITCPAcceptor, ITCPPassiveSe
   @Override
   public void handleRegistration(ITCPSelector selector, ServerSocketChannel serverSocketChannel)
   {
-    InetSocketAddress addr = null;
-
     try
     {
-      if (address != null)
-      {
-        addr = new InetSocketAddress(InetAddress.getByName(address), port);
-      }
-
-      ServerSocket socket = serverSocketChannel.socket();
-      socket.setReuseAddress(true);
-      socket.bind(addr);
-
-      if (addr == null)
-      {
-        address = socket.getInetAddress().toString();
-        if (address.startsWith("/")) //$NON-NLS-1$
-        {
-          address = address.substring(1);
-        }
-
-        int colon = address.indexOf(':');
-        if (colon != -1)
-        {
-          port = Integer.parseInt(address.substring(colon + 1));
-          address = address.substring(0, colon);
-        }
-      }
+      bind(serverSocketChannel);
 
       // [MACOSX] Must occur AFTER binding!
       selectionKey = serverSocketChannel.register(selector.getSocketSelector(), SelectionKey.OP_ACCEPT, this);
     }
     catch (Exception ex)
     {
-      OM.LOG.error("Problem while binding " + addr, ex);
+      OM.LOG.error("Problem while binding " + getBindAddress(), ex);
       deactivateAsync();
     }
     finally
@@ -179,6 +154,45 @@ public class TCPAcceptor extends Acceptor implements ITCPAcceptor, ITCPPassiveSe
     }
   }
 
+  protected ServerSocketChannel openServerSocketChannel() throws IOException
+  {
+    return ServerSocketChannel.open();
+  }
+
+  protected void bind(ServerSocketChannel serverSocketChannel) throws IOException
+  {
+    InetSocketAddress addr = null;
+    if (address != null)
+    {
+      addr = new InetSocketAddress(InetAddress.getByName(address), port);
+    }
+
+    ServerSocket socket = serverSocketChannel.socket();
+    socket.setReuseAddress(true);
+    socket.bind(addr);
+
+    if (addr == null)
+    {
+      address = socket.getInetAddress().toString();
+      if (address.startsWith("/")) //$NON-NLS-1$
+      {
+        address = address.substring(1);
+      }
+
+      int colon = address.indexOf(':');
+      if (colon != -1)
+      {
+        port = Integer.parseInt(address.substring(colon + 1));
+        address = address.substring(0, colon);
+      }
+    }
+  }
+
+  protected String getBindAddress()
+  {
+    return address == null ? null : address + ":" + port; //$NON-NLS-1$
+  }
+
   @Override
   public void handleAccept(ITCPSelector selector, ServerSocketChannel serverSocketChannel)
   {
@@ -199,7 +213,7 @@ public class TCPAcceptor extends Acceptor implements ITCPAcceptor, ITCPPassiveSe
         TCPConnector connector = createConnector();
         prepareConnector(connector);
         connector.setSocketChannel(socketChannel);
-        connector.setSelector(selector);
+        connector.setSelector(this.selector != null ? this.selector.getConnectionSelector() : selector);
         connector.activate();
       }
     }
@@ -248,7 +262,7 @@ public class TCPAcceptor extends Acceptor implements ITCPAcceptor, ITCPPassiveSe
   protected void doActivate() throws Exception
   {
     super.doActivate();
-    serverSocketChannel = ServerSocketChannel.open();
+    serverSocketChannel = openServerSocketChannel();
     serverSocketChannel.configureBlocking(false);
     selector.orderRegistration(serverSocketChannel, this);
 
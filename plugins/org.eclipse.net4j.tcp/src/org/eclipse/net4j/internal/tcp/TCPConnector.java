@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2012, 2015, 2016, 2019-2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2012, 2015, 2016, 2019-2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,28 +28,44 @@ import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.net4j.util.collection.RoundRobinBlockingQueue;
 import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.om.OMPlatform;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.net4j.util.security.INegotiationContext;
 import org.eclipse.net4j.util.security.NegotiationContext;
 import org.eclipse.net4j.util.security.NegotiationException;
 
+import org.eclipse.internal.net4j.buffer.Buffer;
+import org.eclipse.internal.net4j.buffer.FileRegionBuffer;
+
+import org.eclipse.spi.net4j.Channel;
 import org.eclipse.spi.net4j.Connector;
 import org.eclipse.spi.net4j.InternalChannel;
+import org.eclipse.spi.net4j.InternalChannelMultiplexer.ZeroCopyMultiplexer;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 
 /**
  * @author Eike Stepper
  */
-public abstract class TCPConnector extends Connector implements ITCPConnector, ITCPActiveSelectorListener
+public abstract class TCPConnector extends Connector implements ITCPConnector, ITCPActiveSelectorListener, ZeroCopyMultiplexer
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, TCPConnector.class);
 
+  /**
+   * The maximum number of buffers that are written to the socket channel with a single gathering write. A value of
+   * <code>1</code> or less disables gathering writes.
+   */
+  private static final int MAX_GATHERED_BUFFERS = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.internal.tcp.TCPConnector.maxGatheredBuffers", 16); //$NON-NLS-1$
+
+  private static final boolean DISABLE_ZERO_COPY = OMPlatform.INSTANCE.isProperty("org.eclipse.net4j.internal.tcp.TCPConnector.disableZeroCopy"); //$NON-NLS-1$
+
   private SocketChannel socketChannel;
 
   private ITCPSelector selector;
@@ -57,7 +73,15 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
   @ExcludeFromDump
   private SelectionKey selectionKey;
 
-  private BlockingQueue<InternalChannel> writeQueue = new RoundRobinBlockingQueue<>();
+  private BlockingQueue<InternalChannel> writeQueue = new WeightedWriteQueue();
+
+  /**
+   * Buffers that have already been taken from the {@link #writeQueue} but are not yet completely written.
+   * Guarded by the {@link #writeQueue} monitor.
+   */
+  private final Queue<PendingWrite> pendingWrites = new ArrayDeque<>();
+
+  private ByteBuffer[] gatheredByteBuffers;
 
   private IBuffer inputBuffer;
 
@@ -67,6 +91,8 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
 
   private int port;
 
+  private boolean zeroCopy = !DISABLE_ZERO_COPY;
+
   public TCPConnector()
   {
   }
@@ -289,7 +315,7 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
   {
     synchronized (writeQueue)
     {
-      boolean firstChannel = writeQueue.isEmpty();
+      boolean firstChannel = writeQueue.isEmpty() && pendingWrites.isEmpty();
 
       try
       {
@@ -317,34 +343,16 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     {
       synchronized (writeQueue)
       {
-        InternalChannel channel = writeQueue.peek();
-        if (channel != null)
+        if (!pendingWrites.isEmpty() || isGatheringWrites())
         {
-          Queue<IBuffer> channelSendQueue = channel.getSendQueue();
-          if (channelSendQueue != null)
-          {
-            IBuffer buffer = channelSendQueue.peek();
-            if (buffer != null)
-            {
-              // The CCAM flag must be remembered *before* the buffer.write() call below!
-              boolean closeChannelAfterMe = buffer.isCCAM();
-
-              if (buffer.write(socketChannel))
-              {
-                writeQueue.poll();
-                channelSendQueue.poll();
-                buffer.release();
-
-                if (closeChannelAfterMe)
-                {
-                  channel.close();
-                }
-              }
-            }
-          }
+          writeGathering(socketChannel);
+        }
+        else
+        {
+          writeSingle(socketChannel);
         }
 
-        if (writeQueue.isEmpty())
+        if (writeQueue.isEmpty() && pendingWrites.isEmpty())
         {
           if (selectionKey != null)
           {
@@ -375,6 +383,169 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     }
   }
 
+  /**
+   * Returns <code>true</code> if several buffers can be written to the socket channel with a single gathering write,
+   * <code>false</code> otherwise. Connectors that transform the buffers before they go to the wire, such as SSL
+   * connectors, must return <code>false</code>.
+   */
+  protected boolean isGatheringWrites()
+  {
+    return MAX_GATHERED_BUFFERS > 1;
+  }
+
+  /**
+   * Returns <code>true</code> if regions of files can be written directly from the file system cache to the socket channel,
+   * <code>false</code> otherwise. Connectors that transform the buffers before they go to the wire, such as SSL
+   * connectors, must return <code>false</code>.
+   */
+  @Override
+  public boolean isZeroCopy()
+  {
+    return zeroCopy;
+  }
+
+  public void setZeroCopy(boolean zeroCopy)
+  {
+    this.zeroCopy = zeroCopy;
+  }
+
+  /**
+   * Writes the next buffer of the {@link #writeQueue} to the socket channel. Must be called with the {@link #writeQueue}
+   * monitor held.
+   */
+  private void writeSingle(SocketChannel socketChannel) throws IOException
+  {
+    InternalChannel channel = writeQueue.peek();
+    if (channel != null)
+    {
+      Queue<IBuffer> channelSendQueue = channel.getSendQueue();
+      if (channelSendQueue != null)
+      {
+        IBuffer buffer = channelSendQueue.peek();
+        if (buffer != null)
+        {
+          // The CCAM flag must be remembered *before* the buffer.write() call below!
+          boolean closeChannelAfterMe = buffer.isCCAM();
+
+          if (buffer.write(socketChannel))
+          {
+            writeQueue.poll();
+            channelSendQueue.poll();
+            buffer.release();
+
+            if (closeChannelAfterMe)
+            {
+              channel.close();
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes up to {@link #MAX_GATHERED_BUFFERS} buffers from the {@link #writeQueue}, in the round-robin order of their
+   * channels, and writes them to the socket channel with a single gathering write. Buffers that are not completely
+   * written remain pending for the next call. Must be called with the {@link #writeQueue} monitor held.
+   */
+  private void writeGathering(SocketChannel socketChannel) throws IOException
+  {
+    int maxBuffers = Math.max(1, MAX_GATHERED_BUFFERS);
+    while (pendingWrites.size() < maxBuffers)
+    {
+      InternalChannel channel = writeQueue.peek();
+      if (channel == null)
+      {
+        break;
+      }
+
+      Queue<IBuffer> channelSendQueue = channel.getSendQueue();
+      IBuffer buffer = channelSendQueue != null ? channelSendQueue.peek() : null;
+      if (buffer == null)
+      {
+        break;
+      }
+
+      // The CCAM flag must be remembered *before* the buffer is written!
+      PendingWrite pendingWrite;
+      if (buffer instanceof Buffer)
+      {
+        pendingWrite = new PendingWrite(channel, buffer, buffer.isCCAM(), ((Buffer)buffer).startWriting());
+      }
+      else if (buffer instanceof FileRegionBuffer)
+      {
+        pendingWrite = new PendingWrite(channel, buffer, buffer.isCCAM(), ((FileRegionBuffer)buffer).startWriting());
+      }
+      else
+      {
+        if (pendingWrites.isEmpty())
+        {
+          // Buffers of foreign buffer providers are written one by one.
+          writeSingle(socketChannel);
+        }
+
+        break;
+      }
+
+      writeQueue.poll();
+      channelSendQueue.poll();
+      pendingWrites.add(pendingWrite);
+    }
+
+    if (pendingWrites.isEmpty())
+    {
+      return;
+    }
+
+    int count = 0;
+    for (PendingWrite pendingWrite : pendingWrites)
+    {
+      count += pendingWrite.byteBuffers.length;
+    }
+
+    if (gatheredByteBuffers == null || gatheredByteBuffers.length < count)
+    {
+      gatheredByteBuffers = new ByteBuffer[Math.max(count, maxBuffers)];
+    }
+
+    int i = 0;
+    for (PendingWrite pendingWrite : pendingWrites)
+    {
+      for (ByteBuffer byteBuffer : pendingWrite.byteBuffers)
+      {
+        gatheredByteBuffers[i++] = byteBuffer;
+      }
+    }
+
+    try
+    {
+      if (socketChannel.write(gatheredByteBuffers, 0, count) == -1)
+      {
+        throw new IOException("Channel closed: " + socketChannel); //$NON-NLS-1$
+      }
+    }
+    finally
+    {
+      for (i = 0; i < count; i++)
+      {
+        gatheredByteBuffers[i] = null;
+      }
+    }
+
+    PendingWrite pendingWrite;
+    while ((pendingWrite = pendingWrites.peek()) != null && pendingWrite.isWritten())
+    {
+      pendingWrites.poll();
+      pendingWrite.buffer.clear();
+      pendingWrite.buffer.release();
+
+      if (pendingWrite.closeChannelAfterMe)
+      {
+        pendingWrite.channel.close();
+      }
+    }
+  }
+
   protected void doOrderWriteInterest(boolean on)
   {
     selector.orderWriteInterest(selectionKey, isClient(), on);
@@ -459,6 +630,15 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
 
   private void cleanUp()
   {
+    synchronized (writeQueue)
+    {
+      PendingWrite pendingWrite;
+      while ((pendingWrite = pendingWrites.poll()) != null)
+      {
+        pendingWrite.buffer.release();
+      }
+    }
+
     if (inputBuffer != null)
     {
       inputBuffer.release();
@@ -472,6 +652,34 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     }
   }
 
+  /**
+   * @author Eike Stepper
+   */
+  private static final class PendingWrite
+  {
+    private final InternalChannel channel;
+
+    private final IBuffer buffer;
+
+    private final boolean closeChannelAfterMe;
+
+    private final ByteBuffer[] byteBuffers;
+
+    public PendingWrite(InternalChannel channel, IBuffer buffer, boolean closeChannelAfterMe, ByteBuffer... byteBuffers)
+    {
+      this.channel = channel;
+      this.buffer = buffer;
+      this.closeChannelAfterMe = closeChannelAfterMe;
+      this.byteBuffers = byteBuffers;
+    }
+
+    public boolean isWritten()
+    {
+      // A gathering write drains the byte buffers in order.
+      return !byteBuffers[byteBuffers.length - 1].hasRemaining();
+    }
+  }
+
   /**
    * @author Eike Stepper
    */
@@ -537,4 +745,28 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
       super.setFinished(success);
     }
   }
+
+  /**
+   * A {@link RoundRobinBlockingQueue write queue} that lets each channel send as many buffers in a row as the
+   * {@link Channel#getSendWeight() send weight} of its protocol permits.
+   *
+   * @author Eike Stepper
+   */
+  private static final class WeightedWriteQueue extends RoundRobinBlockingQueue<InternalChannel>
+  {
+    public WeightedWriteQueue()
+    {
+    }
+
+    @Override
+    protected int getWeight(InternalChannel channel)
+    {
+      if (channel instanceof Channel)
+      {
+        return ((Channel)channel).getSendWeight();
+      }
+
+      return 1;
+    }
+  }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2013, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,6 +36,10 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, TCPSelector.class);
 
+  private static final String DEFAULT_NAME = "TCPSelector"; //$NON-NLS-1$
+
+  private final String name;
+
   private Selector selector;
 
   /**
@@ -54,6 +58,28 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
 
   public TCPSelector()
   {
+    this(DEFAULT_NAME);
+  }
+
+  public TCPSelector(String name)
+  {
+    this.name = name;
+  }
+
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Returns the selector that a new socket channel is to be registered with. This selector serves all of its socket
+   * channels itself.
+   *
+   * @see TCPSelectorPool#getConnectionSelector()
+   */
+  public TCPSelector getConnectionSelector()
+  {
+    return this;
   }
 
   @Override
@@ -65,7 +91,7 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
   @Override
   public String toString()
   {
-    return "TCPSelector"; //$NON-NLS-1$
+    return name;
   }
 
   @Override
@@ -294,7 +320,7 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
     running = true;
     selector = openSelector();
 
-    thread = new Thread(this, "TCPSelector"); //$NON-NLS-1$
+    thread = new Thread(this, name);
     thread.setDaemon(true);
     thread.start();
   }
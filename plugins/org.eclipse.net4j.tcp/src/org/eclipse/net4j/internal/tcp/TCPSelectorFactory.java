@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2009, 2011, 2012, 2015, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2009, 2011, 2012, 2015, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,10 @@
  */
 package org.eclipse.net4j.internal.tcp;
 
+import org.eclipse.net4j.util.StringUtil;
 import org.eclipse.net4j.util.container.IManagedContainer;
 import org.eclipse.net4j.util.factory.Factory;
+import org.eclipse.net4j.util.om.OMPlatform;
 
 /**
  * @author Eike Stepper
@@ -27,9 +29,24 @@ public class TCPSelectorFactory extends Factory
     super(PRODUCT_GROUP, TYPE);
   }
 
+  /**
+   * The number of selector threads that serve the socket channels of a selector that is created without description.
+   */
+  public static final int DEFAULT_SELECTOR_THREADS = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.internal.tcp.TCPSelectorFactory.selectorThreads", 1); //$NON-NLS-1$
+
+  /**
+   * Creates a selector with the number of selector threads that is given by the description, or with
+   * {@link #DEFAULT_SELECTOR_THREADS} threads if the description is empty.
+   */
   @Override
   public TCPSelector create(String description)
   {
+    int threads = StringUtil.isEmpty(description) ? DEFAULT_SELECTOR_THREADS : Integer.parseInt(description.trim());
+    if (threads > 1)
+    {
+      return new TCPSelectorPool(threads);
+    }
+
     return new TCPSelector();
   }
 
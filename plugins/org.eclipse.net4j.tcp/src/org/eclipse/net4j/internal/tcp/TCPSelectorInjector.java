@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007, 2011, 2012, 2015, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007, 2011, 2012, 2015, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -40,7 +40,7 @@ public class TCPSelectorInjector implements IElementProcessor
       TCPConnector connector = (TCPConnector)element;
       if (connector.getSelector() == null)
       {
-        connector.setSelector(getSelector(container));
+        connector.setSelector(getSelector(container).getConnectionSelector());
       }
     }
 
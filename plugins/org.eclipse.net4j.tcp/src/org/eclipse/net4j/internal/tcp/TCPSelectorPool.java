@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp;
+
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link TCPSelector selector} that spreads the socket channels of its connectors across several selector threads.
+ * <p>
+ * The pool itself is the first of these selectors; it serves the server socket channels of the acceptors and its share
+ * of the socket channels. New socket channels are assigned to the selectors of the pool in round-robin order and stay
+ * with their selector for their whole life time.
+ *
+ * @author Eike Stepper
+ */
+public class TCPSelectorPool extends TCPSelector
+{
+  private final TCPSelector[] selectors;
+
+  private final AtomicInteger nextSelector = new AtomicInteger();
+
+  public TCPSelectorPool(int size)
+  {
+    super(getSelectorName(0));
+    if (size < 1)
+    {
+      throw new IllegalArgumentException("size < 1"); //$NON-NLS-1$
+    }
+
+    selectors = new TCPSelector[size];
+    selectors[0] = this;
+
+    for (int i = 1; i < size; i++)
+    {
+      selectors[i] = new TCPSelector(getSelectorName(i));
+    }
+  }
+
+  public int getSize()
+  {
+    return selectors.length;
+  }
+
+  public TCPSelector[] getSelectors()
+  {
+    return selectors.clone();
+  }
+
+  @Override
+  public TCPSelector getConnectionSelector()
+  {
+    int index = Math.floorMod(nextSelector.getAndIncrement(), selectors.length);
+    return selectors[index];
+  }
+
+  @Override
+  protected void doActivate() throws Exception
+  {
+    super.doActivate();
+
+    for (int i = 1; i < selectors.length; i++)
+    {
+      selectors[i].activate();
+    }
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    for (int i = selectors.length - 1; i > 0; --i)
+    {
+      LifecycleUtil.deactivate(selectors[i]);
+    }
+
+    super.doDeactivate();
+  }
+
+  private static String getSelectorName(int index)
+  {
+    return "TCPSelector-" + index; //$NON-NLS-1$
+  }
+}
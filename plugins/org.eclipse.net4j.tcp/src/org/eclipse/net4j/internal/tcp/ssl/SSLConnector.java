@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2012, 2015, 2019, 2021, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2011, 2012, 2015, 2019, 2021, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -121,6 +121,24 @@ public abstract class SSLConnector extends TCPConnector
     checkRehandShake(socketChannel);
   }
 
+  /**
+   * The buffers are encrypted one by one in {@link SSLBuffer#write(SocketChannel)}, so they can't be gathered.
+   */
+  @Override
+  protected boolean isGatheringWrites()
+  {
+    return false;
+  }
+
+  /**
+   * The buffers are encrypted before they go to the wire, so file regions can't be transferred directly.
+   */
+  @Override
+  public boolean isZeroCopy()
+  {
+    return false;
+  }
+
   @Override
   protected void doActivate() throws Exception
   {
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp.unix;
+
+import org.eclipse.net4j.TransportConfigurator.AcceptorDescriptionParser;
+import org.eclipse.net4j.internal.tcp.TCPAcceptor;
+import org.eclipse.net4j.internal.tcp.TCPConnector;
+import org.eclipse.net4j.util.factory.ProductCreationException;
+
+import org.w3c.dom.Element;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+
+/**
+ * An acceptor for clients on the same host that connect through a Unix-domain socket. The {@link #getAddress() address}
+ * of this acceptor is the path of the socket file; the port is not used.
+ *
+ * @author Eike Stepper
+ */
+public class UnixAcceptor extends TCPAcceptor
+{
+  private boolean bound;
+
+  public UnixAcceptor()
+  {
+    setAddress(null);
+    setPort(0);
+  }
+
+  public String getPath()
+  {
+    return getAddress();
+  }
+
+  public void setPath(String path)
+  {
+    setAddress(path);
+  }
+
+  @Override
+  public String toString()
+  {
+    return MessageFormat.format("UnixAcceptor[{0}]", getPath()); //$NON-NLS-1$
+  }
+
+  @Override
+  protected TCPConnector createConnector()
+  {
+    return new UnixServerConnector(this);
+  }
+
+  @Override
+  protected ServerSocketChannel openServerSocketChannel() throws IOException
+  {
+    return UnixDomainSockets.openServerSocketChannel();
+  }
+
+  @Override
+  protected void bind(ServerSocketChannel serverSocketChannel) throws IOException
+  {
+    serverSocketChannel.bind(UnixDomainSockets.createAddress(getPath()));
+    bound = true;
+  }
+
+  @Override
+  protected String getBindAddress()
+  {
+    return getPath();
+  }
+
+  @Override
+  protected void doBeforeActivate() throws Exception
+  {
+    if (!UnixDomainSockets.isSupported())
+    {
+      throw new IllegalStateException(UnixDomainSockets.UNSUPPORTED_MESSAGE);
+    }
+
+    super.doBeforeActivate();
+    if (getPath() == null)
+    {
+      throw new IllegalStateException("path == null"); //$NON-NLS-1$
+    }
+
+    // A socket file that is left over from a previous run would make the bind fail.
+    deleteStaleSocketFile();
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    super.doDeactivate();
+
+    if (bound)
+    {
+      bound = false;
+      Files.deleteIfExists(Paths.get(getPath()));
+    }
+  }
+
+  /**
+   * Deletes the socket file if it's stale, i.e., if it refuses connections. A socket file that accepts connections
+   * belongs to another acceptor, and a file that is no socket may belong to anyone; both are never deleted.
+   */
+  private void deleteStaleSocketFile() throws IOException
+  {
+    Path path = Paths.get(getPath());
+    BasicFileAttributes attributes;
+
+    try
+    {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+    catch (NoSuchFileException ex)
+    {
+      return;
+    }
+
+    if (!attributes.isOther())
+    {
+      throw new IOException("Not a socket file: " + path); //$NON-NLS-1$
+    }
+
+    if (isAccepting(path))
+    {
+      throw new IOException("Socket file is in use: " + path); //$NON-NLS-1$
+    }
+
+    Files.deleteIfExists(path);
+  }
+
+  private static boolean isAccepting(Path path)
+  {
+    try (SocketChannel socketChannel = UnixDomainSockets.openSocketChannel())
+    {
+      return socketChannel.connect(UnixDomainSockets.createAddress(path.toString()));
+    }
+    catch (IOException ex)
+    {
+      // Typically a ConnectException because nobody listens on the socket file anymore.
+      return false;
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  public static class DescriptionParserFactory extends AcceptorDescriptionParser.Factory implements AcceptorDescriptionParser
+  {
+    public DescriptionParserFactory()
+    {
+      super(UnixAcceptorFactory.TYPE);
+    }
+
+    @Override
+    public AcceptorDescriptionParser create(String description) throws ProductCreationException
+    {
+      return this;
+    }
+
+    @Override
+    public String getAcceptorDescription(Element acceptorConfig)
+    {
+      return acceptorConfig.getAttribute("path"); //$NON-NLS-1$
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp.unix;
+
+import org.eclipse.net4j.internal.tcp.TCPAcceptor;
+import org.eclipse.net4j.internal.tcp.TCPAcceptorFactory;
+
+/**
+ * Creates {@link UnixAcceptor Unix-domain socket acceptors}. The description is the path of the socket file.
+ *
+ * @author Eike Stepper
+ */
+public class UnixAcceptorFactory extends TCPAcceptorFactory
+{
+  public static final String TYPE = "unix"; //$NON-NLS-1$
+
+  public UnixAcceptorFactory()
+  {
+    super(TYPE);
+  }
+
+  @Override
+  public UnixAcceptor create(String description)
+  {
+    UnixAcceptor acceptor = createAcceptor();
+    acceptor.setPath(description);
+    return acceptor;
+  }
+
+  @Override
+  protected UnixAcceptor createAcceptor()
+  {
+    return new UnixAcceptor();
+  }
+
+  @Override
+  public String getDescriptionFor(Object object)
+  {
+    if (object instanceof UnixAcceptor)
+    {
+      return ((UnixAcceptor)object).getPath();
+    }
+
+    return null;
+  }
+}
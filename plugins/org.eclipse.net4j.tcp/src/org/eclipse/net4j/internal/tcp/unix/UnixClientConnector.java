@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp.unix;
+
+import org.eclipse.net4j.connector.ConnectorException;
+import org.eclipse.net4j.internal.tcp.TCPConnector;
+import org.eclipse.net4j.internal.tcp.bundle.OM;
+import org.eclipse.net4j.tcp.ITCPSelector;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.text.MessageFormat;
+
+/**
+ * A client connector that connects to a {@link UnixAcceptor} on the same host through a Unix-domain socket. The
+ * {@link #getHost() host} of this connector is the path of the socket file; the port is not used.
+ *
+ * @author Eike Stepper
+ */
+public class UnixClientConnector extends TCPConnector
+{
+  public UnixClientConnector()
+  {
+    if (!UnixDomainSockets.isSupported())
+    {
+      // Activation fails with a ConnectorException.
+      return;
+    }
+
+    try
+    {
+      SocketChannel socketChannel = UnixDomainSockets.openSocketChannel();
+      socketChannel.configureBlocking(false);
+      setSocketChannel(socketChannel);
+    }
+    catch (IOException ex)
+    {
+      OM.LOG.error(ex);
+    }
+  }
+
+  public String getPath()
+  {
+    return getHost();
+  }
+
+  public void setPath(String path)
+  {
+    setHost(path);
+  }
+
+  @Override
+  public Location getLocation()
+  {
+    return Location.CLIENT;
+  }
+
+  @Override
+  public String getURL()
+  {
+    return getProtocolString() + getPath();
+  }
+
+  @Override
+  public String getProtocolString()
+  {
+    return "unix://"; //$NON-NLS-1$
+  }
+
+  @Override
+  public String toString()
+  {
+    if (getUserID() == null)
+    {
+      return MessageFormat.format("UnixClientConnector[{0}]", getPath()); //$NON-NLS-1$
+    }
+
+    return MessageFormat.format("UnixClientConnector[{1}@{0}]", getPath(), getUserID()); //$NON-NLS-1$
+  }
+
+  @Override
+  protected void doBeforeActivate() throws Exception
+  {
+    if (!UnixDomainSockets.isSupported())
+    {
+      throw new ConnectorException(UnixDomainSockets.UNSUPPORTED_MESSAGE);
+    }
+
+    super.doBeforeActivate();
+    if (getPath() == null)
+    {
+      throw new IllegalStateException("path == null"); //$NON-NLS-1$
+    }
+  }
+
+  @Override
+  public void handleRegistration(ITCPSelector selector, SocketChannel socketChannel)
+  {
+    super.handleRegistration(selector, socketChannel);
+
+    try
+    {
+      if (getSocketChannel().connect(UnixDomainSockets.createAddress(getPath())))
+      {
+        // Local connections are often established immediately, without a pending connect to select.
+        handleConnect(selector, socketChannel);
+      }
+    }
+    catch (Exception ex)
+    {
+      OM.LOG.error(ex);
+      deactivateAsync();
+    }
+  }
+}
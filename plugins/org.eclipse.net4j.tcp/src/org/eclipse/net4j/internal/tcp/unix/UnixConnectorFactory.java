@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp.unix;
+
+import org.eclipse.net4j.internal.tcp.TCPConnectorFactory;
+import org.eclipse.net4j.tcp.TCPUtil;
+
+/**
+ * Creates {@link UnixClientConnector Unix-domain socket connectors}. The description is the path of the socket file,
+ * optionally preceded by a user ID and {@link TCPUtil#CREDENTIALS_SEPARATOR @}, for example
+ * <code>stepper@/var/run/cdo.sock</code>.
+ *
+ * @author Eike Stepper
+ */
+public class UnixConnectorFactory extends TCPConnectorFactory
+{
+  public static final String TYPE = UnixAcceptorFactory.TYPE;
+
+  public UnixConnectorFactory()
+  {
+    super(TYPE);
+  }
+
+  @Override
+  public UnixClientConnector create(String description)
+  {
+    String userID = null;
+    String path = description;
+
+    if (description != null)
+    {
+      // A separator behind the first path separator belongs to the path.
+      int separator = description.indexOf(TCPUtil.CREDENTIALS_SEPARATOR);
+      if (separator != -1 && !containsPathSeparator(description, separator))
+      {
+        userID = description.substring(0, separator);
+        path = description.substring(separator + 1);
+      }
+    }
+
+    UnixClientConnector connector = createConnector();
+    connector.setPath(path);
+    connector.setUserID(userID);
+    return connector;
+  }
+
+  @Override
+  protected UnixClientConnector createConnector()
+  {
+    return new UnixClientConnector();
+  }
+
+  @Override
+  public String getDescriptionFor(Object object)
+  {
+    if (object instanceof UnixClientConnector)
+    {
+      UnixClientConnector connector = (UnixClientConnector)object;
+      String userID = connector.getUserID();
+      return userID == null ? connector.getPath() : userID + TCPUtil.CREDENTIALS_SEPARATOR + connector.getPath();
+    }
+
+    return null;
+  }
+
+  private static boolean containsPathSeparator(String description, int end)
+  {
+    for (int i = 0; i < end; i++)
+    {
+      char c = description.charAt(i);
+      if (c == '/' || c == '\\')
+      {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
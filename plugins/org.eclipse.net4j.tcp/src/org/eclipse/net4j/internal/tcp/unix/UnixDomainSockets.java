@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp.unix;
+
+import org.eclipse.net4j.util.WrappedException;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Opens Unix-domain socket channels.
+ * <p>
+ * Unix-domain socket channels are available as of Java 16, but this bundle must run on Java 8. The needed API is
+ * therefore accessed reflectively.
+ *
+ * @author Eike Stepper
+ */
+public final class UnixDomainSockets
+{
+  static final String UNSUPPORTED_MESSAGE = "Unix-domain sockets require Java 16 or higher"; //$NON-NLS-1$
+
+  private static final ProtocolFamily UNIX;
+
+  private static final Method OPEN_SOCKET_CHANNEL;
+
+  private static final Method OPEN_SERVER_SOCKET_CHANNEL;
+
+  private static final Method CREATE_ADDRESS;
+
+  static
+  {
+    ProtocolFamily unix = null;
+    Method openSocketChannel = null;
+    Method openServerSocketChannel = null;
+    Method createAddress = null;
+
+    try
+    {
+      unix = StandardProtocolFamily.valueOf("UNIX"); //$NON-NLS-1$
+      openSocketChannel = SocketChannel.class.getMethod("open", ProtocolFamily.class); //$NON-NLS-1$
+      openServerSocketChannel = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class); //$NON-NLS-1$
+      createAddress = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    catch (Exception ex)
+    {
+      unix = null;
+    }
+
+    UNIX = unix;
+    OPEN_SOCKET_CHANNEL = openSocketChannel;
+    OPEN_SERVER_SOCKET_CHANNEL = openServerSocketChannel;
+    CREATE_ADDRESS = createAddress;
+  }
+
+  private UnixDomainSockets()
+  {
+  }
+
+  public static boolean isSupported()
+  {
+    return UNIX != null;
+  }
+
+  public static SocketChannel openSocketChannel() throws IOException
+  {
+    return (SocketChannel)invoke(OPEN_SOCKET_CHANNEL, UNIX);
+  }
+
+  public static ServerSocketChannel openServerSocketChannel() throws IOException
+  {
+    return (ServerSocketChannel)invoke(OPEN_SERVER_SOCKET_CHANNEL, UNIX);
+  }
+
+  public static SocketAddress createAddress(String path) throws IOException
+  {
+    return (SocketAddress)invoke(CREATE_ADDRESS, path);
+  }
+
+  private static Object invoke(Method method, Object arg) throws IOException
+  {
+    if (!isSupported())
+    {
+      throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+    }
+
+    try
+    {
+      return method.invoke(null, arg);
+    }
+    catch (InvocationTargetException ex)
+    {
+      Throwable cause = ex.getTargetException();
+      if (cause instanceof IOException)
+      {
+        throw (IOException)cause;
+      }
+
+      throw WrappedException.wrap(cause instanceof Exception ? (Exception)cause : ex);
+    }
+    catch (IllegalAccessException ex)
+    {
+      throw WrappedException.wrap(ex);
+    }
+  }
+}
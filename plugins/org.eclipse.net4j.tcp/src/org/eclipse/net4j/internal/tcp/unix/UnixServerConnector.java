@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.internal.tcp.unix;
+
+import org.eclipse.net4j.internal.tcp.TCPServerConnector;
+
+import java.text.MessageFormat;
+
+/**
+ * The server side of a connection that a {@link UnixClientConnector} has established with a {@link UnixAcceptor}.
+ *
+ * @author Eike Stepper
+ */
+public class UnixServerConnector extends TCPServerConnector
+{
+  public UnixServerConnector(UnixAcceptor acceptor)
+  {
+    super(acceptor);
+  }
+
+  @Override
+  public UnixAcceptor getAcceptor()
+  {
+    return (UnixAcceptor)super.getAcceptor();
+  }
+
+  @Override
+  public String getHost()
+  {
+    return getAcceptor().getPath();
+  }
+
+  @Override
+  public int getPort()
+  {
+    return 0;
+  }
+
+  @Override
+  public String getURL()
+  {
+    return getProtocolString() + getHost();
+  }
+
+  @Override
+  public String getProtocolString()
+  {
+    return "unix://"; //$NON-NLS-1$
+  }
+
+  @Override
+  public String toString()
+  {
+    if (getUserID() == null)
+    {
+      return MessageFormat.format("UnixServerConnector[{0}]", getHost()); //$NON-NLS-1$
+    }
+
+    return MessageFormat.format("UnixServerConnector[{1}@{0}]", getHost(), getUserID()); //$NON-NLS-1$
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tcp.unix;
+
+import org.eclipse.net4j.internal.tcp.TCPAcceptorFactory;
+import org.eclipse.net4j.internal.tcp.TCPConnectorFactory;
+import org.eclipse.net4j.internal.tcp.unix.UnixAcceptorFactory;
+import org.eclipse.net4j.internal.tcp.unix.UnixConnectorFactory;
+import org.eclipse.net4j.internal.tcp.unix.UnixDomainSockets;
+import org.eclipse.net4j.tcp.ITCPAcceptor;
+import org.eclipse.net4j.tcp.ITCPConnector;
+import org.eclipse.net4j.tcp.TCPUtil;
+import org.eclipse.net4j.util.container.IManagedContainer;
+
+/**
+ * A utility class with static convenience methods for connections through Unix-domain sockets.
+ * <p>
+ * Clients that run on the same host as the server can use these connections instead of TCP loopback connections. The
+ * description of the acceptors and connectors is the path of the socket file.
+ *
+ * @author Eike Stepper
+ * @since 4.5
+ */
+public final class UnixUtil
+{
+  public static final String FACTORY_TYPE = UnixAcceptorFactory.TYPE;
+
+  private UnixUtil()
+  {
+  }
+
+  /**
+   * Returns <code>true</code> if the running Java platform supports Unix-domain socket channels, which is the case as
+   * of Java 16, <code>false</code> otherwise.
+   */
+  public static boolean isSupported()
+  {
+    return UnixDomainSockets.isSupported();
+  }
+
+  public static void prepareContainer(IManagedContainer container)
+  {
+    TCPUtil.prepareContainer(container);
+  }
+
+  public static ITCPAcceptor getAcceptor(IManagedContainer container, String path)
+  {
+    return (ITCPAcceptor)container.getElement(TCPAcceptorFactory.PRODUCT_GROUP, UnixAcceptorFactory.TYPE, path);
+  }
+
+  public static ITCPConnector getConnector(IManagedContainer container, String path)
+  {
+    return (ITCPConnector)container.getElement(TCPConnectorFactory.PRODUCT_GROUP, UnixConnectorFactory.TYPE, path);
+  }
+}
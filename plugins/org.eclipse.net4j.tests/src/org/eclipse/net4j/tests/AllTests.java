@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006-2012, 2015, 2018, 2020-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2006-2012, 2015, 2018, 2020-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,16 @@
  */
 package org.eclipse.net4j.tests;
 
+import org.eclipse.net4j.tcp.unix.UnixUtil;
 import org.eclipse.net4j.tests.bugzilla.Bugzilla_241463_Test;
 import org.eclipse.net4j.tests.bugzilla.Bugzilla_259086_Test;
 import org.eclipse.net4j.tests.bugzilla.Bugzilla_262875_Test;
 import org.eclipse.net4j.tests.config.Net4jTestSuite;
+import org.eclipse.net4j.tests.config.TestConfig.Factory;
 import org.eclipse.net4j.tests.config.TestConfig.JVM;
 import org.eclipse.net4j.tests.config.TestConfig.SSL;
 import org.eclipse.net4j.tests.config.TestConfig.TCP;
+import org.eclipse.net4j.tests.config.TestConfig.Unix;
 import org.eclipse.net4j.tests.config.TestConfig.WS;
 import org.eclipse.net4j.util.tests.ExecutorWorkSerializerTest;
 import org.eclipse.net4j.util.tests.ExpectedIOTest;
@@ -31,6 +34,10 @@ import org.eclipse.net4j.util.tests.StringCompressorTest;
 import org.eclipse.net4j.util.tests.SynchronizingCorrelatorTest;
 import org.eclipse.net4j.util.tests.UUIDGeneratorTest;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -41,8 +48,14 @@ public class AllTests
 {
   public static Test suite()
   {
+    List<Class<? extends Factory>> configTypes = new ArrayList<>(Arrays.asList(JVM.class, TCP.class, SSL.class, WS.class));
+    if (UnixUtil.isSupported())
+    {
+      configTypes.add(Unix.class);
+    }
+
     @SuppressWarnings("unchecked")
-    TestSuite suite = new Net4jTestSuite(AllTests.class.getName(), JVM.class, TCP.class, SSL.class, WS.class);
+    TestSuite suite = new Net4jTestSuite(AllTests.class.getName(), configTypes.toArray(new Class[configTypes.size()]));
     populateSuite(suite);
     return suite;
   }
@@ -65,6 +78,7 @@ public class AllTests
     suite.addTestSuite(ExpectedIOTest.class);
     suite.addTestSuite(RollingLogTest.class);
     suite.addTestSuite(Bugzilla_262875_Test.class);
+    suite.addTestSuite(UnixAcceptorTest.class);
 
     // Config tests
     suite.addTestSuite(NegotiationTest.class);
@@ -73,6 +87,7 @@ public class AllTests
     suite.addTestSuite(TransportTest.class);
     suite.addTestSuite(SignalTest.class);
     suite.addTestSuite(SignalMonitorTest.class);
+    suite.addTestSuite(SignalCompressionTest.class);
     suite.addTestSuite(IdleTimeoutTest.class);
     suite.addTestSuite(ExceptionTest.class);
     suite.addTestSuite(Bugzilla_241463_Test.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007, 2009, 2011, 2012, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007, 2009, 2011, 2012, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -62,6 +62,65 @@ public class BufferPoolTest extends AbstractOMTest
     LifecycleUtil.deactivate(bufferPool);
   }
 
+  public void testStatistics() throws Exception
+  {
+    IBufferPool.Statistics pool = (IBufferPool.Statistics)Net4jUtil.createBufferPool();
+
+    IBuffer buffer1 = pool.provideBuffer();
+    IBuffer buffer2 = pool.provideBuffer();
+    assertEquals(2, pool.getAllocatedBuffers());
+    assertEquals(0, pool.getPoolHits());
+    assertEquals(2, pool.getBuffersInUse());
+    assertEquals(2L * pool.getBufferCapacity(), pool.getBytesInUse());
+
+    pool.retainBuffer(buffer1);
+    pool.retainBuffer(buffer2);
+    assertEquals(0, pool.getBuffersInUse());
+    assertEquals(2, pool.getPooledBuffers());
+
+    IBuffer buffer3 = pool.provideBuffer();
+    assertSame(buffer2, buffer3);
+    assertEquals(2, pool.getAllocatedBuffers());
+    assertEquals(1, pool.getPoolHits());
+    assertEquals(1, pool.getPooledBuffers());
+
+    pool.retainBuffer(buffer3);
+  }
+
+  public void testMagazines() throws Exception
+  {
+    IBufferPool.Statistics pool = (IBufferPool.Statistics)Net4jUtil.createBufferPool();
+
+    // A thread retains its buffers into its magazine and terminates.
+    Thread thread = new Thread(() -> {
+      IBuffer[] buffers = new IBuffer[4];
+      for (int i = 0; i < buffers.length; i++)
+      {
+        buffers[i] = pool.provideBuffer();
+      }
+
+      for (int i = 0; i < buffers.length; i++)
+      {
+        pool.retainBuffer(buffers[i]);
+      }
+    });
+
+    thread.start();
+    thread.join(DEFAULT_TIMEOUT);
+    assertEquals(false, thread.isAlive());
+    assertEquals(4, pool.getPooledBuffers());
+
+    // The buffers of the terminated thread are reused.
+    IBuffer buffer = pool.provideBuffer();
+    assertEquals(4, pool.getAllocatedBuffers());
+    assertEquals(1, pool.getPoolHits());
+
+    // The buffers in the magazine of this thread and in the one of the terminated thread are evicted.
+    pool.retainBuffer(buffer);
+    assertEquals(4, pool.evict(0));
+    assertEquals(0, pool.getPooledBuffers());
+  }
+
   private static void msg()
   {
     msg("pooledBuffers = " + Net4jUtil.getPooledBuffers(bufferPool)); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.net4j.tests;
 import static org.junit.Assert.assertArrayEquals;
 
 import org.eclipse.net4j.Net4jUtil;
+import org.eclipse.net4j.buffer.BufferState;
 import org.eclipse.net4j.buffer.BufferInputStream;
 import org.eclipse.net4j.buffer.BufferOutputStream;
 import org.eclipse.net4j.buffer.IBuffer;
@@ -23,9 +24,16 @@ import org.eclipse.net4j.tests.data.HugeData;
 import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.tests.AbstractOMTest;
 
+import org.eclipse.internal.net4j.buffer.FileRegionBuffer;
+
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -117,6 +125,67 @@ public class BufferStreamTest extends AbstractOMTest
   /**
    * @author Eike Stepper
    */
+  public void testFileRegionBuffer() throws Exception
+  {
+    byte[] data = HugeData.getBytes();
+    File file = createTempFile();
+    IOUtil.writeFile(file, data);
+
+    IBufferPool bufferPool = Net4jUtil.createBufferPool();
+    IBuffer prefix = bufferPool.provideBuffer();
+    prefix.startPutting((short)1);
+    prefix.put(new byte[] { 0x12, 0x34, 0x56 }, 0, 3);
+
+    FileRegionBuffer.Source source = new FileRegionBuffer.Source(file);
+
+    try
+    {
+      IBuffer buffer = new FileRegionBuffer(prefix, source.map(0, 100));
+      assertEquals(IBuffer.HEADER_SIZE + 103, buffer.getPosition());
+      assertEquals(false, buffer.hasRemaining());
+
+      // The payload is complete.
+      assertException(BufferOverflowException.class, () -> buffer.put((byte)0));
+      assertException(IllegalStateException.class, () -> buffer.startPutting((short)1));
+      assertException(IllegalStateException.class, () -> buffer.setPosition(IBuffer.HEADER_SIZE));
+
+      buffer.flip();
+      assertEquals(BufferState.GETTING, buffer.getState());
+      assertEquals(IBuffer.HEADER_SIZE, buffer.getPosition());
+      assertEquals(IBuffer.HEADER_SIZE + 103, buffer.getLimit());
+
+      // Reads span the prefix and the file region.
+      assertEquals(0x12345600 | data[0] & 0xFF, buffer.getInt());
+      assertEquals(IBuffer.HEADER_SIZE + 4, buffer.getPosition());
+
+      byte[] rest = new byte[99];
+      buffer.get(rest);
+      assertArrayEquals(Arrays.copyOfRange(data, 1, 100), rest);
+      assertEquals(false, buffer.hasRemaining());
+      assertException(BufferUnderflowException.class, () -> buffer.get());
+
+      buffer.setPosition(IBuffer.HEADER_SIZE + 1);
+      assertEquals(0x3456, buffer.getShort());
+
+      buffer.setPosition(IBuffer.HEADER_SIZE);
+      buffer.setLimit(IBuffer.HEADER_SIZE + 5);
+      byte[] bytes = new byte[5];
+      buffer.get(bytes);
+      assertArrayEquals(new byte[] { 0x12, 0x34, 0x56, data[0], data[1] }, bytes);
+      assertEquals(false, buffer.hasRemaining());
+
+      assertException(ReadOnlyBufferException.class, () -> buffer.compact());
+      assertException(IllegalStateException.class, () -> buffer.startGetting(null));
+
+      buffer.release();
+      assertEquals(BufferState.RELEASED, buffer.getState());
+    }
+    finally
+    {
+      source.close();
+    }
+  }
+
   private static final class BufferStreamPipe implements IBufferHandler
   {
     private final BufferInputStream in;
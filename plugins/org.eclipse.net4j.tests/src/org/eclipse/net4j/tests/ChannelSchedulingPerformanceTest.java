@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.channel.IChannel;
+import org.eclipse.net4j.signal.SignalProtocol;
+import org.eclipse.net4j.tests.config.AbstractConfigTest;
+import org.eclipse.net4j.tests.signal.ArrayRequest;
+import org.eclipse.net4j.tests.signal.IntRequest;
+import org.eclipse.net4j.tests.signal.TestSignalProtocol;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures the round-trip latency of small signals while a bulk transfer runs on the same connector, once without flow
+ * control, once with a {@link SignalProtocol#getSendWindow() send window} and once with the small signals on a separate
+ * channel with a higher {@link SignalProtocol#getSendWeight() send weight}.
+ * <p>
+ * The bulk transfer echoes a 4 MB array in a loop, and each run prints the p50 and p99 latencies of the small signals
+ * next to the bulk throughput. A send window should cut the latency of the small signals on the shared channel, a send
+ * weight should cut it on the separate channel. Pass
+ * <code>-Dorg.eclipse.net4j.tests.ChannelSchedulingPerformanceTest.smallSignals=10000</code> or <code>...bulkSize</code>
+ * to vary the load.
+ *
+ * @author Eike Stepper
+ */
+public class ChannelSchedulingPerformanceTest extends AbstractConfigTest
+{
+  private static final String PREFIX = ChannelSchedulingPerformanceTest.class.getName() + "."; //$NON-NLS-1$
+
+  private static final int SMALL_SIGNALS = Integer.getInteger(PREFIX + "smallSignals", 2000);
+
+  private static final int BULK_SIZE = Integer.getInteger(PREFIX + "bulkSize", 4 * 1024 * 1024);
+
+  public void testSameChannelWithoutFlowControl() throws Exception
+  {
+    run(true, 0, SignalProtocol.DEFAULT_SEND_WEIGHT);
+  }
+
+  public void testSameChannelWithSendWindow() throws Exception
+  {
+    run(true, SignalProtocol.DEFAULT_SEND_WINDOW, SignalProtocol.DEFAULT_SEND_WEIGHT);
+  }
+
+  public void testSeparateChannelWithoutWeight() throws Exception
+  {
+    run(false, SignalProtocol.DEFAULT_SEND_WINDOW, SignalProtocol.DEFAULT_SEND_WEIGHT);
+  }
+
+  public void testSeparateChannelWithWeight() throws Exception
+  {
+    run(false, SignalProtocol.DEFAULT_SEND_WINDOW, 8);
+  }
+
+  private void run(boolean sameChannel, int sendWindow, int sendWeight) throws Exception
+  {
+    startTransport();
+
+    TestSignalProtocol bulkProtocol = new TestSignalProtocol(getConnector());
+    TestSignalProtocol smallProtocol = sameChannel ? bulkProtocol : new TestSignalProtocol(getConnector());
+    smallProtocol.setSendWeight(sendWeight);
+
+    for (IChannel channel : getConnector().getChannels())
+    {
+      ((SignalProtocol<?>)channel.getReceiveHandler()).setSendWindow(sendWindow);
+    }
+
+    for (IChannel channel : getServerConnector().getChannels())
+    {
+      ((SignalProtocol<?>)channel.getReceiveHandler()).setSendWindow(sendWindow);
+    }
+
+    byte[] bulkData = new byte[BULK_SIZE];
+    for (int i = 0; i < bulkData.length; i++)
+    {
+      bulkData[i] = (byte)i;
+    }
+
+    AtomicBoolean finished = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    int[] bulkTransfers = { 0 };
+
+    Thread bulkThread = new Thread("BulkTransfer") //$NON-NLS-1$
+    {
+      @Override
+      public void run()
+      {
+        try
+        {
+          while (!finished.get())
+          {
+            byte[] result = new ArrayRequest(bulkProtocol, bulkData).send();
+            if (!Arrays.equals(bulkData, result))
+            {
+              throw new AssertionError("Corrupt echo"); //$NON-NLS-1$
+            }
+
+            ++bulkTransfers[0];
+          }
+        }
+        catch (Throwable ex)
+        {
+          failure.compareAndSet(null, ex);
+        }
+      }
+    };
+
+    bulkThread.setDaemon(true);
+    bulkThread.start();
+
+    long[] latencies = new long[SMALL_SIGNALS];
+    long start = System.nanoTime();
+
+    try
+    {
+      for (int i = 0; i < SMALL_SIGNALS; i++)
+      {
+        long signalStart = System.nanoTime();
+        int result = new IntRequest(smallProtocol, i).send();
+        latencies[i] = System.nanoTime() - signalStart;
+        assertEquals(i, result);
+      }
+    }
+    finally
+    {
+      finished.set(true);
+      bulkThread.join(DEFAULT_TIMEOUT);
+    }
+
+    long duration = Math.max(1L, System.nanoTime() - start);
+
+    Throwable ex = failure.get();
+    if (ex != null)
+    {
+      throw new Exception(ex);
+    }
+
+    if (smallProtocol != bulkProtocol)
+    {
+      smallProtocol.close();
+    }
+
+    bulkProtocol.close();
+
+    Arrays.sort(latencies);
+    long bulkBytes = 2L * bulkTransfers[0] * BULK_SIZE;
+
+    msg(getName() + ": sendWindow = " + sendWindow + ", sendWeight = " + sendWeight);
+    msg("  Small signals: " + SMALL_SIGNALS + ", p50 = " + percentile(latencies, 50) / 1000L + " micros, p99 = " + percentile(latencies, 99) / 1000L
+        + " micros, max = " + latencies[latencies.length - 1] / 1000L + " micros");
+    msg("  Bulk transfers: " + bulkTransfers[0] + " of " + BULK_SIZE + " bytes = " + bulkBytes * 1000000000L / duration / 1024 / 1024 + " MB/sec");
+  }
+
+  private static long percentile(long[] sortedValues, int percentile)
+  {
+    int index = (int)Math.min(sortedValues.length - 1, (long)sortedValues.length * percentile / 100);
+    return sortedValues[index];
+  }
+}
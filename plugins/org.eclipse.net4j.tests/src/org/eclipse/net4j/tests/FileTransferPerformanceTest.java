@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.Net4jUtil;
+import org.eclipse.net4j.internal.tcp.TCPAcceptor;
+import org.eclipse.net4j.internal.tcp.TCPAcceptorFactory;
+import org.eclipse.net4j.internal.tcp.TCPConnector;
+import org.eclipse.net4j.tcp.TCPUtil;
+import org.eclipse.net4j.tests.signal.FileRequest;
+import org.eclipse.net4j.tests.signal.TestSignalProtocol;
+import org.eclipse.net4j.util.container.ContainerUtil;
+import org.eclipse.net4j.util.container.IManagedContainer;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Measures the throughput of sending a large file, such as the file of a 1 GB blob in a lob store, over loopback with
+ * {@link IOUtil#transferFile(File, long, long, java.io.OutputStream) IOUtil.transferFile()}, once copied through
+ * buffers and once written to the socket directly from the memory-mapped file (zero-copy).
+ * <p>
+ * Pass <code>-Dorg.eclipse.net4j.tests.FileTransferPerformanceTest.megabytes=4096</code> to vary the file size and
+ * <code>...transfers=5</code> to vary the number of transfers.
+ * <p>
+ * Both runs send the same random file and check its CRC32 on the receiving side. The difference in MB/sec is therefore
+ * the cost of copying the file through the buffers of the signal stream, compared to writing mapped slices of it as
+ * {@link org.eclipse.internal.net4j.buffer.FileRegionBuffer file region buffers}.
+ *
+ * @author Eike Stepper
+ */
+public class FileTransferPerformanceTest extends AbstractOMTest
+{
+  private static final String PREFIX = FileTransferPerformanceTest.class.getName() + "."; //$NON-NLS-1$
+
+  private static final int MEGABYTES = Integer.getInteger(PREFIX + "megabytes", 1024);
+
+  private static final int TRANSFERS = Integer.getInteger(PREFIX + "transfers", 3);
+
+  private static final long TIMEOUT = 10L * 60L * 1000L;
+
+  private final List<IManagedContainer> containers = new ArrayList<>();
+
+  private File file;
+
+  private long checksum;
+
+  public void testBufferedCopy() throws Exception
+  {
+    run(false);
+  }
+
+  public void testZeroCopy() throws Exception
+  {
+    run(true);
+  }
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+
+    file = createTempFile();
+    byte[] megabyte = new byte[1024 * 1024];
+    Random random = new Random(MEGABYTES);
+    CRC32 crc = new CRC32();
+
+    FileOutputStream out = new FileOutputStream(file);
+
+    try
+    {
+      for (int i = 0; i < MEGABYTES; i++)
+      {
+        random.nextBytes(megabyte);
+        crc.update(megabyte);
+        out.write(megabyte);
+      }
+    }
+    finally
+    {
+      IOUtil.close(out);
+    }
+
+    checksum = crc.getValue();
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    for (IManagedContainer container : containers)
+    {
+      LifecycleUtil.deactivate(container);
+    }
+
+    containers.clear();
+    super.doTearDown();
+  }
+
+  private void run(boolean zeroCopy) throws Exception
+  {
+    IManagedContainer serverContainer = createContainer();
+    TCPAcceptor acceptor = (TCPAcceptor)serverContainer.getElement(TCPAcceptorFactory.PRODUCT_GROUP, TCPUtil.FACTORY_TYPE, null, false);
+    acceptor.activate();
+
+    TCPConnector connector = (TCPConnector)TCPUtil.getConnector(createContainer(), "localhost"); //$NON-NLS-1$
+    connector.setZeroCopy(zeroCopy);
+
+    TestSignalProtocol protocol = new TestSignalProtocol(connector);
+
+    try
+    {
+      // Warm up the code paths with a small region.
+      new FileRequest(protocol, file, 0, 1024 * 1024).send(TIMEOUT);
+
+      long size = file.length();
+      long start = System.nanoTime();
+
+      for (int i = 0; i < TRANSFERS; i++)
+      {
+        assertEquals(checksum, (long)new FileRequest(protocol, file, 0, size).send(TIMEOUT));
+      }
+
+      long duration = Math.max(1L, System.nanoTime() - start);
+      long bytes = TRANSFERS * size;
+
+      msg(getName() + ": " + TRANSFERS + " transfers of " + MEGABYTES + " MB in " + duration / 1000000L + " millis = "
+          + bytes * 1000000000L / duration / 1024 / 1024 + " MB/sec");
+    }
+    finally
+    {
+      protocol.close();
+    }
+  }
+
+  private IManagedContainer createContainer()
+  {
+    IManagedContainer container = ContainerUtil.createContainer();
+    container.registerFactory(new TestSignalProtocol.Factory());
+    Net4jUtil.prepareContainer(container);
+    TCPUtil.prepareContainer(container);
+    container.activate();
+
+    containers.add(container);
+    return container;
+  }
+}
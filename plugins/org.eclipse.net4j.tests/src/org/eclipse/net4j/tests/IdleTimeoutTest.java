@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.net4j.tests.config.Net4jTestSuite.ExcludedConfig;
 import org.eclipse.net4j.tests.config.TestConfig.JVM;
 import org.eclipse.net4j.tests.config.TestConfig.SSL;
 import org.eclipse.net4j.tests.config.TestConfig.TCP;
+import org.eclipse.net4j.tests.config.TestConfig.Unix;
 import org.eclipse.net4j.tests.data.TinyData;
 import org.eclipse.net4j.tests.signal.ArrayRequest;
 import org.eclipse.net4j.tests.signal.TestSignalProtocol;
@@ -27,7 +28,7 @@ import java.util.Arrays;
 /**
  * @author Eike Stepper
  */
-@ExcludedConfig({ JVM.class, TCP.class, SSL.class }) // Test only Websocket heartbeat pongs.
+@ExcludedConfig({ JVM.class, TCP.class, SSL.class, Unix.class }) // Test only Websocket heartbeat pongs.
 public class IdleTimeoutTest extends AbstractConfigTest
 {
   public void testSingleThreadTinyDataLongWithPause() throws Exception
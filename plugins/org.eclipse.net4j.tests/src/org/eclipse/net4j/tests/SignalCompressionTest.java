@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.signal.SignalProtocol;
+import org.eclipse.net4j.signal.wrapping.CompressionCodec;
+import org.eclipse.net4j.signal.wrapping.CompressionStreamWrapper;
+import org.eclipse.net4j.signal.wrapping.CompressionStreamWrapperInjector;
+import org.eclipse.net4j.tests.config.AbstractConfigTest;
+import org.eclipse.net4j.tests.data.HugeData;
+import org.eclipse.net4j.tests.data.TinyData;
+import org.eclipse.net4j.tests.signal.ArrayRequest;
+import org.eclipse.net4j.tests.signal.TestSignalProtocol;
+import org.eclipse.net4j.util.container.IManagedContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Eike Stepper
+ */
+public class SignalCompressionTest extends AbstractConfigTest
+{
+  private static final short SIGNAL_ID = 42;
+
+  private static final int BLOCK_SIZE = 1024;
+
+  @Override
+  protected IManagedContainer createContainer()
+  {
+    IManagedContainer container = super.createContainer();
+    container.addPostProcessor(new CompressionStreamWrapperInjector(TestSignalProtocol.PROTOCOL_NAME)
+    {
+      @Override
+      protected CompressionStreamWrapper createStreamWrapper(SignalProtocol<?> signalProtocol)
+      {
+        // Both peers must use the same block size.
+        return new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+      }
+    });
+    return container;
+  }
+
+  public void testCompressedStreams() throws Exception
+  {
+    CompressionStreamWrapper client = new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+    CompressionStreamWrapper server = new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+    byte[] data = HugeData.getBytes();
+
+    // The client doesn't know the server's codecs, yet.
+    assertNull(client.getNegotiatedCodec());
+    assertEquals(true, Arrays.equals(data, transfer(client, server, data, false)));
+    assertEquals(0, client.getStatistics(SIGNAL_ID).getCompressedBlocks());
+
+    // The server has learned the client's codecs.
+    assertSame(CompressionCodec.DEFLATE, server.getNegotiatedCodec());
+    assertEquals(true, Arrays.equals(data, transfer(server, client, data, true)));
+
+    CompressionStreamWrapper.Statistics statistics = server.getStatistics(SIGNAL_ID);
+    assertEquals(1, statistics.getWrittenStreams());
+    assertEquals(data.length, statistics.getRawBytes());
+    assertEquals(true, statistics.getCompressedBlocks() > 0);
+    assertEquals(true, statistics.getCompressionRatio() < 0.5d);
+    assertEquals(1, client.getStatistics(SIGNAL_ID).getReadStreams());
+    assertSame(CompressionCodec.DEFLATE, client.getNegotiatedCodec());
+  }
+
+  public void testSmallStreamsAreRaw() throws Exception
+  {
+    CompressionStreamWrapper client = new CompressionStreamWrapper(4096, 65536, CompressionCodec.DEFLATE);
+    CompressionStreamWrapper server = new CompressionStreamWrapper(4096, 65536, CompressionCodec.DEFLATE);
+    transfer(client, server, new byte[0], false);
+
+    byte[] data = TinyData.getBytes();
+    assertEquals(true, Arrays.equals(data, transfer(server, client, data, false)));
+
+    CompressionStreamWrapper.Statistics statistics = server.getStatistics(SIGNAL_ID);
+    assertEquals(0, statistics.getCompressedBlocks());
+    assertEquals(data.length + 7, statistics.getWireBytes());
+  }
+
+  public void testIncompressibleBlocksAreRaw() throws Exception
+  {
+    CompressionStreamWrapper client = new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+    CompressionStreamWrapper server = new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+    transfer(client, server, new byte[0], false);
+
+    byte[] data = new byte[10000];
+    new Random(4711).nextBytes(data);
+    assertEquals(true, Arrays.equals(data, transfer(server, client, data, false)));
+    assertEquals(0, server.getStatistics(SIGNAL_ID).getCompressedBlocks());
+  }
+
+  public void testIllegalBlockLengths() throws Exception
+  {
+    CompressionStreamWrapper receiver = new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+    int deflate = CompressionCodec.DEFLATE.getID();
+
+    // Raw blocks
+    assertIllegalStream(receiver, 1, BLOCK_SIZE + 1);
+    assertIllegalStream(receiver, 1, Integer.MAX_VALUE);
+    assertIllegalStream(receiver, 1, -1);
+
+    // Compressed blocks
+    assertIllegalStream(receiver, deflate, BLOCK_SIZE + 1, 10);
+    assertIllegalStream(receiver, deflate, 100, Integer.MAX_VALUE);
+    assertIllegalStream(receiver, deflate, 100, -1);
+  }
+
+  public void testCompressorsAreEnded() throws Exception
+  {
+    CountingCodec codec = new CountingCodec();
+    CompressionStreamWrapper client = new CompressionStreamWrapper(16, BLOCK_SIZE, codec);
+    CompressionStreamWrapper server = new CompressionStreamWrapper(16, BLOCK_SIZE, codec);
+    transfer(client, server, new byte[0], false);
+
+    byte[] data = HugeData.getBytes();
+    for (int i = 0; i < 3; i++)
+    {
+      assertEquals(true, Arrays.equals(data, transfer(server, client, data, false)));
+    }
+
+    assertEquals(true, server.getStatistics(SIGNAL_ID).getCompressedBlocks() > 0);
+
+    // One compressor and one decompressor per compressed stream.
+    assertEquals(6, codec.created.get());
+    assertEquals(6, codec.ended.get());
+  }
+
+  public void testArray() throws Exception
+  {
+    TestSignalProtocol protocol = null;
+
+    try
+    {
+      startTransport();
+      protocol = new TestSignalProtocol(getConnector());
+
+      CompressionStreamWrapper streamWrapper = new CompressionStreamWrapper(16, BLOCK_SIZE, CompressionCodec.DEFLATE);
+      protocol.setStreamWrapper(streamWrapper);
+
+      byte[] data = HugeData.getBytes();
+      for (int i = 0; i < 3; i++)
+      {
+        byte[] result = new ArrayRequest(protocol, data, i == 2).send();
+        assertEquals(true, Arrays.equals(data, result));
+      }
+
+      CompressionStreamWrapper.Statistics statistics = streamWrapper.getStatistics(TestSignalProtocol.SIGNAL_ARRAY);
+      assertEquals(3, statistics.getWrittenStreams());
+      assertEquals(3, statistics.getReadStreams());
+      assertEquals(true, statistics.getCompressedBlocks() > 0);
+      assertEquals(true, statistics.getWireBytes() < statistics.getRawBytes());
+    }
+    finally
+    {
+      if (protocol != null)
+      {
+        protocol.close();
+      }
+    }
+  }
+
+  public void testManySmallArrays() throws Exception
+  {
+    TestSignalProtocol protocol = null;
+
+    try
+    {
+      startTransport();
+      protocol = new TestSignalProtocol(getConnector());
+
+      CompressionStreamWrapper streamWrapper = new CompressionStreamWrapper();
+      protocol.setStreamWrapper(streamWrapper);
+
+      for (int i = 0; i < 20; i++)
+      {
+        byte[] data = TinyData.getBytes();
+        byte[] result = new ArrayRequest(protocol, data).send();
+        assertEquals(true, Arrays.equals(data, result));
+      }
+
+      assertEquals(0, streamWrapper.getStatistics(TestSignalProtocol.SIGNAL_ARRAY).getCompressedBlocks());
+    }
+    finally
+    {
+      if (protocol != null)
+      {
+        protocol.close();
+      }
+    }
+  }
+
+  private static void assertIllegalStream(CompressionStreamWrapper receiver, int... blockHeader) throws Exception
+  {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    out.write(1 << CompressionCodec.DEFLATE.getID());
+    out.write(blockHeader[0]);
+    for (int i = 1; i < blockHeader.length; i++)
+    {
+      out.writeInt(blockHeader[i]);
+    }
+
+    out.write(new byte[100]);
+
+    InputStream in = receiver.wrapInputStream(SIGNAL_ID, new ByteArrayInputStream(baos.toByteArray()));
+
+    try
+    {
+      in.read();
+      fail("IOException expected");
+    }
+    catch (IOException expected)
+    {
+      // SUCCESS
+    }
+    finally
+    {
+      receiver.finishInputStream(in);
+    }
+  }
+
+  private static byte[] transfer(CompressionStreamWrapper sender, CompressionStreamWrapper receiver, byte[] data, boolean flush) throws Exception
+  {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    OutputStream out = sender.wrapOutputStream(SIGNAL_ID, baos);
+
+    int half = data.length / 2;
+    out.write(data, 0, half);
+    if (flush)
+    {
+      out.flush();
+    }
+
+    for (int i = half; i < data.length; i++)
+    {
+      out.write(data[i]);
+    }
+
+    sender.finishOutputStream(out);
+
+    InputStream in = receiver.wrapInputStream(SIGNAL_ID, new ByteArrayInputStream(baos.toByteArray()));
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+    byte[] buffer = new byte[1000];
+    int n;
+    while ((n = in.read(buffer)) != -1)
+    {
+      result.write(buffer, 0, n);
+    }
+
+    receiver.finishInputStream(in);
+    return result.toByteArray();
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class CountingCodec extends CompressionCodec
+  {
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final AtomicInteger ended = new AtomicInteger();
+
+    public CountingCodec()
+    {
+      super(3, "counting");
+    }
+
+    @Override
+    public Compressor createCompressor()
+    {
+      Compressor compressor = DEFLATE.createCompressor();
+      created.incrementAndGet();
+
+      return new Compressor()
+      {
+        @Override
+        public int compress(byte[] src, int length, byte[] dst) throws IOException
+        {
+          return compressor.compress(src, length, dst);
+        }
+
+        @Override
+        public void end()
+        {
+          compressor.end();
+          ended.incrementAndGet();
+        }
+      };
+    }
+
+    @Override
+    public Decompressor createDecompressor()
+    {
+      Decompressor decompressor = DEFLATE.createDecompressor();
+      created.incrementAndGet();
+
+      return new Decompressor()
+      {
+        @Override
+        public void decompress(byte[] src, int length, byte[] dst, int dstLength) throws IOException
+        {
+          decompressor.decompress(src, length, dst, dstLength);
+        }
+
+        @Override
+        public void end()
+        {
+          decompressor.end();
+          ended.incrementAndGet();
+        }
+      };
+    }
+  }
+}
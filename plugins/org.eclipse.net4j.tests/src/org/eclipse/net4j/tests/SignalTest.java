@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006-2012, 2020, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2006-2012, 2020, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,16 +12,22 @@
 package org.eclipse.net4j.tests;
 
 import org.eclipse.net4j.tests.config.AbstractConfigTest;
+import org.eclipse.net4j.tests.data.HugeData;
 import org.eclipse.net4j.tests.data.TinyData;
 import org.eclipse.net4j.tests.signal.ArrayRequest;
 import org.eclipse.net4j.tests.signal.AsyncRequest;
+import org.eclipse.net4j.tests.signal.FileRequest;
 import org.eclipse.net4j.tests.signal.IntRequest;
 import org.eclipse.net4j.tests.signal.StringRequest;
 import org.eclipse.net4j.tests.signal.TestSignalProtocol;
+import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.lifecycle.ILifecycle;
 import org.eclipse.net4j.util.om.OMPlatform;
 
+import java.io.File;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
 
 /**
  * @author Eike Stepper
@@ -70,6 +76,89 @@ public class SignalTest extends AbstractConfigTest
     }
   }
 
+  public void testArrayWithSendWindow() throws Exception
+  {
+    TestSignalProtocol protocol = null;
+
+    try
+    {
+      startTransport();
+      protocol = new TestSignalProtocol(getConnector());
+      protocol.setBulkSignalBuffers(1);
+      protocol.setSendWindow(1);
+
+      byte[] data = HugeData.getBytes();
+      for (int i = 0; i < 10; i++)
+      {
+        byte[] result = new ArrayRequest(protocol, data).send();
+        assertEquals(true, Arrays.equals(data, result));
+      }
+    }
+    finally
+    {
+      if (protocol != null)
+      {
+        protocol.close();
+      }
+    }
+  }
+
+  public void testFileRegion() throws Exception
+  {
+    TestSignalProtocol protocol = null;
+
+    try
+    {
+      startTransport();
+      protocol = new TestSignalProtocol(getConnector());
+
+      byte[] data = createFileData(1000003);
+      File file = createTempFile();
+      IOUtil.writeFile(file, data);
+
+      assertEquals(checksum(data, 0, data.length), (long)new FileRequest(protocol, file, 0, data.length).send());
+      assertEquals(checksum(data, 12345, 500000), (long)new FileRequest(protocol, file, 12345, 500000).send());
+      assertEquals(checksum(data, 7, 3), (long)new FileRequest(protocol, file, 7, 3).send());
+      assertEquals(checksum(data, 0, 0), (long)new FileRequest(protocol, file, 0, 0).send());
+    }
+    finally
+    {
+      if (protocol != null)
+      {
+        protocol.close();
+      }
+    }
+  }
+
+  public void testFileRegionWithSendWindow() throws Exception
+  {
+    TestSignalProtocol protocol = null;
+
+    try
+    {
+      startTransport();
+      protocol = new TestSignalProtocol(getConnector());
+      protocol.setBulkSignalBuffers(1);
+      protocol.setSendWindow(1);
+
+      byte[] data = createFileData(300007);
+      File file = createTempFile();
+      IOUtil.writeFile(file, data);
+
+      for (int i = 0; i < 10; i++)
+      {
+        assertEquals(checksum(data, i, data.length - i), (long)new FileRequest(protocol, file, i, data.length - i).send());
+      }
+    }
+    finally
+    {
+      if (protocol != null)
+      {
+        protocol.close();
+      }
+    }
+  }
+
   public void testAsync() throws Exception
   {
     TestSignalProtocol protocol = null;
@@ -118,4 +207,18 @@ public class SignalTest extends AbstractConfigTest
       }
     }
   }
+
+  private static byte[] createFileData(int size)
+  {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+
+  private static long checksum(byte[] data, int offset, int length)
+  {
+    CRC32 crc = new CRC32();
+    crc.update(data, offset, length);
+    return crc.getValue();
+  }
 }
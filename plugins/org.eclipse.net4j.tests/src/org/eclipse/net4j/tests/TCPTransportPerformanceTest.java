@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.Net4jUtil;
+import org.eclipse.net4j.connector.IConnector;
+import org.eclipse.net4j.internal.tcp.TCPAcceptor;
+import org.eclipse.net4j.internal.tcp.TCPAcceptorFactory;
+import org.eclipse.net4j.internal.tcp.TCPConnector;
+import org.eclipse.net4j.internal.tcp.TCPSelector;
+import org.eclipse.net4j.internal.tcp.TCPSelectorFactory;
+import org.eclipse.net4j.internal.tcp.TCPSelectorPool;
+import org.eclipse.net4j.tcp.TCPUtil;
+import org.eclipse.net4j.tests.signal.ArrayRequest;
+import org.eclipse.net4j.tests.signal.TestSignalProtocol;
+import org.eclipse.net4j.util.container.ContainerUtil;
+import org.eclipse.net4j.util.container.IManagedContainer;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures the throughput and the round-trip latency of several clients that send signals to one acceptor over
+ * loopback, once with a single selector thread and once with a {@link TCPSelectorPool selector pool}.
+ * <p>
+ * Both runs use gathering writes of up to 16 buffers. Run the benchmark again with
+ * <code>-Dorg.eclipse.net4j.internal.tcp.TCPConnector.maxGatheredBuffers=1</code> to compare them with single writes,
+ * and pass <code>-Dorg.eclipse.net4j.tests.TCPTransportPerformanceTest.clients=16</code>, <code>...roundTrips</code> or
+ * <code>...payloadSize</code> to vary the load.
+ *
+ * @author Eike Stepper
+ */
+public class TCPTransportPerformanceTest extends AbstractOMTest
+{
+  private static final String PREFIX = TCPTransportPerformanceTest.class.getName() + "."; //$NON-NLS-1$
+
+  private static final int CLIENTS = Integer.getInteger(PREFIX + "clients", 8);
+
+  private static final int ROUND_TRIPS = Integer.getInteger(PREFIX + "roundTrips", 2000);
+
+  private static final int WARMUP_ROUND_TRIPS = 100;
+
+  private static final int PAYLOAD_SIZE = Integer.getInteger(PREFIX + "payloadSize", 16384);
+
+  private final List<IManagedContainer> containers = new ArrayList<>();
+
+  public void testSelectorPool() throws Exception
+  {
+    TCPSelectorPool pool = new TCPSelectorPool(3);
+    pool.activate();
+
+    try
+    {
+      TCPSelector[] selectors = pool.getSelectors();
+      assertEquals(3, selectors.length);
+      assertSame(pool, selectors[0]);
+
+      for (int i = 0; i < 2 * selectors.length; i++)
+      {
+        TCPSelector selector = pool.getConnectionSelector();
+        assertSame(selectors[i % selectors.length], selector);
+        assertEquals(true, selector.isActive());
+      }
+    }
+    finally
+    {
+      pool.deactivate();
+    }
+
+    for (TCPSelector selector : pool.getSelectors())
+    {
+      assertEquals(false, selector.isActive());
+    }
+  }
+
+  public void testOneSelectorThread() throws Exception
+  {
+    run(1);
+  }
+
+  public void testFourSelectorThreads() throws Exception
+  {
+    run(4);
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    for (IManagedContainer container : containers)
+    {
+      LifecycleUtil.deactivate(container);
+    }
+
+    containers.clear();
+    super.doTearDown();
+  }
+
+  private void run(int selectorThreads) throws Exception
+  {
+    IManagedContainer serverContainer = createContainer();
+    TCPSelector selector = TCPSelectorFactory.get(serverContainer, Integer.toString(selectorThreads));
+
+    TCPAcceptor acceptor = (TCPAcceptor)serverContainer.getElement(TCPAcceptorFactory.PRODUCT_GROUP, TCPUtil.FACTORY_TYPE, null, false);
+    acceptor.setSelector(selector);
+    acceptor.activate();
+
+    TestSignalProtocol[] protocols = new TestSignalProtocol[CLIENTS];
+    for (int i = 0; i < CLIENTS; i++)
+    {
+      IConnector connector = TCPUtil.getConnector(createContainer(), "localhost"); //$NON-NLS-1$
+      protocols[i] = new TestSignalProtocol(connector);
+    }
+
+    Set<Object> serverSelectors = new HashSet<>();
+    for (IConnector serverConnector : acceptor.getAcceptedConnectors())
+    {
+      serverSelectors.add(((TCPConnector)serverConnector).getSelector());
+    }
+
+    assertEquals(Math.min(selectorThreads, CLIENTS), serverSelectors.size());
+
+    byte[] data = new byte[PAYLOAD_SIZE];
+    for (int i = 0; i < data.length; i++)
+    {
+      data[i] = (byte)i;
+    }
+
+    long[][] latencies = new long[CLIENTS][ROUND_TRIPS];
+    CountDownLatch startLatch = new CountDownLatch(1);
+    CountDownLatch finishLatch = new CountDownLatch(CLIENTS);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    for (int i = 0; i < CLIENTS; i++)
+    {
+      TestSignalProtocol protocol = protocols[i];
+      long[] clientLatencies = latencies[i];
+
+      Thread thread = new Thread("Client-" + i) //$NON-NLS-1$
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            for (int j = 0; j < WARMUP_ROUND_TRIPS; j++)
+            {
+              new ArrayRequest(protocol, data).send();
+            }
+
+            startLatch.await();
+
+            for (int j = 0; j < ROUND_TRIPS; j++)
+            {
+              long start = System.nanoTime();
+              byte[] result = new ArrayRequest(protocol, data).send();
+              clientLatencies[j] = System.nanoTime() - start;
+
+              if (!Arrays.equals(data, result))
+              {
+                throw new AssertionError("Corrupt echo"); //$NON-NLS-1$
+              }
+            }
+          }
+          catch (Throwable ex)
+          {
+            failure.compareAndSet(null, ex);
+          }
+          finally
+          {
+            finishLatch.countDown();
+          }
+        }
+      };
+
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    long start = System.nanoTime();
+    startLatch.countDown();
+    finishLatch.await();
+    long duration = Math.max(1L, System.nanoTime() - start);
+
+    Throwable ex = failure.get();
+    if (ex != null)
+    {
+      throw new Exception(ex);
+    }
+
+    for (TestSignalProtocol protocol : protocols)
+    {
+      protocol.close();
+    }
+
+    long[] allLatencies = new long[CLIENTS * ROUND_TRIPS];
+    for (int i = 0; i < CLIENTS; i++)
+    {
+      System.arraycopy(latencies[i], 0, allLatencies, i * ROUND_TRIPS, ROUND_TRIPS);
+    }
+
+    Arrays.sort(allLatencies);
+
+    long roundTrips = allLatencies.length;
+    long bytes = 2L * roundTrips * PAYLOAD_SIZE;
+
+    msg(getName() + ": " + CLIENTS + " clients, " + roundTrips + " round trips of " + PAYLOAD_SIZE + " bytes in " + duration / 1000000L + " millis");
+    msg("  Throughput: " + roundTrips * 1000000000L / duration + " round trips/sec = " + bytes * 1000000000L / duration / 1024 / 1024 + " MB/sec");
+    msg("  Latency:    p50 = " + percentile(allLatencies, 50) / 1000L + " micros, p99 = " + percentile(allLatencies, 99) / 1000L + " micros, max = "
+        + allLatencies[allLatencies.length - 1] / 1000L + " micros");
+  }
+
+  private IManagedContainer createContainer()
+  {
+    IManagedContainer container = ContainerUtil.createContainer();
+    container.registerFactory(new TestSignalProtocol.Factory());
+    Net4jUtil.prepareContainer(container);
+    TCPUtil.prepareContainer(container);
+    container.activate();
+
+    containers.add(container);
+    return container;
+  }
+
+  private static long percentile(long[] sortedValues, int percentile)
+  {
+    int index = (int)Math.min(sortedValues.length - 1, (long)sortedValues.length * percentile / 100);
+    return sortedValues[index];
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.Net4jUtil;
+import org.eclipse.net4j.connector.IConnector;
+import org.eclipse.net4j.internal.tcp.unix.UnixAcceptor;
+import org.eclipse.net4j.internal.tcp.unix.UnixDomainSockets;
+import org.eclipse.net4j.tcp.unix.UnixUtil;
+import org.eclipse.net4j.util.container.ContainerUtil;
+import org.eclipse.net4j.util.container.IManagedContainer;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.lifecycle.LifecycleException;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.io.File;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * Tests the handling of the socket file by the {@link UnixAcceptor}.
+ *
+ * @author Eike Stepper
+ */
+public class UnixAcceptorTest extends AbstractOMTest
+{
+  private IManagedContainer container;
+
+  private IManagedContainer otherContainer;
+
+  private File socketFile;
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    skipTest(!UnixUtil.isSupported());
+
+    container = createContainer();
+    socketFile = new File(createTempFolder(), "test.sock");
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    LifecycleUtil.deactivate(otherContainer);
+    LifecycleUtil.deactivate(container);
+    otherContainer = null;
+    container = null;
+    socketFile = null;
+    super.doTearDown();
+  }
+
+  public void testStaleSocketFileIsReplaced() throws Exception
+  {
+    // A closed server socket channel leaves its socket file behind.
+    ServerSocketChannel serverSocketChannel = UnixDomainSockets.openServerSocketChannel();
+    serverSocketChannel.bind(UnixDomainSockets.createAddress(socketFile.getPath()));
+    serverSocketChannel.close();
+    assertEquals(true, socketFile.exists());
+
+    UnixUtil.getAcceptor(container, socketFile.getPath());
+    assertConnectable();
+  }
+
+  public void testSocketFileInUseIsKept() throws Exception
+  {
+    UnixUtil.getAcceptor(container, socketFile.getPath());
+    otherContainer = createContainer();
+    assertActivationFails(otherContainer);
+
+    assertEquals(true, socketFile.exists());
+    assertConnectable();
+  }
+
+  public void testOtherFileIsKept() throws Exception
+  {
+    IOUtil.writeFile(socketFile, "No socket".getBytes());
+    assertActivationFails(container);
+
+    assertEquals("No socket", new String(IOUtil.readFile(socketFile)));
+  }
+
+  public void testSocketFileIsDeletedOnDeactivation() throws Exception
+  {
+    UnixAcceptor acceptor = (UnixAcceptor)UnixUtil.getAcceptor(container, socketFile.getPath());
+    assertEquals(true, socketFile.exists());
+
+    acceptor.deactivate();
+    assertEquals(false, socketFile.exists());
+  }
+
+  private static IManagedContainer createContainer()
+  {
+    IManagedContainer container = ContainerUtil.createContainer();
+    Net4jUtil.prepareContainer(container);
+    UnixUtil.prepareContainer(container);
+    LifecycleUtil.activate(container);
+    return container;
+  }
+
+  private void assertActivationFails(IManagedContainer container)
+  {
+    try
+    {
+      UnixUtil.getAcceptor(container, socketFile.getPath());
+      fail("LifecycleException expected");
+    }
+    catch (LifecycleException expected)
+    {
+      // SUCCESS
+    }
+  }
+
+  private void assertConnectable()
+  {
+    IConnector connector = UnixUtil.getConnector(container, socketFile.getPath());
+    connector.waitForConnection(DEFAULT_TIMEOUT);
+    assertEquals(false, connector.isClosed());
+    connector.close();
+  }
+}
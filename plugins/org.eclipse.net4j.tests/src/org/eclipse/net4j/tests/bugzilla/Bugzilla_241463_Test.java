@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012, 2016, 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2012, 2016, 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,10 +17,14 @@ import org.eclipse.net4j.internal.jvm.JVMClientConnector;
 import org.eclipse.net4j.internal.jvm.JVMServerConnector;
 import org.eclipse.net4j.internal.tcp.TCPAcceptor;
 import org.eclipse.net4j.internal.tcp.TCPAcceptorFactory;
+import org.eclipse.net4j.internal.tcp.TCPConnector;
 import org.eclipse.net4j.internal.tcp.TCPServerConnector;
 import org.eclipse.net4j.internal.tcp.ssl.SSLAcceptor;
 import org.eclipse.net4j.internal.tcp.ssl.SSLAcceptorFactory;
 import org.eclipse.net4j.internal.tcp.ssl.SSLServerConnector;
+import org.eclipse.net4j.internal.tcp.unix.UnixAcceptor;
+import org.eclipse.net4j.internal.tcp.unix.UnixAcceptorFactory;
+import org.eclipse.net4j.internal.tcp.unix.UnixServerConnector;
 import org.eclipse.net4j.internal.ws.WSAcceptor;
 import org.eclipse.net4j.internal.ws.WSAcceptorFactory;
 import org.eclipse.net4j.internal.ws.WSServerConnector;
@@ -51,6 +55,7 @@ public class Bugzilla_241463_Test extends AbstractConfigTest
     container.registerFactory(new FakeTCPAcceptorFactory());
     container.registerFactory(new FakeSSLAcceptorFactory());
     container.registerFactory(new FakeWSAcceptorFactory());
+    container.registerFactory(new FakeUnixAcceptorFactory());
     return container;
   }
 
@@ -212,4 +217,30 @@ public class Bugzilla_241463_Test extends AbstractConfigTest
       };
     }
   }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class FakeUnixAcceptorFactory extends UnixAcceptorFactory
+  {
+    @Override
+    protected UnixAcceptor createAcceptor()
+    {
+      return new UnixAcceptor()
+      {
+        @Override
+        protected TCPConnector createConnector()
+        {
+          return new UnixServerConnector(this)
+          {
+            @Override
+            public InternalChannel inverseOpenChannel(short channelID, String protocolID, int protocolVersion)
+            {
+              throw new RuntimeException("Simulated problem"); //$NON-NLS-1$
+            }
+          };
+        }
+      };
+    }
+  }
 }
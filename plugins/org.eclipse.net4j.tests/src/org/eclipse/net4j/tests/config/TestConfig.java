@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, 2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2020, 2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,7 @@ import org.eclipse.net4j.tcp.ITCPAcceptor;
 import org.eclipse.net4j.tcp.ITCPConnector;
 import org.eclipse.net4j.tcp.TCPUtil;
 import org.eclipse.net4j.tcp.ssl.SSLUtil;
+import org.eclipse.net4j.tcp.unix.UnixUtil;
 import org.eclipse.net4j.util.container.IManagedContainer;
 import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.ws.IWSAcceptor;
@@ -44,6 +45,7 @@ import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.websocket.server.config.JettyWebSocketServletContainerInitializer;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 
@@ -251,6 +253,72 @@ public abstract class TestConfig
     }
   }
 
+  /**
+   * @author Eike Stepper
+   */
+  public static class Unix implements Factory
+  {
+    @Override
+    public TestConfig createConfig()
+    {
+      return new TestConfig()
+      {
+        private File socketFile;
+
+        @Override
+        public boolean needsSeparateContainers()
+        {
+          return false;
+        }
+
+        @Override
+        public void prepareContainer(IManagedContainer container)
+        {
+          UnixUtil.prepareContainer(container);
+        }
+
+        @Override
+        public IAcceptor getAcceptor(IManagedContainer container, boolean activate)
+        {
+          return (ITCPAcceptor)container.getElement(TCPAcceptorFactory.PRODUCT_GROUP, UnixUtil.FACTORY_TYPE, socketFile.getPath(), activate);
+        }
+
+        @Override
+        public IConnector getConnector(IManagedContainer container, boolean activate)
+        {
+          return (ITCPConnector)container.getElement(TCPConnectorFactory.PRODUCT_GROUP, UnixUtil.FACTORY_TYPE, socketFile.getPath(), activate);
+        }
+
+        @Override
+        public void closeUnderlyingConnection(IConnector connector) throws IOException
+        {
+          ((TCPConnector)connector).getSocketChannel().close();
+        }
+
+        @Override
+        public void setUp() throws Exception
+        {
+          // The acceptor creates the socket file itself.
+          socketFile = File.createTempFile("net4j_", ".sock");
+          socketFile.delete();
+        }
+
+        @Override
+        public void tearDown() throws Exception
+        {
+          socketFile.delete();
+          socketFile = null;
+        }
+
+        @Override
+        public String toString()
+        {
+          return Unix.class.getSimpleName();
+        }
+      };
+    }
+  }
+
   /**
    * @author Eike Stepper
    */
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests.signal;
+
+import org.eclipse.net4j.signal.IndicationWithResponse;
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * @author Eike Stepper
+ */
+public class FileIndication extends IndicationWithResponse
+{
+  /**
+   * Written after the file region to verify that the bytes that follow a file region arrive in order.
+   */
+  public static final int TRAILER = 0x0DDBA11;
+
+  private long checksum;
+
+  public FileIndication(TestSignalProtocol protocol)
+  {
+    super(protocol, TestSignalProtocol.SIGNAL_FILE);
+  }
+
+  @Override
+  protected void indicating(ExtendedDataInputStream in) throws Exception
+  {
+    long count = in.readLong();
+    byte[] buffer = new byte[64 * 1024];
+    CRC32 crc = new CRC32();
+
+    while (count > 0L)
+    {
+      int length = (int)Math.min(count, buffer.length);
+      in.readFully(buffer, 0, length);
+      crc.update(buffer, 0, length);
+      count -= length;
+    }
+
+    if (in.readInt() != TRAILER)
+    {
+      throw new IOException("Trailer expected");
+    }
+
+    checksum = crc.getValue();
+  }
+
+  @Override
+  protected void responding(ExtendedDataOutputStream out) throws Exception
+  {
+    out.writeLong(checksum);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests.signal;
+
+import org.eclipse.net4j.signal.RequestWithConfirmation;
+import org.eclipse.net4j.signal.SignalProtocol;
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.IOUtil;
+
+import java.io.File;
+
+/**
+ * Sends a region of a file with {@link IOUtil#transferFile(File, long, long, java.io.OutputStream)} and returns the
+ * CRC-32 checksum of the bytes that the peer has received.
+ *
+ * @author Eike Stepper
+ */
+public class FileRequest extends RequestWithConfirmation<Long>
+{
+  private File file;
+
+  private long position;
+
+  private long count;
+
+  public FileRequest(SignalProtocol<?> protocol, File file, long position, long count)
+  {
+    super(protocol, TestSignalProtocol.SIGNAL_FILE);
+    this.file = file;
+    this.position = position;
+    this.count = count;
+  }
+
+  @Override
+  protected void requesting(ExtendedDataOutputStream out) throws Exception
+  {
+    out.writeLong(count);
+    IOUtil.transferFile(file, position, count, out);
+    out.writeInt(FileIndication.TRAILER);
+  }
+
+  @Override
+  protected Long confirming(ExtendedDataInputStream in) throws Exception
+  {
+    return in.readLong();
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006-2012, 2019, 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2006-2012, 2019, 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,8 @@ public class TestSignalProtocol extends SignalProtocol<Object>
 
   public static final short SIGNAL_PARTIAL_READ = 7;
 
+  public static final short SIGNAL_FILE = 8;
+
   public static final String SIMULATED_EXCEPTION = "Simulated exception"; //$NON-NLS-1$
 
   private int version = super.getVersion();
@@ -101,6 +103,9 @@ public class TestSignalProtocol extends SignalProtocol<Object>
     case SIGNAL_PARTIAL_READ:
       return new PartialReadIndication(this);
 
+    case SIGNAL_FILE:
+      return new FileIndication(this);
+
     default:
       return super.createSignalReactor(signalID);
     }
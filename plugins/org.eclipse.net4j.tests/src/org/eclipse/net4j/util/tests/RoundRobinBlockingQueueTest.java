@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -64,4 +64,45 @@ public class RoundRobinBlockingQueueTest extends AbstractOMTest
     assertNull(queue.peek());
     assertNull(queue.poll());
   }
+
+  public void testWeightedRoundRobinBlockingQueue() throws Exception
+  {
+    BlockingQueue<IChannel> queue = new RoundRobinBlockingQueue<IChannel>()
+    {
+      @Override
+      protected int getWeight(IChannel channel)
+      {
+        return channel.getID() == 0 ? 3 : 1;
+      }
+    };
+
+    Channel[] channels = new Channel[2];
+
+    for (int i = 0; i < channels.length; i++)
+    {
+      Channel c = new Channel();
+      c.setID((short)i);
+      channels[i] = c;
+    }
+
+    for (int i = 0; i < channels.length; i++)
+    {
+      for (int j = 0; j < 6; j++)
+      {
+        queue.put(channels[i]);
+      }
+    }
+
+    // The order should be 000100011111
+    int[] expectedIDs = { 0, 0, 0, 1, 0, 0, 0, 1, 1, 1, 1, 1 };
+    for (int i = 0; i < expectedIDs.length; i++)
+    {
+      IChannel peek = queue.peek();
+      IChannel poll = queue.poll();
+      assertSame(peek, poll);
+      assertEquals(expectedIDs[i], poll.getID());
+    }
+
+    assertEquals(true, queue.isEmpty());
+  }
 }
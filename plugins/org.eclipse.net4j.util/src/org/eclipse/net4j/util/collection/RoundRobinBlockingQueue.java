@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012, 2019, 2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2010-2012, 2019, 2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,16 +17,21 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * A blocking queue that counts the occurrences of its elements and hands them out in round-robin order.
+ * <p>
+ * An element with a {@link #getWeight(Object) weight} greater than one is handed out up to that many times in a row
+ * before the next element gets its turn.
+ *
  * @author Eike Stepper
  * @since 3.1
  */
 public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
 {
-  private final BlockingQueue<Entry<E>> list = new LinkedBlockingQueue<>();
+  private final LinkedBlockingDeque<Entry<E>> list = new LinkedBlockingDeque<>();
 
   public RoundRobinBlockingQueue()
   {
@@ -109,12 +114,7 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
         return null;
       }
 
-      if (entry.decreaseCount() > 0)
-      {
-        list.add(entry);
-      }
-
-      return entry.getElement();
+      return next(entry);
     }
   }
 
@@ -129,12 +129,7 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
         return null;
       }
 
-      if (entry.decreaseCount() > 0)
-      {
-        list.add(entry);
-      }
-
-      return entry.getElement();
+      return next(entry);
     }
   }
 
@@ -144,12 +139,7 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
     synchronized (list)
     {
       Entry<E> entry = list.take();
-      if (entry.decreaseCount() > 0)
-      {
-        list.add(entry);
-      }
-
-      return entry.getElement();
+      return next(entry);
     }
   }
 
@@ -189,12 +179,7 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
     synchronized (list)
     {
       Entry<E> entry = list.remove();
-      if (entry.decreaseCount() > 0)
-      {
-        list.add(entry);
-      }
-
-      return entry.getElement();
+      return next(entry);
     }
   }
 
@@ -349,6 +334,40 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
     }
   }
 
+  /**
+   * Returns how many times in a row the given element is handed out before the next element gets its turn. The default
+   * is <code>1</code>, i.e., strict round-robin.
+   *
+   * @since 3.25
+   */
+  protected int getWeight(E element)
+  {
+    return 1;
+  }
+
+  /**
+   * Must be called with the monitor of the {@link #list} held and with the given entry just removed from the head of
+   * the list.
+   */
+  private E next(Entry<E> entry)
+  {
+    E element = entry.getElement();
+    if (entry.decreaseCount() > 0)
+    {
+      if (entry.increaseTurns() < getWeight(element))
+      {
+        list.addFirst(entry);
+      }
+      else
+      {
+        entry.resetTurns();
+        list.add(entry);
+      }
+    }
+
+    return element;
+  }
+
   /**
    * @author Eike Stepper
    */
@@ -358,6 +377,8 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
 
     private int count;
 
+    private int turns;
+
     public Entry(E element)
     {
       this.element = element;
@@ -384,6 +405,16 @@ public class RoundRobinBlockingQueue<E> implements BlockingQueue<E>
       return --count;
     }
 
+    public int increaseTurns()
+    {
+      return ++turns;
+    }
+
+    public void resetTurns()
+    {
+      turns = 0;
+    }
+
     @Override
     public String toString()
     {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2012, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -44,6 +44,17 @@ public class DataInputOutputFile implements DataInput, DataOutput, Flushable, Cl
 
   private boolean modified;
 
+  /**
+   * Creates an instance that neither opens a file nor allocates a buffer. Subclasses that call this constructor must
+   * override all methods that access the file, i.e., the positioning, reading, and writing methods, {@link #flush()},
+   * and {@link #force(boolean)}.
+   *
+   * @since 3.25
+   */
+  protected DataInputOutputFile()
+  {
+  }
+
   public DataInputOutputFile(File file, String mode) throws FileNotFoundException
   {
     this(file, mode, 2 * 4096);
@@ -78,6 +89,18 @@ public class DataInputOutputFile implements DataInput, DataOutput, Flushable, Cl
     }
   }
 
+  /**
+   * Forces all content that has been {@link #flush() flushed} so far to the storage device.
+   * Unlike {@link #flush()} this method does not touch the buffer and can therefore be called concurrently with writes.
+   *
+   * @see java.nio.channels.FileChannel#force(boolean)
+   * @since 3.25
+   */
+  public void force(boolean metaData) throws IOException
+  {
+    raf.getChannel().force(metaData);
+  }
+
   public void seek(long filePointer) throws IOException
   {
     if (filePointer >= start && filePointer < end)
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.io;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * An output that can write regions of files without copying their contents through byte arrays, for example by
+ * {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long) mapping} them into memory
+ * and writing them directly to a socket.
+ *
+ * @author Eike Stepper
+ * @since 3.25
+ * @see IOUtil#transferFile(File, long, long, java.io.OutputStream)
+ */
+public interface IFileRegionOutput
+{
+  /**
+   * Writes <code>count</code> bytes of the given file, starting at the given position.
+   * <p>
+   * The bytes may be read from the file after this method has returned. The file must therefore not be modified
+   * until the output has been flushed and its bytes have been sent.
+   */
+  public void writeFileRegion(File file, long position, long count) throws IOException;
+}
@@ -597,6 +597,32 @@ public final class IOUtil
     return size;
   }
 
+  /**
+   * Skips exactly <code>n</code> bytes of the given stream, reading single bytes if {@link InputStream#skip(long)} makes
+   * no progress.
+   *
+   * @throws EOFException if the stream ends before <code>n</code> bytes have been skipped.
+   * @since 3.25
+   */
+  public static void skipFully(InputStream inputStream, long n) throws IOException
+  {
+    while (n > 0L)
+    {
+      long skipped = inputStream.skip(n);
+      if (skipped <= 0L)
+      {
+        if (inputStream.read() == EOF)
+        {
+          throw new EOFException("Could not skip " + n + " bytes");
+        }
+
+        skipped = 1L;
+      }
+
+      n -= skipped;
+    }
+  }
+
   /**
    * @since 3.1
    */
@@ -622,6 +648,31 @@ public final class IOUtil
     outputStream.flush();
   }
 
+  /**
+   * Writes <code>count</code> bytes of the given file, starting at the given position, to the given stream.
+   * <p>
+   * If the stream, or the stream that is wrapped by an {@link ExtendedDataOutputStream}, is an
+   * {@link IFileRegionOutput} the file region is written by that stream, possibly without copying the bytes through the
+   * Java heap. Otherwise the bytes are {@link #copyBinary(InputStream, OutputStream, long) copied}.
+   *
+   * @since 3.25
+   */
+  public static void transferFile(File file, long position, long count, OutputStream outputStream) throws IOException
+  {
+    OutputStream target = ExtendedDataOutputStream.unwrap(outputStream);
+    if (target instanceof IFileRegionOutput)
+    {
+      ((IFileRegionOutput)target).writeFileRegion(file, position, count);
+      return;
+    }
+
+    try (InputStream inputStream = new FileInputStream(file))
+    {
+      skipFully(inputStream, position);
+      copyBinary(inputStream, outputStream, count);
+    }
+  }
+
   /**
    * @since 3.1
    */
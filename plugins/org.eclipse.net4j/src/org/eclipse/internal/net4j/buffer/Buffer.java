@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2016, 2018-2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2016, 2018-2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -354,37 +354,7 @@ public class Buffer implements InternalBuffer
   {
     try
     {
-      if (state != BufferState.PUTTING && state != BufferState.WRITING)
-      {
-        throw new IllegalStateException(toString());
-      }
-
-      if (state == BufferState.PUTTING)
-      {
-        if (channelID == NO_CHANNEL)
-        {
-          throw new IllegalStateException(toString() + ": channelID == NO_CHANNEL"); //$NON-NLS-1$
-        }
-
-        int payloadSize = byteBuffer.position() - HEADER_SIZE;
-        boolean eos = isEOS();
-        if (eos)
-        {
-          payloadSize = -payloadSize;
-        }
-
-        if (TRACER.isEnabled())
-        {
-          TRACER.trace("Writing " + (Math.abs(payloadSize) - 1) + " bytes" //$NON-NLS-1$ //$NON-NLS-2$
-              + (eos ? " (EOS)" : "") + StringUtil.NL + formatContent(false)); //$NON-NLS-1$ //$NON-NLS-2$
-        }
-
-        _flip(byteBuffer);
-        byteBuffer.putShort(channelID);
-        byteBuffer.putShort((short)payloadSize);
-        _position(byteBuffer, 0);
-        state = BufferState.WRITING;
-      }
+      startWriting();
 
       int numBytes = socketChannel.write(byteBuffer);
       if (numBytes == -1)
@@ -417,6 +387,48 @@ public class Buffer implements InternalBuffer
     }
   }
 
+  /**
+   * Writes the header of this buffer if it is still {@link BufferState#PUTTING putting} and returns the byte buffer that
+   * is to be written to a socket channel. Callers that write the returned byte buffer themselves, for example in a
+   * gathering write, must {@link #clear()} this buffer when the byte buffer has no remaining bytes.
+   */
+  public ByteBuffer startWriting() throws IllegalStateException
+  {
+    if (state != BufferState.PUTTING && state != BufferState.WRITING)
+    {
+      throw new IllegalStateException(toString());
+    }
+
+    if (state == BufferState.PUTTING)
+    {
+      if (channelID == NO_CHANNEL)
+      {
+        throw new IllegalStateException(toString() + ": channelID == NO_CHANNEL"); //$NON-NLS-1$
+      }
+
+      int payloadSize = byteBuffer.position() - HEADER_SIZE;
+      boolean eos = isEOS();
+      if (eos)
+      {
+        payloadSize = -payloadSize;
+      }
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.trace("Writing " + (Math.abs(payloadSize) - 1) + " bytes" //$NON-NLS-1$ //$NON-NLS-2$
+            + (eos ? " (EOS)" : "") + StringUtil.NL + formatContent(false)); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+
+      _flip(byteBuffer);
+      byteBuffer.putShort(channelID);
+      byteBuffer.putShort((short)payloadSize);
+      _position(byteBuffer, 0);
+      state = BufferState.WRITING;
+    }
+
+    return byteBuffer;
+  }
+
   @Override
   public void flip()
   {
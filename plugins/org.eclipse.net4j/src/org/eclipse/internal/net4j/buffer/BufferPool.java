@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2012, 2015, 2016, 2019 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2012, 2015, 2016, 2019, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ import org.eclipse.net4j.buffer.IBuffer;
 import org.eclipse.net4j.buffer.IBufferPool;
 import org.eclipse.net4j.buffer.IBufferProvider;
 import org.eclipse.net4j.util.ReflectUtil.ExcludeFromDump;
+import org.eclipse.net4j.util.om.OMPlatform;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.net4j.util.ref.CleanableReferenceQueue;
 
@@ -24,24 +25,61 @@ import org.eclipse.spi.net4j.InternalBuffer;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.text.MessageFormat;
+import java.util.Iterator;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * A pool of buffers of one capacity.
+ * <p>
+ * Each thread has a small magazine of pooled buffers in front of the shared queue, so that the threads that provide
+ * and retain many buffers don't contend for the queue. Pooled buffers are softly referenced, wherever they are. The
+ * magazines stay registered with the pool, so that their buffers can be {@link #evict(int) evicted}, even if their
+ * threads don't provide buffers anymore or have terminated.
+ *
  * @author Eike Stepper
  */
-public class BufferPool extends BufferProvider implements IBufferPool.Introspection
+public class BufferPool extends BufferProvider implements IBufferPool.Statistics
 {
+  public static final boolean LEAK_DETECTION = OMPlatform.INSTANCE.isProperty("org.eclipse.net4j.buffer.leakDetection");
+
+  public static final int MAGAZINE_CAPACITY = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.buffer.BufferPool.magazineCapacity", 16);
+
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG_BUFFER, BufferPool.class);
 
   private final IBufferProvider provider;
 
-  private int pooledBuffers;
+  private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+  private final LongAdder allocatedBuffers = new LongAdder();
+
+  private final LongAdder poolHits = new LongAdder();
+
+  private final AtomicInteger buffersInUse = new AtomicInteger();
+
+  private final AtomicLong leakedBuffers = new AtomicLong();
 
   @ExcludeFromDump
   private final Queue<BufferRef> buffers = new ConcurrentLinkedQueue<>();
 
+  @ExcludeFromDump
+  private final Queue<Magazine> allMagazines = new ConcurrentLinkedQueue<>();
+
+  @ExcludeFromDump
+  private final ThreadLocal<Magazine> magazines = ThreadLocal.withInitial(() -> {
+    Magazine magazine = new Magazine();
+    allMagazines.add(magazine);
+    return magazine;
+  });
+
   @ExcludeFromDump
   private final CleanableReferenceQueue<IBuffer> referenceQueue = new CleanableReferenceQueue<IBuffer>()
   {
@@ -54,9 +92,11 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
     @Override
     protected void cleanReference(Reference<? extends IBuffer> reference)
     {
-      if (buffers.remove(reference))
+      if (((BufferRef)reference).take())
       {
-        --pooledBuffers;
+        buffers.remove(reference);
+        pooledBuffers.decrementAndGet();
+
         if (TRACER.isEnabled())
         {
           TRACER.trace("Collected buffer"); //$NON-NLS-1$
@@ -65,6 +105,9 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
     }
   };
 
+  @ExcludeFromDump
+  private final LeakDetector leakDetector = LEAK_DETECTION ? new LeakDetector() : null;
+
   public BufferPool(IBufferProvider provider)
   {
     super(provider.getBufferCapacity());
@@ -84,9 +127,48 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
   @Override
   public int getPooledBuffers()
   {
-    return pooledBuffers;
+    referenceQueue.clean();
+    return pooledBuffers.get();
+  }
+
+  @Override
+  public long getAllocatedBuffers()
+  {
+    return allocatedBuffers.sum();
+  }
+
+  @Override
+  public long getPoolHits()
+  {
+    return poolHits.sum();
+  }
+
+  @Override
+  public int getBuffersInUse()
+  {
+    return buffersInUse.get();
+  }
+
+  @Override
+  public long getBytesInUse()
+  {
+    return (long)buffersInUse.get() * getBufferCapacity();
   }
 
+  @Override
+  public long getLeakedBuffers()
+  {
+    if (leakDetector != null)
+    {
+      leakDetector.detectLeaks();
+    }
+
+    return leakedBuffers.get();
+  }
+
+  /**
+   * Evicts a buffer from the shared queue or, if that is empty, from the magazine of any thread.
+   */
   @Override
   public boolean evictOne()
   {
@@ -95,11 +177,15 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
       BufferRef bufferRef = buffers.poll();
       if (bufferRef == null)
       {
-        return false;
+        bufferRef = pollMagazines(false);
+        if (bufferRef == null)
+        {
+          return false;
+        }
       }
 
       IBuffer buffer = bufferRef.get();
-      if (buffer != null)
+      if (buffer != null && bufferRef.take())
       {
         if (TRACER.isEnabled())
         {
@@ -107,7 +193,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
         }
 
         provider.retainBuffer(buffer);
-        --pooledBuffers;
+        pooledBuffers.decrementAndGet();
         return true;
       }
     }
@@ -117,7 +203,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
   public int evict(int survivors)
   {
     int evictedBuffers = 0;
-    while (pooledBuffers > survivors)
+    while (pooledBuffers.get() > survivors)
     {
       if (evictOne())
       {
@@ -146,24 +232,33 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
   @Override
   protected IBuffer doProvideBuffer()
   {
-    IBuffer buffer = null;
-    BufferRef bufferRef = buffers.poll();
-    if (bufferRef != null)
+    referenceQueue.clean();
+
+    IBuffer buffer = magazines.get().poll();
+    if (buffer == null)
     {
-      buffer = bufferRef.get();
+      buffer = pollShared();
     }
 
     if (buffer == null)
     {
       buffer = provider.provideBuffer();
       ((InternalBuffer)buffer).setBufferProvider(this);
+      allocatedBuffers.increment();
     }
     else
     {
-      --pooledBuffers;
+      poolHits.increment();
     }
 
     buffer.clear();
+    buffersInUse.incrementAndGet();
+
+    if (leakDetector != null)
+    {
+      leakDetector.provided(buffer);
+    }
+
     if (TRACER.isEnabled())
     {
       TRACER.trace("Obtained " + buffer); //$NON-NLS-1$
@@ -185,9 +280,82 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
       TRACER.trace("Retaining " + buffer); //$NON-NLS-1$
     }
 
+    if (leakDetector != null)
+    {
+      leakDetector.retained(buffer);
+    }
+
+    buffersInUse.decrementAndGet();
+    pooledBuffers.incrementAndGet();
+
     BufferRef bufferRef = createBufferRef(buffer);
-    buffers.add(bufferRef);
-    ++pooledBuffers;
+    if (!magazines.get().offer(bufferRef))
+    {
+      buffers.add(bufferRef);
+    }
+  }
+
+  private IBuffer pollShared()
+  {
+    for (;;)
+    {
+      BufferRef bufferRef = buffers.poll();
+      if (bufferRef == null)
+      {
+        // Reuse the buffers that terminated threads have left in their magazines.
+        bufferRef = pollMagazines(true);
+        if (bufferRef == null)
+        {
+          return null;
+        }
+      }
+
+      IBuffer buffer = take(bufferRef);
+      if (buffer != null)
+      {
+        // Refill the magazine of this thread, so that the next buffers don't contend for the shared queue.
+        magazines.get().refill();
+        return buffer;
+      }
+    }
+  }
+
+  private BufferRef pollMagazines(boolean orphanedOnly)
+  {
+    for (Iterator<Magazine> it = allMagazines.iterator(); it.hasNext();)
+    {
+      Magazine magazine = it.next();
+
+      boolean orphaned = magazine.isOrphaned();
+      if (orphaned || !orphanedOnly)
+      {
+        BufferRef bufferRef = magazine.evict();
+        if (bufferRef != null)
+        {
+          return bufferRef;
+        }
+
+        if (orphaned)
+        {
+          // The thread of this magazine has terminated and won't use it anymore.
+          it.remove();
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private IBuffer take(BufferRef bufferRef)
+  {
+    IBuffer buffer = bufferRef.get();
+    if (buffer != null && bufferRef.take())
+    {
+      pooledBuffers.decrementAndGet();
+      return buffer;
+    }
+
+    return null;
   }
 
   /**
@@ -195,9 +363,183 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
    */
   private static final class BufferRef extends SoftReference<IBuffer>
   {
+    private final AtomicBoolean pooled = new AtomicBoolean(true);
+
     public BufferRef(IBuffer buffer, ReferenceQueue<IBuffer> queue)
     {
       super(buffer, queue);
     }
+
+    /**
+     * @return <code>true</code> if the calling thread is the one that takes this reference out of the pool.
+     */
+    public boolean take()
+    {
+      return pooled.compareAndSet(true, false);
+    }
+  }
+
+  /**
+   * The pooled buffers of a single thread. Buffers that don't fit into a full magazine go to the shared queue;
+   * an empty magazine is refilled with half of its capacity from the shared queue. Other threads only access a magazine
+   * to {@link #evict() evict} its buffers, so its monitor is hardly ever contended.
+   *
+   * @author Eike Stepper
+   */
+  private final class Magazine
+  {
+    private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+
+    private final BufferRef[] bufferRefs = new BufferRef[MAGAZINE_CAPACITY];
+
+    private int size;
+
+    public synchronized IBuffer poll()
+    {
+      while (size > 0)
+      {
+        BufferRef bufferRef = bufferRefs[--size];
+        bufferRefs[size] = null;
+
+        IBuffer buffer = take(bufferRef);
+        if (buffer != null)
+        {
+          return buffer;
+        }
+      }
+
+      return null;
+    }
+
+    public synchronized boolean offer(BufferRef bufferRef)
+    {
+      if (size < bufferRefs.length)
+      {
+        bufferRefs[size++] = bufferRef;
+        return true;
+      }
+
+      return false;
+    }
+
+    public synchronized void refill()
+    {
+      int target = bufferRefs.length / 2;
+      while (size < target)
+      {
+        BufferRef bufferRef = buffers.poll();
+        if (bufferRef == null)
+        {
+          break;
+        }
+
+        bufferRefs[size++] = bufferRef;
+      }
+    }
+
+    public synchronized BufferRef evict()
+    {
+      if (size == 0)
+      {
+        return null;
+      }
+
+      BufferRef bufferRef = bufferRefs[--size];
+      bufferRefs[size] = null;
+      return bufferRef;
+    }
+
+    public boolean isOrphaned()
+    {
+      Thread thread = owner.get();
+      return thread == null || !thread.isAlive();
+    }
+  }
+
+  /**
+   * Remembers where the provided buffers have been obtained and reports the ones that are garbage collected without
+   * being retained. The provided buffers are weakly referenced and identified by their identity.
+   *
+   * @author Eike Stepper
+   */
+  private final class LeakDetector
+  {
+    private final ReferenceQueue<IBuffer> queue = new ReferenceQueue<>();
+
+    private final Set<LeakRef> leakRefs = ConcurrentHashMap.newKeySet();
+
+    public void provided(IBuffer buffer)
+    {
+      detectLeaks();
+      leakRefs.add(new LeakRef(buffer, queue, new Exception("Provision site"))); //$NON-NLS-1$
+    }
+
+    public void retained(IBuffer buffer)
+    {
+      leakRefs.remove(new LeakRef(buffer, null, null));
+    }
+
+    public void detectLeaks()
+    {
+      Reference<? extends IBuffer> reference;
+      while ((reference = queue.poll()) != null)
+      {
+        LeakRef leakRef = (LeakRef)reference;
+        if (leakRefs.remove(leakRef))
+        {
+          leakedBuffers.incrementAndGet();
+          buffersInUse.decrementAndGet();
+          OM.LOG.warn("Buffer of " + BufferPool.this + " has been garbage collected without being retained", leakRef.getProvisionSite()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+      }
+    }
+  }
+
+  /**
+   * A weak reference to a provided buffer that is equal to the other references to the same buffer. A cleared
+   * reference is only equal to itself.
+   *
+   * @author Eike Stepper
+   */
+  private static final class LeakRef extends WeakReference<IBuffer>
+  {
+    private final int hashCode;
+
+    private final Exception provisionSite;
+
+    public LeakRef(IBuffer buffer, ReferenceQueue<IBuffer> queue, Exception provisionSite)
+    {
+      super(buffer, queue);
+      hashCode = System.identityHashCode(buffer);
+      this.provisionSite = provisionSite;
+    }
+
+    public Exception getProvisionSite()
+    {
+      return provisionSite;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (obj == this)
+      {
+        return true;
+      }
+
+      if (obj instanceof LeakRef)
+      {
+        IBuffer buffer = get();
+        return buffer != null && buffer == ((LeakRef)obj).get();
+      }
+
+      return false;
+    }
   }
 }
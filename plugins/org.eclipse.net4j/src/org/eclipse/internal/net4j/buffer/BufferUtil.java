@@ -38,7 +38,7 @@ public final class BufferUtil
 
   private static final byte TRUE = (byte)1;
 
-  private static final short NULL_STRING = -1;
+  static final short NULL_STRING = -1;
 
   private BufferUtil()
   {
@@ -0,0 +1,498 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.internal.net4j.buffer;
+
+import org.eclipse.net4j.buffer.BufferState;
+import org.eclipse.net4j.buffer.IBuffer;
+import org.eclipse.net4j.buffer.IBufferProvider;
+import org.eclipse.net4j.util.IErrorHandler;
+import org.eclipse.net4j.util.io.IOUtil;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+
+/**
+ * A {@link IBuffer buffer} whose payload consists of the bytes that have already been put into a regular buffer, the
+ * prefix, followed by a region of a file. The file region is {@link FileChannel#map(FileChannel.MapMode, long, long)
+ * mapped} into memory, so that its bytes are written to the socket channel directly from the file system cache, with a
+ * gathering write together with the header and the prefix, and are never copied into the Java heap or into a net4j
+ * buffer.
+ * <p>
+ * The payload of a file region buffer is never larger than the payload of a regular buffer, so that the receiver can
+ * read it into a regular buffer.
+ * <p>
+ * Apart from that a file region buffer behaves like a regular buffer whose payload is complete: it can be
+ * {@link #flip() flipped} and read, and positions and limits refer to the prefix followed by the file region. Nothing
+ * can be put into it, because the file region is read-only and ends the payload, and it can't be used to receive.
+ *
+ * @author Eike Stepper
+ */
+public class FileRegionBuffer implements IBuffer
+{
+  private final IBuffer prefix;
+
+  private final ByteBuffer region;
+
+  private final int prefixEnd;
+
+  private final int regionLength;
+
+  private ByteBuffer[] byteBuffers;
+
+  private BufferState state = BufferState.PUTTING;
+
+  public FileRegionBuffer(IBuffer prefix, ByteBuffer region)
+  {
+    this.prefix = prefix;
+    this.region = region;
+    prefixEnd = prefix.getPosition();
+    regionLength = region.remaining();
+  }
+
+  @Override
+  public IBufferProvider getBufferProvider()
+  {
+    return prefix.getBufferProvider();
+  }
+
+  @Override
+  public short getChannelID()
+  {
+    return prefix.getChannelID();
+  }
+
+  @Override
+  public short getCapacity()
+  {
+    return prefix.getCapacity();
+  }
+
+  @Override
+  public BufferState getState()
+  {
+    return state;
+  }
+
+  /**
+   * Throws an {@link IllegalStateException} because a file region buffer is only ever sent.
+   */
+  @Override
+  public ByteBuffer startGetting(SocketChannel socketChannel) throws IllegalStateException, IOException
+  {
+    throw new IllegalStateException(toString());
+  }
+
+  /**
+   * Throws an {@link IllegalStateException} because the payload of a file region buffer is complete.
+   */
+  @Override
+  public ByteBuffer startPutting(short channelID) throws IllegalStateException
+  {
+    throw new IllegalStateException(toString() + ": Payload is complete"); //$NON-NLS-1$
+  }
+
+  @Override
+  public boolean write(SocketChannel socketChannel) throws IllegalStateException, IOException
+  {
+    try
+    {
+      if (socketChannel.write(startWriting()) == -1)
+      {
+        throw new IOException(toString() + ": Channel closed"); //$NON-NLS-1$
+      }
+
+      if (region.hasRemaining())
+      {
+        return false;
+      }
+
+      prefix.clear();
+      return true;
+    }
+    catch (IOException | RuntimeException | Error ex)
+    {
+      handleError(ex);
+      throw ex;
+    }
+  }
+
+  @Override
+  public void flip() throws IllegalStateException
+  {
+    if (state != BufferState.PUTTING)
+    {
+      throw new IllegalStateException(toString());
+    }
+
+    prefix.setLimit(prefixEnd);
+    prefix.setPosition(HEADER_SIZE);
+
+    java.nio.Buffer buffer = region;
+    buffer.position(0);
+    state = BufferState.GETTING;
+  }
+
+  @Override
+  public ByteBuffer getByteBuffer() throws IllegalStateException
+  {
+    return prefix.getByteBuffer();
+  }
+
+  @Override
+  public boolean isEOS()
+  {
+    return prefix.isEOS();
+  }
+
+  @Override
+  public void setEOS(boolean eos)
+  {
+    prefix.setEOS(eos);
+  }
+
+  @Override
+  public boolean isCCAM()
+  {
+    return prefix.isCCAM();
+  }
+
+  @Override
+  public void setCCAM(boolean ccam)
+  {
+    prefix.setCCAM(ccam);
+  }
+
+  @Override
+  public void release()
+  {
+    if (state != BufferState.RELEASED)
+    {
+      state = BufferState.RELEASED;
+      prefix.release();
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    prefix.clear();
+  }
+
+  @Override
+  public String formatContent(boolean showHeader)
+  {
+    return prefix.formatContent(showHeader) + " + " + regionLength + " bytes of a file"; //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
+  @Override
+  public IErrorHandler getErrorHandler()
+  {
+    return prefix.getErrorHandler();
+  }
+
+  @Override
+  public void setErrorHandler(IErrorHandler errorHandler)
+  {
+    prefix.setErrorHandler(errorHandler);
+  }
+
+  /**
+   * Throws a {@link ReadOnlyBufferException} because the bytes of the file region can't be moved.
+   */
+  @Override
+  public void compact()
+  {
+    throw new ReadOnlyBufferException();
+  }
+
+  /**
+   * Returns the position within the prefix followed by the file region. While this buffer is
+   * {@link BufferState#PUTTING putting} that's the position that the prefix buffer would have if the file region had
+   * been put into it.
+   */
+  @Override
+  public int getPosition()
+  {
+    if (state == BufferState.PUTTING)
+    {
+      return prefixEnd + regionLength;
+    }
+
+    int regionPosition = region.position();
+    return regionPosition == 0 ? prefix.getPosition() : prefixEnd + regionPosition;
+  }
+
+  @Override
+  public void setPosition(int position)
+  {
+    checkNotPutting();
+
+    java.nio.Buffer buffer = region;
+    if (position <= prefixEnd)
+    {
+      buffer.position(0);
+      prefix.setPosition(position);
+    }
+    else
+    {
+      prefix.setPosition(prefixEnd);
+      buffer.position(position - prefixEnd);
+    }
+  }
+
+  @Override
+  public int getLimit()
+  {
+    int prefixLimit = prefix.getLimit();
+    return prefixLimit < prefixEnd ? prefixLimit : prefixEnd + region.limit();
+  }
+
+  @Override
+  public void setLimit(int limit)
+  {
+    checkNotPutting();
+
+    java.nio.Buffer buffer = region;
+    if (limit <= prefixEnd)
+    {
+      buffer.limit(0);
+      prefix.setLimit(limit);
+    }
+    else
+    {
+      buffer.limit(limit - prefixEnd);
+      prefix.setLimit(prefixEnd);
+    }
+  }
+
+  @Override
+  public boolean hasRemaining()
+  {
+    if (state == BufferState.PUTTING)
+    {
+      return false;
+    }
+
+    return prefix.hasRemaining() || region.hasRemaining();
+  }
+
+  @Override
+  public byte get()
+  {
+    ByteBuffer byteBuffer = prefix.getByteBuffer();
+    return byteBuffer.hasRemaining() ? byteBuffer.get() : region.get();
+  }
+
+  @Override
+  public void get(byte[] dst)
+  {
+    ByteBuffer byteBuffer = prefix.getByteBuffer();
+    int fromPrefix = byteBuffer.remaining();
+    if (dst.length > fromPrefix + region.remaining())
+    {
+      throw new BufferUnderflowException();
+    }
+
+    if (dst.length <= fromPrefix)
+    {
+      byteBuffer.get(dst);
+    }
+    else
+    {
+      byteBuffer.get(dst, 0, fromPrefix);
+      region.get(dst, fromPrefix, dst.length - fromPrefix);
+    }
+  }
+
+  @Override
+  public short getShort()
+  {
+    byte[] bytes = new byte[Short.BYTES];
+    get(bytes);
+    return (short)((bytes[0] & 0xFF) << 8 | bytes[1] & 0xFF);
+  }
+
+  @Override
+  public int getInt()
+  {
+    byte[] bytes = new byte[Integer.BYTES];
+    get(bytes);
+    return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | bytes[3] & 0xFF;
+  }
+
+  @Override
+  public String getString()
+  {
+    short size = getShort();
+    if (size == BufferUtil.NULL_STRING)
+    {
+      return null;
+    }
+
+    byte[] bytes = new byte[size];
+    get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Throws a {@link BufferOverflowException} because the payload of a file region buffer is complete.
+   */
+  @Override
+  public void put(byte b)
+  {
+    throw new BufferOverflowException();
+  }
+
+  /**
+   * Throws a {@link BufferOverflowException} because the payload of a file region buffer is complete.
+   */
+  @Override
+  public void put(byte[] src, int offset, int length)
+  {
+    throw new BufferOverflowException();
+  }
+
+  /**
+   * Throws a {@link BufferOverflowException} because the payload of a file region buffer is complete.
+   */
+  @Override
+  public void putShort(short value)
+  {
+    throw new BufferOverflowException();
+  }
+
+  @Override
+  public String toString()
+  {
+    return MessageFormat.format("FileRegionBuffer[{0}, {1}]", prefix, state); //$NON-NLS-1$
+  }
+
+  /**
+   * Writes the header of this buffer if it is still {@link BufferState#PUTTING putting} and returns the byte buffers
+   * that are to be written to a socket channel, i.e., the header and the prefix followed by the file region. Callers
+   * that write the returned byte buffers themselves, for example in a gathering write, must {@link #clear()} this buffer
+   * when the last byte buffer has no remaining bytes.
+   */
+  public ByteBuffer[] startWriting() throws IllegalStateException
+  {
+    if (state != BufferState.PUTTING && state != BufferState.WRITING)
+    {
+      throw new IllegalStateException(toString());
+    }
+
+    if (state == BufferState.PUTTING)
+    {
+      int payloadSize = prefixEnd - HEADER_SIZE + regionLength;
+      if (isEOS())
+      {
+        payloadSize = -payloadSize;
+      }
+
+      ByteBuffer byteBuffer = prefix.getByteBuffer();
+      prefix.setLimit(prefixEnd);
+      prefix.setPosition(0);
+      byteBuffer.putShort(CHANNEL_ID_POS, prefix.getChannelID());
+      byteBuffer.putShort(PAYLOAD_SIZE_POS, (short)payloadSize);
+
+      byteBuffers = new ByteBuffer[] { byteBuffer, region };
+      state = BufferState.WRITING;
+    }
+
+    return byteBuffers;
+  }
+
+  private void checkNotPutting()
+  {
+    if (state == BufferState.PUTTING)
+    {
+      throw new IllegalStateException(toString() + ": Payload is complete"); //$NON-NLS-1$
+    }
+  }
+
+  private void handleError(Throwable t)
+  {
+    try
+    {
+      IErrorHandler errorHandler = getErrorHandler();
+      if (errorHandler != null)
+      {
+        errorHandler.handleError(t);
+      }
+    }
+    finally
+    {
+      release();
+    }
+  }
+
+  /**
+   * Maps consecutive regions of a file into memory, one segment of up to {@link #SEGMENT_SIZE} bytes at a time. The
+   * mapped segments stay valid after the source has been {@link #close() closed}; they're unmapped when they're garbage
+   * collected.
+   *
+   * @author Eike Stepper
+   */
+  public static final class Source implements Closeable
+  {
+    public static final long SEGMENT_SIZE = 64L * 1024L * 1024L;
+
+    private final FileChannel fileChannel;
+
+    private MappedByteBuffer segment;
+
+    private long segmentStart;
+
+    public Source(File file) throws IOException
+    {
+      fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Returns a byte buffer with the given number of bytes of the file, starting at the given position.
+     */
+    public ByteBuffer map(long position, int length) throws IOException
+    {
+      if (segment == null || position < segmentStart || position + length > segmentStart + segment.capacity())
+      {
+        long size = Math.max(length, Math.min(SEGMENT_SIZE, fileChannel.size() - position));
+        segment = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        segmentStart = position;
+      }
+
+      ByteBuffer region = segment.duplicate();
+
+      // See https://github.com/apache/felix/pull/114
+      java.nio.Buffer buffer = region;
+      int start = (int)(position - segmentStart);
+      buffer.limit(start + length);
+      buffer.position(start);
+
+      return region.slice();
+    }
+
+    @Override
+    public void close()
+    {
+      IOUtil.closeSilent(fileChannel);
+    }
+  }
+}
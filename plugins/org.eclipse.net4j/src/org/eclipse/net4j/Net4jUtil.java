@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2016, 2018, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007-2013, 2016, 2018, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2010-2012, 2015, 2016, 2018-2020 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008, 2010-2012, 2015, 2016, 2018-2020, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,19 @@
  */
 package org.eclipse.net4j.buffer;
 
+import org.eclipse.net4j.util.io.IFileRegionOutput;
 import org.eclipse.net4j.util.io.IORuntimeException;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 
+import org.eclipse.internal.net4j.buffer.FileRegionBuffer;
+
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * An {@link OutputStream output stream} that fragments the written byte sequence into fixed-sized {@link IBuffer
@@ -24,7 +31,7 @@ import java.nio.ByteBuffer;
  *
  * @author Eike Stepper
  */
-public class BufferOutputStream extends OutputStream
+public class BufferOutputStream extends OutputStream implements IFileRegionOutput
 {
   public static final boolean DEFAULT_PROPAGATE_CLOSE = false;
 
@@ -127,6 +134,44 @@ public class BufferOutputStream extends OutputStream
     }
   }
 
+  /**
+   * Writes <code>count</code> bytes of the given file, starting at the given position.
+   * <p>
+   * If this stream {@link #isZeroCopy() supports zero-copy} the file region is mapped into memory and split into buffers
+   * that are passed to the buffer handler immediately and whose file bytes are written to the socket channel directly
+   * from the mapped memory.
+   * Otherwise the file bytes are read directly into the byte buffers of the regular buffers.
+   *
+   * @since 4.20
+   */
+  @Override
+  public void writeFileRegion(File file, long position, long count) throws IOException
+  {
+    if (position < 0L || count < 0L)
+    {
+      throw new IndexOutOfBoundsException();
+    }
+
+    if (count == 0L)
+    {
+      return;
+    }
+
+    if (file.length() < position + count)
+    {
+      throw new EOFException("File " + file + " has less than " + (position + count) + " bytes");
+    }
+
+    if (isZeroCopy())
+    {
+      transferFileRegion(file, position, count);
+    }
+    else
+    {
+      copyFileRegion(file, position, count);
+    }
+  }
+
   /**
    * Flushes the current buffer, it's handled over to the buffer handler.
    *
@@ -204,6 +249,18 @@ public class BufferOutputStream extends OutputStream
     return "BufferOutputStream";
   }
 
+  /**
+   * Returns <code>true</code> if the buffers of this stream are written to a socket channel without being transformed, so
+   * that {@link #writeFileRegion(File, long, long) file regions} can be transferred to the socket channel directly,
+   * <code>false</code> otherwise.
+   *
+   * @since 4.20
+   */
+  protected boolean isZeroCopy()
+  {
+    return false;
+  }
+
   /**
    * Ensures that this BufferOutputStream has a buffer. If the current buffer was flushed a new one is fetched from the
    * buffer provider.
@@ -228,6 +285,72 @@ public class BufferOutputStream extends OutputStream
     }
   }
 
+  private void transferFileRegion(File file, long position, long count) throws IOException
+  {
+    FileRegionBuffer.Source source = new FileRegionBuffer.Source(file);
+
+    try
+    {
+      while (count > 0L)
+      {
+        throwExceptionOnError();
+        flushIfFilled();
+        ensureBufferPrivate();
+
+        // The file bytes of a region buffer must fit into the remaining space of a regular buffer.
+        int length = (int)Math.min(count, currentBuffer.getByteBuffer().remaining());
+        IBuffer regionBuffer = new FileRegionBuffer(currentBuffer, source.map(position, length));
+        currentBuffer = null;
+        bufferHandler.handleBuffer(regionBuffer);
+
+        position += length;
+        count -= length;
+      }
+    }
+    finally
+    {
+      source.close();
+    }
+  }
+
+  private void copyFileRegion(File file, long position, long count) throws IOException
+  {
+    try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+    {
+      while (count > 0L)
+      {
+        throwExceptionOnError();
+        flushIfFilled();
+        ensureBufferPrivate();
+
+        ByteBuffer byteBuffer = currentBuffer.getByteBuffer();
+        int length = (int)Math.min(count, byteBuffer.remaining());
+        int limit = currentBuffer.getLimit();
+        currentBuffer.setLimit(currentBuffer.getPosition() + length);
+
+        try
+        {
+          while (byteBuffer.hasRemaining())
+          {
+            int bytesRead = fileChannel.read(byteBuffer, position);
+            if (bytesRead < 0)
+            {
+              throw new EOFException("File " + file + " ended at " + position);
+            }
+
+            position += bytesRead;
+          }
+        }
+        finally
+        {
+          currentBuffer.setLimit(limit);
+        }
+
+        count -= length;
+      }
+    }
+  }
+
   /**
    * Throws an exception if there's an error.
    *
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007, 2008, 2011, 2012, 2015 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2007, 2008, 2011, 2012, 2015, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -44,4 +44,40 @@ public interface IBufferPool extends IBufferProvider
      */
     public int getPooledBuffers();
   }
+
+  /**
+   * Offers statistics about the usage of {@link IBufferPool}s.
+   *
+   * @author Eike Stepper
+   * @since 4.20
+   */
+  public interface Statistics extends Introspection
+  {
+    /**
+     * Returns the number of buffers that had to be newly allocated because no pooled buffer was available.
+     */
+    public long getAllocatedBuffers();
+
+    /**
+     * Returns the number of buffers that have been provided from the pool, without being newly allocated.
+     */
+    public long getPoolHits();
+
+    /**
+     * Returns the number of buffers that have been provided by this pool and are not retained, yet.
+     */
+    public int getBuffersInUse();
+
+    /**
+     * Returns the total capacity of the buffers that have been provided by this pool and are not retained, yet.
+     */
+    public long getBytesInUse();
+
+    /**
+     * Returns the number of buffers that have been garbage collected without being retained to this pool.
+     * Leaks are only detected if the system property <code>org.eclipse.net4j.buffer.leakDetection</code> is set to
+     * <code>true</code>.
+     */
+    public long getLeakedBuffers();
+  }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2011, 2012, 2015 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008, 2011, 2012, 2015, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,8 @@ import org.eclipse.net4j.buffer.BufferOutputStream;
 import org.eclipse.net4j.buffer.IBuffer;
 import org.eclipse.net4j.buffer.IBufferProvider;
 
+import org.eclipse.spi.net4j.InternalChannelMultiplexer.ZeroCopyMultiplexer;
+
 import java.io.OutputStream;
 
 /**
@@ -24,13 +26,27 @@ import java.io.OutputStream;
  */
 public class ChannelOutputStream extends BufferOutputStream
 {
+  private final IChannel channel;
+
   public ChannelOutputStream(IChannel channel)
   {
     super(channel, channel.getID());
+    this.channel = channel;
   }
 
   public ChannelOutputStream(IChannel channel, IBufferProvider bufferProvider)
   {
     super(channel, bufferProvider, channel == null ? IBuffer.NO_CHANNEL : channel.getID());
+    this.channel = channel;
+  }
+
+  /**
+   * @since 4.20
+   */
+  @Override
+  protected boolean isZeroCopy()
+  {
+    IChannelMultiplexer multiplexer = channel == null ? null : channel.getMultiplexer();
+    return multiplexer instanceof ZeroCopyMultiplexer && ((ZeroCopyMultiplexer)multiplexer).isZeroCopy();
   }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006-2013, 2015, 2016, 2018-2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2006-2013, 2015, 2016, 2018-2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -303,13 +303,13 @@ public abstract class Signal implements Runnable
 
   protected InputStream wrapInputStream(InputStream in) throws IOException
   {
-    currentStream = getProtocol().wrapInputStream(in);
+    currentStream = getProtocol().wrapInputStream(this, in);
     return (InputStream)currentStream;
   }
 
   protected OutputStream wrapOutputStream(OutputStream out) throws IOException
   {
-    currentStream = getProtocol().wrapOutputStream(out);
+    currentStream = getProtocol().wrapOutputStream(this, out);
     return (OutputStream)currentStream;
   }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006-2016, 2018-2021 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2006-2016, 2018-2021, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.net4j.buffer.IBufferProvider;
 import org.eclipse.net4j.channel.ChannelOutputStream;
 import org.eclipse.net4j.channel.IChannel;
 import org.eclipse.net4j.connector.IConnector;
+import org.eclipse.net4j.signal.wrapping.ISignalStreamWrapper;
 import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.net4j.util.event.Event;
 import org.eclipse.net4j.util.event.IEvent;
@@ -32,6 +33,7 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 
 import org.eclipse.internal.net4j.bundle.OM;
 
+import org.eclipse.spi.net4j.Channel;
 import org.eclipse.spi.net4j.Protocol;
 
 import java.io.IOException;
@@ -86,6 +88,21 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
    */
   public static final short SIGNAL_ACKNOWLEDGE_COMPRESSED_STRINGS = -5;
 
+  /**
+   * @since 4.20
+   */
+  public static final int DEFAULT_SEND_WEIGHT = 1;
+
+  /**
+   * @since 4.20
+   */
+  public static final int DEFAULT_BULK_SIGNAL_BUFFERS = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.signal.SignalProtocol.bulkSignalBuffers", 4);
+
+  /**
+   * @since 4.20
+   */
+  public static final int DEFAULT_SEND_WINDOW = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.signal.SignalProtocol.sendWindow", 8);
+
   /**
    * Begin Of Signal.
    */
@@ -108,6 +125,12 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
 
   private long timeout = DEFAULT_TIMEOUT;
 
+  private int sendWeight = DEFAULT_SEND_WEIGHT;
+
+  private int bulkSignalBuffers = DEFAULT_BULK_SIGNAL_BUFFERS;
+
+  private int sendWindow = DEFAULT_SEND_WINDOW;
+
   private IStreamWrapper streamWrapper;
 
   private Map<Integer, Signal> signals = new HashMap<>();
@@ -180,6 +203,75 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
     return timeoutSent;
   }
 
+  /**
+   * Returns how many buffers of this protocol's channel the connector sends in a row before it turns to the next
+   * channel with pending buffers.
+   *
+   * @since 4.20
+   */
+  public int getSendWeight()
+  {
+    return sendWeight;
+  }
+
+  /**
+   * Sets how many buffers of this protocol's channel the connector sends in a row before it turns to the next channel
+   * with pending buffers. Protocols with short, latency-sensitive signals can use a weight greater than
+   * {@link #DEFAULT_SEND_WEIGHT 1} to be favoured over protocols that transfer bulk data on the same connector.
+   *
+   * @since 4.20
+   */
+  public void setSendWeight(int sendWeight)
+  {
+    if (sendWeight < 1)
+    {
+      throw new IllegalArgumentException("sendWeight < 1"); //$NON-NLS-1$
+    }
+
+    this.sendWeight = sendWeight;
+  }
+
+  /**
+   * Returns the number of buffers after which a signal is considered a bulk signal that's subject to the
+   * {@link #getSendWindow() send window}.
+   *
+   * @since 4.20
+   */
+  public int getBulkSignalBuffers()
+  {
+    return bulkSignalBuffers;
+  }
+
+  /**
+   * @since 4.20
+   */
+  public void setBulkSignalBuffers(int bulkSignalBuffers)
+  {
+    this.bulkSignalBuffers = bulkSignalBuffers;
+  }
+
+  /**
+   * Returns the maximum number of buffers in the send queue of this protocol's channel beyond which a
+   * {@link #getBulkSignalBuffers() bulk signal} waits for the connector to send some of them, or <code>0</code> if bulk
+   * signals are not flow-controlled.
+   * <p>
+   * Short signals are never blocked; they can always be enqueued behind at most one send window of bulk data.
+   *
+   * @since 4.20
+   */
+  public int getSendWindow()
+  {
+    return sendWindow;
+  }
+
+  /**
+   * @since 4.20
+   */
+  public void setSendWindow(int sendWindow)
+  {
+    this.sendWindow = sendWindow;
+  }
+
   @Override
   public IStreamWrapper getStreamWrapper()
   {
@@ -499,9 +591,13 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
     return correlationID;
   }
 
-  InputStream wrapInputStream(InputStream in) throws IOException
+  InputStream wrapInputStream(Signal signal, InputStream in) throws IOException
   {
-    if (streamWrapper != null)
+    if (streamWrapper instanceof ISignalStreamWrapper)
+    {
+      in = ((ISignalStreamWrapper)streamWrapper).wrapInputStream(signal.getID(), in);
+    }
+    else if (streamWrapper != null)
     {
       in = streamWrapper.wrapInputStream(in);
     }
@@ -509,9 +605,13 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
     return in;
   }
 
-  OutputStream wrapOutputStream(OutputStream out) throws IOException
+  OutputStream wrapOutputStream(Signal signal, OutputStream out) throws IOException
   {
-    if (streamWrapper != null)
+    if (streamWrapper instanceof ISignalStreamWrapper)
+    {
+      out = ((ISignalStreamWrapper)streamWrapper).wrapOutputStream(signal.getID(), out);
+    }
+    else if (streamWrapper != null)
     {
       out = streamWrapper.wrapOutputStream(out);
     }
@@ -796,6 +896,8 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
 
         private boolean addSignalID = request;
 
+        private int providedBuffers;
+
         @Override
         public short getBufferCapacity()
         {
@@ -811,6 +913,11 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
             throw new IORuntimeException("No channel for protocol " + SignalProtocol.this); //$NON-NLS-1$
           }
 
+          if (++providedBuffers > bulkSignalBuffers && sendWindow > 0 && channel instanceof Channel)
+          {
+            waitForSendCredit((Channel)channel);
+          }
+
           IBuffer buffer = delegate.provideBuffer();
           ByteBuffer byteBuffer = buffer.startPutting(channel.getID());
 
@@ -838,6 +945,22 @@ public class SignalProtocol<INFRA_STRUCTURE> extends Protocol<INFRA_STRUCTURE> i
         {
           delegate.retainBuffer(buffer);
         }
+
+        private void waitForSendCredit(Channel channel)
+        {
+          try
+          {
+            if (!channel.waitForSendCredit(sendWindow, getTimeout()) && !channel.isClosed())
+            {
+              throw new IORuntimeException("Timeout while waiting for send credit on " + channel); //$NON-NLS-1$
+            }
+          }
+          catch (InterruptedException ex)
+          {
+            Thread.currentThread().interrupt();
+            throw new IORuntimeException(ex);
+          }
+        }
       });
     }
   }
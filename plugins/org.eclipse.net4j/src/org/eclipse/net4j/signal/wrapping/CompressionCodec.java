@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.signal.wrapping;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A block compression algorithm of a {@link CompressionStreamWrapper}.
+ * <p>
+ * Each codec has a unique {@link #getID() ID} between {@link #MIN_ID} and {@link #MAX_ID}, so that the codecs that a
+ * peer supports fit into the single byte that starts a compressed stream.
+ *
+ * @author Eike Stepper
+ * @since 4.20
+ */
+public abstract class CompressionCodec
+{
+  public static final int MIN_ID = 2;
+
+  public static final int MAX_ID = 7;
+
+  /**
+   * A codec that uses the fastest level of the deflate algorithm of the JDK.
+   */
+  public static final CompressionCodec DEFLATE = new Deflate(2, "deflate", Deflater.BEST_SPEED); //$NON-NLS-1$
+
+  private final int id;
+
+  private final String name;
+
+  protected CompressionCodec(int id, String name)
+  {
+    if (id < MIN_ID || id > MAX_ID)
+    {
+      throw new IllegalArgumentException("Illegal codec ID: " + id); //$NON-NLS-1$
+    }
+
+    this.id = id;
+    this.name = name;
+  }
+
+  public final int getID()
+  {
+    return id;
+  }
+
+  public final String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Creates a compressor for the blocks of one stream. The caller must {@link Compressor#end() end} it when the stream
+   * is finished.
+   */
+  public abstract Compressor createCompressor();
+
+  /**
+   * Creates a decompressor for the blocks of one stream. The caller must {@link Decompressor#end() end} it when the
+   * stream is finished.
+   */
+  public abstract Decompressor createDecompressor();
+
+  @Override
+  public String toString()
+  {
+    return name;
+  }
+
+  /**
+   * Compresses the blocks of one stream.
+   *
+   * @author Eike Stepper
+   */
+  public interface Compressor
+  {
+    /**
+     * Compresses the first <code>length</code> bytes of <code>src</code> into <code>dst</code>.
+     *
+     * @return the number of compressed bytes in <code>dst</code>, or <code>-1</code> if the compressed bytes don't fit
+     *         into <code>dst</code>.
+     */
+    public int compress(byte[] src, int length, byte[] dst) throws IOException;
+
+    /**
+     * Releases the resources of this compressor.
+     */
+    public void end();
+  }
+
+  /**
+   * Decompresses the blocks of one stream.
+   *
+   * @author Eike Stepper
+   */
+  public interface Decompressor
+  {
+    /**
+     * Decompresses the first <code>length</code> bytes of <code>src</code> into exactly <code>dstLength</code> bytes of
+     * <code>dst</code>.
+     */
+    public void decompress(byte[] src, int length, byte[] dst, int dstLength) throws IOException;
+
+    /**
+     * Releases the resources of this decompressor.
+     */
+    public void end();
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class Deflate extends CompressionCodec
+  {
+    private final int level;
+
+    public Deflate(int id, String name, int level)
+    {
+      super(id, name);
+      this.level = level;
+    }
+
+    @Override
+    public Compressor createCompressor()
+    {
+      return new DeflateCompressor(new Deflater(level));
+    }
+
+    @Override
+    public Decompressor createDecompressor()
+    {
+      return new DeflateDecompressor(new Inflater());
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class DeflateCompressor implements Compressor
+  {
+    private final Deflater deflater;
+
+    public DeflateCompressor(Deflater deflater)
+    {
+      this.deflater = deflater;
+    }
+
+    @Override
+    public int compress(byte[] src, int length, byte[] dst) throws IOException
+    {
+      deflater.reset();
+      deflater.setInput(src, 0, length);
+      deflater.finish();
+
+      int compressedLength = deflater.deflate(dst);
+      if (!deflater.finished())
+      {
+        return -1;
+      }
+
+      return compressedLength;
+    }
+
+    @Override
+    public void end()
+    {
+      deflater.end();
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class DeflateDecompressor implements Decompressor
+  {
+    private final Inflater inflater;
+
+    public DeflateDecompressor(Inflater inflater)
+    {
+      this.inflater = inflater;
+    }
+
+    @Override
+    public void decompress(byte[] src, int length, byte[] dst, int dstLength) throws IOException
+    {
+      inflater.reset();
+      inflater.setInput(src, 0, length);
+
+      try
+      {
+        int n = 0;
+        while (n < dstLength && !inflater.finished())
+        {
+          int inflated = inflater.inflate(dst, n, dstLength - n);
+          if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          {
+            break;
+          }
+
+          n += inflated;
+        }
+
+        if (n != dstLength)
+        {
+          throw new IOException("Corrupt compressed block: " + n + " of " + dstLength + " bytes"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+      }
+      catch (DataFormatException ex)
+      {
+        throw new IOException(ex);
+      }
+    }
+
+    @Override
+    public void end()
+    {
+      inflater.end();
+    }
+  }
+}
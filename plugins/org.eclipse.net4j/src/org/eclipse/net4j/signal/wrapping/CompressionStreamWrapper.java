@@ -0,0 +1,735 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.signal.wrapping;
+
+import org.eclipse.net4j.signal.wrapping.CompressionCodec.Compressor;
+import org.eclipse.net4j.signal.wrapping.CompressionCodec.Decompressor;
+import org.eclipse.net4j.util.om.OMPlatform;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ISignalStreamWrapper stream wrapper} that compresses the streams of signals in blocks.
+ * <p>
+ * Each stream starts with a byte that tells the peer which {@link CompressionCodec codecs} the sender supports. A
+ * wrapper compresses its output with the first of its codecs that the peer supports, as soon as it has read a stream
+ * from the peer. Until then, and for all streams whose payload is smaller than the {@link #getThreshold() threshold},
+ * the blocks are sent raw. Blocks that don't shrink are sent raw, too.
+ * <p>
+ * A wrapper learns about its peer, so it must not be shared between protocols. Use a
+ * {@link CompressionStreamWrapperInjector} to inject a new wrapper into each protocol. The peer protocols must be
+ * wrapped by compression stream wrappers, too.
+ * <p>
+ * The blocks of a stream are never larger than the {@link #getBlockSize() block size}, and the peers must use the same
+ * block size. A stream with larger blocks is rejected as corrupt. Each stream uses its own compressor and
+ * decompressor, which are ended when the stream is finished.
+ * <p>
+ * The wrapper keeps {@link #getStatistics() statistics} about the compression ratio and the CPU time of each signal
+ * type.
+ *
+ * @author Eike Stepper
+ * @since 4.20
+ */
+public class CompressionStreamWrapper implements ISignalStreamWrapper
+{
+  public static final int DEFAULT_THRESHOLD = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.signal.wrapping.CompressionStreamWrapper.threshold", 4096);
+
+  public static final int DEFAULT_BLOCK_SIZE = OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.signal.wrapping.CompressionStreamWrapper.blockSize", 65536);
+
+  /**
+   * The signal ID under which the statistics of streams are recorded that are not wrapped through
+   * {@link #wrapInputStream(short, InputStream)} or {@link #wrapOutputStream(short, OutputStream)}.
+   */
+  public static final short UNKNOWN_SIGNAL_ID = 0;
+
+  private static final int END_BLOCK = 0;
+
+  private static final int RAW_BLOCK = 1;
+
+  private static final int INITIAL_BUFFER_SIZE = 512;
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final int threshold;
+
+  private final int blockSize;
+
+  private final CompressionCodec[] codecs;
+
+  private final int codecMask;
+
+  private final Map<Short, Statistics> statistics = new ConcurrentHashMap<>();
+
+  private volatile int peerCodecMask;
+
+  public CompressionStreamWrapper(int threshold, int blockSize, CompressionCodec... codecs)
+  {
+    if (blockSize < 1)
+    {
+      throw new IllegalArgumentException("blockSize < 1"); //$NON-NLS-1$
+    }
+
+    this.threshold = threshold;
+    this.blockSize = blockSize;
+    this.codecs = codecs.clone();
+
+    int mask = 0;
+    for (CompressionCodec codec : codecs)
+    {
+      mask |= 1 << codec.getID();
+    }
+
+    codecMask = mask;
+  }
+
+  public CompressionStreamWrapper()
+  {
+    this(DEFAULT_THRESHOLD, DEFAULT_BLOCK_SIZE, CompressionCodec.DEFLATE);
+  }
+
+  /**
+   * Returns the minimum payload size of a stream to be compressed.
+   */
+  public int getThreshold()
+  {
+    return threshold;
+  }
+
+  public int getBlockSize()
+  {
+    return blockSize;
+  }
+
+  public CompressionCodec[] getCodecs()
+  {
+    return codecs.clone();
+  }
+
+  /**
+   * Returns the codec that this wrapper uses to compress its output, or <code>null</code> if no stream has been read
+   * from the peer, yet, or if the peer supports none of the codecs of this wrapper.
+   */
+  public CompressionCodec getNegotiatedCodec()
+  {
+    int mask = peerCodecMask;
+    if (mask != 0)
+    {
+      for (CompressionCodec codec : codecs)
+      {
+        if ((mask & 1 << codec.getID()) != 0)
+        {
+          return codec;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the statistics of all signal types, keyed by signal ID.
+   */
+  public Map<Short, Statistics> getStatistics()
+  {
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  public Statistics getStatistics(short signalID)
+  {
+    return statistics.computeIfAbsent(signalID, Statistics::new);
+  }
+
+  @Override
+  public InputStream wrapInputStream(InputStream in) throws IOException
+  {
+    return wrapInputStream(UNKNOWN_SIGNAL_ID, in);
+  }
+
+  @Override
+  public OutputStream wrapOutputStream(OutputStream out) throws IOException
+  {
+    return wrapOutputStream(UNKNOWN_SIGNAL_ID, out);
+  }
+
+  @Override
+  public InputStream wrapInputStream(short signalID, InputStream in) throws IOException
+  {
+    return new DecompressingInputStream(in, getStatistics(signalID));
+  }
+
+  @Override
+  public OutputStream wrapOutputStream(short signalID, OutputStream out) throws IOException
+  {
+    return new CompressingOutputStream(out, getStatistics(signalID), getNegotiatedCodec());
+  }
+
+  @Override
+  public void finishInputStream(InputStream in) throws IOException
+  {
+    if (in instanceof DecompressingInputStream)
+    {
+      ((DecompressingInputStream)in).end();
+    }
+  }
+
+  @Override
+  public void finishOutputStream(OutputStream out) throws IOException
+  {
+    if (out instanceof CompressingOutputStream)
+    {
+      ((CompressingOutputStream)out).finish();
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "CompressionStreamWrapper[threshold=" + threshold + ", blockSize=" + blockSize + ", codec=" + getNegotiatedCodec() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+  }
+
+  private CompressionCodec getCodec(int id)
+  {
+    for (CompressionCodec codec : codecs)
+    {
+      if (codec.getID() == id)
+      {
+        return codec;
+      }
+    }
+
+    return null;
+  }
+
+  private static long getCPUTime()
+  {
+    if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported())
+    {
+      return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+
+    return System.nanoTime();
+  }
+
+  /**
+   * The compression statistics of one signal type.
+   *
+   * @author Eike Stepper
+   */
+  public static final class Statistics
+  {
+    private final short signalID;
+
+    private final AtomicLong writtenStreams = new AtomicLong();
+
+    private final AtomicLong compressedBlocks = new AtomicLong();
+
+    private final AtomicLong rawBytes = new AtomicLong();
+
+    private final AtomicLong wireBytes = new AtomicLong();
+
+    private final AtomicLong compressionTime = new AtomicLong();
+
+    private final AtomicLong readStreams = new AtomicLong();
+
+    private final AtomicLong decompressionTime = new AtomicLong();
+
+    private Statistics(short signalID)
+    {
+      this.signalID = signalID;
+    }
+
+    public short getSignalID()
+    {
+      return signalID;
+    }
+
+    public long getWrittenStreams()
+    {
+      return writtenStreams.get();
+    }
+
+    public long getCompressedBlocks()
+    {
+      return compressedBlocks.get();
+    }
+
+    /**
+     * Returns the number of payload bytes that have been written.
+     */
+    public long getRawBytes()
+    {
+      return rawBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes that have been written to the wire, including the block headers.
+     */
+    public long getWireBytes()
+    {
+      return wireBytes.get();
+    }
+
+    /**
+     * Returns the ratio of the {@link #getWireBytes() wire bytes} to the {@link #getRawBytes() raw bytes}.
+     */
+    public double getCompressionRatio()
+    {
+      long raw = rawBytes.get();
+      return raw == 0 ? 1.0d : (double)wireBytes.get() / raw;
+    }
+
+    /**
+     * Returns the CPU time in nanoseconds that has been spent to compress the written streams.
+     */
+    public long getCompressionTime()
+    {
+      return compressionTime.get();
+    }
+
+    public long getReadStreams()
+    {
+      return readStreams.get();
+    }
+
+    /**
+     * Returns the CPU time in nanoseconds that has been spent to decompress the read streams.
+     */
+    public long getDecompressionTime()
+    {
+      return decompressionTime.get();
+    }
+
+    @Override
+    public String toString()
+    {
+      return "Statistics[signalID=" + signalID + ", writtenStreams=" + getWrittenStreams() + ", compressedBlocks=" + getCompressedBlocks() + ", rawBytes=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+          + getRawBytes() + ", wireBytes=" + getWireBytes() + ", ratio=" + getCompressionRatio() + ", compressionTime=" + getCompressionTime() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+          + ", readStreams=" + getReadStreams() + ", decompressionTime=" + getDecompressionTime() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class CompressingOutputStream extends OutputStream
+  {
+    private final OutputStream out;
+
+    private final Statistics statistics;
+
+    private final CompressionCodec codec;
+
+    private byte[] buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, blockSize)];
+
+    private int count;
+
+    private Compressor compressor;
+
+    private byte[] compressedBuffer;
+
+    private long rawBytes;
+
+    private long wireBytes;
+
+    private long compressedBlocks;
+
+    private long compressionTime;
+
+    private boolean finished;
+
+    public CompressingOutputStream(OutputStream out, Statistics statistics, CompressionCodec codec) throws IOException
+    {
+      this.out = out;
+      this.statistics = statistics;
+      this.codec = codec;
+
+      out.write(codecMask);
+      wireBytes = 1;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+      ensureCapacity(count + 1);
+      buffer[count++] = (byte)b;
+
+      if (count == blockSize)
+      {
+        writeBlock();
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+      while (len > 0)
+      {
+        int n = Math.min(len, blockSize - count);
+        ensureCapacity(count + n);
+        System.arraycopy(b, off, buffer, count, n);
+        count += n;
+        off += n;
+        len -= n;
+
+        if (count == blockSize)
+        {
+          writeBlock();
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+      writeBlock();
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      try
+      {
+        finish();
+      }
+      finally
+      {
+        out.close();
+      }
+    }
+
+    public void finish() throws IOException
+    {
+      if (!finished)
+      {
+        finished = true;
+
+        try
+        {
+          writeBlock();
+          out.write(END_BLOCK);
+          ++wireBytes;
+        }
+        finally
+        {
+          if (compressor != null)
+          {
+            compressor.end();
+            compressor = null;
+          }
+        }
+
+        statistics.writtenStreams.incrementAndGet();
+        statistics.compressedBlocks.addAndGet(compressedBlocks);
+        statistics.rawBytes.addAndGet(rawBytes);
+        statistics.wireBytes.addAndGet(wireBytes);
+        statistics.compressionTime.addAndGet(compressionTime);
+      }
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+      if (capacity > buffer.length)
+      {
+        int newLength = Math.min(Math.max(capacity, buffer.length << 1), blockSize);
+        byte[] newBuffer = new byte[newLength];
+        System.arraycopy(buffer, 0, newBuffer, 0, count);
+        buffer = newBuffer;
+      }
+    }
+
+    private void writeBlock() throws IOException
+    {
+      if (count == 0)
+      {
+        return;
+      }
+
+      if (codec != null && rawBytes + count >= threshold)
+      {
+        if (compressor == null)
+        {
+          compressor = codec.createCompressor();
+          compressedBuffer = new byte[blockSize];
+        }
+
+        long start = getCPUTime();
+        int compressedLength = compressor.compress(buffer, count, compressedBuffer);
+        compressionTime += getCPUTime() - start;
+
+        if (compressedLength > 0 && compressedLength + 4 < count)
+        {
+          out.write(codec.getID());
+          writeInt(count);
+          writeInt(compressedLength);
+          out.write(compressedBuffer, 0, compressedLength);
+
+          wireBytes += 9 + compressedLength;
+          rawBytes += count;
+          ++compressedBlocks;
+          count = 0;
+          return;
+        }
+      }
+
+      out.write(RAW_BLOCK);
+      writeInt(count);
+      out.write(buffer, 0, count);
+
+      wireBytes += 5 + count;
+      rawBytes += count;
+      count = 0;
+    }
+
+    private void writeInt(int value) throws IOException
+    {
+      out.write(value >>> 24);
+      out.write(value >>> 16);
+      out.write(value >>> 8);
+      out.write(value);
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class DecompressingInputStream extends InputStream
+  {
+    private final InputStream in;
+
+    private final Statistics statistics;
+
+    private byte[] buffer = new byte[0];
+
+    private int pos;
+
+    private int limit;
+
+    private byte[] compressedBuffer;
+
+    private CompressionCodec codec;
+
+    private Decompressor decompressor;
+
+    private boolean started;
+
+    private boolean finished;
+
+    public DecompressingInputStream(InputStream in, Statistics statistics)
+    {
+      this.in = in;
+      this.statistics = statistics;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+      if (pos == limit && !readBlock())
+      {
+        return -1;
+      }
+
+      return buffer[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+      if (len == 0)
+      {
+        return 0;
+      }
+
+      if (pos == limit && !readBlock())
+      {
+        return -1;
+      }
+
+      int n = Math.min(len, limit - pos);
+      System.arraycopy(buffer, pos, b, off, n);
+      pos += n;
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+      return limit - pos;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      try
+      {
+        end();
+      }
+      finally
+      {
+        in.close();
+      }
+    }
+
+    public void end()
+    {
+      finished = true;
+
+      if (decompressor != null)
+      {
+        decompressor.end();
+        decompressor = null;
+      }
+    }
+
+    private boolean readBlock() throws IOException
+    {
+      if (finished)
+      {
+        return false;
+      }
+
+      if (!started)
+      {
+        int mask = in.read();
+        if (mask == -1)
+        {
+          finished = true;
+          return false;
+        }
+
+        peerCodecMask = mask;
+        started = true;
+        statistics.readStreams.incrementAndGet();
+      }
+
+      for (;;)
+      {
+        int type = in.read();
+        if (type == -1)
+        {
+          throw new EOFException();
+        }
+
+        if (type == END_BLOCK)
+        {
+          end();
+          return false;
+        }
+
+        // The lengths are checked before anything is allocated for them.
+        int length = readLength(blockSize);
+        if (length > buffer.length)
+        {
+          buffer = new byte[length];
+        }
+
+        if (type == RAW_BLOCK)
+        {
+          readFully(buffer, length);
+        }
+        else
+        {
+          Decompressor decompressor = getDecompressor(type);
+
+          // A block is only sent compressed if that makes it smaller.
+          int compressedLength = readLength(length);
+          if (compressedBuffer == null || compressedLength > compressedBuffer.length)
+          {
+            compressedBuffer = new byte[compressedLength];
+          }
+
+          readFully(compressedBuffer, compressedLength);
+
+          long start = getCPUTime();
+          decompressor.decompress(compressedBuffer, compressedLength, buffer, length);
+          statistics.decompressionTime.addAndGet(getCPUTime() - start);
+        }
+
+        pos = 0;
+        limit = length;
+
+        if (length != 0)
+        {
+          return true;
+        }
+      }
+    }
+
+    private Decompressor getDecompressor(int type) throws IOException
+    {
+      if (codec == null)
+      {
+        codec = getCodec(type);
+        if (codec == null)
+        {
+          throw new IOException("Unknown compression codec: " + type); //$NON-NLS-1$
+        }
+
+        decompressor = codec.createDecompressor();
+      }
+      else if (codec.getID() != type)
+      {
+        throw new IOException("Compression codec changed within a stream: " + type); //$NON-NLS-1$
+      }
+
+      return decompressor;
+    }
+
+    private int readLength(int maxLength) throws IOException
+    {
+      int length = readInt();
+      if (length < 0 || length > maxLength)
+      {
+        throw new IOException("Illegal block length: " + length + " (maximum " + maxLength + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+      }
+
+      return length;
+    }
+
+    private int readInt() throws IOException
+    {
+      int b1 = in.read();
+      int b2 = in.read();
+      int b3 = in.read();
+      int b4 = in.read();
+      if ((b1 | b2 | b3 | b4) < 0)
+      {
+        throw new EOFException();
+      }
+
+      return b1 << 24 | b2 << 16 | b3 << 8 | b4;
+    }
+
+    private void readFully(byte[] b, int len) throws IOException
+    {
+      int off = 0;
+      while (off < len)
+      {
+        int n = in.read(b, off, len - off);
+        if (n == -1)
+        {
+          throw new EOFException();
+        }
+
+        off += n;
+      }
+    }
+  }
+}
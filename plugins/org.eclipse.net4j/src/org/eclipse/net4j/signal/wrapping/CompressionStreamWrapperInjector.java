@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.signal.wrapping;
+
+import org.eclipse.net4j.signal.SignalProtocol;
+import org.eclipse.net4j.util.ObjectUtil;
+import org.eclipse.net4j.util.StringUtil;
+import org.eclipse.net4j.util.container.IManagedContainer;
+import org.eclipse.net4j.util.io.StreamWrapperChain;
+
+/**
+ * An {@link StreamWrapperInjector injector} that injects a new {@link CompressionStreamWrapper} instance into each
+ * matching protocol.
+ *
+ * @author Eike Stepper
+ * @since 4.20
+ */
+public class CompressionStreamWrapperInjector extends StreamWrapperInjector
+{
+  public CompressionStreamWrapperInjector(String protocolID)
+  {
+    super(protocolID, null);
+  }
+
+  @Override
+  protected boolean shouldInject(IManagedContainer container, String productGroup, String factoryType, String description, SignalProtocol<?> signalProtocol)
+  {
+    if (signalProtocol.getStreamWrapper() instanceof CompressionStreamWrapper || signalProtocol.getStreamWrapper() instanceof StreamWrapperChain
+        && ((StreamWrapperChain)signalProtocol.getStreamWrapper()).getHead() instanceof CompressionStreamWrapper)
+    {
+      return false;
+    }
+
+    String protocolID = getProtocolID();
+    return StringUtil.isEmpty(protocolID) || ObjectUtil.equals(signalProtocol.getType(), protocolID);
+  }
+
+  @Override
+  protected Object inject(IManagedContainer container, String productGroup, String factoryType, String description, SignalProtocol<?> signalProtocol)
+  {
+    signalProtocol.addStreamWrapper(createStreamWrapper(signalProtocol));
+    return signalProtocol;
+  }
+
+  protected CompressionStreamWrapper createStreamWrapper(SignalProtocol<?> signalProtocol)
+  {
+    return new CompressionStreamWrapper();
+  }
+}
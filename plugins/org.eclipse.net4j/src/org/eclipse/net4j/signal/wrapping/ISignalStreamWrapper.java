@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024 Eike Stepper (Loehne, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.signal.wrapping;
+
+import org.eclipse.net4j.signal.SignalProtocol;
+import org.eclipse.net4j.util.io.IStreamWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@link IStreamWrapper stream wrapper} that a {@link SignalProtocol signal protocol} tells which signal the wrapped
+ * streams belong to.
+ *
+ * @author Eike Stepper
+ * @since 4.20
+ */
+public interface ISignalStreamWrapper extends IStreamWrapper
+{
+  public InputStream wrapInputStream(short signalID, InputStream in) throws IOException;
+
+  public OutputStream wrapOutputStream(short signalID, OutputStream out) throws IOException;
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2013, 2015, 2016, 2018-2021, 2023 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008-2013, 2015, 2016, 2018-2021, 2023, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.net4j.buffer.IBufferHandler;
 import org.eclipse.net4j.channel.ChannelException;
 import org.eclipse.net4j.channel.IChannelMultiplexer;
 import org.eclipse.net4j.protocol.IProtocol;
+import org.eclipse.net4j.signal.SignalProtocol;
 import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
 import org.eclipse.net4j.util.concurrent.IExecutorServiceProvider;
 import org.eclipse.net4j.util.concurrent.RunnableWithName;
@@ -72,6 +73,10 @@ public class Channel extends Lifecycle implements InternalChannel, IExecutorServ
 
   private transient long receivedBytes;
 
+  private final transient Object sendCreditLock = new Object();
+
+  private transient volatile int sendCreditWaiters;
+
   public Channel()
   {
   }
@@ -216,6 +221,80 @@ public class Channel extends Lifecycle implements InternalChannel, IExecutorServ
     return sendQueue;
   }
 
+  /**
+   * Returns how many buffers of this channel a multiplexer sends in a row before it turns to the next channel.
+   *
+   * @see SignalProtocol#getSendWeight()
+   * @since 4.20
+   */
+  public int getSendWeight()
+  {
+    if (receiveHandler instanceof SignalProtocol)
+    {
+      return ((SignalProtocol<?>)receiveHandler).getSendWeight();
+    }
+
+    return 1;
+  }
+
+  /**
+   * Blocks the calling thread while the send queue of this channel holds <code>sendWindow</code> or more buffers. Each
+   * buffer that the multiplexer takes from the send queue returns a credit.
+   * <p>
+   * Producers of bulk transfers call this method before they provide another buffer, so that they can't flood the send
+   * queue and delay the buffers of other signals on this channel.
+   *
+   * @param timeout the maximum time to wait in milliseconds, or a negative value to wait until a credit is available.
+   * @return <code>true</code> if the send queue has room for another buffer, <code>false</code> if the timeout has
+   *         expired or this channel has been closed.
+   * @since 4.20
+   */
+  public boolean waitForSendCredit(int sendWindow, long timeout) throws InterruptedException
+  {
+    if (sendWindow <= 0 || !(sendQueue instanceof SendQueue))
+    {
+      return true;
+    }
+
+    SendQueue queue = (SendQueue)sendQueue;
+    if (queue.size.get() < sendWindow)
+    {
+      return true;
+    }
+
+    long deadline = timeout < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+
+    synchronized (sendCreditLock)
+    {
+      ++sendCreditWaiters;
+
+      try
+      {
+        while (queue.size.get() >= sendWindow)
+        {
+          if (isClosed())
+          {
+            return false;
+          }
+
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0L)
+          {
+            return false;
+          }
+
+          sendCreditLock.wait(remaining);
+        }
+
+        return true;
+      }
+      finally
+      {
+        --sendCreditWaiters;
+      }
+    }
+  }
+
   @Override
   public void sendBuffer(IBuffer buffer)
   {
@@ -410,6 +489,8 @@ public class Channel extends Lifecycle implements InternalChannel, IExecutorServ
       sendQueue = null;
     }
 
+    notifySendCreditWaiters();
+
     super.doDeactivate();
   }
 
@@ -435,6 +516,17 @@ public class Channel extends Lifecycle implements InternalChannel, IExecutorServ
     checkState(id != IBuffer.NO_CHANNEL, "channelID == NO_CHANNEL"); //$NON-NLS-1$
   }
 
+  private void notifySendCreditWaiters()
+  {
+    if (sendCreditWaiters != 0)
+    {
+      synchronized (sendCreditLock)
+      {
+        sendCreditLock.notifyAll();
+      }
+    }
+  }
+
   private void fireCountersChangedEvent()
   {
     IListener[] listeners = getListeners();
@@ -575,6 +667,8 @@ public class Channel extends Lifecycle implements InternalChannel, IExecutorServ
     private void removed(IBuffer buffer)
     {
       int queueSize = size.decrementAndGet();
+      notifySendCreditWaiters();
+
       IListener[] listeners = getListeners();
       if (listeners.length != 0)
       {
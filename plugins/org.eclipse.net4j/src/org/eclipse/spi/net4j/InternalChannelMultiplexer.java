@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2009, 2011, 2012, 2016, 2019-2022 Eike Stepper (Loehne, Germany) and others.
+ * Copyright (c) 2008, 2009, 2011, 2012, 2016, 2019-2022, 2024 Eike Stepper (Loehne, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -63,4 +63,19 @@ public interface InternalChannelMultiplexer extends IChannelMultiplexer, IBuffer
      */
     public void multiplexBuffer(InternalChannel channel, IBuffer buffer);
   }
+
+  /**
+   * A {@link InternalChannelMultiplexer multiplexer} that writes the {@link IBuffer buffers} of its channels to a
+   * {@link java.nio.channels.SocketChannel socket channel} by calling {@link IBuffer#write(java.nio.channels.SocketChannel)}
+   * without transforming them. Such a multiplexer can send regions of files that are
+   * {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long) mapped} into memory, i.e.,
+   * without copying their contents into buffers.
+   *
+   * @author Eike Stepper
+   * @since 4.20
+   */
+  public interface ZeroCopyMultiplexer
+  {
+    public boolean isZeroCopy();
+  }
 }